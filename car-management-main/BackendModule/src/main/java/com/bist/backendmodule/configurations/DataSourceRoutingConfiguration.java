@@ -0,0 +1,103 @@
+package com.bist.backendmodule.configurations;
+
+import com.bist.backendmodule.datasource.ReplicaRoutingDataSource;
+import com.bist.backendmodule.datasource.ReplicaSelectionStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataSourceRoutingConfiguration class replaces the single primary data source with a routing one
+ * when read replicas are configured with datasource.replica.urls.
+ * The primary keeps the spring.datasource settings; replicas share its credentials unless overridden.
+ * The spring.datasource.hikari pool settings apply to the primary and to every replica.
+ * Replicas are not checked for replication lag, so reads after a write only see it through the primary
+ * for datasource.replica.sticky-window-ms.
+ * The routing data source is wrapped in a lazy connection proxy, so the route is resolved at the first statement
+ * of a transaction rather than when the transaction begins.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "urls")
+public class DataSourceRoutingConfiguration {
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    /**
+     * Creates the routing data source over the primary and the replicas.
+     *
+     * @param dataSourceProperties      The spring.datasource properties of the primary
+     * @param environment               The environment holding the spring.datasource.hikari pool settings
+     * @param replicaUrls               The JDBC URLs of the replicas
+     * @param replicaUsername           The replica username, or empty to use the primary's
+     * @param replicaPassword           The replica password, or empty to use the primary's
+     * @param strategy                  The replica selection strategy
+     * @param healthCheckIntervalMillis The interval of the replica health checks
+     * @return The routing data source
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             Environment environment,
+                                                             @Value("${datasource.replica.urls}") List<String> replicaUrls,
+                                                             @Value("${datasource.replica.username:}") String replicaUsername,
+                                                             @Value("${datasource.replica.password:}") String replicaPassword,
+                                                             @Value("${datasource.replica.strategy:ROUND_ROBIN}") ReplicaSelectionStrategy strategy,
+                                                             @Value("${datasource.replica.health-check-interval-ms:5000}") long healthCheckIntervalMillis) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        bindPoolSettings(binder, primary);
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            // Pools start on first use, so a replica that is down at startup is only marked unhealthy
+            HikariDataSource replica = new HikariDataSource();
+            bindPoolSettings(binder, replica);
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(replicaUsername.isEmpty() ? dataSourceProperties.determineUsername() : replicaUsername);
+            replica.setPassword(replicaPassword.isEmpty() ? dataSourceProperties.determinePassword() : replicaPassword);
+            replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, strategy, healthCheckIntervalMillis);
+    }
+
+    /**
+     * Applies the spring.datasource.hikari properties to a pool, as Spring Boot does for its single data source.
+     * The pool name, URL and credentials set afterwards take precedence.
+     *
+     * @param binder     The binder of the environment
+     * @param dataSource The pool to configure
+     */
+    private static void bindPoolSettings(Binder binder, HikariDataSource dataSource) {
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+    }
+
+    /**
+     * Exposes the routing data source as the application data source.
+     *
+     * @param replicaRoutingDataSource The routing data source
+     * @return The lazy connection proxy over the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+}
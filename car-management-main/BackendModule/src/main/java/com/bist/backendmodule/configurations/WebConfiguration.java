@@ -1,13 +1,15 @@
 package com.bist.backendmodule.configurations;
 
+import com.bist.backendmodule.modules.car.models.CarField;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 
 /**
- * Configuration class to handle CORS and resource handling settings
+ * Configuration class to handle CORS and request parameter conversion settings.
+ * Uploaded image files are served by the image file controller from the upload directory.
  */
 @Configuration
 public class WebConfiguration implements WebMvcConfigurer {
@@ -28,13 +30,12 @@ public class WebConfiguration implements WebMvcConfigurer {
     }
 
     /**
-     * Configures resource handlers to serve static resources from the corresponding location
+     * Registers the conversion of request parameters to car fields, which accepts their JSON names, e.g. fields=id,price
      *
-     * @param registry ResourceHandlerRegistry to configure
+     * @param registry FormatterRegistry to configure
      */
     @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("classpath:/static/uploads/");
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, CarField.class, CarField::fromValue);
     }
 }
@@ -0,0 +1,9 @@
+package com.bist.backendmodule.datasource;
+
+/**
+ * Targets a unit of work can be routed to.
+ */
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
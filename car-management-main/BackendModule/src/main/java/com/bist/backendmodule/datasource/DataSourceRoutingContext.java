@@ -0,0 +1,34 @@
+package com.bist.backendmodule.datasource;
+
+/**
+ * Holds the data source route of the current thread.
+ * Without a route, connections go to the primary.
+ */
+public final class DataSourceRoutingContext {
+    private static final ThreadLocal<DataSourceRoute> ROUTE = new ThreadLocal<>();
+
+    private DataSourceRoutingContext() {
+    }
+
+    /**
+     * Gets the route of the current thread.
+     *
+     * @return The route, or null if none is set
+     */
+    public static DataSourceRoute get() {
+        return ROUTE.get();
+    }
+
+    /**
+     * Sets the route of the current thread.
+     *
+     * @param route The route, or null to clear it
+     */
+    public static void set(DataSourceRoute route) {
+        if (route == null) {
+            ROUTE.remove();
+        } else {
+            ROUTE.set(route);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.bist.backendmodule.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Data source routing the connections of the current thread to the primary or to one of the read replicas,
+ * depending on the {@link DataSourceRoutingContext}. Replicas are chosen round-robin or by the fewest
+ * connections in use, among those that passed their last health check. A replica failing to hand out a connection
+ * is marked unhealthy until the next successful check, and the connection is taken from the primary instead.
+ * A health check only tests that a replica hands out a valid connection ({@link Connection#isValid}); a replica
+ * lagging behind the primary stays healthy and may serve stale reads.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final String PRIMARY_KEY = "primary";
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReplicaSelectionStrategy strategy;
+    private final AtomicBoolean[] healthy;
+    private final AtomicInteger[] activeConnections;
+    private final AtomicLong nextReplica = new AtomicLong();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaSelectionStrategy strategy, long healthCheckIntervalMillis) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.healthy = new AtomicBoolean[replicas.size()];
+        this.activeConnections = new AtomicInteger[replicas.size()];
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY_KEY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            healthy[i] = new AtomicBoolean(true);
+            activeConnections[i] = new AtomicInteger();
+            targetDataSources.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+
+        if (healthCheckIntervalMillis > 0) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckIntervalMillis, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            healthChecker = null;
+        }
+    }
+
+    /**
+     * Selects the primary, or a healthy replica when the current thread is routed to the replicas.
+     *
+     * @return The primary key or the index of the replica
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (DataSourceRoutingContext.get() != DataSourceRoute.REPLICA) {
+            return PRIMARY_KEY;
+        }
+        int replica = selectReplica();
+        return replica >= 0 ? replica : PRIMARY_KEY;
+    }
+
+    /**
+     * Gets a connection from the selected data source. Connections of a replica are counted while in use,
+     * and a replica failing to connect is marked unhealthy with the primary serving the connection instead.
+     *
+     * @return The connection
+     * @throws SQLException If the primary fails to connect
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (!(key instanceof Integer replica)) {
+            return primary.getConnection();
+        }
+        try {
+            return track(replicas.get(replica).getConnection(), replica);
+        } catch (SQLException e) {
+            markUnhealthy(replica, e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Checks every replica with a connection validity check and updates its health.
+     */
+    public void checkHealth() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                boolean valid = connection.isValid(HEALTH_CHECK_TIMEOUT_SECONDS);
+                if (valid && !healthy[i].getAndSet(true)) {
+                    logger.info("Read replica {} is healthy again", i);
+                } else if (!valid) {
+                    markUnhealthy(i, null);
+                }
+            } catch (SQLException e) {
+                markUnhealthy(i, e);
+            }
+        }
+    }
+
+    /**
+     * Stops the health checks and closes the closeable target data sources.
+     *
+     * @throws Exception If a data source fails to close
+     */
+    @Override
+    public void close() throws Exception {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private int selectReplica() {
+        if (strategy == ReplicaSelectionStrategy.LEAST_CONNECTIONS) {
+            int selected = -1;
+            for (int i = 0; i < replicas.size(); i++) {
+                if (healthy[i].get() && (selected < 0 || activeConnections[i].get() < activeConnections[selected].get())) {
+                    selected = i;
+                }
+            }
+            return selected;
+        }
+        long start = nextReplica.getAndIncrement();
+        for (int offset = 0; offset < replicas.size(); offset++) {
+            int candidate = (int) ((start + offset) % replicas.size());
+            if (healthy[candidate].get()) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private void markUnhealthy(int replica, SQLException cause) {
+        if (healthy[replica].getAndSet(false)) {
+            logger.warn("Read replica {} is unhealthy, routing its reads to the primary: {}", replica,
+                    cause != null ? cause.getMessage() : "connection is not valid");
+        }
+    }
+
+    /**
+     * Counts the connection as in use by the replica until it is closed.
+     */
+    private Connection track(Connection connection, int replica) {
+        activeConnections[replica].incrementAndGet();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && !closed.getAndSet(true)) {
+                        activeConnections[replica].decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
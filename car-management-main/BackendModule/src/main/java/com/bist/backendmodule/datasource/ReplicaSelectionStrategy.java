@@ -0,0 +1,9 @@
+package com.bist.backendmodule.datasource;
+
+/**
+ * Strategies for choosing among the healthy read replicas.
+ */
+public enum ReplicaSelectionStrategy {
+    ROUND_ROBIN,
+    LEAST_CONNECTIONS
+}
@@ -0,0 +1,21 @@
+package com.bist.backendmodule.exceptions;
+
+import com.bist.backendmodule.exceptions.models.CustomBaseException;
+import com.bist.backendmodule.exceptions.models.SimpleResponse;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a batch request has no ids or more ids than allowed.
+ */
+public class BatchRequestNotValidException extends CustomBaseException {
+
+    /**
+     * Constructs a new BatchRequestNotValidException with the specified detail message and class.
+     *
+     * @param message The detail message about why the batch is invalid
+     * @param clazz   The class where the exception occurred
+     */
+    public BatchRequestNotValidException(String message, Class<?> clazz) {
+        super(HttpStatus.BAD_REQUEST, new SimpleResponse(message), clazz);
+    }
+}
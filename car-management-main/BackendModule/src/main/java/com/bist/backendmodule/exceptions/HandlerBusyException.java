@@ -0,0 +1,21 @@
+package com.bist.backendmodule.exceptions;
+
+import com.bist.backendmodule.exceptions.models.CustomBaseException;
+import com.bist.backendmodule.exceptions.models.SimpleResponse;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a handler has too many executions in flight to accept another one in time.
+ */
+public class HandlerBusyException extends CustomBaseException {
+
+    /**
+     * Constructs a new HandlerBusyException with the specified detail message and class.
+     *
+     * @param message The detail message naming the busy handler
+     * @param clazz   The class where the exception occurred
+     */
+    public HandlerBusyException(String message, Class<?> clazz) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, new SimpleResponse(message), clazz);
+    }
+}
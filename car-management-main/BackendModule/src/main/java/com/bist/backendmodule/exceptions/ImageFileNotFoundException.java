@@ -0,0 +1,20 @@
+package com.bist.backendmodule.exceptions;
+
+import com.bist.backendmodule.exceptions.models.CustomBaseException;
+import com.bist.backendmodule.exceptions.models.SimpleResponse;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a requested image file does not exist in the image store.
+ */
+public class ImageFileNotFoundException extends CustomBaseException {
+
+    /**
+     * Constructs a new ImageFileNotFoundException with the specified class.
+     *
+     * @param clazz The class where the exception occurred
+     */
+    public ImageFileNotFoundException(Class<?> clazz) {
+        super(HttpStatus.NOT_FOUND, new SimpleResponse("Image file not found."), clazz);
+    }
+}
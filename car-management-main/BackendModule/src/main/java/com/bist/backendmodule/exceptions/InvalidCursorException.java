@@ -0,0 +1,21 @@
+package com.bist.backendmodule.exceptions;
+
+import com.bist.backendmodule.exceptions.models.CustomBaseException;
+import com.bist.backendmodule.exceptions.models.SimpleResponse;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a pagination cursor or its sort field is invalid.
+ */
+public class InvalidCursorException extends CustomBaseException {
+
+    /**
+     * Constructs a new InvalidCursorException with the specified detail message and class.
+     *
+     * @param message The detail message about why the cursor is invalid
+     * @param clazz   The class where the exception occurred
+     */
+    public InvalidCursorException(String message, Class<?> clazz) {
+        super(HttpStatus.BAD_REQUEST, new SimpleResponse(message), clazz);
+    }
+}
@@ -0,0 +1,21 @@
+package com.bist.backendmodule.exceptions;
+
+import com.bist.backendmodule.exceptions.models.CustomBaseException;
+import com.bist.backendmodule.exceptions.models.SimpleResponse;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when the bucket bounds of a facet request are invalid.
+ */
+public class InvalidFacetBoundsException extends CustomBaseException {
+
+    /**
+     * Constructs a new InvalidFacetBoundsException with the specified detail message and class.
+     *
+     * @param message The detail message about why the bounds are invalid
+     * @param clazz   The class where the exception occurred
+     */
+    public InvalidFacetBoundsException(String message, Class<?> clazz) {
+        super(HttpStatus.BAD_REQUEST, new SimpleResponse(message), clazz);
+    }
+}
@@ -0,0 +1,21 @@
+package com.bist.backendmodule.exceptions;
+
+import com.bist.backendmodule.exceptions.models.CustomBaseException;
+import com.bist.backendmodule.exceptions.models.SimpleResponse;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a sync token is older than the retained deletions, so the client has to sync from scratch.
+ */
+public class SyncTokenExpiredException extends CustomBaseException {
+
+    /**
+     * Constructs a new SyncTokenExpiredException with the specified detail message and class.
+     *
+     * @param message The detail message about the expired token
+     * @param clazz   The class where the exception occurred
+     */
+    public SyncTokenExpiredException(String message, Class<?> clazz) {
+        super(HttpStatus.GONE, new SimpleResponse(message), clazz);
+    }
+}
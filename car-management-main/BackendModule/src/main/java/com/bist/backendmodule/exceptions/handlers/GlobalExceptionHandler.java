@@ -407,4 +407,82 @@ public class GlobalExceptionHandler {
         logger.error(exception.getSimpleResponse().getMessage());
         return ResponseEntity.status(exception.getStatus()).body(exception.getSimpleResponse());
     }
+
+    /**
+     * Handles InvalidCursorException and logs the error.
+     *
+     * @param exception The custom base exception
+     * @return The response entity with the error message and status
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<SimpleResponse> handleInvalidCursorException(CustomBaseException exception) {
+        Logger logger = LoggerFactory.getLogger(exception.getClazz());
+        logger.error(exception.getSimpleResponse().getMessage());
+        return ResponseEntity.status(exception.getStatus()).body(exception.getSimpleResponse());
+    }
+
+    /**
+     * Handles InvalidFacetBoundsException and logs the error.
+     *
+     * @param exception The custom base exception
+     * @return The response entity with the error message and status
+     */
+    @ExceptionHandler(InvalidFacetBoundsException.class)
+    public ResponseEntity<SimpleResponse> handleInvalidFacetBoundsException(CustomBaseException exception) {
+        Logger logger = LoggerFactory.getLogger(exception.getClazz());
+        logger.error(exception.getSimpleResponse().getMessage());
+        return ResponseEntity.status(exception.getStatus()).body(exception.getSimpleResponse());
+    }
+
+    /**
+     * Handles HandlerBusyException and logs the error.
+     *
+     * @param exception The custom base exception
+     * @return The response entity with the error message and status
+     */
+    @ExceptionHandler(HandlerBusyException.class)
+    public ResponseEntity<SimpleResponse> handleHandlerBusyException(CustomBaseException exception) {
+        Logger logger = LoggerFactory.getLogger(exception.getClazz());
+        logger.error(exception.getSimpleResponse().getMessage());
+        return ResponseEntity.status(exception.getStatus()).body(exception.getSimpleResponse());
+    }
+
+    /**
+     * Handles SyncTokenExpiredException and logs the error.
+     *
+     * @param exception The custom base exception
+     * @return The response entity with the error message and status
+     */
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<SimpleResponse> handleSyncTokenExpiredException(CustomBaseException exception) {
+        Logger logger = LoggerFactory.getLogger(exception.getClazz());
+        logger.error(exception.getSimpleResponse().getMessage());
+        return ResponseEntity.status(exception.getStatus()).body(exception.getSimpleResponse());
+    }
+
+    /**
+     * Handles BatchRequestNotValidException and logs the error.
+     *
+     * @param exception The custom base exception
+     * @return The response entity with the error message and status
+     */
+    @ExceptionHandler(BatchRequestNotValidException.class)
+    public ResponseEntity<SimpleResponse> handleBatchRequestNotValidException(CustomBaseException exception) {
+        Logger logger = LoggerFactory.getLogger(exception.getClazz());
+        logger.error(exception.getSimpleResponse().getMessage());
+        return ResponseEntity.status(exception.getStatus()).body(exception.getSimpleResponse());
+    }
+
+    /**
+     * Handles ImageFileNotFoundException and logs the error.
+     *
+     * @param exception The custom base exception
+     * @return The response entity with the error message and status
+     */
+    @ExceptionHandler(ImageFileNotFoundException.class)
+    public ResponseEntity<SimpleResponse> handleImageFileNotFoundException(CustomBaseException exception) {
+        Logger logger = LoggerFactory.getLogger(exception.getClazz());
+        logger.error(exception.getSimpleResponse().getMessage());
+        return ResponseEntity.status(exception.getStatus()).body(exception.getSimpleResponse());
+    }
 }
@@ -0,0 +1,52 @@
+package com.bist.backendmodule.helpers;
+
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Utility class for naming files by the SHA-256 digest of their content.
+ * Identical content always maps to the same file, so it is stored once whatever name it was uploaded under.
+ * The files themselves are written through {@link com.bist.backendmodule.modules.image.storage.ImageStorage}.
+ */
+public class ContentAddressedFileUtil {
+
+    /**
+     * Hashes the given stream using the SHA-256 algorithm, reading it to its end.
+     *
+     * @param inputStream The stream to be hashed
+     * @return The digest in lowercase hexadecimal format
+     * @throws IOException      If the stream cannot be read
+     * @throws RuntimeException if the SHA-256 algorithm is not available
+     */
+    public static String sha256(InputStream inputStream) throws IOException {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            try (DigestInputStream digestInputStream = new DigestInputStream(inputStream, sha256)) {
+                digestInputStream.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gets the name of the file storing the content: its digest, followed by the extension of the original name
+     * so that the file is still served with its media type.
+     *
+     * @param contentHash      The digest of the content
+     * @param originalFilename The name the content was uploaded under
+     * @return The stored file name, e.g. 9f86d0...0a08.jpg
+     */
+    public static String filename(String contentHash, String originalFilename) {
+        String extension = StringUtils.getFilenameExtension(originalFilename);
+        return StringUtils.hasText(extension) ? contentHash + "." + extension.toLowerCase() : contentHash;
+    }
+}
@@ -0,0 +1,23 @@
+package com.bist.backendmodule.modules;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous variant of the {@link Command} interface.
+ *
+ * @param <E> The type of the input entity
+ * @param <B> The type of the binding result
+ * @param <T> The type of the response entity
+ */
+public interface AsyncCommand<E, B, T> {
+    /**
+     * Starts the command with the given input entity and binding result.
+     *
+     * @param entity The input entity
+     * @param bindingResult The binding result
+     * @return Future completing with the ResponseEntity of the command execution
+     */
+    CompletableFuture<ResponseEntity<T>> execute(E entity, B bindingResult);
+}
@@ -0,0 +1,21 @@
+package com.bist.backendmodule.modules;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous variant of the {@link Query} interface.
+ *
+ * @param <I> The type of the input parameter
+ * @param <O> The type of the output result
+ */
+public interface AsyncQuery<I, O> {
+    /**
+     * Starts the query with the given input parameter.
+     *
+     * @param input The input parameter
+     * @return Future completing with the ResponseEntity of the query execution
+     */
+    CompletableFuture<ResponseEntity<O>> execute(I input);
+}
@@ -0,0 +1,62 @@
+package com.bist.backendmodule.modules;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Response class of a batch get: one item per requested id, in request order, and the ids that were not found.
+ *
+ * @param <T> The type of the found values
+ */
+@Data
+@AllArgsConstructor
+public class BatchGetResponse<T> {
+    private List<Item<T>> items;
+    private List<Long> missing;
+
+    /**
+     * Loads the values of the ids in chunks, each chunk with one query, and arranges them in request order.
+     * Repeated ids are loaded once and answered at every position.
+     *
+     * @param ids       The requested ids
+     * @param chunkSize The maximum number of ids per query
+     * @param loader    Loads the values of a chunk of ids, in any order
+     * @param idOf      Gets the id of a value
+     * @return The batch response
+     */
+    public static <T> BatchGetResponse<T> load(List<Long> ids, int chunkSize, Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, T> valuesById = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            for (T value : loader.apply(distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size())))) {
+                valuesById.put(idOf.apply(value), value);
+            }
+        }
+
+        List<Item<T>> items = new ArrayList<>(ids.size());
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            T value = valuesById.get(id);
+            items.add(new Item<>(id, value));
+            if (value == null) {
+                missing.add(id);
+            }
+        }
+        return new BatchGetResponse<>(items, new ArrayList<>(missing));
+    }
+
+    /**
+     * A requested id and its value, null if it was not found.
+     *
+     * @param <T> The type of the value
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Item<T> {
+        private Long id;
+        private T value;
+    }
+}
@@ -0,0 +1,10 @@
+package com.bist.backendmodule.modules;
+
+/**
+ * Kind of change applied to an aggregate by a command handler.
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
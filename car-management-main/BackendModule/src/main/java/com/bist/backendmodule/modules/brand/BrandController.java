@@ -1,5 +1,6 @@
 package com.bist.backendmodule.modules.brand;
 
+import com.bist.backendmodule.modules.BatchGetResponse;
 import com.bist.backendmodule.modules.brand.command.handlers.CreateBrandCommandHandler;
 import com.bist.backendmodule.modules.brand.command.handlers.DeleteBrandCommandHandler;
 import com.bist.backendmodule.modules.brand.command.handlers.UpdateBrandCommandHandler;
@@ -7,15 +8,27 @@ import com.bist.backendmodule.modules.brand.models.Brand;
 import com.bist.backendmodule.modules.brand.models.UpdateBrandCommand;
 import com.bist.backendmodule.modules.brand.query.handlers.GetAllBrandsQueryHandler;
 import com.bist.backendmodule.modules.brand.query.handlers.GetBrandByIdQueryHandler;
+import com.bist.backendmodule.modules.brand.query.handlers.GetBrandsByIdsQueryHandler;
+import com.bist.backendmodule.services.AsyncHandlerExecutor;
+import com.bist.backendmodule.services.CatalogAggregate;
+import com.bist.backendmodule.services.CatalogVersionService;
+import com.bist.backendmodule.services.ResponseCacheRegion;
+import com.bist.backendmodule.services.ResponseCacheService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for handling brand-related operations.
@@ -29,17 +42,29 @@ public class BrandController {
     private final UpdateBrandCommandHandler updateBrandCommandHandler;
     private final GetAllBrandsQueryHandler getAllBrandsQueryHandler;
     private final GetBrandByIdQueryHandler getBrandByIdQueryHandler;
+    private final GetBrandsByIdsQueryHandler getBrandsByIdsQueryHandler;
+    private final ResponseCacheService responseCacheService;
+    private final CatalogVersionService catalogVersionService;
+    private final AsyncHandlerExecutor asyncHandlerExecutor;
 
     public BrandController(CreateBrandCommandHandler createBrandCommandHandler,
                            DeleteBrandCommandHandler deleteBrandCommandHandler,
                            UpdateBrandCommandHandler updateBrandCommandHandler,
                            GetAllBrandsQueryHandler getAllBrandsQueryHandler,
-                           GetBrandByIdQueryHandler getBrandByIdQueryHandler) {
+                           GetBrandByIdQueryHandler getBrandByIdQueryHandler,
+                           GetBrandsByIdsQueryHandler getBrandsByIdsQueryHandler,
+                           ResponseCacheService responseCacheService,
+                           CatalogVersionService catalogVersionService,
+                           AsyncHandlerExecutor asyncHandlerExecutor) {
         this.createBrandCommandHandler = createBrandCommandHandler;
         this.deleteBrandCommandHandler = deleteBrandCommandHandler;
         this.updateBrandCommandHandler = updateBrandCommandHandler;
         this.getAllBrandsQueryHandler = getAllBrandsQueryHandler;
         this.getBrandByIdQueryHandler = getBrandByIdQueryHandler;
+        this.getBrandsByIdsQueryHandler = getBrandsByIdsQueryHandler;
+        this.responseCacheService = responseCacheService;
+        this.catalogVersionService = catalogVersionService;
+        this.asyncHandlerExecutor = asyncHandlerExecutor;
     }
 
     /**
@@ -86,19 +111,25 @@ public class BrandController {
     }
 
     /**
-     * Endpoint to get all brands.
+     * Endpoint to get all brands off the servlet thread. Answers 304 when the client's ETag is current.
      *
-     * @return ResponseEntity containing the list of all brands.
+     * @param webRequest The current request, for the conditional headers
+     * @return ResponseEntity containing the serialized list of all brands.
      */
     @PreAuthorize("hasAuthority('PERMISSON_GET_BRAND')")
     @GetMapping
     @Operation(summary = "Get all brands", description = "Retrieve a list of all brands.")
-    public ResponseEntity<List<Brand>> getAllBrands() {
-        return getAllBrandsQueryHandler.execute(null);
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = Brand.class))))
+    public CompletableFuture<ResponseEntity<byte[]>> getAllBrands(WebRequest webRequest) {
+        if (catalogVersionService.checkNotModified(webRequest, CatalogAggregate.BRAND)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncHandlerExecutor.supply(() -> responseCacheService.execute(ResponseCacheRegion.BRANDS, "all",
+                asyncHandlerExecutor.limit(getAllBrandsQueryHandler), null, brands -> null));
     }
 
     /**
-     * Endpoint to get a brand by ID.
+     * Endpoint to get a brand by ID off the servlet thread.
      *
      * @param id The ID of the brand to be retrieved.
      * @return ResponseEntity containing the retrieved brand.
@@ -106,7 +137,25 @@ public class BrandController {
     @PreAuthorize("hasAuthority('PERMISSON_GET_BRAND')")
     @GetMapping("/{id}")
     @Operation(summary = "Get brand by ID", description = "Retrieve a brand by its ID.")
-    public ResponseEntity<Brand> getBrandById(@PathVariable Long id) {
-        return getBrandByIdQueryHandler.execute(id);
+    public CompletableFuture<ResponseEntity<Brand>> getBrandById(@PathVariable Long id) {
+        return asyncHandlerExecutor.async(getBrandByIdQueryHandler).execute(id);
+    }
+
+    /**
+     * Endpoint to get several brands by ID in one request, off the servlet thread.
+     * Answers 304 when the client's ETag is current.
+     *
+     * @param ids        The IDs of the brands to be retrieved, e.g. ids=1,2,3
+     * @param webRequest The current request, for the conditional headers
+     * @return ResponseEntity containing the brands in request order and the IDs not found.
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_GET_BRAND')")
+    @GetMapping("/batch")
+    @Operation(summary = "Get brands by IDs", description = "Retrieve several brands by their IDs, in request order, with the IDs that were not found.")
+    public CompletableFuture<ResponseEntity<BatchGetResponse<Brand>>> getBrandsByIds(@RequestParam("ids") List<Long> ids, WebRequest webRequest) {
+        if (catalogVersionService.checkNotModified(webRequest, CatalogAggregate.BRAND)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncHandlerExecutor.async(getBrandsByIdsQueryHandler).execute(ids);
     }
 }
@@ -3,10 +3,13 @@ package com.bist.backendmodule.modules.brand.command.handlers;
 import com.bist.backendmodule.exceptions.BrandAlreadyExistsException;
 import com.bist.backendmodule.exceptions.BrandNotValidException;
 import com.bist.backendmodule.exceptions.models.CustomBaseException;
+import com.bist.backendmodule.modules.ChangeType;
 import com.bist.backendmodule.modules.Command;
 import com.bist.backendmodule.modules.brand.BrandRepository;
+import com.bist.backendmodule.modules.brand.events.BrandChangedEvent;
 import com.bist.backendmodule.modules.brand.models.Brand;
 import com.bist.backendmodule.validations.BrandValidationService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.BindingResult;
@@ -20,11 +23,14 @@ import java.util.Optional;
 public class CreateBrandCommandHandler implements Command<Brand, BindingResult, Void> {
     private final BrandRepository brandRepository;
     private final BrandValidationService brandValidationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CreateBrandCommandHandler(BrandRepository brandRepository,
-                                     BrandValidationService brandValidationService) {
+                                     BrandValidationService brandValidationService,
+                                     ApplicationEventPublisher eventPublisher) {
         this.brandRepository = brandRepository;
         this.brandValidationService = brandValidationService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -46,6 +52,7 @@ public class CreateBrandCommandHandler implements Command<Brand, BindingResult,
             throw new BrandAlreadyExistsException(CreateBrandCommandHandler.class);
         }
         brandRepository.save(brand);
+        eventPublisher.publishEvent(new BrandChangedEvent(ChangeType.CREATED, brand.getId(), brand));
         return ResponseEntity.ok().build();
     }
 }
@@ -1,12 +1,20 @@
 package com.bist.backendmodule.modules.brand.command.handlers;
 
 import com.bist.backendmodule.exceptions.BrandNotFoundException;
+import com.bist.backendmodule.modules.ChangeType;
 import com.bist.backendmodule.modules.Command;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
 import com.bist.backendmodule.modules.brand.BrandRepository;
+import com.bist.backendmodule.modules.brand.events.BrandChangedEvent;
 import com.bist.backendmodule.modules.brand.models.Brand;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,9 +23,12 @@ import java.util.Optional;
 @Service
 public class DeleteBrandCommandHandler implements Command<Long, Void, Void> {
     private final BrandRepository brandRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public DeleteBrandCommandHandler(BrandRepository brandRepository) {
+    public DeleteBrandCommandHandler(BrandRepository brandRepository,
+                                     ApplicationEventPublisher eventPublisher) {
         this.brandRepository = brandRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -29,13 +40,20 @@ public class DeleteBrandCommandHandler implements Command<Long, Void, Void> {
      * @throws BrandNotFoundException If the brand with the specified ID is not found.
      */
     @Override
+    @Transactional
     public ResponseEntity<Void> execute(Long id, Void bindingResult) {
         Optional<Brand> brandOptional = brandRepository.findById(id);
         if (brandOptional.isEmpty()) {
             throw new BrandNotFoundException(DeleteBrandCommandHandler.class);
         }
         Brand brand = brandOptional.get();
+        // The deletion cascades to the cars of the brand, which are reported as deleted cars as well
+        List<Car> cars = brand.getCars() != null ? new ArrayList<>(brand.getCars()) : List.of();
         brandRepository.delete(brand);
+        for (Car car : cars) {
+            eventPublisher.publishEvent(new CarChangedEvent(ChangeType.DELETED, car.getId(), null, car));
+        }
+        eventPublisher.publishEvent(new BrandChangedEvent(ChangeType.DELETED, id, null));
         return ResponseEntity.ok().build();
     }
 }
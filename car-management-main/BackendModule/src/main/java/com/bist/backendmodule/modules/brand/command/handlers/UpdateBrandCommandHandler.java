@@ -2,11 +2,14 @@ package com.bist.backendmodule.modules.brand.command.handlers;
 
 import com.bist.backendmodule.exceptions.BrandAlreadyExistsException;
 import com.bist.backendmodule.exceptions.BrandNotFoundException;
+import com.bist.backendmodule.modules.ChangeType;
 import com.bist.backendmodule.modules.Command;
 import com.bist.backendmodule.modules.brand.BrandRepository;
+import com.bist.backendmodule.modules.brand.events.BrandChangedEvent;
 import com.bist.backendmodule.modules.brand.models.Brand;
 import com.bist.backendmodule.modules.brand.models.UpdateBrandCommand;
 import com.bist.backendmodule.validations.BrandValidationService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.BindingResult;
@@ -20,11 +23,14 @@ import java.util.Optional;
 public class UpdateBrandCommandHandler implements Command<UpdateBrandCommand, BindingResult, Brand> {
     private final BrandRepository brandRepository;
     private final BrandValidationService brandValidationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UpdateBrandCommandHandler(BrandRepository brandRepository,
-                                     BrandValidationService brandValidationService) {
+                                     BrandValidationService brandValidationService,
+                                     ApplicationEventPublisher eventPublisher) {
         this.brandRepository = brandRepository;
         this.brandValidationService = brandValidationService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -58,6 +64,7 @@ public class UpdateBrandCommandHandler implements Command<UpdateBrandCommand, Bi
 
         brand.setId(updateBrandCommand.getId());
         brandRepository.save(brand);
+        eventPublisher.publishEvent(new BrandChangedEvent(ChangeType.UPDATED, brand.getId(), brand));
         return ResponseEntity.ok().body(brand);
     }
 }
@@ -0,0 +1,18 @@
+package com.bist.backendmodule.modules.brand.events;
+
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Event published by the brand command handlers after a brand has been written.
+ * Deleting a brand also deletes its cars through the cascade on Brand.cars.
+ */
+@Data
+@AllArgsConstructor
+public class BrandChangedEvent {
+    private ChangeType changeType;
+    private Long brandId;
+    private Brand brand;                        // Null for deletions
+}
@@ -0,0 +1,50 @@
+package com.bist.backendmodule.modules.brand.query.handlers;
+
+import com.bist.backendmodule.exceptions.BatchRequestNotValidException;
+import com.bist.backendmodule.modules.BatchGetResponse;
+import com.bist.backendmodule.modules.Query;
+import com.bist.backendmodule.modules.brand.BrandRepository;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service class for handling the retrieval of brands by a list of IDs.
+ * The IDs are resolved with one IN query per chunk instead of one query per ID,
+ * and the results are returned in request order with the IDs that were not found.
+ */
+@Service
+public class GetBrandsByIdsQueryHandler implements Query<List<Long>, BatchGetResponse<Brand>> {
+    private final BrandRepository brandRepository;
+
+    @Value("${batch.get.max-ids:1000}")
+    private int maxIds;
+
+    @Value("${batch.get.chunk-size:500}")
+    private int chunkSize;
+
+    public GetBrandsByIdsQueryHandler(BrandRepository brandRepository) {
+        this.brandRepository = brandRepository;
+    }
+
+    /**
+     * Executes the query to retrieve brands by their IDs.
+     *
+     * @param ids The IDs to retrieve, possibly repeated
+     * @return ResponseEntity containing one item per requested ID, in request order
+     * @throws BatchRequestNotValidException If no IDs or too many IDs are given
+     */
+    @Override
+    public ResponseEntity<BatchGetResponse<Brand>> execute(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BatchRequestNotValidException("At least one ID is required", GetBrandsByIdsQueryHandler.class);
+        }
+        if (ids.size() > maxIds) {
+            throw new BatchRequestNotValidException("At most " + maxIds + " IDs are allowed", GetBrandsByIdsQueryHandler.class);
+        }
+        return ResponseEntity.ok().body(BatchGetResponse.load(ids, chunkSize, brandRepository::findAllById, Brand::getId));
+    }
+}
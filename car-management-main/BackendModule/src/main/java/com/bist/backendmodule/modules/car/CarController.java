@@ -1,28 +1,55 @@
 package com.bist.backendmodule.modules.car;
 
+import com.bist.backendmodule.modules.BatchGetResponse;
+import com.bist.backendmodule.modules.car.command.handlers.BulkDeleteCarsCommandHandler;
+import com.bist.backendmodule.modules.car.command.handlers.BulkUpdateCarsCommandHandler;
 import com.bist.backendmodule.modules.car.command.handlers.CreateCarCommandHandler;
 import com.bist.backendmodule.modules.car.command.handlers.DeleteCarCommandHandler;
+import com.bist.backendmodule.modules.car.command.handlers.ImportCarsCommandHandler;
+import com.bist.backendmodule.modules.car.command.handlers.PatchCarCommandHandler;
 import com.bist.backendmodule.modules.car.command.handlers.UpdateCarCommandHandler;
+import com.bist.backendmodule.modules.car.feed.CarChangeFeed;
 import com.bist.backendmodule.modules.car.models.*;
+import com.bist.backendmodule.modules.car.query.handlers.ExportCarsQueryHandler;
 import com.bist.backendmodule.modules.car.query.handlers.GetAllCarsByPageQueryHandler;
 import com.bist.backendmodule.modules.car.query.handlers.GetAllCarsQueryHandler;
+import com.bist.backendmodule.modules.car.query.handlers.GetCarChangesQueryHandler;
+import com.bist.backendmodule.modules.car.query.handlers.GetCarFacetsQueryHandler;
+import com.bist.backendmodule.modules.car.query.handlers.GetCarsByIdsQueryHandler;
 import com.bist.backendmodule.modules.image.command.handlers.CreateImageCommandHandler;
 import com.bist.backendmodule.modules.image.models.ImageDTO;
 import com.bist.backendmodule.modules.image.models.UpdateImageCommand;
+import com.bist.backendmodule.services.AsyncHandlerExecutor;
+import com.bist.backendmodule.services.CatalogAggregate;
+import com.bist.backendmodule.services.CatalogVersionService;
+import com.bist.backendmodule.services.ResponseCacheRegion;
+import com.bist.backendmodule.services.ResponseCacheService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.jpa.domain.Specification;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for handling car-related operations.
@@ -31,26 +58,65 @@ import java.util.Objects;
 @RequestMapping("/car")
 @Tag(name = "Car Controller", description = "Operations related to cars")
 public class CarController {
+    @Value("${car.page.max-page-size:200}")
+    private int maxPageSize = 200;
+
     private final CreateCarCommandHandler createCarCommandHandler;
     private final CreateImageCommandHandler createImageCommandHandler;
     private final DeleteCarCommandHandler deleteCarCommandHandler;
     private final UpdateCarCommandHandler updateCarCommandHandler;
+    private final PatchCarCommandHandler patchCarCommandHandler;
+    private final ImportCarsCommandHandler importCarsCommandHandler;
+    private final BulkUpdateCarsCommandHandler bulkUpdateCarsCommandHandler;
+    private final BulkDeleteCarsCommandHandler bulkDeleteCarsCommandHandler;
     private final GetAllCarsByPageQueryHandler getAllCarsByPageQueryHandler;
     private final GetAllCarsQueryHandler getAllCarsQueryHandler;
+    private final ExportCarsQueryHandler exportCarsQueryHandler;
+    private final GetCarFacetsQueryHandler getCarFacetsQueryHandler;
+    private final GetCarChangesQueryHandler getCarChangesQueryHandler;
+    private final GetCarsByIdsQueryHandler getCarsByIdsQueryHandler;
+    private final ResponseCacheService responseCacheService;
+    private final CatalogVersionService catalogVersionService;
+    private final AsyncHandlerExecutor asyncHandlerExecutor;
+    private final CarChangeFeed carChangeFeed;
 
 
     public CarController(CreateCarCommandHandler createCarCommandHandler,
                          CreateImageCommandHandler createImageCommandHandler,
                          DeleteCarCommandHandler deleteCarCommandHandler,
                          UpdateCarCommandHandler updateCarCommandHandler,
+                         PatchCarCommandHandler patchCarCommandHandler,
+                         ImportCarsCommandHandler importCarsCommandHandler,
+                         BulkUpdateCarsCommandHandler bulkUpdateCarsCommandHandler,
+                         BulkDeleteCarsCommandHandler bulkDeleteCarsCommandHandler,
                          GetAllCarsByPageQueryHandler getAllCarsByPageQueryHandler,
-                         GetAllCarsQueryHandler getAllCarsQueryHandler) {
+                         GetAllCarsQueryHandler getAllCarsQueryHandler,
+                         ExportCarsQueryHandler exportCarsQueryHandler,
+                         GetCarFacetsQueryHandler getCarFacetsQueryHandler,
+                         GetCarChangesQueryHandler getCarChangesQueryHandler,
+                         GetCarsByIdsQueryHandler getCarsByIdsQueryHandler,
+                         ResponseCacheService responseCacheService,
+                         CatalogVersionService catalogVersionService,
+                         AsyncHandlerExecutor asyncHandlerExecutor,
+                         CarChangeFeed carChangeFeed) {
         this.createCarCommandHandler = createCarCommandHandler;
         this.createImageCommandHandler = createImageCommandHandler;
         this.deleteCarCommandHandler = deleteCarCommandHandler;
         this.updateCarCommandHandler = updateCarCommandHandler;
+        this.patchCarCommandHandler = patchCarCommandHandler;
+        this.importCarsCommandHandler = importCarsCommandHandler;
+        this.bulkUpdateCarsCommandHandler = bulkUpdateCarsCommandHandler;
+        this.bulkDeleteCarsCommandHandler = bulkDeleteCarsCommandHandler;
         this.getAllCarsByPageQueryHandler = getAllCarsByPageQueryHandler;
         this.getAllCarsQueryHandler = getAllCarsQueryHandler;
+        this.exportCarsQueryHandler = exportCarsQueryHandler;
+        this.getCarFacetsQueryHandler = getCarFacetsQueryHandler;
+        this.getCarChangesQueryHandler = getCarChangesQueryHandler;
+        this.getCarsByIdsQueryHandler = getCarsByIdsQueryHandler;
+        this.responseCacheService = responseCacheService;
+        this.catalogVersionService = catalogVersionService;
+        this.asyncHandlerExecutor = asyncHandlerExecutor;
+        this.carChangeFeed = carChangeFeed;
     }
 
     /**
@@ -71,67 +137,178 @@ public class CarController {
     }
 
     /**
-     * Retrieves all cars.
+     * Imports cars in bulk from a streamed NDJSON or CSV body of car commands.
+     * The body format follows the Content-Type, unless the format parameter overrides it.
      *
+     * @param inputStream The request body
+     * @param contentType The content type of the request body
+     * @param format      The body format overriding the content type, optional
+     * @return The response entity with the number of imported cars and the rejected rows
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_CREATE_CAR')")
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Import cars", description = "Create cars in bulk from NDJSON or CSV car commands. Invalid rows are reported without aborting the import.")
+    public ResponseEntity<CarImportResult> importCars(InputStream inputStream,
+                                                      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                      @RequestParam(value = "format", required = false) CarExportFormat format) {
+        CarExportFormat bodyFormat = format != null ? format : CarExportFormat.of(contentType);
+        return importCarsCommandHandler.execute(new CarImportRequest(inputStream, bodyFormat), null);
+    }
+
+    /**
+     * Retrieves all cars off the servlet thread. Answers 304 when the client's ETag is current.
+     *
+     * @param webRequest The current request, for the conditional headers
      * @return The response entity with the list of cars
      */
     @PreAuthorize("hasAuthority('PERMISSON_GET_CAR')")
     @GetMapping
     @Operation(summary = "Get all cars", description = "Retrieve a list of all cars")
-    public ResponseEntity<List<Car>> getAllCars() {
-        return getAllCarsQueryHandler.execute(null);
+    public CompletableFuture<ResponseEntity<List<CarView>>> getAllCars(WebRequest webRequest) {
+        if (catalogVersionService.checkNotModified(webRequest, CatalogAggregate.CAR, CatalogAggregate.BRAND, CatalogAggregate.IMAGE)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncHandlerExecutor.async(getAllCarsQueryHandler).execute(null);
+    }
+
+    /**
+     * Retrieves several cars by ID in one request, off the servlet thread. Answers 304 when the client's ETag is current.
+     *
+     * @param ids        The IDs of the cars, e.g. ids=1,2,3
+     * @param webRequest The current request, for the conditional headers
+     * @return The response entity with the cars in request order and the IDs not found
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_GET_CAR')")
+    @GetMapping("/batch")
+    @Operation(summary = "Get cars by IDs", description = "Retrieve several cars by their IDs, in request order, with the IDs that were not found.")
+    public CompletableFuture<ResponseEntity<BatchGetResponse<CarView>>> getCarsByIds(@RequestParam("ids") List<Long> ids, WebRequest webRequest) {
+        if (catalogVersionService.checkNotModified(webRequest, CatalogAggregate.CAR, CatalogAggregate.BRAND, CatalogAggregate.IMAGE)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncHandlerExecutor.async(getCarsByIdsQueryHandler).execute(ids);
+    }
+
+    /**
+     * Streams all cars as newline-delimited JSON.
+     *
+     * @return The response entity with the streaming body
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_GET_CAR')")
+    @GetMapping("/stream")
+    @Operation(summary = "Stream all cars", description = "Stream every car as newline-delimited JSON without loading the whole list in memory.")
+    public ResponseEntity<StreamingResponseBody> streamAllCars() {
+        return exportCarsQueryHandler.execute(new CarExportRequest(new CarFilter(), CarExportFormat.NDJSON));
+    }
+
+    /**
+     * Streams the cars matching the filters as NDJSON or CSV.
+     *
+     * @param carFilter The filter criteria
+     * @param format    The output format
+     * @return The response entity with the streaming body
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_GET_CAR')")
+    @GetMapping("/export")
+    @Operation(summary = "Export cars", description = "Stream the cars matching the optional filters as NDJSON or CSV.")
+    public ResponseEntity<StreamingResponseBody> exportCars(@ParameterObject CarFilter carFilter,
+                                                            @RequestParam(value = "format", defaultValue = "NDJSON") CarExportFormat format) {
+        return exportCarsQueryHandler.execute(new CarExportRequest(carFilter, format));
     }
 
     /**
      * Retrieves all cars by page with filtering and sorting options.
+     * Responses are served from the pre-serialized response cache when an equivalent request was answered before,
+     * and answered with 304 when the client's ETag is current. Misses are computed off the servlet thread.
      *
-     * @param brand         The brand filter
-     * @param specification The specification filter
-     * @param engineLiter   The engine liter filter
-     * @param isNew         The new status filter
-     * @param minPrice      The minimum price filter
-     * @param maxPrice      The maximum price filter
-     * @param minDate       The minimum release date filter
-     * @param maxDate       The maximum release date filter
-     * @param sortBy        The sorting field
-     * @param sortDir       The sorting direction
-     * @param searchTerm    The search term
-     * @param pageNo        The page number
-     * @param pageSize      The page size
-     * @return The response entity with the paginated car response
+     * @param carFilter The filter criteria
+     * @param sortBy    The sorting field
+     * @param sortDir   The sorting direction
+     * @param pageNo    The page number, ignored in keyset mode
+     * @param pageSize  The page size, clamped to between 1 and car.page.max-page-size
+     * @param cursor    The keyset cursor; an empty value requests the first keyset page, absent means offset paging
+     * @param withTotal  Whether a keyset page also counts the total matching cars
+     * @param total      How an offset page determines the total matching cars
+     * @param fields     The fields of the listed cars, or all fields if absent
+     * @param webRequest The current request, for the conditional headers
+     * @return The response entity with the serialized paginated car response
      */
     @PreAuthorize("hasAuthority('PERMISSON_GET_CAR')")
     @GetMapping("/byPage")
-    @Operation(summary = "Get cars by page", description = "Retrieve a list of cars by page with optional filters.")
-    public ResponseEntity<CarResponse> getAllCarsByPage(@RequestParam(value = "brand", required = false) String brand,
-                                                        @RequestParam(value = "specification", required = false) String specification,
-                                                        @RequestParam(value = "engineLiter", required = false) Float engineLiter,
-                                                        @RequestParam(value = "isNew", required = false) Boolean isNew,
-                                                        @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
-                                                        @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
-                                                        @RequestParam(value = "minDate", required = false) LocalDateTime minDate,
-                                                        @RequestParam(value = "maxDate", required = false) LocalDateTime maxDate,
-                                                        @RequestParam(value = "sortBy", required = false) String sortBy,
-                                                        @RequestParam(value = "sortDir", required = false) String sortDir,
-                                                        @RequestParam(value = "searchTerm", required = false) String searchTerm,
-                                                        @RequestParam(value = "pageNo") int pageNo,
-                                                        @RequestParam(value = "pageSize") int pageSize) {
-
-        Specification<Car> spec = Specification.where(null);
-
-        if (brand != null) spec = spec.and(CarSpecification.hasBrand(brand));
-        if (specification != null) spec = spec.and(CarSpecification.hasSpecification(specification));
-        if (engineLiter != null) spec = spec.and(CarSpecification.hasEngineLiter(engineLiter));
-        if (isNew != null) spec = spec.and(CarSpecification.isNew(isNew));
-        if (minPrice != null) spec = spec.and(CarSpecification.hasPriceGreaterThanOrEqual(minPrice));
-        if (maxPrice != null) spec = spec.and(CarSpecification.hasPriceLessThanOrEqual(maxPrice));
-        if (minDate != null) spec = spec.and(CarSpecification.hasReleaseDateTimeAfter(minDate));
-        if (maxDate != null) spec = spec.and(CarSpecification.hasReleaseDateTimeBefore(maxDate));
-        if (searchTerm != null) spec = spec.and(CarSpecification.hasSearchTerm(searchTerm));
-
-
-        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(spec, pageSize, pageNo, sortBy, sortDir);
-        return getAllCarsByPageQueryHandler.execute(getAllCarsRequest);
+    @Operation(summary = "Get cars by page", description = "Retrieve a list of cars by page with optional filters. Pass a cursor to use keyset pagination, or total=ESTIMATED|NONE to avoid exact counts of offset pages. Pass fields=id,price,... to list only those fields.")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CarResponse.class)))
+    public CompletableFuture<ResponseEntity<byte[]>> getAllCarsByPage(@ParameterObject CarFilter carFilter,
+                                                                      @RequestParam(value = "sortBy", required = false) String sortBy,
+                                                                      @RequestParam(value = "sortDir", required = false) String sortDir,
+                                                                      @RequestParam(value = "pageNo", defaultValue = "0") int pageNo,
+                                                                      @RequestParam(value = "pageSize") int pageSize,
+                                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                                      @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal,
+                                                                      @RequestParam(value = "total", defaultValue = "EXACT") CarTotalMode total,
+                                                                      @RequestParam(value = "fields", required = false) Set<CarField> fields,
+                                                                      WebRequest webRequest) {
+        if (catalogVersionService.checkNotModified(webRequest, CatalogAggregate.CAR, CatalogAggregate.BRAND, CatalogAggregate.IMAGE)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // Clamp before the cache key is built, so oversized page sizes share the entry of the largest page
+        int clampedPageSize = Math.max(1, Math.min(pageSize, maxPageSize));
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(carFilter, clampedPageSize, pageNo, sortBy, sortDir, cursor, withTotal,
+                total, fields);
+        return asyncHandlerExecutor.supply(() -> responseCacheService.execute(ResponseCacheRegion.CAR_PAGES,
+                getAllCarsRequest.cacheKey(), asyncHandlerExecutor.limit(getAllCarsByPageQueryHandler), getAllCarsRequest,
+                carResponse -> new CarPageCacheScope(carFilter, carResponse)));
+    }
+
+    /**
+     * Subscribes to car creations, updates and deletions as Server-Sent Events.
+     * Only changes of cars that may match the filters before or after the change are sent.
+     *
+     * @param carFilter The filter criteria
+     * @return The emitter streaming the changes
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_GET_CAR')")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to car changes", description = "Stream car creations, updates and deletions matching the optional filters as Server-Sent Events. Bursts of changes to one car are coalesced into one event.")
+    public SseEmitter subscribeToCarChanges(@ParameterObject CarFilter carFilter) {
+        return carChangeFeed.subscribe(carFilter);
+    }
+
+    /**
+     * Retrieves the cars created, updated or deleted since a sync token, off the servlet thread.
+     * Selected over the event stream of the same path by the since parameter.
+     *
+     * @param since The token of the previous sync; an empty value requests a full sync
+     * @param limit The maximum number of changes
+     * @return The response entity with the changes and the token of the next sync
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_GET_CAR')")
+    @GetMapping(value = "/changes", params = "since", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Sync car changes", description = "Retrieve the cars changed and the ids of the cars deleted since the token of the previous sync, in change order. Pass an empty since for a full sync and sync again while hasMore is true.")
+    public CompletableFuture<ResponseEntity<CarChangesResponse>> getCarChanges(@RequestParam(value = "since") String since,
+                                                                               @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        return asyncHandlerExecutor.async(getCarChangesQueryHandler).execute(new CarChangesRequest(since, limit));
+    }
+
+    /**
+     * Counts the cars matching the filters per brand, isNew, engineLiter, price bucket and release date bucket.
+     * Runs off the servlet thread and answers 304 when the client's ETag is current.
+     *
+     * @param carFilter         The filter criteria
+     * @param priceBounds       The ascending price bucket bounds, or the configured defaults if absent
+     * @param releaseDateBounds The ascending release date bucket bounds, or the configured defaults if absent
+     * @param webRequest        The current request, for the conditional headers
+     * @return The response entity with the facet counts
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_GET_CAR')")
+    @GetMapping("/facets")
+    @Operation(summary = "Get car facets", description = "Count the cars matching the optional filters per brand, condition, engine size, price range and release date range.")
+    public CompletableFuture<ResponseEntity<CarFacets>> getCarFacets(@ParameterObject CarFilter carFilter,
+                                                                     @RequestParam(value = "priceBounds", required = false) List<BigDecimal> priceBounds,
+                                                                     @RequestParam(value = "releaseDateBounds", required = false) List<LocalDateTime> releaseDateBounds,
+                                                                     WebRequest webRequest) {
+        if (catalogVersionService.checkNotModified(webRequest, CatalogAggregate.CAR, CatalogAggregate.BRAND, CatalogAggregate.IMAGE)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncHandlerExecutor.async(getCarFacetsQueryHandler).execute(new CarFacetsRequest(carFilter, priceBounds, releaseDateBounds));
     }
 
     /**
@@ -155,6 +332,24 @@ public class CarController {
         return updateCarCommandHandler.execute(carUpdateCommand, bindingResult);
     }
 
+    /**
+     * Partially updates an existing car. Absent fields are left unchanged and the image is only replaced when a file is sent.
+     *
+     * @param carCommand The changed car fields
+     * @param file       The optional new image file
+     * @param carId      The ID of the car to update
+     * @return The response entity with the updated car
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_EDIT_CAR')")
+    @PatchMapping("/{carId}")
+    @Operation(summary = "Partially update a car", description = "Updates only the given fields of an existing car; the image file is optional.")
+    public ResponseEntity<Car> patchCar(@RequestPart("car") CarCommand carCommand, @RequestPart(value = "file", required = false) MultipartFile file, @PathVariable Long carId) {
+        UpdateImageCommand updateImageCommand = new UpdateImageCommand();
+        updateImageCommand.setFile(file);
+
+        return patchCarCommandHandler.execute(new CarPatchCommand(carId, carCommand, updateImageCommand), null);
+    }
+
     /**
      * Deletes a car.
      *
@@ -167,4 +362,34 @@ public class CarController {
     public ResponseEntity<Void> deleteCar(@PathVariable Long id) {
         return deleteCarCommandHandler.execute(id, null);
     }
-}
\ No newline at end of file
+
+    /**
+     * Changes the price or status of every car matching the filters, off the servlet thread.
+     *
+     * @param carFilter            The filter criteria, at least one is required
+     * @param carBulkUpdateCommand The changes to apply
+     * @param bindingResult        The binding result
+     * @return The response entity with the number of updated cars
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_EDIT_CAR')")
+    @PatchMapping("/bulk")
+    @Operation(summary = "Update cars in bulk", description = "Adjusts the price or status of every car matching the filters with set-based updates.")
+    public CompletableFuture<ResponseEntity<CarBulkResult>> bulkUpdateCars(@ParameterObject CarFilter carFilter,
+                                                                           @Valid @RequestBody CarBulkUpdateCommand carBulkUpdateCommand,
+                                                                           BindingResult bindingResult) {
+        return asyncHandlerExecutor.async(bulkUpdateCarsCommandHandler).execute(new CarBulkUpdateRequest(carFilter, carBulkUpdateCommand), bindingResult);
+    }
+
+    /**
+     * Deletes every car matching the filters, off the servlet thread.
+     *
+     * @param carFilter The filter criteria, at least one is required
+     * @return The response entity with the number of deleted cars
+     */
+    @PreAuthorize("hasAuthority('PERMISSON_DELETE_CAR')")
+    @DeleteMapping("/bulk")
+    @Operation(summary = "Delete cars in bulk", description = "Deletes every car matching the filters with set-based deletes.")
+    public CompletableFuture<ResponseEntity<CarBulkResult>> bulkDeleteCars(@ParameterObject CarFilter carFilter) {
+        return asyncHandlerExecutor.async(bulkDeleteCarsCommandHandler).execute(carFilter, null);
+    }
+}
@@ -0,0 +1,128 @@
+package com.bist.backendmodule.modules.car;
+
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specification of the criteria present in a car filter.
+ * Besides building criteria predicates, it describes which criteria are present as a bitmask, so that the
+ * repository can run a JPQL query compiled once per combination and bind the values as parameters.
+ */
+public final class CarFilterSpecification implements Specification<Car> {
+    static final int BRAND = 1;
+    static final int SPECIFICATION = 1 << 1;
+    static final int ENGINE_LITER = 1 << 2;
+    static final int IS_NEW = 1 << 3;
+    static final int MIN_PRICE = 1 << 4;
+    static final int MAX_PRICE = 1 << 5;
+    static final int MIN_DATE = 1 << 6;
+    static final int MAX_DATE = 1 << 7;
+    static final int SEARCH_TERM = 1 << 8;
+    static final int CRITERIA_BITS = 9;
+
+    private final String brand;
+    private final String specification;
+    private final Float engineLiter;
+    private final Boolean isNew;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final LocalDateTime minDate;
+    private final LocalDateTime maxDate;
+    private final String searchTerm;
+    private final int mask;
+
+    CarFilterSpecification(CarFilter carFilter) {
+        this.brand = carFilter.getBrand();
+        this.specification = carFilter.getSpecification();
+        this.engineLiter = carFilter.getEngineLiter();
+        this.isNew = carFilter.getIsNew();
+        this.minPrice = carFilter.getMinPrice();
+        this.maxPrice = carFilter.getMaxPrice();
+        this.minDate = carFilter.getMinDate();
+        this.maxDate = carFilter.getMaxDate();
+        this.searchTerm = carFilter.getSearchTerm() != null && !carFilter.getSearchTerm().isEmpty() ? carFilter.getSearchTerm() : null;
+
+        int presentCriteria = 0;
+        if (brand != null) presentCriteria |= BRAND;
+        if (specification != null) presentCriteria |= SPECIFICATION;
+        if (engineLiter != null) presentCriteria |= ENGINE_LITER;
+        if (isNew != null) presentCriteria |= IS_NEW;
+        if (minPrice != null) presentCriteria |= MIN_PRICE;
+        if (maxPrice != null) presentCriteria |= MAX_PRICE;
+        if (minDate != null) presentCriteria |= MIN_DATE;
+        if (maxDate != null) presentCriteria |= MAX_DATE;
+        if (searchTerm != null) presentCriteria |= SEARCH_TERM;
+        this.mask = presentCriteria;
+    }
+
+    /**
+     * Gets the bitmask of the present criteria.
+     *
+     * @return The bitmask
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<Car> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (brand != null) predicates.add(CarSpecification.hasBrand(brand).toPredicate(root, query, criteriaBuilder));
+        if (specification != null) predicates.add(CarSpecification.hasSpecification(specification).toPredicate(root, query, criteriaBuilder));
+        if (engineLiter != null) predicates.add(CarSpecification.hasEngineLiter(engineLiter).toPredicate(root, query, criteriaBuilder));
+        if (isNew != null) predicates.add(CarSpecification.isNew(isNew).toPredicate(root, query, criteriaBuilder));
+        if (minPrice != null) predicates.add(CarSpecification.hasPriceGreaterThanOrEqual(minPrice).toPredicate(root, query, criteriaBuilder));
+        if (maxPrice != null) predicates.add(CarSpecification.hasPriceLessThanOrEqual(maxPrice).toPredicate(root, query, criteriaBuilder));
+        if (minDate != null) predicates.add(CarSpecification.hasReleaseDateTimeAfter(minDate).toPredicate(root, query, criteriaBuilder));
+        if (maxDate != null) predicates.add(CarSpecification.hasReleaseDateTimeBefore(maxDate).toPredicate(root, query, criteriaBuilder));
+        if (searchTerm != null) predicates.add(CarSpecification.hasSearchTerm(searchTerm).toPredicate(root, query, criteriaBuilder));
+        return predicates.isEmpty() ? null : criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Binds the values of the present criteria to the parameters of a query compiled for this bitmask.
+     *
+     * @param query The query compiled by {@link #whereClause(int)}
+     */
+    void bind(Query query) {
+        if (brand != null) query.setParameter("brand", brand);
+        if (specification != null) query.setParameter("specification", "%" + specification + "%");
+        if (engineLiter != null) query.setParameter("engineLiter", engineLiter);
+        if (isNew != null) query.setParameter("isNew", isNew);
+        if (minPrice != null) query.setParameter("minPrice", minPrice);
+        if (maxPrice != null) query.setParameter("maxPrice", maxPrice);
+        if (minDate != null) query.setParameter("minDate", minDate);
+        if (maxDate != null) query.setParameter("maxDate", maxDate);
+    }
+
+    /**
+     * Builds the JPQL where clause of the criteria in the bitmask, with car alias c and brand alias b.
+     * Its predicates match those of {@link #toPredicate}. A search term has a predicate per token and is not compiled.
+     *
+     * @param mask The bitmask of the present criteria
+     * @return The where clause with a leading space, or an empty string without criteria
+     */
+    static String whereClause(int mask) {
+        List<String> predicates = new ArrayList<>();
+        if ((mask & BRAND) != 0) predicates.add("b.name = :brand");
+        if ((mask & SPECIFICATION) != 0) predicates.add("c.specification LIKE :specification");
+        if ((mask & ENGINE_LITER) != 0) predicates.add("c.engineLiter = :engineLiter");
+        if ((mask & IS_NEW) != 0) predicates.add("c.isNew = :isNew");
+        if ((mask & MIN_PRICE) != 0) predicates.add("c.price >= :minPrice");
+        if ((mask & MAX_PRICE) != 0) predicates.add("c.price <= :maxPrice");
+        if ((mask & MIN_DATE) != 0) predicates.add("c.releaseDateTime >= :minDate");
+        if ((mask & MAX_DATE) != 0) predicates.add("c.releaseDateTime <= :maxDate");
+        return predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+    }
+}
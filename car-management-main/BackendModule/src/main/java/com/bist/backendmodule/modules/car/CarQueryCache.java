@@ -0,0 +1,146 @@
+package com.bist.backendmodule.modules.car;
+
+import com.bist.backendmodule.modules.car.models.CarField;
+import com.bist.backendmodule.modules.car.models.CarSortField;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of the JPQL of car view queries, compiled once per combination of present filter criteria, sort order
+ * and selected fields.
+ * Since the JPQL of a combination is always the same string with the values bound as parameters, Hibernate reuses its
+ * parsed and translated plan and the driver its prepared statement, instead of rendering a criteria tree per request.
+ * Lookups are published as the car.query.cache.gets metric of the actuator.
+ */
+@Component
+public class CarQueryCache {
+    private static final String VIEW_SELECT = "SELECT new com.bist.backendmodule.modules.car.models.CarView("
+            + "c.id, b.id, b.name, c.specification, c.engineLiter, c.isNew, c.price, c.releaseDateTime, i.id, i.filename, i.contentHash) "
+            + "FROM Car c JOIN c.brand b LEFT JOIN c.image i";
+    private static final int SORT_SHIFT = CarFilterSpecification.CRITERIA_BITS;
+    private static final int DESCENDING_SHIFT = SORT_SHIFT + 3;
+    private static final int FIELDS_SHIFT = DESCENDING_SHIFT + 1;
+    private static final int SPARSE_SHIFT = FIELDS_SHIFT + CarField.values().length;
+    private static final int BRAND_JOIN_CRITERIA = CarFilterSpecification.BRAND;
+
+    private final Map<Integer, CompiledCarQuery> queries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CarQueryCache(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("car.query.cache.gets", hits, LongAdder::sum)
+                .tags("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("car.query.cache.gets", misses, LongAdder::sum)
+                .tags("result", "miss").register(meterRegistry);
+        Gauge.builder("car.query.cache.size", queries, Map::size)
+                .description("Compiled car view queries").register(meterRegistry);
+    }
+
+    /**
+     * Gets the compiled queries for the criteria of the specification, the sort and the selected fields.
+     * The view query of selected fields returns rows with their columns in {@link CarField} order.
+     *
+     * @param carFilterSpecification The specification of the filter criteria
+     * @param sort                   The sort; at most one allow-listed sort field
+     * @param selected               The fields to select, or null to construct full car views
+     * @return The compiled queries, or null if the search term or the sort cannot be compiled
+     */
+    public CompiledCarQuery get(CarFilterSpecification carFilterSpecification, Sort sort, Set<CarField> selected) {
+        Sort.Order order = null;
+        CarSortField sortField = null;
+        if (sort.isSorted()) {
+            if (sort.stream().count() != 1) {
+                return null;
+            }
+            order = sort.iterator().next();
+            sortField = CarSortField.fromProperty(order.getProperty());
+            if (sortField == null || order.isIgnoreCase() || order.getNullHandling() != Sort.NullHandling.NATIVE) {
+                return null;
+            }
+        }
+
+        int mask = carFilterSpecification.getMask();
+        if ((mask & CarFilterSpecification.SEARCH_TERM) != 0) {
+            // One predicate per token of the term, built as criteria
+            return null;
+        }
+        int key = mask
+                | (sortField != null ? sortField.ordinal() + 1 : 0) << SORT_SHIFT
+                | (order != null && order.isDescending() ? 1 : 0) << DESCENDING_SHIFT
+                | (selected != null ? fieldMask(selected) << FIELDS_SHIFT | 1 << SPARSE_SHIFT : 0);
+        CompiledCarQuery compiled = queries.get(key);
+        if (compiled != null) {
+            hits.increment();
+            return compiled;
+        }
+        misses.increment();
+        String orderBy = sortField != null ? " ORDER BY c." + sortField.getProperty() + (order.isDescending() ? " DESC" : " ASC") : "";
+        return queries.computeIfAbsent(key, ignored -> compile(mask, orderBy, selected));
+    }
+
+    private static CompiledCarQuery compile(int mask, String orderBy, Set<CarField> selected) {
+        String where = CarFilterSpecification.whereClause(mask);
+        String countFrom = (mask & BRAND_JOIN_CRITERIA) != 0 ? "FROM Car c JOIN c.brand b" : "FROM Car c";
+        String viewSelect = selected != null ? sparseSelect(selected) : VIEW_SELECT;
+        return new CompiledCarQuery(viewSelect + where + orderBy, "SELECT count(c) " + countFrom + where);
+    }
+
+    private static String sparseSelect(Set<CarField> selected) {
+        List<String> columns = new ArrayList<>();
+        for (CarField field : CarField.values()) {
+            if (selected.contains(field)) {
+                columns.add(switch (field) {
+                    case ID -> "c.id";
+                    case BRAND -> "b.id, b.name";
+                    case SPECIFICATION -> "c.specification";
+                    case ENGINE_LITER -> "c.engineLiter";
+                    case IS_NEW -> "c.isNew";
+                    case PRICE -> "c.price";
+                    case RELEASE_DATE_TIME -> "c.releaseDateTime";
+                    case IMAGE -> "i.id, i.filename, i.contentHash";
+                });
+            }
+        }
+        String from = selected.contains(CarField.IMAGE) ? " FROM Car c JOIN c.brand b LEFT JOIN c.image i" : " FROM Car c JOIN c.brand b";
+        return "SELECT " + String.join(", ", columns) + from;
+    }
+
+    private static int fieldMask(Set<CarField> fields) {
+        int fieldMask = 0;
+        for (CarField field : fields) {
+            fieldMask |= 1 << field.ordinal();
+        }
+        return fieldMask;
+    }
+
+    /**
+     * The JPQL of a combination: the view query with its order, and the count query.
+     */
+    public static final class CompiledCarQuery {
+        private final String viewJpql;
+        private final String countJpql;
+
+        private CompiledCarQuery(String viewJpql, String countJpql) {
+            this.viewJpql = viewJpql;
+            this.countJpql = countJpql;
+        }
+
+        public String getViewJpql() {
+            return viewJpql;
+        }
+
+        public String getCountJpql() {
+            return countJpql;
+        }
+    }
+}
@@ -1,15 +1,77 @@
 package com.bist.backendmodule.modules.car;
 
 import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarChangePosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository interface for managing Car entities.
  * Extends JpaRepository for basic CRUD operations.
  * Extends JpaSpecificationExecutor for enabling query by specification.
+ * Extends CarRepositoryCustom for cursor-based streaming.
+ * The read methods fetch the brand and image in the same select, so loading cars costs a fixed number of statements.
  */
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car>, CarRepositoryCustom {
+
+    @Override
+    @EntityGraph(attributePaths = {"brand", "image"})
+    List<Car> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"brand", "image"})
+    Page<Car> findAll(Specification<Car> specification, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"brand", "image"})
+    List<Car> findAllById(Iterable<Long> ids);
+
+    @Override
+    @EntityGraph(attributePaths = {"brand", "image"})
+    Optional<Car> findById(Long id);
+
+    /**
+     * Finds the cars showing an image.
+     *
+     * @param imageId The ID of the image
+     * @return The cars of the image
+     */
+    @EntityGraph(attributePaths = {"brand", "image"})
+    List<Car> findAllByImageId(Long imageId);
+
+    /**
+     * Finds the positions of the changes following a position, in sync order, from the change position index alone.
+     * Only changes of transactions below the watermark are read, since all of them have ended.
+     *
+     * @param sinceXid     The transaction id of the exclusive lower bound
+     * @param sinceVersion The change version of the exclusive lower bound
+     * @param watermark    The exclusive upper bound of the transaction ids
+     * @param pageable     The number of positions to read
+     * @return The change positions
+     */
+    @Query("SELECT new com.bist.backendmodule.modules.car.models.CarChangePosition(c.changeXid, c.changeVersion) FROM Car c "
+            + "WHERE (c.changeXid > :sinceXid OR (c.changeXid = :sinceXid AND c.changeVersion > :sinceVersion)) "
+            + "AND c.changeXid < :watermark ORDER BY c.changeXid, c.changeVersion")
+    List<CarChangePosition> findChangePositionsAfter(@Param("sinceXid") long sinceXid, @Param("sinceVersion") long sinceVersion,
+                                                     @Param("watermark") long watermark, Pageable pageable);
+
+    /**
+     * Gets the sync watermark: the id of the oldest transaction still running, or of the next one if none is.
+     * Every transaction with a lower id has committed or rolled back, so the changes it wrote are all visible.
+     *
+     * @return The watermark transaction id
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long findSyncWatermark();
 }
@@ -0,0 +1,156 @@
+package com.bist.backendmodule.modules.car;
+
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarBulkUpdateCommand;
+import com.bist.backendmodule.modules.car.models.CarField;
+import com.bist.backendmodule.modules.car.models.CarView;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Custom repository fragment for Car queries that Spring Data cannot derive.
+ */
+public interface CarRepositoryCustom {
+
+    /**
+     * Streams the cars matching the specification through a forward-only cursor, ordered by id.
+     * Rows are fetched in chunks of the given size and detached after each chunk,
+     * so memory use does not depend on the number of matching cars.
+     *
+     * @param specification The specification to filter cars by
+     * @param fetchSize     The number of rows fetched per round trip
+     * @param consumer      The consumer receiving each car
+     */
+    void streamAll(Specification<Car> specification, int fetchSize, Consumer<Car> consumer);
+
+    /**
+     * Finds the ids of the cars matching the specification without loading the entities.
+     *
+     * @param specification The specification to filter cars by
+     * @return The ids of the matching cars
+     */
+    List<Long> findIds(Specification<Car> specification);
+
+    /**
+     * Finds the lowest price of the cars matching the specification.
+     *
+     * @param specification The specification to filter cars by
+     * @return The lowest price, or null if no car matches
+     */
+    BigDecimal findMinPrice(Specification<Car> specification);
+
+    /**
+     * Counts the cars matching the specification per facet combination in a single query.
+     * Each row holds the brand name, isNew, engineLiter and the number of cars of that combination,
+     * followed by the number of those cars in each price bucket and then in each release date bucket.
+     * n bounds define n + 1 buckets: below the first bound, between consecutive bounds, and from the last bound on.
+     *
+     * @param specification     The specification to filter cars by
+     * @param priceBounds       The ascending price bucket bounds
+     * @param releaseDateBounds The ascending release date bucket bounds
+     * @return One row per combination of brand name, isNew and engineLiter
+     */
+    List<Tuple> countFacets(Specification<Car> specification, List<BigDecimal> priceBounds, List<LocalDateTime> releaseDateBounds);
+
+    /**
+     * Finds a page of car views matching the specification. The views are projected straight from the joined
+     * car, brand and image columns, so no entity enters the persistence context.
+     * The count query runs concurrently with the page query, on a connection of the application data source,
+     * so the latency is that of the slower query rather than their sum. It is skipped when the page itself reveals
+     * the total, and cancelled in the database when it runs longer than car.page.count-timeout-ms.
+     *
+     * @param specification The specification to filter cars by
+     * @param pageable      The page and sort to apply
+     * @return The counted {@link Page} of car views, or an uncounted Slice if the count timed out
+     */
+    Slice<CarView> findViews(Specification<Car> specification, Pageable pageable);
+
+    /**
+     * Finds a page of car views like {@link #findViews(Specification, Pageable)}, selecting only the columns of the given fields.
+     *
+     * @param specification The specification to filter cars by
+     * @param pageable      The page and sort to apply
+     * @param fields        The fields of the views, or null for full views
+     * @return The counted {@link Page} of car views, or an uncounted Slice if the count timed out
+     */
+    Slice<CarView> findViews(Specification<Car> specification, Pageable pageable, Set<CarField> fields);
+
+    /**
+     * Finds the car views matching the specification in the given order.
+     *
+     * @param specification The specification to filter cars by
+     * @param sort          The sort to apply
+     * @param limit         The maximum number of views, or null for all
+     * @return The car views
+     */
+    List<CarView> findViews(Specification<Car> specification, Sort sort, Integer limit);
+
+    /**
+     * Finds the car views matching the specification in the given order, selecting only the columns of the given fields.
+     *
+     * @param specification The specification to filter cars by
+     * @param sort          The sort to apply
+     * @param limit         The maximum number of views, or null for all
+     * @param fields        The fields of the views, or null for full views
+     * @return The car views
+     */
+    List<CarView> findViews(Specification<Car> specification, Sort sort, Integer limit, Set<CarField> fields);
+
+    /**
+     * Finds a page of car views matching the specification without counting them.
+     * One extra row is read to tell whether more cars follow.
+     *
+     * @param specification The specification to filter cars by
+     * @param pageable      The page and sort to apply
+     * @return The slice of car views
+     */
+    Slice<CarView> findViewSlice(Specification<Car> specification, Pageable pageable);
+
+    /**
+     * Finds a page of car views without counting them, selecting only the columns of the given fields.
+     *
+     * @param specification The specification to filter cars by
+     * @param pageable      The page and sort to apply
+     * @param fields        The fields of the views, or null for full views
+     * @return The slice of car views
+     */
+    Slice<CarView> findViewSlice(Specification<Car> specification, Pageable pageable, Set<CarField> fields);
+
+    /**
+     * Estimates the number of cars from the table statistics of the database, without scanning the table.
+     *
+     * @return The estimated number of cars, or -1 if the table has not been analyzed yet
+     */
+    long estimateCount();
+
+    /**
+     * Inserts the cars with JDBC batch inserts in a single transaction.
+     * Ids are reserved from the id column's sequence in one round trip and assigned to the cars before the insert,
+     * so the rows can be batched despite the identity generation strategy.
+     *
+     * @param cars The new cars, with brand and image set
+     */
+    void insertAll(List<Car> cars);
+
+    /**
+     * Applies a bulk update to the given cars with a single UPDATE statement.
+     * The persistence context is cleared afterwards, so cars loaded before the update keep their previous state
+     * and later reads see the new one.
+     *
+     * @param ids                  The ids of the cars to update
+     * @param carBulkUpdateCommand The changes to apply
+     * @return The number of updated cars
+     */
+    int updateAll(Collection<Long> ids, CarBulkUpdateCommand carBulkUpdateCommand);
+}
@@ -0,0 +1,582 @@
+package com.bist.backendmodule.modules.car;
+
+import com.bist.backendmodule.datasource.DataSourceRoute;
+import com.bist.backendmodule.datasource.DataSourceRoutingContext;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.bist.backendmodule.modules.car.CarQueryCache.CompiledCarQuery;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarBulkUpdateCommand;
+import com.bist.backendmodule.modules.car.models.CarField;
+import com.bist.backendmodule.modules.car.models.CarView;
+import com.bist.backendmodule.modules.image.models.Image;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
+import jakarta.persistence.QueryTimeoutException;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the custom Car repository fragment.
+ */
+public class CarRepositoryCustomImpl implements CarRepositoryCustom {
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('t_car', 'id')) FROM generate_series(1, ?)";
+    private static final String INSERT_SQL =
+            "INSERT INTO t_car (id, brand_id, specification, engine_liter, is_new, price, release_date_time, image_id, change_version, change_xid) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, nextval('" + Car.CHANGE_VERSION_SEQUENCE + "'), " + Car.CHANGE_XID_FUNCTION + "())";
+
+    private static final String QUERY_TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+    private static final String ESTIMATE_COUNT_SQL =
+            "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('t_car' AS regclass)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    private final CarQueryCache carQueryCache;
+    private final Executor countExecutor;
+    private final Semaphore countPermits;
+    private final long countTimeoutMillis;
+
+    /**
+     * Creates the fragment, which runs the count queries of pages on the application task executor.
+     * Counts use the application data source like every other query, so they follow the data source route of the
+     * request and draw their connections from the configured pool. When every count permit is taken,
+     * the count runs after the page query on the caller's thread instead.
+     *
+     * @param carQueryCache      The cache of compiled view and count queries
+     * @param countExecutor      The application task executor the counts run on
+     * @param countThreads       The number of count queries that may run concurrently with their page queries
+     * @param countTimeoutMillis How long a count may run before it is cancelled
+     */
+    public CarRepositoryCustomImpl(CarQueryCache carQueryCache,
+                                   @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor countExecutor,
+                                   @Value("${car.page.count-threads:8}") int countThreads,
+                                   @Value("${car.page.count-timeout-ms:10000}") long countTimeoutMillis) {
+        this.carQueryCache = carQueryCache;
+        this.countExecutor = countExecutor;
+        this.countPermits = new Semaphore(countThreads);
+        this.countTimeoutMillis = countTimeoutMillis;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Runs in a read-only transaction, which PostgreSQL requires to honour the fetch size.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Specification<Car> specification, int fetchSize, Consumer<Car> consumer) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Car> query = criteriaBuilder.createQuery(Car.class);
+        Root<Car> root = query.from(Car.class);
+        root.fetch("brand");
+        root.fetch("image", JoinType.LEFT);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(criteriaBuilder.asc(root.get("id")));
+
+        Session session = entityManager.unwrap(Session.class);
+        try (ScrollableResults<Car> results = session.createQuery(query)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            int rowCount = 0;
+            while (results.next()) {
+                consumer.accept(results.get());
+                if (++rowCount % fetchSize == 0) {
+                    session.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findIds(Specification<Car> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Car> root = query.from(Car.class);
+        query.select(root.get("id"));
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal findMinPrice(Specification<Car> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BigDecimal> query = criteriaBuilder.createQuery(BigDecimal.class);
+        Root<Car> root = query.from(Car.class);
+        query.select(criteriaBuilder.min(root.<BigDecimal>get("price")));
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Only the low-cardinality columns are grouped; the buckets are conditional sums over each group,
+     * so all facets come out of one scan of the matching rows.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Tuple> countFacets(Specification<Car> specification, List<BigDecimal> priceBounds, List<LocalDateTime> releaseDateBounds) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Car> root = query.from(Car.class);
+        Join<Car, Brand> brand = root.join("brand");
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(brand.get("name"));
+        selections.add(root.get("isNew"));
+        selections.add(root.get("engineLiter"));
+        selections.add(criteriaBuilder.count(root));
+        addBucketCounts(criteriaBuilder, root.get("price"), priceBounds, selections);
+        addBucketCounts(criteriaBuilder, root.get("releaseDateTime"), releaseDateBounds, selections);
+        query.multiselect(selections);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(brand.get("name"), root.get("isNew"), root.get("engineLiter"));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private <T extends Comparable<? super T>> void addBucketCounts(CriteriaBuilder criteriaBuilder, Path<T> path,
+                                                                   List<T> bounds, List<Selection<?>> selections) {
+        for (int i = 0; i <= bounds.size(); i++) {
+            List<Predicate> inBucket = new ArrayList<>();
+            if (i > 0) {
+                inBucket.add(criteriaBuilder.greaterThanOrEqualTo(path, bounds.get(i - 1)));
+            }
+            if (i < bounds.size()) {
+                inBucket.add(criteriaBuilder.lessThan(path, bounds.get(i)));
+            }
+            if (inBucket.isEmpty()) {
+                inBucket.add(criteriaBuilder.isNotNull(path));
+            }
+            selections.add(criteriaBuilder.sum(criteriaBuilder.<Long>selectCase()
+                    .when(criteriaBuilder.and(inBucket.toArray(new Predicate[0])), 1L)
+                    .otherwise(0L)));
+        }
+    }
+
+    @Override
+    public Slice<CarView> findViews(Specification<Car> specification, Pageable pageable) {
+        return findViews(specification, pageable, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Runs without a transaction of its own, so that the page query returns its connection before the count is
+     * awaited. The page query reads one row beyond the page, so a count that times out still leaves a slice.
+     */
+    @Override
+    public Slice<CarView> findViews(Specification<Car> specification, Pageable pageable, Set<CarField> fields) {
+        PendingCount pendingCount = countConcurrently(specification);
+        try {
+            List<CarView> content = readViews(specification, pageable.getSort(), fields, (int) pageable.getOffset(), pageable.getPageSize() + 1);
+            boolean hasNext = content.size() > pageable.getPageSize();
+            if (hasNext) {
+                content = content.subList(0, pageable.getPageSize());
+            } else if (!content.isEmpty() || pageable.getOffset() == 0) {
+                // The last page reveals the total
+                return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+            }
+            long total = pendingCount != null ? awaitCount(pendingCount) : count(entityManager, specification);
+            return total < 0 ? new SliceImpl<>(content, pageable, hasNext) : new PageImpl<>(content, pageable, total);
+        } finally {
+            if (pendingCount != null) {
+                pendingCount.claim();
+            }
+        }
+    }
+
+    @Override
+    public Slice<CarView> findViewSlice(Specification<Car> specification, Pageable pageable) {
+        return findViewSlice(specification, pageable, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CarView> findViewSlice(Specification<Car> specification, Pageable pageable, Set<CarField> fields) {
+        List<CarView> content = readViews(specification, pageable.getSort(), fields, (int) pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateCount() {
+        Number estimate = (Number) entityManager.createNativeQuery(ESTIMATE_COUNT_SQL).getSingleResult();
+        return estimate != null && estimate.longValue() >= 0 ? estimate.longValue() : -1;
+    }
+
+    @Override
+    public List<CarView> findViews(Specification<Car> specification, Sort sort, Integer limit) {
+        return findViews(specification, sort, limit, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CarView> findViews(Specification<Car> specification, Sort sort, Integer limit, Set<CarField> fields) {
+        return readViews(specification, sort, fields, 0, limit);
+    }
+
+    /**
+     * Reads full views, or sparse views selecting only the columns of the requested fields.
+     * Sparse views also select the id and the sort fields, which the listings need for ordering pages and cursors.
+     */
+    private List<CarView> readViews(Specification<Car> specification, Sort sort, Set<CarField> fields, int firstResult, Integer maxResults) {
+        if (fields == null) {
+            return limit(createViewQuery(specification, sort), firstResult, maxResults).getResultList();
+        }
+        Set<CarField> selected = EnumSet.of(CarField.ID);
+        selected.addAll(fields);
+        for (Sort.Order order : sort) {
+            try {
+                selected.add(CarField.fromValue(order.getProperty()));
+            } catch (IllegalArgumentException e) {
+                // Ordering by a column that is not selected needs no projection
+            }
+        }
+        return limit(createSparseViewQuery(specification, sort, selected), firstResult, maxResults).getResultList().stream()
+                .map(row -> new CarView(row, selected, fields))
+                .toList();
+    }
+
+    private static <T> TypedQuery<T> limit(TypedQuery<T> query, int firstResult, Integer maxResults) {
+        if (firstResult > 0) {
+            query.setFirstResult(firstResult);
+        }
+        if (maxResults != null) {
+            query.setMaxResults(maxResults);
+        }
+        return query;
+    }
+
+    /**
+     * Creates the view query from the compiled JPQL of the filter criteria when possible,
+     * and from a criteria tree for composed specifications and sorts that are not compiled.
+     */
+    private TypedQuery<CarView> createViewQuery(Specification<Car> specification, Sort sort) {
+        CompiledCarQuery compiled = findCompiledQuery(specification, sort, null);
+        if (compiled == null) {
+            return entityManager.createQuery(createViewCriteria(specification, sort));
+        }
+        TypedQuery<CarView> query = entityManager.createQuery(compiled.getViewJpql(), CarView.class);
+        ((CarFilterSpecification) specification).bind(query);
+        return query;
+    }
+
+    /**
+     * Creates the query of the selected columns, in {@link CarField} order, like {@link #createViewQuery}.
+     */
+    private TypedQuery<Object[]> createSparseViewQuery(Specification<Car> specification, Sort sort, Set<CarField> selected) {
+        CompiledCarQuery compiled = findCompiledQuery(specification, sort, selected);
+        if (compiled == null) {
+            return entityManager.createQuery(createSparseViewCriteria(specification, sort, selected));
+        }
+        TypedQuery<Object[]> query = entityManager.createQuery(compiled.getViewJpql(), Object[].class);
+        ((CarFilterSpecification) specification).bind(query);
+        return query;
+    }
+
+    private CompiledCarQuery findCompiledQuery(Specification<Car> specification, Sort sort, Set<CarField> selected) {
+        return specification instanceof CarFilterSpecification carFilterSpecification
+                ? carQueryCache.get(carFilterSpecification, sort, selected)
+                : null;
+    }
+
+    private CriteriaQuery<CarView> createViewCriteria(Specification<Car> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CarView> query = criteriaBuilder.createQuery(CarView.class);
+        Root<Car> root = query.from(Car.class);
+        Join<Car, Brand> brand = root.join("brand");
+        Join<Car, Image> image = root.join("image", JoinType.LEFT);
+        query.select(criteriaBuilder.construct(CarView.class,
+                root.get("id"), brand.get("id"), brand.get("name"), root.get("specification"), root.get("engineLiter"),
+                root.get("isNew"), root.get("price"), root.get("releaseDateTime"), image.get("id"), image.get("filename"),
+                image.get("contentHash")));
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+        return query;
+    }
+
+    private CriteriaQuery<Object[]> createSparseViewCriteria(Specification<Car> specification, Sort sort, Set<CarField> selected) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = criteriaBuilder.createQuery(Object[].class);
+        Root<Car> root = query.from(Car.class);
+        Join<Car, Brand> brand = root.join("brand");
+        List<Selection<?>> columns = new ArrayList<>();
+        for (CarField field : selected) {
+            switch (field) {
+                case ID -> columns.add(root.get("id"));
+                case BRAND -> {
+                    columns.add(brand.get("id"));
+                    columns.add(brand.get("name"));
+                }
+                case IMAGE -> {
+                    Join<Car, Image> image = root.join("image", JoinType.LEFT);
+                    columns.add(image.get("id"));
+                    columns.add(image.get("filename"));
+                    columns.add(image.get("contentHash"));
+                }
+                default -> columns.add(root.get(field.getName()));
+            }
+        }
+        query.multiselect(columns);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+        return query;
+    }
+
+    /**
+     * Starts counting the cars on the count executor.
+     *
+     * @param specification The specification to filter cars by
+     * @return The pending count, or null if no count permit is free
+     */
+    private PendingCount countConcurrently(Specification<Car> specification) {
+        if (!countPermits.tryAcquire()) {
+            return null;
+        }
+        PendingCount pendingCount = new PendingCount(specification);
+        try {
+            countExecutor.execute(pendingCount);
+            return pendingCount;
+        } catch (RejectedExecutionException e) {
+            countPermits.release();
+            return null;
+        }
+    }
+
+    /**
+     * Awaits a pending count. A count the executor has not started yet runs on the caller's thread instead.
+     *
+     * @param pendingCount The pending count
+     * @return The number of cars, or -1 if the count timed out
+     */
+    private long awaitCount(PendingCount pendingCount) {
+        if (pendingCount.claim()) {
+            return count(entityManager, pendingCount.specification);
+        }
+        try {
+            return pendingCount.result.get(countTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The count ends with its query timeout
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while counting cars", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Counting cars failed", e.getCause());
+        }
+    }
+
+    /**
+     * Counts the cars matching the specification, cancelled in the database after car.page.count-timeout-ms.
+     *
+     * @param queryEntityManager The entity manager to count with
+     * @param specification      The specification to filter cars by
+     * @return The number of cars, or -1 if the count timed out
+     */
+    private long count(EntityManager queryEntityManager, Specification<Car> specification) {
+        TypedQuery<Long> query;
+        CompiledCarQuery compiled = findCompiledQuery(specification, Sort.unsorted(), null);
+        if (compiled != null) {
+            query = queryEntityManager.createQuery(compiled.getCountJpql(), Long.class);
+            ((CarFilterSpecification) specification).bind(query);
+        } else {
+            CriteriaBuilder criteriaBuilder = queryEntityManager.getCriteriaBuilder();
+            CriteriaQuery<Long> criteria = criteriaBuilder.createQuery(Long.class);
+            Root<Car> root = criteria.from(Car.class);
+            criteria.select(criteriaBuilder.count(root));
+
+            Predicate predicate = specification == null ? null : specification.toPredicate(root, criteria, criteriaBuilder);
+            if (predicate != null) {
+                criteria.where(predicate);
+            }
+            query = queryEntityManager.createQuery(criteria);
+        }
+        try {
+            return query.setHint(QUERY_TIMEOUT_HINT, countTimeoutMillis).getSingleResult();
+        } catch (QueryTimeoutException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<Car> cars) {
+        if (cars.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(RESERVE_IDS_SQL)) {
+                statement.setInt(1, cars.size());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    for (Car car : cars) {
+                        resultSet.next();
+                        car.setId(resultSet.getLong(1));
+                    }
+                }
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                for (Car car : cars) {
+                    statement.setLong(1, car.getId());
+                    statement.setLong(2, car.getBrand().getId());
+                    statement.setString(3, car.getSpecification());
+                    statement.setObject(4, car.getEngineLiter(), Types.REAL);
+                    statement.setObject(5, car.getIsNew(), Types.BOOLEAN);
+                    statement.setBigDecimal(6, car.getPrice());
+                    statement.setObject(7, car.getReleaseDateTime() != null ? Timestamp.valueOf(car.getReleaseDateTime()) : null, Types.TIMESTAMP);
+                    statement.setObject(8, car.getImage() != null ? car.getImage().getId() : null, Types.BIGINT);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int updateAll(Collection<Long> ids, CarBulkUpdateCommand carBulkUpdateCommand) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Car> update = criteriaBuilder.createCriteriaUpdate(Car.class);
+        Root<Car> root = update.from(Car.class);
+
+        Expression<BigDecimal> price = root.get("price");
+        if (carBulkUpdateCommand.getPriceFactor() != null) {
+            price = criteriaBuilder.prod(price, carBulkUpdateCommand.getPriceFactor());
+        }
+        if (carBulkUpdateCommand.getPriceDelta() != null) {
+            price = criteriaBuilder.sum(price, carBulkUpdateCommand.getPriceDelta());
+        }
+        if (carBulkUpdateCommand.getPriceFactor() != null || carBulkUpdateCommand.getPriceDelta() != null) {
+            // Rounded like CarBulkUpdateCommand.newPrice, PostgreSQL rounds numeric halves away from zero
+            update.set(root.<BigDecimal>get("price"),
+                    criteriaBuilder.function("round", BigDecimal.class, price, criteriaBuilder.literal(2)));
+        }
+        if (carBulkUpdateCommand.getIsNew() != null) {
+            update.set(root.<Boolean>get("isNew"), carBulkUpdateCommand.getIsNew());
+        }
+        update.set(root.<Long>get("changeVersion"),
+                criteriaBuilder.function("nextval", Long.class, criteriaBuilder.literal(Car.CHANGE_VERSION_SEQUENCE)));
+        update.set(root.<Long>get("changeXid"), criteriaBuilder.function(Car.CHANGE_XID_FUNCTION, Long.class));
+        update.where(root.get("id").in(ids));
+
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
+    /**
+     * A count handed to the count executor, run with its own entity manager on the data source route of the caller.
+     * Either the executor or the caller claims it, so it runs once: a count the page no longer needs is claimed
+     * by the caller and skipped, and a count that is already running ends with its query timeout at the latest.
+     */
+    private final class PendingCount implements Runnable {
+        private final Specification<Car> specification;
+        private final DataSourceRoute route = DataSourceRoutingContext.get();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private PendingCount(Specification<Car> specification) {
+            this.specification = specification;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                DataSourceRoutingContext.set(route);
+                EntityManager countEntityManager = entityManagerFactory.createEntityManager();
+                try {
+                    result.complete(count(countEntityManager, specification));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    countEntityManager.close();
+                    DataSourceRoutingContext.set(null);
+                }
+            } finally {
+                countPermits.release();
+            }
+        }
+
+        /**
+         * Claims the count for the caller, unless the executor has started it.
+         *
+         * @return true if the count was not started and will not run on the executor
+         */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
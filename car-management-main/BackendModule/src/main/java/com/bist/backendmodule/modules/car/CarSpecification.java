@@ -1,17 +1,38 @@
 package com.bist.backendmodule.modules.car;
 
 import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarChangePosition;
+import com.bist.backendmodule.modules.car.models.CarCursor;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import com.bist.backendmodule.modules.car.models.CarSortField;
+import com.bist.backendmodule.modules.car.search.CarSearchText;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Class containing specifications for querying Car entities.
  */
 public class CarSpecification {
 
+    /**
+     * Builds the specification combining every criterion present in the filter.
+     * The car view and count queries of such a specification run from JPQL compiled once per criteria combination.
+     *
+     * @param carFilter The filter to build the specification from
+     * @return The specification matching all present criteria
+     */
+    public static Specification<Car> fromFilter(CarFilter carFilter) {
+        return new CarFilterSpecification(carFilter);
+    }
+
     /**
      * Specification for filtering cars by brand name.
      *
@@ -93,16 +114,100 @@ public class CarSpecification {
     }
 
     /**
-     * Specification for filtering cars by a search term.
+     * Specification for filtering cars by a search term, with the matching rules of the search index:
+     * every token of the term must occur in a word of the brand name or specification, ignoring case,
+     * and tokens too short for a partial match must be whole words. See {@link CarSearchText}.
      *
      * @param searchTerm The search term to filter by
      * @return The specification for filtering cars by the search term
      */
     public static Specification<Car> hasSearchTerm(String searchTerm) {
-        return (root, query, criteriaBuilder) ->
-                criteriaBuilder.or(
-                        criteriaBuilder.like(root.get("specification"), "%" + searchTerm + "%"),
-                        criteriaBuilder.like(root.get("brand").get("name"), "%" + searchTerm + "%")
-                );
+        List<String> fragments = CarSearchText.fragments(searchTerm);
+        return (root, query, criteriaBuilder) -> {
+            if (fragments.isEmpty()) {
+                // The index finds nothing for a term without words
+                return criteriaBuilder.disjunction();
+            }
+            Expression<String> text = criteriaBuilder.lower(criteriaBuilder.concat(
+                    criteriaBuilder.concat(criteriaBuilder.coalesce(root.get("brand").<String>get("name"), ""), " "),
+                    criteriaBuilder.coalesce(root.<String>get("specification"), "")));
+            Expression<String> words = criteriaBuilder.function("regexp_replace", String.class, text,
+                    criteriaBuilder.literal(CarSearchText.NON_WORD_CHARACTERS), criteriaBuilder.literal(" "), criteriaBuilder.literal("g"));
+            Expression<String> searchableText = criteriaBuilder.concat(criteriaBuilder.concat(" ", words), " ");
+            return criteriaBuilder.and(fragments.stream()
+                    .map(fragment -> criteriaBuilder.like(searchableText, "%" + fragment + "%"))
+                    .toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Specification for cars whose change position lies in a range.
+     *
+     * @param after The exclusive lower bound
+     * @param upTo  The inclusive upper bound
+     * @return The specification for filtering cars by change position
+     */
+    public static Specification<Car> hasChangePositionBetween(CarChangePosition after, CarChangePosition upTo) {
+        return (root, query, criteriaBuilder) -> {
+            Path<Long> changeXid = root.get("changeXid");
+            Path<Long> changeVersion = root.get("changeVersion");
+            return criteriaBuilder.and(
+                    criteriaBuilder.or(
+                            criteriaBuilder.greaterThan(changeXid, after.getChangeXid()),
+                            criteriaBuilder.and(criteriaBuilder.equal(changeXid, after.getChangeXid()),
+                                    criteriaBuilder.greaterThan(changeVersion, after.getChangeVersion()))),
+                    criteriaBuilder.or(
+                            criteriaBuilder.lessThan(changeXid, upTo.getChangeXid()),
+                            criteriaBuilder.and(criteriaBuilder.equal(changeXid, upTo.getChangeXid()),
+                                    criteriaBuilder.lessThanOrEqualTo(changeVersion, upTo.getChangeVersion()))));
+        };
+    }
+
+    /**
+     * Specification for restricting cars to the given ids, e.g. the matches of the search index.
+     *
+     * @param ids The ids to restrict to
+     * @return The specification for filtering cars by id
+     */
+    public static Specification<Car> hasIdIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Seek specification for keyset pagination, matching the cars that come after the cursor position.
+     * The redundant inclusive bound on the sort column lets the database start an index range scan
+     * at the cursor instead of filtering from the first row. Sort columns are non-null, as enforced
+     * by the CarCommand validation.
+     *
+     * @param cursor The cursor holding the sort key and id of the last row of the previous page
+     * @return The specification for filtering cars after the cursor
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Car> isAfterCursor(CarCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            boolean ascending = cursor.getDirection().isAscending();
+            Path<Long> id = root.get("id");
+            Predicate idAfter = ascending
+                    ? criteriaBuilder.greaterThan(id, cursor.getLastId())
+                    : criteriaBuilder.lessThan(id, cursor.getLastId());
+            if (cursor.getSortField() == CarSortField.ID) {
+                return idAfter;
+            }
+
+            Path sortKey = root.get(cursor.getSortField().getProperty());
+            Comparable value = cursor.getSortValue();
+            if (ascending) {
+                return criteriaBuilder.and(
+                        criteriaBuilder.greaterThanOrEqualTo(sortKey, value),
+                        criteriaBuilder.or(
+                                criteriaBuilder.greaterThan(sortKey, value),
+                                criteriaBuilder.and(criteriaBuilder.equal(sortKey, value), idAfter)));
+            }
+            return criteriaBuilder.and(
+                    criteriaBuilder.lessThanOrEqualTo(sortKey, value),
+                    criteriaBuilder.or(
+                            criteriaBuilder.lessThan(sortKey, value),
+                            criteriaBuilder.and(criteriaBuilder.equal(sortKey, value), idAfter)));
+        };
     }
 }
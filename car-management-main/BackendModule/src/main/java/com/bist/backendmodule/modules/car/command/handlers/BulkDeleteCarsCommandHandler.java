@@ -0,0 +1,75 @@
+package com.bist.backendmodule.modules.car.command.handlers;
+
+import com.bist.backendmodule.exceptions.CarCommandNotValidException;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.Command;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.CarSpecification;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarBulkResult;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.BindingResult;
+
+import java.util.List;
+
+/**
+ * Service for deleting every car matching a filter.
+ * The matching ids are resolved once and deleted in chunks, each with a single DELETE statement.
+ * The deleted cars are read with one query per chunk, so one change event per chunk can be published
+ * for the search index, the column store and the response cache.
+ */
+@Service
+public class BulkDeleteCarsCommandHandler implements Command<CarFilter, BindingResult, CarBulkResult> {
+
+    @Value("${car.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    private final CarRepository carRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BulkDeleteCarsCommandHandler(CarRepository carRepository,
+                                        ApplicationEventPublisher eventPublisher) {
+        this.carRepository = carRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Executes the bulk delete command.
+     *
+     * @param carFilter     The filter selecting the cars to delete
+     * @param bindingResult Not used in this service
+     * @return ResponseEntity containing the number of deleted cars
+     * @throws CarCommandNotValidException If the filter is empty
+     */
+    @Override
+    @Transactional
+    public ResponseEntity<CarBulkResult> execute(CarFilter carFilter, BindingResult bindingResult) {
+        if (!carFilter.hasCriteria()) {
+            throw new CarCommandNotValidException("Bulk delete requires at least one filter", BulkDeleteCarsCommandHandler.class);
+        }
+
+        List<Long> ids = carRepository.findIds(CarSpecification.fromFilter(carFilter));
+
+        long affected = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+
+            List<Car> deletedCars = carRepository.findAllById(chunk);
+            carRepository.deleteAllByIdInBatch(chunk);
+            affected += deletedCars.size();
+
+            eventPublisher.publishEvent(new CarsChangedEvent(deletedCars.stream()
+                    .map(car -> new CarChangedEvent(ChangeType.DELETED, car.getId(), null, car))
+                    .toList()));
+        }
+
+        return ResponseEntity.ok().body(new CarBulkResult(affected));
+    }
+}
@@ -0,0 +1,110 @@
+package com.bist.backendmodule.modules.car.command.handlers;
+
+import com.bist.backendmodule.exceptions.CarCommandNotValidException;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.Command;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.CarSpecification;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarBulkResult;
+import com.bist.backendmodule.modules.car.models.CarBulkUpdateCommand;
+import com.bist.backendmodule.modules.car.models.CarBulkUpdateRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.ObjectError;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for changing the price or status of every car matching a filter.
+ * The matching ids are resolved once and updated in chunks, each with a single UPDATE statement, in one transaction.
+ * The states before and after each chunk are read with one query each, so one change event per chunk can be published
+ * for the search index, the column store and the response cache.
+ */
+@Service
+public class BulkUpdateCarsCommandHandler implements Command<CarBulkUpdateRequest, BindingResult, CarBulkResult> {
+
+    @Value("${car.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    private final CarRepository carRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BulkUpdateCarsCommandHandler(CarRepository carRepository,
+                                        ApplicationEventPublisher eventPublisher) {
+        this.carRepository = carRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Executes the bulk update command.
+     *
+     * @param carBulkUpdateRequest The request containing the filter and the changes
+     * @param bindingResult        The binding result of the changes, may be null
+     * @return ResponseEntity containing the number of updated cars
+     * @throws CarCommandNotValidException If the filter is empty, no change is given, a change is out of range
+     *                                     or a price would become negative
+     */
+    @Override
+    @Transactional
+    public ResponseEntity<CarBulkResult> execute(CarBulkUpdateRequest carBulkUpdateRequest, BindingResult bindingResult) {
+        CarBulkUpdateCommand carBulkUpdateCommand = carBulkUpdateRequest.getCarBulkUpdateCommand();
+        if (!carBulkUpdateRequest.getCarFilter().hasCriteria()) {
+            throw new CarCommandNotValidException("Bulk update requires at least one filter", BulkUpdateCarsCommandHandler.class);
+        }
+        if (carBulkUpdateCommand == null || !carBulkUpdateCommand.hasChanges()) {
+            throw new CarCommandNotValidException("Bulk update requires at least one change", BulkUpdateCarsCommandHandler.class);
+        }
+
+        if (bindingResult != null && bindingResult.hasErrors()) {
+            String errorMessage = bindingResult.getAllErrors().stream()
+                    .map(ObjectError::getDefaultMessage)
+                    .collect(Collectors.joining(", "));
+            throw new CarCommandNotValidException(errorMessage, BulkUpdateCarsCommandHandler.class);
+        }
+
+        Specification<Car> specification = CarSpecification.fromFilter(carBulkUpdateRequest.getCarFilter());
+        if (carBulkUpdateCommand.getPriceFactor() != null || carBulkUpdateCommand.getPriceDelta() != null) {
+            // The factor is positive, so the lowest price stays the lowest and is the only one to check
+            BigDecimal minPrice = carRepository.findMinPrice(specification);
+            if (minPrice != null && carBulkUpdateCommand.newPrice(minPrice).signum() < 0) {
+                throw new CarCommandNotValidException("Bulk update cannot make a price negative", BulkUpdateCarsCommandHandler.class);
+            }
+        }
+
+        List<Long> ids = carRepository.findIds(specification);
+
+        long affected = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+
+            List<Car> previousCars = carRepository.findAllById(chunk);
+            affected += carRepository.updateAll(chunk, carBulkUpdateCommand);
+            Map<Long, Car> carsById = carRepository.findAllById(chunk).stream()
+                    .collect(Collectors.toMap(Car::getId, Function.identity()));
+
+            List<CarChangedEvent> changes = new ArrayList<>(previousCars.size());
+            for (Car previousCar : previousCars) {
+                Car car = carsById.get(previousCar.getId());
+                if (car != null) {
+                    changes.add(new CarChangedEvent(ChangeType.UPDATED, car.getId(), car, previousCar));
+                }
+            }
+            eventPublisher.publishEvent(new CarsChangedEvent(changes));
+        }
+
+        return ResponseEntity.ok().body(new CarBulkResult(affected));
+    }
+}
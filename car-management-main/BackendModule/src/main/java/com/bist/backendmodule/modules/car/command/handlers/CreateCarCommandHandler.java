@@ -1,14 +1,17 @@
 package com.bist.backendmodule.modules.car.command.handlers;
 
+import com.bist.backendmodule.modules.ChangeType;
 import com.bist.backendmodule.modules.Command;
 import com.bist.backendmodule.modules.brand.models.Brand;
 import com.bist.backendmodule.modules.brand.query.handlers.GetBrandByIdQueryHandler;
 import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
 import com.bist.backendmodule.modules.car.models.Car;
 import com.bist.backendmodule.modules.car.models.CarCommand;
 import com.bist.backendmodule.modules.image.models.Image;
 import com.bist.backendmodule.modules.image.query.handlers.GetImageByIdQueryHandler;
 import com.bist.backendmodule.validations.CarCommandValidationService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.BindingResult;
@@ -22,15 +25,18 @@ public class CreateCarCommandHandler implements Command<CarCommand, BindingResul
     private final GetBrandByIdQueryHandler getBrandByIdQueryHandler;
     private final GetImageByIdQueryHandler getImageByIdQueryHandler;
     private final CarCommandValidationService carCommandValidationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CreateCarCommandHandler(CarRepository carRepository,
                                    GetBrandByIdQueryHandler getBrandByIdQueryHandler,
                                    GetImageByIdQueryHandler getImageByIdQueryHandler,
-                                   CarCommandValidationService carCommandValidationService) {
+                                   CarCommandValidationService carCommandValidationService,
+                                   ApplicationEventPublisher eventPublisher) {
         this.carRepository = carRepository;
         this.getBrandByIdQueryHandler = getBrandByIdQueryHandler;
         this.getImageByIdQueryHandler = getImageByIdQueryHandler;
         this.carCommandValidationService = carCommandValidationService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -54,6 +60,7 @@ public class CreateCarCommandHandler implements Command<CarCommand, BindingResul
         car.setImage(image);
 
         carRepository.save(car);
+        eventPublisher.publishEvent(new CarChangedEvent(ChangeType.CREATED, car.getId(), car, null));
         return ResponseEntity.ok().body(car);
     }
 }
@@ -1,11 +1,15 @@
 package com.bist.backendmodule.modules.car.command.handlers;
 
 import com.bist.backendmodule.exceptions.CarNotFoundException;
+import com.bist.backendmodule.modules.ChangeType;
 import com.bist.backendmodule.modules.Command;
 import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
 import com.bist.backendmodule.modules.car.models.Car;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -15,9 +19,12 @@ import java.util.Optional;
 @Service
 public class DeleteCarCommandHandler implements Command<Long, Void, Void> {
     private final CarRepository carRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public DeleteCarCommandHandler(CarRepository carRepository) {
+    public DeleteCarCommandHandler(CarRepository carRepository,
+                                   ApplicationEventPublisher eventPublisher) {
         this.carRepository = carRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -29,6 +36,7 @@ public class DeleteCarCommandHandler implements Command<Long, Void, Void> {
      * @throws CarNotFoundException If the car with the specified ID is not found.
      */
     @Override
+    @Transactional
     public ResponseEntity<Void> execute(Long id, Void bindingResult) {
         Optional<Car> carOptional = carRepository.findById(id);
         if (carOptional.isEmpty()) {
@@ -36,6 +44,7 @@ public class DeleteCarCommandHandler implements Command<Long, Void, Void> {
         }
         Car car = carOptional.get();
         carRepository.delete(car);
+        eventPublisher.publishEvent(new CarChangedEvent(ChangeType.DELETED, id, null, car));
         return ResponseEntity.ok().build();
     }
 }
@@ -0,0 +1,423 @@
+package com.bist.backendmodule.modules.car.command.handlers;
+
+import com.bist.backendmodule.exceptions.CarCommandNotValidException;
+import com.bist.backendmodule.exceptions.FileUploadException;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.Command;
+import com.bist.backendmodule.modules.brand.BrandRepository;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.*;
+import com.bist.backendmodule.modules.image.ImageRepository;
+import com.bist.backendmodule.modules.image.models.Image;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.BindingResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service for importing cars in bulk from a streamed NDJSON or CSV body of car commands.
+ * The body is read in batches: the rows of a batch are parsed and validated in parallel,
+ * the brands and images they reference are loaded with one query each, and the valid rows are written
+ * with JDBC batch inserts in one transaction per batch. Rejected rows are reported without aborting the import.
+ * Each written batch is announced with one change event.
+ */
+@Service
+public class ImportCarsCommandHandler implements Command<CarImportRequest, BindingResult, CarImportResult> {
+    private static final Logger logger = LoggerFactory.getLogger(ImportCarsCommandHandler.class);
+
+    @Value("${car.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${car.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private final CarRepository carRepository;
+    private final BrandRepository brandRepository;
+    private final ImageRepository imageRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ImportCarsCommandHandler(CarRepository carRepository,
+                                    BrandRepository brandRepository,
+                                    ImageRepository imageRepository,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.carRepository = carRepository;
+        this.brandRepository = brandRepository;
+        this.imageRepository = imageRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Executes the car import command.
+     *
+     * @param carImportRequest The request containing the body stream and its format
+     * @param bindingResult    Not used, the rows are validated individually
+     * @return ResponseEntity containing the import result
+     * @throws CarCommandNotValidException If a CSV body has no header line
+     * @throws FileUploadException         If the body cannot be read
+     */
+    @Override
+    public ResponseEntity<CarImportResult> execute(CarImportRequest carImportRequest, BindingResult bindingResult) {
+        ImportState state = new ImportState();
+        long start = System.currentTimeMillis();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(carImportRequest.getInputStream(), StandardCharsets.UTF_8))) {
+            RowReader rowReader = carImportRequest.getFormat() == CarExportFormat.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            ImportRow row;
+            while ((row = rowReader.next()) != null) {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    importBatch(batch, state);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            importBatch(batch, state);
+        } catch (IOException e) {
+            throw new FileUploadException(e.getMessage(), ImportCarsCommandHandler.class);
+        }
+
+        logger.info("Imported {} cars, rejected {} rows in {} ms", state.imported, state.failed, System.currentTimeMillis() - start);
+        return ResponseEntity.ok().body(new CarImportResult(state.imported, state.failed, state.errors));
+    }
+
+    /**
+     * Parses, validates and writes one batch of rows.
+     *
+     * @param batch The rows of the batch
+     * @param state The import state collecting the counts and errors
+     */
+    private void importBatch(List<ImportRow> batch, ImportState state) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        batch.parallelStream().forEach(this::parseAndValidate);
+
+        List<ImportRow> validRows = batch.stream().filter(row -> row.error == null).toList();
+        Map<Long, Brand> brands = resolve(validRows.stream().map(row -> row.command.getBrandId()), state.brands,
+                brandRepository::findAllById, Brand::getId);
+        Map<Long, Image> images = resolve(validRows.stream().map(row -> row.command.getImageId()).filter(Objects::nonNull), state.images,
+                imageRepository::findAllById, Image::getId);
+
+        List<Car> cars = new ArrayList<>(validRows.size());
+        for (ImportRow row : validRows) {
+            Brand brand = brands.get(row.command.getBrandId());
+            Image image = row.command.getImageId() != null ? images.get(row.command.getImageId()) : null;
+            if (brand == null) {
+                row.error = "Brand not found with id: " + row.command.getBrandId();
+            } else if (row.command.getImageId() != null && image == null) {
+                row.error = "Image not found with id: " + row.command.getImageId();
+            } else {
+                Car car = new Car(row.command);
+                car.setBrand(brand);
+                car.setImage(image);
+                cars.add(car);
+            }
+        }
+
+        try {
+            carRepository.insertAll(cars);
+        } catch (DataAccessException e) {
+            String message = "Batch could not be written: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            validRows.stream().filter(row -> row.error == null).forEach(row -> row.error = message);
+            cars = Collections.emptyList();
+        }
+
+        if (!cars.isEmpty()) {
+            eventPublisher.publishEvent(new CarsChangedEvent(cars.stream()
+                    .map(car -> new CarChangedEvent(ChangeType.CREATED, car.getId(), car, null))
+                    .toList()));
+        }
+
+        state.imported += cars.size();
+        for (ImportRow row : batch) {
+            if (row.error != null) {
+                state.failed++;
+                if (state.errors.size() < maxReportedErrors) {
+                    state.errors.add(new CarImportError(row.line, row.error));
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a row to a car command and validates it, recording the first problem on the row.
+     *
+     * @param row The row to process
+     */
+    private void parseAndValidate(ImportRow row) {
+        try {
+            row.command = row.json != null ? objectMapper.readValue(row.json, CarCommand.class) : row.csv.toCommand();
+        } catch (JsonProcessingException e) {
+            row.error = "Row could not be parsed: " + e.getOriginalMessage();
+            return;
+        } catch (RuntimeException e) {
+            row.error = "Row could not be parsed: " + e.getMessage();
+            return;
+        }
+
+        Set<ConstraintViolation<CarCommand>> violations = validator.validate(row.command);
+        if (!violations.isEmpty()) {
+            row.error = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+    }
+
+    /**
+     * Resolves the referenced entities, loading the ones not seen in earlier batches with a single query.
+     *
+     * @param ids    The referenced ids
+     * @param known  The entities loaded by earlier batches, extended with the newly loaded ones
+     * @param loader The repository lookup by ids
+     * @param idOf   The id accessor of the entity
+     * @return The known entities by id
+     */
+    private <T> Map<Long, T> resolve(Stream<Long> ids, Map<Long, T> known,
+                                     Function<Set<Long>, List<T>> loader, Function<T, Long> idOf) {
+        Set<Long> missing = ids.filter(id -> !known.containsKey(id)).collect(Collectors.toSet());
+        if (!missing.isEmpty()) {
+            for (T entity : loader.apply(missing)) {
+                known.put(idOf.apply(entity), entity);
+            }
+        }
+        return known;
+    }
+
+    /**
+     * Counts and errors of an import in progress, and the brands and images already loaded.
+     */
+    private static final class ImportState {
+        private long imported;
+        private long failed;
+        private final List<CarImportError> errors = new ArrayList<>();
+        private final Map<Long, Brand> brands = new HashMap<>();
+        private final Map<Long, Image> images = new HashMap<>();
+    }
+
+    /**
+     * A row of the body, with its line number and, once processed, its command or error.
+     */
+    private static final class ImportRow {
+        private final long line;
+        private final String json;
+        private final CsvRecord csv;
+        private CarCommand command;
+        private String error;
+
+        private ImportRow(long line, String json, CsvRecord csv) {
+            this.line = line;
+            this.json = json;
+            this.csv = csv;
+        }
+    }
+
+    /**
+     * Splits the body into rows.
+     */
+    private interface RowReader {
+        /**
+         * Reads the next row.
+         *
+         * @return The next row, or null at the end of the body
+         * @throws IOException If the body cannot be read
+         */
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * Reads one JSON document per non-blank line.
+     */
+    private static final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long lineNumber;
+
+        private NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    return new ImportRow(lineNumber, line, null);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads CSV records after a header line naming the car command fields. Quoted values may contain separators,
+     * doubled quotes and line breaks, as written by the car export; columns of other names, such as the id and
+     * the brand and image names of the export, are ignored.
+     */
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long lineNumber;
+
+        private CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new CarCommandNotValidException("CSV import requires a header line", ImportCarsCommandHandler.class);
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> fields;
+            long firstLine;
+            do {
+                firstLine = lineNumber + 1;
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+            return new ImportRow(firstLine, null, new CsvRecord(columns, fields));
+        }
+
+        /**
+         * Reads the fields of the next record.
+         *
+         * @return The fields, or null at the end of the body
+         * @throws IOException If the body cannot be read
+         */
+        private List<String> readRecord() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // A quoted value continues on the next line
+                    line = reader.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    lineNumber++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * The fields of a CSV record, looked up by header name.
+     */
+    private static final class CsvRecord {
+        private final Map<String, Integer> columns;
+        private final List<String> fields;
+
+        private CsvRecord(Map<String, Integer> columns, List<String> fields) {
+            this.columns = columns;
+            this.fields = fields;
+        }
+
+        /**
+         * Converts the record to a car command. Missing columns and empty values are left null for validation to report.
+         *
+         * @return The car command
+         * @throws IllegalArgumentException If a value cannot be converted
+         */
+        private CarCommand toCommand() {
+            CarCommand carCommand = new CarCommand();
+            carCommand.setBrandId(convert("brandId", Long::valueOf));
+            carCommand.setSpecification(convert("specification", Function.identity()));
+            carCommand.setEngineLiter(convert("engineLiter", Float::valueOf));
+            carCommand.setIsNew(convert("isNew", CsvRecord::parseBoolean));
+            carCommand.setPrice(convert("price", BigDecimal::new));
+            carCommand.setReleaseDateTime(convert("releaseDateTime", LocalDateTime::parse));
+            carCommand.setImageId(convert("imageId", Long::valueOf));
+            return carCommand;
+        }
+
+        private <T> T convert(String column, Function<String, T> converter) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            try {
+                return converter.apply(fields.get(index).trim());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + fields.get(index));
+            }
+        }
+
+        private static Boolean parseBoolean(String value) {
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException(value);
+            }
+            return Boolean.valueOf(value);
+        }
+    }
+}
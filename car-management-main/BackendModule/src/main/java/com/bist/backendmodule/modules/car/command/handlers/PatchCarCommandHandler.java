@@ -0,0 +1,106 @@
+package com.bist.backendmodule.modules.car.command.handlers;
+
+import com.bist.backendmodule.exceptions.CarCommandNotValidException;
+import com.bist.backendmodule.exceptions.CarNotFoundException;
+import com.bist.backendmodule.exceptions.ImageNotFoundException;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.Command;
+import com.bist.backendmodule.modules.brand.query.handlers.GetBrandByIdQueryHandler;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarCommand;
+import com.bist.backendmodule.modules.car.models.CarPatchCommand;
+import com.bist.backendmodule.modules.image.command.handlers.UpdateImageCommandHandler;
+import com.bist.backendmodule.modules.image.models.UpdateImageCommand;
+import com.bist.backendmodule.modules.image.query.handlers.GetImageByIdQueryHandler;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.BindingResult;
+
+/**
+ * Service for partially updating a car.
+ * The car is loaded once, only the given fields are applied to it, and the dynamic update writes only the changed columns.
+ * Brand and image are looked up only when their ids change, and the image file is only rewritten when a file is sent.
+ */
+@Service
+public class PatchCarCommandHandler implements Command<CarPatchCommand, BindingResult, Car> {
+    private final CarRepository carRepository;
+    private final GetBrandByIdQueryHandler getBrandByIdQueryHandler;
+    private final GetImageByIdQueryHandler getImageByIdQueryHandler;
+    private final UpdateImageCommandHandler updateImageCommandHandler;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PatchCarCommandHandler(CarRepository carRepository,
+                                  GetBrandByIdQueryHandler getBrandByIdQueryHandler,
+                                  GetImageByIdQueryHandler getImageByIdQueryHandler,
+                                  UpdateImageCommandHandler updateImageCommandHandler,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.carRepository = carRepository;
+        this.getBrandByIdQueryHandler = getBrandByIdQueryHandler;
+        this.getImageByIdQueryHandler = getImageByIdQueryHandler;
+        this.updateImageCommandHandler = updateImageCommandHandler;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Executes the car patch command.
+     *
+     * @param carPatchCommand The command containing the car id, the changed fields and the optional image file
+     * @param bindingResult   Not used, absent fields are allowed
+     * @return ResponseEntity containing the updated car
+     * @throws CarNotFoundException        If the car with the specified ID is not found
+     * @throws CarCommandNotValidException If the specification is given but empty
+     * @throws ImageNotFoundException      If a file is sent for a car without an image
+     */
+    @Override
+    @Transactional
+    public ResponseEntity<Car> execute(CarPatchCommand carPatchCommand, BindingResult bindingResult) {
+        Car car = carRepository.findById(carPatchCommand.getCarId())
+                .orElseThrow(() -> new CarNotFoundException(PatchCarCommandHandler.class));
+        Car previousCar = new Car(car);
+
+        CarCommand carCommand = carPatchCommand.getCarCommand();
+        if (carCommand != null) {
+            if (carCommand.getSpecification() != null) {
+                if (carCommand.getSpecification().isEmpty()) {
+                    throw new CarCommandNotValidException("Specification cannot be empty", PatchCarCommandHandler.class);
+                }
+                car.setSpecification(carCommand.getSpecification());
+            }
+            if (carCommand.getEngineLiter() != null) {
+                car.setEngineLiter(carCommand.getEngineLiter());
+            }
+            if (carCommand.getIsNew() != null) {
+                car.setIsNew(carCommand.getIsNew());
+            }
+            if (carCommand.getPrice() != null) {
+                car.setPrice(carCommand.getPrice());
+            }
+            if (carCommand.getReleaseDateTime() != null) {
+                car.setReleaseDateTime(carCommand.getReleaseDateTime());
+            }
+            if (carCommand.getBrandId() != null && !carCommand.getBrandId().equals(car.getBrand().getId())) {
+                car.setBrand(getBrandByIdQueryHandler.execute(carCommand.getBrandId()).getBody());
+            }
+            if (carCommand.getImageId() != null && (car.getImage() == null || !carCommand.getImageId().equals(car.getImage().getId()))) {
+                car.setImage(getImageByIdQueryHandler.execute(carCommand.getImageId()).getBody());
+            }
+        }
+
+        UpdateImageCommand updateImageCommand = carPatchCommand.getUpdateImageCommand();
+        if (updateImageCommand != null && updateImageCommand.getFile() != null) {
+            if (car.getImage() == null) {
+                throw new ImageNotFoundException(PatchCarCommandHandler.class);
+            }
+            updateImageCommand.setImageId(car.getImage().getId());
+            car.setImage(updateImageCommandHandler.execute(updateImageCommand, null).getBody());
+        }
+
+        carRepository.save(car);
+        eventPublisher.publishEvent(new CarChangedEvent(ChangeType.UPDATED, car.getId(), car, previousCar));
+        return ResponseEntity.ok().body(car);
+    }
+}
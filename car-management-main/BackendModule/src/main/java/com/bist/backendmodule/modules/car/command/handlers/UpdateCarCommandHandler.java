@@ -1,16 +1,18 @@
 package com.bist.backendmodule.modules.car.command.handlers;
 
 import com.bist.backendmodule.exceptions.CarNotFoundException;
+import com.bist.backendmodule.modules.ChangeType;
 import com.bist.backendmodule.modules.Command;
 import com.bist.backendmodule.modules.brand.models.Brand;
 import com.bist.backendmodule.modules.brand.query.handlers.GetBrandByIdQueryHandler;
 import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
 import com.bist.backendmodule.modules.car.models.Car;
 import com.bist.backendmodule.modules.car.models.CarUpdateCommand;
 import com.bist.backendmodule.modules.image.command.handlers.UpdateImageCommandHandler;
 import com.bist.backendmodule.modules.image.models.Image;
-import com.bist.backendmodule.modules.image.query.handlers.GetImageByIdQueryHandler;
 import com.bist.backendmodule.validations.CarCommandValidationService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.BindingResult;
@@ -25,19 +27,19 @@ public class UpdateCarCommandHandler implements Command<CarUpdateCommand, Bindin
     private final CarRepository carRepository;
     private final CarCommandValidationService carCommandValidationService;
     private final GetBrandByIdQueryHandler getBrandByIdQueryHandler;
-    private final GetImageByIdQueryHandler getImageByIdQueryHandler;
     private final UpdateImageCommandHandler updateImageCommandHandler;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UpdateCarCommandHandler(CarRepository carRepository,
                                    CarCommandValidationService carCommandValidationService,
                                    GetBrandByIdQueryHandler getBrandByIdQueryHandler,
-                                   GetImageByIdQueryHandler getImageByIdQueryHandler,
-                                   UpdateImageCommandHandler updateImageCommandHandler) {
+                                   UpdateImageCommandHandler updateImageCommandHandler,
+                                   ApplicationEventPublisher eventPublisher) {
         this.carRepository = carRepository;
         this.carCommandValidationService = carCommandValidationService;
         this.getBrandByIdQueryHandler = getBrandByIdQueryHandler;
-        this.getImageByIdQueryHandler = getImageByIdQueryHandler;
         this.updateImageCommandHandler = updateImageCommandHandler;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -61,8 +63,8 @@ public class UpdateCarCommandHandler implements Command<CarUpdateCommand, Bindin
         // Set image id
         carUpdateCommand.getUpdateImageCommand().setImageId(carOptional.get().getImage().getId());
 
-        // Update image
-        updateImageCommandHandler.execute(carUpdateCommand.getUpdateImageCommand(), null);
+        // Update image, which may move the car to another image of the new content
+        Image image = updateImageCommandHandler.execute(carUpdateCommand.getUpdateImageCommand(), null).getBody();
 
         Car car = new Car(carUpdateCommand.getCarCommand());
         car.setId(carUpdateCommand.getCarId());
@@ -70,10 +72,10 @@ public class UpdateCarCommandHandler implements Command<CarUpdateCommand, Bindin
         Brand brand = getBrandByIdQueryHandler.execute(carUpdateCommand.getCarCommand().getBrandId()).getBody();
         car.setBrand(brand);
 
-        Image image = getImageByIdQueryHandler.execute(carUpdateCommand.getUpdateImageCommand().getImageId()).getBody();
         car.setImage(image);
 
         carRepository.save(car);
+        eventPublisher.publishEvent(new CarChangedEvent(ChangeType.UPDATED, car.getId(), car, carOptional.get()));
         return ResponseEntity.ok().body(car);
     }
 }
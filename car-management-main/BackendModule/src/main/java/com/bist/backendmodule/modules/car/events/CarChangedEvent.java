@@ -0,0 +1,21 @@
+package com.bist.backendmodule.modules.car.events;
+
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.car.models.Car;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Event published by the car command handlers after a car has been written.
+ * The caches, the search index, the column store and the change feed apply it once the writing transaction has
+ * committed, so they never show a change that is rolled back; only the tombstones of the change log are written
+ * within the transaction.
+ */
+@Data
+@AllArgsConstructor
+public class CarChangedEvent {
+    private ChangeType changeType;
+    private Long carId;
+    private Car car;                            // Null for deletions
+    private Car previousCar;                    // Null for creations
+}
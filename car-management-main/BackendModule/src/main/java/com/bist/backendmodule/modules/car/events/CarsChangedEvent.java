@@ -0,0 +1,17 @@
+package com.bist.backendmodule.modules.car.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Event published by the bulk car command handlers once per chunk of written cars.
+ * The listeners apply all changes of the chunk at once, so a chunk costs one cache invalidation, one lock
+ * acquisition of the search index and one version bump instead of one per car.
+ */
+@Data
+@AllArgsConstructor
+public class CarsChangedEvent {
+    private List<CarChangedEvent> changes;
+}
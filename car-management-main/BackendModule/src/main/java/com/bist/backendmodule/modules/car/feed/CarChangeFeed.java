@@ -0,0 +1,278 @@
+package com.bist.backendmodule.modules.car.feed;
+
+import com.bist.backendmodule.exceptions.HandlerBusyException;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.CarChange;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events feed of car creations, updates and deletions.
+ * Subscribers are held as asynchronous servlet responses, so an idle subscriber holds no thread.
+ * Changes are collected per car and pushed by a single dispatcher thread once per coalescing interval:
+ * a burst of writes to one car reaches the subscribers as one event, and each change is serialized once for all of them.
+ * A subscriber only receives the changes of cars that may match its filter before or after the change.
+ * The dispatcher only queues the events of each subscriber; a small pool of sender threads writes them to the
+ * connections, one drain at a time per subscriber. A subscriber whose queue is full is too slow to keep up and is
+ * disconnected, so it can neither delay the others nor hold an unbounded backlog.
+ */
+@Component
+public class CarChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(CarChangeFeed.class);
+    private static final String EVENT_NAME = "car";
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int subscriberQueueSize;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Map<Long, CarChange> pendingChanges = new LinkedHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService sender;
+
+    public CarChangeFeed(ObjectMapper objectMapper,
+                         @Value("${car.feed.coalesce-ms:250}") long coalesceMillis,
+                         @Value("${car.feed.heartbeat-ms:15000}") long heartbeatMillis,
+                         @Value("${car.feed.timeout-ms:1800000}") long timeoutMillis,
+                         @Value("${car.feed.max-subscribers:10000}") int maxSubscribers,
+                         @Value("${car.feed.subscriber-queue-size:64}") int subscriberQueueSize,
+                         @Value("${car.feed.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "car-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Each subscriber has at most one drain queued, so the queue is bounded by the number of subscribers
+        AtomicInteger senderCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "car-change-feed-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatchQuietly, coalesceMillis, coalesceMillis, TimeUnit.MILLISECONDS);
+        dispatcher.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes to the changes of the cars that may match the filter.
+     *
+     * @param carFilter The filter criteria
+     * @return The emitter streaming the changes
+     * @throws HandlerBusyException If the feed has reached its maximum number of subscribers
+     */
+    public SseEmitter subscribe(CarFilter carFilter) {
+        // Reserve the place first, so that concurrent subscriptions cannot exceed the maximum together
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new HandlerBusyException("Too many subscribers to the car change feed", CarChangeFeed.class);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(carFilter, emitter, subscriberQueueSize);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Queues a car change for the next dispatch, merging it with a pending change of the same car.
+     *
+     * @param event The car change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        synchronized (pendingChanges) {
+            queue(event);
+        }
+    }
+
+    /**
+     * Queues the car changes of a bulk change for the next dispatch.
+     *
+     * @param event The bulk car change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarsChanged(CarsChangedEvent event) {
+        synchronized (pendingChanges) {
+            event.getChanges().forEach(this::queue);
+        }
+    }
+
+    private void queue(CarChangedEvent event) {
+        CarChange change = new CarChange(event.getChangeType(), event.getCarId(), event.getCar(), event.getPreviousCar());
+        CarChange pending = pendingChanges.remove(event.getCarId());
+        CarChange merged = pending != null ? pending.merge(change) : change;
+        if (merged != null) {
+            pendingChanges.put(event.getCarId(), merged);
+        }
+    }
+
+    /**
+     * Pushes the pending changes to the subscribers whose filter they may match.
+     *
+     * @return The dispatched changes, in the order their cars first changed
+     */
+    public List<CarChange> dispatch() {
+        List<CarChange> changes;
+        synchronized (pendingChanges) {
+            if (pendingChanges.isEmpty()) {
+                return Collections.emptyList();
+            }
+            changes = new ArrayList<>(pendingChanges.values());
+            pendingChanges.clear();
+        }
+        if (subscribers.isEmpty()) {
+            return changes;
+        }
+
+        for (CarChange change : changes) {
+            String id = Long.toString(sequence.incrementAndGet());
+            String data = serialize(change);
+            for (Subscriber subscriber : subscribers) {
+                if (change.mayMatch(subscriber.carFilter)) {
+                    send(subscriber, SseEmitter.event().id(id).name(EVENT_NAME).data(data, MediaType.APPLICATION_JSON));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Gets the number of connected subscribers.
+     *
+     * @return The subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Stops the dispatcher and closes the open streams.
+     */
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+        sender.shutdown();
+        for (Subscriber subscriber : subscribers) {
+            remove(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            // A failed dispatch must not cancel the scheduled task
+            logger.error("Car change feed dispatch failed", e);
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber, which keeps proxies from closing idle streams and reveals dead connections.
+     */
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            send(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    /**
+     * Queues an event for a subscriber and starts draining its queue unless a drain is already under way.
+     * A subscriber whose queue is full is disconnected.
+     */
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue.offer(event)) {
+            logger.warn("Disconnecting a car change feed subscriber that does not keep up");
+            remove(subscriber);
+            subscriber.queue.clear();
+            // Completing waits for a send in progress, so it is left to a sender thread
+            try {
+                sender.execute(subscriber.emitter::complete);
+            } catch (RejectedExecutionException e) {
+                // The feed is shutting down and completes the emitter itself
+            }
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // The feed is shutting down
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the queued events of a subscriber to its connection, until its queue is empty.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // The client has gone away; the container completes the emitter
+                    remove(subscriber);
+                    subscriber.queue.clear();
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // An event queued after the last poll but before the flag was cleared started no drain of its own
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private String serialize(CarChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Car change could not be serialized", e);
+        }
+    }
+
+    private static final class Subscriber {
+        private final CarFilter carFilter;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(CarFilter carFilter, SseEmitter emitter, int queueSize) {
+            this.carFilter = carFilter;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
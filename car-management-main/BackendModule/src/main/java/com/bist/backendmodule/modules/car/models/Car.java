@@ -2,27 +2,48 @@ package com.bist.backendmodule.modules.car.models;
 
 import com.bist.backendmodule.modules.brand.models.Brand;
 import com.bist.backendmodule.modules.image.models.Image;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * Entity class representing a car.
+ * Updates only write the changed columns, so partial updates stay narrow.
+ * Every insert and update takes the next change version from a database sequence and records the id of its
+ * transaction, which lets clients sync incrementally.
  */
 @Entity
 @Data
-@Table(name = "T_CAR")
+@DynamicUpdate
+@Table(name = "T_CAR", indexes = {
+        // Composite (sort key, id) indexes back keyset pagination for every sortable field
+        @Index(name = "IX_CAR_SPECIFICATION_ID", columnList = "specification, id"),
+        @Index(name = "IX_CAR_ENGINE_LITER_ID", columnList = "engine_liter, id"),
+        @Index(name = "IX_CAR_IS_NEW_ID", columnList = "is_new, id"),
+        @Index(name = "IX_CAR_PRICE_ID", columnList = "price, id"),
+        @Index(name = "IX_CAR_RELEASE_DATE_TIME_ID", columnList = "release_date_time, id"),
+        @Index(name = "IX_CAR_CHANGE_POSITION", columnList = "change_xid, change_version")
+})
 @NoArgsConstructor
 public class Car {
+    public static final String CHANGE_VERSION_SEQUENCE = "t_car_change_version_seq";
+    public static final String CHANGE_XID_FUNCTION = "t_car_change_xid";
+    // Decimal places of the price column; PostgreSQL rounds stored prices to it
+    public static final int PRICE_SCALE = 2;
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Lazy, so that car queries load brand and image through the repository entity graphs instead of one select per row
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "brand_id", nullable = false)
     private Brand brand;
 
@@ -35,16 +56,27 @@ public class Car {
     @Column(name = "is_new")
     private Boolean isNew;
 
-    @Column(name = "price")
+    @Column(name = "price", precision = 38, scale = PRICE_SCALE)
     private BigDecimal price;
 
     @Column(name = "release_date_time")
     private LocalDateTime releaseDateTime;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "image_id")
     private Image image;
 
+    @JsonIgnore
+    @Generated(event = {EventType.INSERT, EventType.UPDATE}, sql = "nextval('" + CHANGE_VERSION_SEQUENCE + "')")
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    // The transaction writing the change; syncs only return changes of transactions that have ended
+    @JsonIgnore
+    @Generated(event = {EventType.INSERT, EventType.UPDATE}, sql = CHANGE_XID_FUNCTION + "()")
+    @Column(name = "change_xid")
+    private Long changeXid;
+
     public Car(CarCommand carCommand) {
         this.specification = carCommand.getSpecification();
         this.engineLiter = carCommand.getEngineLiter();
@@ -52,4 +84,22 @@ public class Car {
         this.price = carCommand.getPrice();
         this.releaseDateTime = carCommand.getReleaseDateTime();
     }
+
+    /**
+     * Creates a detached copy of a car, used to keep its state before a change.
+     *
+     * @param car The car to copy
+     */
+    public Car(Car car) {
+        this.id = car.getId();
+        this.brand = car.getBrand();
+        this.specification = car.getSpecification();
+        this.engineLiter = car.getEngineLiter();
+        this.isNew = car.getIsNew();
+        this.price = car.getPrice();
+        this.releaseDateTime = car.getReleaseDateTime();
+        this.image = car.getImage();
+        this.changeVersion = car.getChangeVersion();
+        this.changeXid = car.getChangeXid();
+    }
 }
@@ -0,0 +1,13 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Result of a bulk update or delete: the number of affected cars.
+ */
+@Data
+@AllArgsConstructor
+public class CarBulkResult {
+    private long affected;
+}
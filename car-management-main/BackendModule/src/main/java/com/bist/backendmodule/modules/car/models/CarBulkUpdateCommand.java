@@ -0,0 +1,59 @@
+package com.bist.backendmodule.modules.car.models;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Command class for changing every car matching a filter at once.
+ * The new price is the old price multiplied by priceFactor and then increased by priceDelta;
+ * fields left null are not changed. The new prices are rounded to cents, and a change that would make any price
+ * negative is rejected.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CarBulkUpdateCommand {
+    @Positive(message = "Price factor must be positive")
+    @DecimalMax(value = "100", message = "Price factor cannot be greater than 100")
+    private BigDecimal priceFactor;
+
+    @DecimalMin(value = "-1000000000", message = "Price delta cannot be less than -1000000000")
+    @DecimalMax(value = "1000000000", message = "Price delta cannot be greater than 1000000000")
+    @Digits(integer = 10, fraction = 2, message = "Price delta cannot have more than 2 decimals")
+    private BigDecimal priceDelta;
+    private Boolean isNew;
+
+    /**
+     * Checks whether the command changes anything.
+     *
+     * @return true if at least one change is given
+     */
+    public boolean hasChanges() {
+        return priceFactor != null || priceDelta != null || isNew != null;
+    }
+
+    /**
+     * Computes the new price of a car, rounded to cents.
+     *
+     * @param price The current price
+     * @return The new price
+     */
+    public BigDecimal newPrice(BigDecimal price) {
+        BigDecimal newPrice = price;
+        if (priceFactor != null) {
+            newPrice = newPrice.multiply(priceFactor);
+        }
+        if (priceDelta != null) {
+            newPrice = newPrice.add(priceDelta);
+        }
+        return newPrice.setScale(Car.PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+}
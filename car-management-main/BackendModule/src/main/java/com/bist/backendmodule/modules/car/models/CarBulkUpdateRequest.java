@@ -0,0 +1,14 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Request class for applying a bulk update to the cars matching a filter.
+ */
+@Data
+@AllArgsConstructor
+public class CarBulkUpdateRequest {
+    private CarFilter carFilter;
+    private CarBulkUpdateCommand carBulkUpdateCommand;
+}
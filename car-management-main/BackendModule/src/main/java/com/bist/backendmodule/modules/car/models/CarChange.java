@@ -0,0 +1,84 @@
+package com.bist.backendmodule.modules.car.models;
+
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A car change pushed to the subscribers of the change feed.
+ * The states used for filtering are detached copies, so they can be matched after the writing transaction has ended.
+ */
+@Data
+@AllArgsConstructor
+public class CarChange {
+    private ChangeType changeType;
+    private Long carId;
+    private CarView car;                        // Null for deletions
+    @JsonIgnore
+    private Car state;                          // Null for deletions
+    @JsonIgnore
+    private Car previousState;                  // Null for creations
+
+    /**
+     * Constructs the change of a car write, copying what the feed needs while the car is still attached.
+     *
+     * @param changeType  The type of the change
+     * @param carId       The id of the written car
+     * @param car         The new state of the car, or null if it was deleted
+     * @param previousCar The previous state of the car, or null if it was created
+     */
+    public CarChange(ChangeType changeType, Long carId, Car car, Car previousCar) {
+        this.changeType = changeType;
+        this.carId = carId;
+        this.car = car != null ? toView(car) : null;
+        this.state = car != null ? snapshot(car) : null;
+        this.previousState = previousCar != null ? snapshot(previousCar) : null;
+    }
+
+    /**
+     * Checks whether the change may concern a client listening with the filter: the car may match it before or after.
+     * Reporting a car that leaves the filter lets the client drop it.
+     *
+     * @param carFilter The filter of the subscriber
+     * @return false only if neither state of the car matches the filter
+     */
+    public boolean mayMatch(CarFilter carFilter) {
+        return (state != null && carFilter.mayMatch(state))
+                || (previousState != null && carFilter.mayMatch(previousState));
+    }
+
+    /**
+     * Merges a later change of the same car into this one, as if both had happened at once.
+     * A creation followed by updates stays a creation, and a creation followed by a deletion cancels out.
+     *
+     * @param next The later change
+     * @return The merged change, or null if the changes cancel out
+     */
+    public CarChange merge(CarChange next) {
+        if (changeType == ChangeType.CREATED) {
+            return next.changeType == ChangeType.DELETED
+                    ? null
+                    : new CarChange(ChangeType.CREATED, carId, next.car, next.state, null);
+        }
+        return new CarChange(next.changeType, carId, next.car, next.state, previousState);
+    }
+
+    private static CarView toView(Car car) {
+        Brand brand = car.getBrand();
+        return new CarView(car.getId(), brand != null ? brand.getId() : null, brand != null ? brand.getName() : null,
+                car.getSpecification(), car.getEngineLiter(), car.getIsNew(), car.getPrice(), car.getReleaseDateTime(),
+                car.getImage() != null ? car.getImage().getId() : null, car.getImage() != null ? car.getImage().getFilename() : null,
+                car.getImage() != null ? car.getImage().getContentHash() : null);
+    }
+
+    private static Car snapshot(Car car) {
+        Car snapshot = new Car(car);
+        if (car.getBrand() != null) {
+            snapshot.setBrand(new Brand(car.getBrand().getId(), car.getBrand().getName(), null));
+        }
+        snapshot.setImage(null);
+        return snapshot;
+    }
+}
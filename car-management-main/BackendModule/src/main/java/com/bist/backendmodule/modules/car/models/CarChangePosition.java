@@ -0,0 +1,27 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Comparator;
+
+/**
+ * Position of a car change in the sync order: the id of the transaction that wrote it, then its change version.
+ * Transaction ids are assigned in start order and every transaction below the oldest one still running has ended,
+ * so the changes before such a transaction id are final; change versions order the changes within a transaction.
+ */
+@Data
+@AllArgsConstructor
+public class CarChangePosition implements Comparable<CarChangePosition> {
+    private static final Comparator<CarChangePosition> ORDER = Comparator
+            .comparingLong(CarChangePosition::getChangeXid)
+            .thenComparingLong(CarChangePosition::getChangeVersion);
+
+    private long changeXid;
+    private long changeVersion;
+
+    @Override
+    public int compareTo(CarChangePosition other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,14 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Request class for the car changes since a sync token.
+ */
+@Data
+@AllArgsConstructor
+public class CarChangesRequest {
+    private String since;                       // Empty string requests a full sync
+    private int limit;
+}
@@ -0,0 +1,19 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Response class of an incremental car sync: the cars created or updated and the ids of the cars deleted
+ * since the token of the request, and the token to pass on the next sync.
+ */
+@Data
+@AllArgsConstructor
+public class CarChangesResponse {
+    private List<CarView> changed;
+    private List<Long> deleted;
+    private String nextToken;
+    private boolean hasMore;                    // More changes follow; sync again right away with the next token
+}
@@ -0,0 +1,72 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for the car listing.
+ * Holds the sort key and id of the last row of a page, so the next page can seek past it.
+ */
+@Data
+@AllArgsConstructor
+public class CarCursor {
+    private static final String SEPARATOR = "\n";
+
+    private CarSortField sortField;
+    private Sort.Direction direction;
+    private Comparable<?> sortValue;
+    private Long lastId;
+
+    /**
+     * Creates the cursor pointing after the given car.
+     *
+     * @param car       The last car of the current page
+     * @param sortField The sort field of the listing
+     * @param direction The sort direction of the listing
+     * @return The cursor for the next page
+     */
+    public static CarCursor after(CarView car, CarSortField sortField, Sort.Direction direction) {
+        return new CarCursor(sortField, direction, sortField.getAccessor().apply(car), car.getId());
+    }
+
+    /**
+     * Encodes the cursor into an URL-safe string.
+     *
+     * @return The encoded cursor
+     */
+    public String encode() {
+        String raw = sortField.getProperty() + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR + sortValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param encoded The encoded cursor
+     * @return The decoded cursor
+     * @throws IllegalArgumentException If the cursor is malformed
+     */
+    public static CarCursor decode(String encoded) {
+        String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+        String[] parts = raw.split(SEPARATOR, 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        CarSortField sortField = CarSortField.fromProperty(parts[0]);
+        if (sortField == null) {
+            throw new IllegalArgumentException("Unknown sort field in cursor: " + parts[0]);
+        }
+        try {
+            Sort.Direction direction = Sort.Direction.fromString(parts[1]);
+            Long lastId = Long.valueOf(parts[2]);
+            return new CarCursor(sortField, direction, sortField.getParser().apply(parts[3]), lastId);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Malformed cursor value", e);
+        }
+    }
+}
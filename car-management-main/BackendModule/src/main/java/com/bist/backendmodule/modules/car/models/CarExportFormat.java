@@ -0,0 +1,29 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+/**
+ * Formats supported by the car export and import.
+ */
+@Getter
+public enum CarExportFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    private final MediaType mediaType;
+
+    CarExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Returns the format of a body with the given content type, NDJSON unless the content type is CSV.
+     *
+     * @param contentType The content type of the body, may be null
+     * @return The format of the body
+     */
+    public static CarExportFormat of(MediaType contentType) {
+        return contentType != null && CSV.mediaType.isCompatibleWith(contentType) ? CSV : NDJSON;
+    }
+}
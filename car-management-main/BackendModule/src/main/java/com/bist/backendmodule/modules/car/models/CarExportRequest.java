@@ -0,0 +1,14 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Request class for streaming an export of the cars matching a filter.
+ */
+@Data
+@AllArgsConstructor
+public class CarExportRequest {
+    private CarFilter carFilter;
+    private CarExportFormat format;
+}
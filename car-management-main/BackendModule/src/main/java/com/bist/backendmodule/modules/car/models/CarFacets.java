@@ -0,0 +1,22 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response class for the facet counts of the cars matching a filter.
+ */
+@Data
+@AllArgsConstructor
+public class CarFacets {
+    private long totalElements;
+    private List<FacetCount<String>> brands;
+    private List<FacetCount<Boolean>> isNew;
+    private List<FacetCount<Float>> engineLiters;
+    private List<RangeFacetCount<BigDecimal>> prices;
+    private List<RangeFacetCount<LocalDateTime>> releaseDates;
+}
@@ -0,0 +1,20 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Request class for the facet counts of the cars matching a filter.
+ * Absent bucket bounds fall back to the configured defaults.
+ */
+@Data
+@AllArgsConstructor
+public class CarFacetsRequest {
+    private CarFilter carFilter;
+    private List<BigDecimal> priceBounds;
+    private List<LocalDateTime> releaseDateBounds;
+}
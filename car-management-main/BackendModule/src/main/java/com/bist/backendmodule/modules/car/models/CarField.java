@@ -0,0 +1,55 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * Fields of a listed car that a client can select with the fields parameter, named as in the JSON of a car view.
+ */
+@Getter
+public enum CarField {
+    ID("id", 1),
+    BRAND("brand", 2),                          // Brand id and name
+    SPECIFICATION("specification", 1),
+    ENGINE_LITER("engineLiter", 1),
+    IS_NEW("isNew", 1),
+    PRICE("price", 1),
+    RELEASE_DATE_TIME("releaseDateTime", 1),
+    IMAGE("image", 3);                          // Image id, filename and content hash, from which the URLs are derived
+
+    private final String name;
+    private final int columnCount;
+
+    CarField(String name, int columnCount) {
+        this.name = name;
+        this.columnCount = columnCount;
+    }
+
+    /**
+     * Finds the field by its JSON name or constant name, ignoring case.
+     *
+     * @param value The field name, e.g. "price"
+     * @return The matching field
+     * @throws IllegalArgumentException If no field has that name
+     */
+    public static CarField fromValue(String value) {
+        String trimmed = value.trim();
+        for (CarField field : values()) {
+            if (field.name.equalsIgnoreCase(trimmed) || field.name().equals(trimmed.toUpperCase(Locale.ROOT))) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown car field: " + value);
+    }
+
+    /**
+     * Finds the field holding the value of a sort field.
+     *
+     * @param sortField The sort field
+     * @return The field
+     */
+    public static CarField of(CarSortField sortField) {
+        return fromValue(sortField.getProperty());
+    }
+}
@@ -0,0 +1,107 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Filter criteria shared by the car listing and export endpoints.
+ * Every criterion is optional; absent criteria do not restrict the result.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CarFilter {
+    private String brand;
+    private String specification;
+    private Float engineLiter;
+    private Boolean isNew;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private LocalDateTime minDate;
+    private LocalDateTime maxDate;
+    private String searchTerm;
+
+    /**
+     * Returns a copy of this filter without the free-text search term.
+     *
+     * @return The filter without the search term
+     */
+    public CarFilter withoutSearchTerm() {
+        return new CarFilter(brand, specification, engineLiter, isNew, minPrice, maxPrice, minDate, maxDate, null);
+    }
+
+    /**
+     * Checks whether any criterion is present.
+     *
+     * @return true if at least one criterion restricts the result
+     */
+    public boolean hasCriteria() {
+        return brand != null || specification != null || engineLiter != null || isNew != null
+                || minPrice != null || maxPrice != null || minDate != null || maxDate != null
+                || (searchTerm != null && !searchTerm.isEmpty());
+    }
+
+    /**
+     * Checks whether a car may be selected by this filter.
+     * Text criteria are compared case-insensitively and token by token, so the check errs on the side of matching:
+     * it never rejects a car the database LIKE predicates or the search index would select.
+     *
+     * @param car The car to check
+     * @return false only if the car is certainly not selected by this filter
+     */
+    public boolean mayMatch(Car car) {
+        String brandName = car.getBrand() != null ? car.getBrand().getName() : null;
+        if (brand != null && !brand.equals(brandName)) return false;
+        if (specification != null && !mayContain(car.getSpecification(), specification)) return false;
+        if (engineLiter != null && !engineLiter.equals(car.getEngineLiter())) return false;
+        if (isNew != null && !isNew.equals(car.getIsNew())) return false;
+        if (minPrice != null && (car.getPrice() == null || car.getPrice().compareTo(minPrice) < 0)) return false;
+        if (maxPrice != null && (car.getPrice() == null || car.getPrice().compareTo(maxPrice) > 0)) return false;
+        if (minDate != null && (car.getReleaseDateTime() == null || car.getReleaseDateTime().isBefore(minDate))) return false;
+        if (maxDate != null && (car.getReleaseDateTime() == null || car.getReleaseDateTime().isAfter(maxDate))) return false;
+        if (searchTerm != null && !searchTerm.isEmpty()) {
+            String text = (car.getSpecification() + " " + brandName).toLowerCase(Locale.ROOT);
+            for (String token : searchTerm.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!text.contains(token)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds a key identifying the result of this filter. Equivalent filters produce the same key.
+     *
+     * @return The normalized filter key
+     */
+    public String cacheKey() {
+        StringBuilder key = new StringBuilder();
+        appendKeyPart(key, brand);
+        appendKeyPart(key, specification);
+        appendKeyPart(key, engineLiter);
+        appendKeyPart(key, isNew);
+        appendKeyPart(key, minPrice != null ? minPrice.stripTrailingZeros().toPlainString() : null);
+        appendKeyPart(key, maxPrice != null ? maxPrice.stripTrailingZeros().toPlainString() : null);
+        appendKeyPart(key, minDate);
+        appendKeyPart(key, maxDate);
+        appendKeyPart(key, searchTerm != null && !searchTerm.isEmpty() ? searchTerm : null);
+        return key.toString();
+    }
+
+    private static boolean mayContain(String value, String pattern) {
+        if (value == null) return false;
+        // Wildcards in the LIKE pattern can match more than a plain substring
+        if (pattern.indexOf('%') >= 0 || pattern.indexOf('_') >= 0) return true;
+        return value.toLowerCase(Locale.ROOT).contains(pattern.toLowerCase(Locale.ROOT));
+    }
+
+    private static void appendKeyPart(StringBuilder key, Object value) {
+        // Length-prefixed, so that separators inside values cannot make two filters collide
+        String text = value != null ? value.toString() : "";
+        key.append(value != null ? text.length() : -1).append(':').append(text).append(';');
+    }
+}
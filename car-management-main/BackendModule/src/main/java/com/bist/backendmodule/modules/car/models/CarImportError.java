@@ -0,0 +1,14 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A row of a car import that was rejected, identified by its line number in the uploaded body.
+ */
+@Data
+@AllArgsConstructor
+public class CarImportError {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.InputStream;
+
+/**
+ * Request class for importing cars from a streamed NDJSON or CSV body of car commands.
+ */
+@Data
+@AllArgsConstructor
+public class CarImportRequest {
+    private InputStream inputStream;
+    private CarExportFormat format;
+}
@@ -0,0 +1,18 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Result of a car import: the number of imported and rejected rows and the errors of the rejected rows.
+ * Only the first errors are listed when many rows are rejected.
+ */
+@Data
+@AllArgsConstructor
+public class CarImportResult {
+    private long imported;
+    private long failed;
+    private List<CarImportError> errors;
+}
@@ -0,0 +1,49 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Scope of a cached car page: the filter it was computed for and the cars, brands and images it contains.
+ */
+@Data
+@AllArgsConstructor
+public class CarPageCacheScope {
+    private CarFilter carFilter;
+    private Set<Long> carIds;
+    private Set<Long> brandIds;
+    private Set<Long> imageIds;
+
+    /**
+     * Constructs the scope of a car page response.
+     *
+     * @param carFilter   The filter of the request
+     * @param carResponse The page response
+     */
+    public CarPageCacheScope(CarFilter carFilter, CarResponse carResponse) {
+        this.carFilter = carFilter;
+        this.carIds = carResponse.getContent().stream().map(CarView::getId).collect(Collectors.toSet());
+        this.brandIds = carResponse.getContent().stream().map(CarView::getBrand).filter(Objects::nonNull)
+                .map(CarView.BrandRef::getId).collect(Collectors.toSet());
+        this.imageIds = carResponse.getContent().stream().map(CarView::getImage).filter(Objects::nonNull)
+                .map(CarView.ImageRef::getId).collect(Collectors.toSet());
+    }
+
+    /**
+     * Checks whether a car write can change this page: the car is on it, or its old or new state may match the filter.
+     *
+     * @param carId       The id of the written car
+     * @param car         The new state of the car, or null if it was deleted
+     * @param previousCar The previous state of the car, or null if it was created
+     * @return true if the page may have changed
+     */
+    public boolean isAffectedBy(Long carId, Car car, Car previousCar) {
+        return carIds.contains(carId)
+                || (car != null && carFilter.mayMatch(car))
+                || (previousCar != null && carFilter.mayMatch(previousCar));
+    }
+}
@@ -0,0 +1,19 @@
+package com.bist.backendmodule.modules.car.models;
+
+import com.bist.backendmodule.modules.image.models.UpdateImageCommand;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Command class for partially updating a car. Null fields of the car command are left unchanged,
+ * and the image file is only rewritten when the image command carries a file.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CarPatchCommand {
+    private Long carId;
+    private CarCommand carCommand;
+    private UpdateImageCommand updateImageCommand;
+}
@@ -3,6 +3,7 @@ package com.bist.backendmodule.modules.car.models;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -12,19 +13,20 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 public class CarResponse {
-    private List<Car> content;
+    private List<CarView> content;
     private int pageNo;
     private int pageSize;
     private long totalElements;
     private int totalPages;
     private boolean last;
+    private String nextCursor;                  // Only set for keyset pagination
 
     /**
-     * Constructs a CarResponse from a Page of Car entities.
+     * Constructs a CarResponse from a Page of car views.
      *
      * @param carPage The Page containing car data
      */
-    public CarResponse(Page<Car> carPage) {
+    public CarResponse(Page<CarView> carPage) {
         this.content = carPage.getContent();
         this.pageNo = carPage.getNumber();
         this.pageSize = carPage.getSize();
@@ -32,4 +34,38 @@ public class CarResponse {
         this.totalPages = carPage.getTotalPages();
         this.last = carPage.isLast();
     }
+
+    /**
+     * Constructs a CarResponse from an uncounted Slice of car views.
+     * Total counts are -1, since they are not known.
+     *
+     * @param carSlice The Slice containing car data
+     */
+    public CarResponse(Slice<CarView> carSlice) {
+        this.content = carSlice.getContent();
+        this.pageNo = carSlice.getNumber();
+        this.pageSize = carSlice.getSize();
+        this.totalElements = -1;
+        this.totalPages = -1;
+        this.last = carSlice.isLast();
+    }
+
+    /**
+     * Constructs a CarResponse for a keyset page.
+     * Total counts are -1 when the client did not ask for them.
+     *
+     * @param content       The cars of the page
+     * @param pageSize      The requested page size
+     * @param totalElements The total number of matching cars, or -1 if not counted
+     * @param nextCursor    The cursor of the next page, or null if this is the last page
+     */
+    public CarResponse(List<CarView> content, int pageSize, long totalElements, String nextCursor) {
+        this.content = content;
+        this.pageNo = 0;
+        this.pageSize = pageSize;
+        this.totalElements = totalElements;
+        this.totalPages = totalElements < 0 ? -1 : (int) Math.ceil((double) totalElements / pageSize);
+        this.last = nextCursor == null;
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,45 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Sortable fields of the car listing together with the accessors needed for keyset (seek) pagination.
+ */
+@Getter
+public enum CarSortField {
+    ID("id", CarView::getId, Long::valueOf),
+    SPECIFICATION("specification", CarView::getSpecification, value -> value),
+    ENGINE_LITER("engineLiter", CarView::getEngineLiter, Float::valueOf),
+    IS_NEW("isNew", CarView::getIsNew, Boolean::valueOf),
+    PRICE("price", CarView::getPrice, BigDecimal::new),
+    RELEASE_DATE_TIME("releaseDateTime", CarView::getReleaseDateTime, LocalDateTime::parse);
+
+    private final String property;
+    private final Function<CarView, Comparable<?>> accessor;
+    private final Function<String, Comparable<?>> parser;
+
+    CarSortField(String property, Function<CarView, Comparable<?>> accessor, Function<String, Comparable<?>> parser) {
+        this.property = property;
+        this.accessor = accessor;
+        this.parser = parser;
+    }
+
+    /**
+     * Finds the sort field for the given entity property name.
+     *
+     * @param property The entity property name, e.g. "price"
+     * @return The matching sort field, or null if the property is not sortable
+     */
+    public static CarSortField fromProperty(String property) {
+        for (CarSortField sortField : values()) {
+            if (sortField.property.equals(property)) {
+                return sortField;
+            }
+        }
+        return null;
+    }
+}
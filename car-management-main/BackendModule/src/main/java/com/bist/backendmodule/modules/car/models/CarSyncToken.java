@@ -0,0 +1,66 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque token of an incremental car sync.
+ * Holds the position of the last change the client has received and when the token was issued,
+ * which tells whether the deletions since then are still retained.
+ * Tokens issued before positions carried the transaction id decode as issued at the epoch, so they are expired and
+ * the client syncs again from the start.
+ */
+@Data
+@AllArgsConstructor
+public class CarSyncToken {
+    private static final String SEPARATOR = "\n";
+
+    private long changeXid;
+    private long changeVersion;
+    private long issuedAt;                      // Epoch milliseconds
+
+    public CarSyncToken(CarChangePosition position, long issuedAt) {
+        this(position.getChangeXid(), position.getChangeVersion(), issuedAt);
+    }
+
+    /**
+     * Gets the position of the last change the client has received.
+     *
+     * @return The position
+     */
+    public CarChangePosition getPosition() {
+        return new CarChangePosition(changeXid, changeVersion);
+    }
+
+    /**
+     * Encodes the token into an URL-safe string.
+     *
+     * @return The encoded token
+     */
+    public String encode() {
+        String raw = changeXid + SEPARATOR + changeVersion + SEPARATOR + issuedAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token previously produced by {@link #encode()}.
+     *
+     * @param encoded The encoded token
+     * @return The decoded token
+     * @throws IllegalArgumentException If the token is malformed
+     */
+    public static CarSyncToken decode(String encoded) {
+        String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+        String[] parts = raw.split(SEPARATOR, 3);
+        if (parts.length == 2) {
+            return new CarSyncToken(0, Long.parseLong(parts[0]), 0);
+        }
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed sync token");
+        }
+        return new CarSyncToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    }
+}
@@ -0,0 +1,43 @@
+package com.bist.backendmodule.modules.car.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class recording the deletion of a car, so that syncing clients learn about it.
+ * Its change version comes from the same sequence as the versions of the cars, and it records the id of the
+ * deleting transaction like the cars do.
+ */
+@Entity
+@Data
+@Table(name = "T_CAR_TOMBSTONE", indexes = {
+        @Index(name = "IX_CAR_TOMBSTONE_CHANGE_POSITION", columnList = "change_xid, change_version")
+})
+@NoArgsConstructor
+public class CarTombstone {
+
+    @Id
+    @Column(name = "car_id")
+    private Long carId;
+
+    @Generated(event = EventType.INSERT, sql = "nextval('" + Car.CHANGE_VERSION_SEQUENCE + "')")
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    @Generated(event = EventType.INSERT, sql = Car.CHANGE_XID_FUNCTION + "()")
+    @Column(name = "change_xid")
+    private Long changeXid;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public CarTombstone(Long carId, LocalDateTime deletedAt) {
+        this.carId = carId;
+        this.deletedAt = deletedAt;
+    }
+}
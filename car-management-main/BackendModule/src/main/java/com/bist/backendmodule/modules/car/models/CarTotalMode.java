@@ -0,0 +1,10 @@
+package com.bist.backendmodule.modules.car.models;
+
+/**
+ * How the total of an offset page is determined.
+ */
+public enum CarTotalMode {
+    EXACT,                                      // Counted alongside the page
+    ESTIMATED,                                  // Large totals may come from a recent count or the table statistics
+    NONE                                        // Not counted; the page only tells whether more cars follow
+}
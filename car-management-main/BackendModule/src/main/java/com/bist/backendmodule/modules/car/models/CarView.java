@@ -0,0 +1,200 @@
+package com.bist.backendmodule.modules.car.models;
+
+import com.bist.backendmodule.helpers.ContentAddressedFileUtil;
+import com.bist.backendmodule.modules.image.models.ImageVariant;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable read model of a car for the listing endpoints, built directly from a query projection.
+ * Brand and image are reduced to the fields the listings show, keeping the JSON shape of the Car entity
+ * without loading entities into the persistence context.
+ * A sparse view holds only the selected fields and writes only those, in a fixed order and without bean introspection.
+ */
+@Getter
+public class CarView implements JsonSerializable {
+    private static final String IMAGE_URL_PREFIX = "/uploads/";
+
+    private final Long id;
+    private final BrandRef brand;
+    private final String specification;
+    private final Float engineLiter;
+    private final Boolean isNew;
+    private final BigDecimal price;
+    private final LocalDateTime releaseDateTime;
+    private final ImageRef image;
+    @JsonIgnore
+    private final Set<CarField> fields;         // Null for a full view
+
+    /**
+     * Constructs a CarView of a car whose image content is not known.
+     */
+    public CarView(Long id, Long brandId, String brandName, String specification, Float engineLiter, Boolean isNew,
+                   BigDecimal price, LocalDateTime releaseDateTime, Long imageId, String imageFilename) {
+        this(id, brandId, brandName, specification, engineLiter, isNew, price, releaseDateTime, imageId, imageFilename, null);
+    }
+
+    /**
+     * Constructs a CarView from the columns of a projection row. Used by the JPQL constructor expression.
+     */
+    public CarView(Long id, Long brandId, String brandName, String specification, Float engineLiter, Boolean isNew,
+                   BigDecimal price, LocalDateTime releaseDateTime, Long imageId, String imageFilename, String imageContentHash) {
+        this.id = id;
+        this.brand = new BrandRef(brandId, brandName);
+        this.specification = specification;
+        this.engineLiter = engineLiter;
+        this.isNew = isNew;
+        this.price = price;
+        this.releaseDateTime = releaseDateTime;
+        this.image = imageId != null ? new ImageRef(imageId, imageFilename, imageContentHash) : null;
+        this.fields = null;
+    }
+
+    /**
+     * Constructs a sparse CarView from a row holding the columns of the selected fields in {@link CarField} order.
+     *
+     * @param row      The columns of the selected fields
+     * @param selected The fields present in the row
+     * @param fields   The fields to write, a subset of the selected ones
+     */
+    public CarView(Object[] row, Set<CarField> selected, Set<CarField> fields) {
+        int column = 0;
+        this.id = selected.contains(CarField.ID) ? (Long) row[column++] : null;
+        if (selected.contains(CarField.BRAND)) {
+            this.brand = new BrandRef((Long) row[column], (String) row[column + 1]);
+            column += 2;
+        } else {
+            this.brand = null;
+        }
+        this.specification = selected.contains(CarField.SPECIFICATION) ? (String) row[column++] : null;
+        this.engineLiter = selected.contains(CarField.ENGINE_LITER) ? (Float) row[column++] : null;
+        this.isNew = selected.contains(CarField.IS_NEW) ? (Boolean) row[column++] : null;
+        this.price = selected.contains(CarField.PRICE) ? (BigDecimal) row[column++] : null;
+        this.releaseDateTime = selected.contains(CarField.RELEASE_DATE_TIME) ? (LocalDateTime) row[column++] : null;
+        this.image = selected.contains(CarField.IMAGE) && row[column] != null
+                ? new ImageRef((Long) row[column], (String) row[column + 1], (String) row[column + 2])
+                : null;
+        this.fields = fields;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(this);
+        writeFields(generator, provider);
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+        WritableTypeId typeId = typeSerializer.writeTypePrefix(generator, typeSerializer.typeId(this, JsonToken.START_OBJECT));
+        writeFields(generator, provider);
+        typeSerializer.writeTypeSuffix(generator, typeId);
+    }
+
+    private void writeFields(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (writes(CarField.ID)) provider.defaultSerializeField("id", id, generator);
+        if (writes(CarField.BRAND)) {
+            if (brand == null) {
+                generator.writeNullField("brand");
+            } else {
+                generator.writeObjectFieldStart("brand");
+                provider.defaultSerializeField("id", brand.id, generator);
+                generator.writeStringField("name", brand.name);
+                generator.writeEndObject();
+            }
+        }
+        if (writes(CarField.SPECIFICATION)) generator.writeStringField("specification", specification);
+        if (writes(CarField.ENGINE_LITER)) provider.defaultSerializeField("engineLiter", engineLiter, generator);
+        if (writes(CarField.IS_NEW)) provider.defaultSerializeField("isNew", isNew, generator);
+        if (writes(CarField.PRICE)) provider.defaultSerializeField("price", price, generator);
+        if (writes(CarField.RELEASE_DATE_TIME)) provider.defaultSerializeField("releaseDateTime", releaseDateTime, generator);
+        if (writes(CarField.IMAGE)) {
+            if (image == null) {
+                generator.writeNullField("image");
+            } else {
+                generator.writeObjectFieldStart("image");
+                provider.defaultSerializeField("id", image.id, generator);
+                generator.writeStringField("filename", image.filename);
+                generator.writeStringField("url", image.getUrl());
+                Map<String, String> variantUrls = image.getVariantUrls();
+                if (variantUrls != null) {
+                    generator.writeObjectFieldStart("variantUrls");
+                    for (Map.Entry<String, String> variantUrl : variantUrls.entrySet()) {
+                        generator.writeStringField(variantUrl.getKey(), variantUrl.getValue());
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+            }
+        }
+    }
+
+    private boolean writes(CarField field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Brand of a listed car.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class BrandRef {
+        private final Long id;
+        private final String name;
+    }
+
+    /**
+     * Image of a listed car.
+     * The file of a hashed image is stored under its content hash, as are its variants, so their URLs need no lookup.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ImageRef {
+        private final Long id;
+        private final String filename;
+        @JsonIgnore
+        private final String contentHash;       // Null for images stored before hashing
+
+        /**
+         * Gets the URL the image is served from.
+         *
+         * @return The image URL
+         */
+        public String getUrl() {
+            if (contentHash != null) {
+                return IMAGE_URL_PREFIX + ContentAddressedFileUtil.filename(contentHash, filename);
+            }
+            return filename != null ? IMAGE_URL_PREFIX + filename : null;
+        }
+
+        /**
+         * Gets the URLs of the resized variants of the image, which lists should load instead of the original.
+         *
+         * @return The variant URLs by variant value, or null if the image has no variants
+         */
+        public Map<String, String> getVariantUrls() {
+            if (contentHash == null) {
+                return null;
+            }
+            Map<String, String> variantUrls = new LinkedHashMap<>();
+            for (ImageVariant variant : ImageVariant.values()) {
+                variantUrls.put(variant.getValue(), IMAGE_URL_PREFIX + variant.filename(contentHash));
+            }
+            return variantUrls;
+        }
+    }
+}
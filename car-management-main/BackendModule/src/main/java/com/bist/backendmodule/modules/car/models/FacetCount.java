@@ -0,0 +1,16 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Number of matching cars having a given value of a facet.
+ *
+ * @param <T> The type of the facet value
+ */
+@Data
+@AllArgsConstructor
+public class FacetCount<T> {
+    private T value;
+    private long count;
+}
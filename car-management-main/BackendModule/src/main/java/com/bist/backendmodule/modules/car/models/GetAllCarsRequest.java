@@ -2,17 +2,63 @@ package com.bist.backendmodule.modules.car.models;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
- * Request class for getting all cars with pagination and sorting.
+ * Request class for getting all cars with filtering, pagination and sorting.
+ * When a cursor is given the page is resolved with keyset pagination instead of an offset.
  */
 @Data
 @AllArgsConstructor
 public class GetAllCarsRequest {
-    private Specification<Car> specification;
+    private CarFilter carFilter;
     private int pageSize;
     private int pageNo;
     private String sortBy;
     private String sortDir;
+    private String cursor;                      // Empty string requests the first keyset page
+    private boolean withTotal;
+    private CarTotalMode totalMode;             // Only used for offset pagination
+    private Set<CarField> fields;               // Null selects all fields
+
+    public GetAllCarsRequest(CarFilter carFilter, int pageSize, int pageNo, String sortBy, String sortDir) {
+        this(carFilter, pageSize, pageNo, sortBy, sortDir, null, true);
+    }
+
+    public GetAllCarsRequest(CarFilter carFilter, int pageSize, int pageNo, String sortBy, String sortDir, String cursor, boolean withTotal) {
+        this(carFilter, pageSize, pageNo, sortBy, sortDir, cursor, withTotal, CarTotalMode.EXACT);
+    }
+
+    public GetAllCarsRequest(CarFilter carFilter, int pageSize, int pageNo, String sortBy, String sortDir, String cursor, boolean withTotal,
+                             CarTotalMode totalMode) {
+        this(carFilter, pageSize, pageNo, sortBy, sortDir, cursor, withTotal, totalMode, null);
+    }
+
+    /**
+     * Checks whether the request uses keyset pagination.
+     *
+     * @return true if a cursor is present
+     */
+    public boolean isKeyset() {
+        return cursor != null;
+    }
+
+    /**
+     * Builds a key identifying the page this request resolves to. Parameters that do not affect the result
+     * are left out: the page number in keyset mode and the total flag in offset mode, where the total mode counts instead.
+     *
+     * @return The normalized request key
+     * @throws IllegalArgumentException If the sort direction is invalid
+     */
+    public String cacheKey() {
+        String sort = sortBy != null && sortDir != null ? sortBy + "," + Sort.Direction.fromString(sortDir) : "";
+        String paging = isKeyset()
+                ? "keyset:" + cursor + ":" + withTotal
+                : "offset:" + pageNo + ":" + totalMode;
+        String selectedFields = fields != null ? new TreeSet<>(fields).toString() : "*";
+        return carFilter.cacheKey() + sort.length() + ":" + sort + ";" + pageSize + ";" + paging + ";" + selectedFields;
+    }
 }
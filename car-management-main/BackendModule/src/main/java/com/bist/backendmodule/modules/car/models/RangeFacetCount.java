@@ -0,0 +1,17 @@
+package com.bist.backendmodule.modules.car.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Number of matching cars whose value falls into the bucket [from, to) of a range facet.
+ *
+ * @param <T> The type of the bucket bounds
+ */
+@Data
+@AllArgsConstructor
+public class RangeFacetCount<T> {
+    private T from;                             // Null for the lowest bucket
+    private T to;                               // Null for the highest bucket
+    private long count;
+}
@@ -0,0 +1,155 @@
+package com.bist.backendmodule.modules.car.query.handlers;
+
+import com.bist.backendmodule.modules.Query;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.CarSpecification;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarExportFormat;
+import com.bist.backendmodule.modules.car.models.CarExportRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Service class for streaming an export of the cars matching a filter.
+ * Rows are read through a forward-only cursor and written to the response as they arrive,
+ * so neither the result list nor the serialized payload is ever held in memory.
+ */
+@Service
+public class ExportCarsQueryHandler implements Query<CarExportRequest, StreamingResponseBody> {
+    private static final String CSV_HEADER = "id,brandId,brand,specification,engineLiter,isNew,price,releaseDateTime,imageId,image";
+
+    @Value("${car.export.fetch-size:500}")
+    private int fetchSize;
+
+    private final CarRepository carRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExportCarsQueryHandler(CarRepository carRepository,
+                                  ObjectMapper objectMapper) {
+        this.carRepository = carRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Executes the query to stream the matching cars in the requested format.
+     *
+     * @param carExportRequest The request containing the filter and the output format
+     * @return The ResponseEntity containing the streaming body
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> execute(CarExportRequest carExportRequest) {
+        Specification<Car> specification = CarSpecification.fromFilter(carExportRequest.getCarFilter());
+        CarExportFormat format = carExportRequest.getFormat();
+
+        StreamingResponseBody body = format == CarExportFormat.CSV
+                ? outputStream -> writeCsv(specification, outputStream)
+                : outputStream -> writeNdjson(specification, outputStream);
+
+        return ResponseEntity.ok().contentType(format.getMediaType()).body(body);
+    }
+
+    /**
+     * Writes one JSON document per line, flushing after every fetched chunk.
+     *
+     * @param specification The specification to filter cars by
+     * @param outputStream  The response output stream
+     * @throws IOException If writing to the response fails
+     */
+    private void writeNdjson(Specification<Car> specification, OutputStream outputStream) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(outputStream)) {
+            int[] rowCount = {0};
+            carRepository.streamAll(specification, fetchSize, car -> {
+                try {
+                    writer.write(car);
+                    if (++rowCount[0] % fetchSize == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (rowCount[0] > 0) {
+                // The last document is still buffered in the writer and must precede the final line break
+                writer.flush();
+                outputStream.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes a CSV header followed by one line per car, flushing after every fetched chunk.
+     * The brand and image are written by id, which the car import reads, and by name.
+     *
+     * @param specification The specification to filter cars by
+     * @param outputStream  The response output stream
+     * @throws IOException If writing to the response fails
+     */
+    private void writeCsv(Specification<Car> specification, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        int[] rowCount = {0};
+        carRepository.streamAll(specification, fetchSize, car -> {
+            try {
+                writer.write(toCsvLine(car));
+                writer.write('\n');
+                if (++rowCount[0] % fetchSize == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    /**
+     * Formats a car as a CSV line.
+     *
+     * @param car The car to format
+     * @return The CSV line without the line terminator
+     */
+    private String toCsvLine(Car car) {
+        return String.join(",",
+                String.valueOf(car.getId()),
+                car.getBrand() != null ? String.valueOf(car.getBrand().getId()) : "",
+                escapeCsv(car.getBrand() != null ? car.getBrand().getName() : null),
+                escapeCsv(car.getSpecification()),
+                Objects.toString(car.getEngineLiter(), ""),
+                Objects.toString(car.getIsNew(), ""),
+                car.getPrice() != null ? car.getPrice().toPlainString() : "",
+                Objects.toString(car.getReleaseDateTime(), ""),
+                car.getImage() != null ? String.valueOf(car.getImage().getId()) : "",
+                escapeCsv(car.getImage() != null ? car.getImage().getFilename() : null));
+    }
+
+    /**
+     * Quotes a CSV value when it contains a separator, quote or line break.
+     *
+     * @param value The value to escape
+     * @return The escaped value, or an empty string for null
+     */
+    private String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
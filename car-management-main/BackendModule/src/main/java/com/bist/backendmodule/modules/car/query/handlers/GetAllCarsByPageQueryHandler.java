@@ -1,44 +1,350 @@
 package com.bist.backendmodule.modules.car.query.handlers;
 
+import com.bist.backendmodule.exceptions.InvalidCursorException;
 import com.bist.backendmodule.modules.Query;
 import com.bist.backendmodule.modules.car.CarRepository;
-import com.bist.backendmodule.modules.car.models.Car;
-import com.bist.backendmodule.modules.car.models.CarResponse;
-import com.bist.backendmodule.modules.car.models.GetAllCarsRequest;
+import com.bist.backendmodule.modules.car.CarSpecification;
+import com.bist.backendmodule.modules.car.models.*;
+import com.bist.backendmodule.modules.car.search.CarSearchIndex;
+import com.bist.backendmodule.modules.car.snapshot.CarColumnStore;
+import com.bist.backendmodule.modules.car.snapshot.CarIdPage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Service class for handling the retrieval of all cars with pagination and sorting.
+ * Free-text search terms are resolved through the in-memory search index when it is ready,
+ * and the matching ids are intersected with the remaining filters in the database.
+ * Offset pages of plain attribute filters are resolved by the column store when it is enabled,
+ * so only the cars of the page are read from the database.
+ * Other offset pages count their total alongside the page, unless the client asks for an estimated total or none:
+ * large estimated totals come from a recent count of the same filters or from the table statistics.
+ * When a count times out, unfiltered pages fall back to the table statistics and filtered pages leave the total unknown.
+ * When the request selects fields, only their columns are read in every mode.
  */
 @Service
 public class GetAllCarsByPageQueryHandler implements Query<GetAllCarsRequest, CarResponse> {
+    private static final int MAX_CACHED_COUNTS = 1024;
+
     private final CarRepository carRepository;
+    private final CarSearchIndex carSearchIndex;
+    private final CarColumnStore carColumnStore;
+    private final Map<String, CachedCount> countsByFilter = new LinkedHashMap<>(64, 0.75f, true);
+
+    @Value("${car.page.count-estimate-threshold:100000}")
+    private long countEstimateThreshold;
 
-    public GetAllCarsByPageQueryHandler(CarRepository carRepository) {
+    @Value("${car.page.count-cache-ttl-ms:60000}")
+    private long countCacheTtlMillis;
+
+    @Value("${car.page.max-page-size:200}")
+    private int maxPageSize = 200;
+
+    public GetAllCarsByPageQueryHandler(CarRepository carRepository,
+                                        CarSearchIndex carSearchIndex,
+                                        CarColumnStore carColumnStore) {
         this.carRepository = carRepository;
+        this.carSearchIndex = carSearchIndex;
+        this.carColumnStore = carColumnStore;
     }
 
     /**
      * Executes the query to retrieve a paginated and sorted list of cars.
+     * Without an explicit sort, search results are ordered by relevance. Only the fields of {@link CarSortField} are sortable.
+     * The page size is clamped to between 1 and car.page.max-page-size.
      *
-     * @param getAllCarsRequest The request containing pagination, sorting, and specification details
+     * @param getAllCarsRequest The request containing pagination, sorting, and filter details
      * @return The ResponseEntity containing the paginated list of cars
+     * @throws InvalidCursorException If the keyset cursor or sort field is invalid
      */
     @Override
     public ResponseEntity<CarResponse> execute(GetAllCarsRequest getAllCarsRequest) {
+        getAllCarsRequest.setPageSize(Math.max(1, Math.min(getAllCarsRequest.getPageSize(), maxPageSize)));
+        CarFilter carFilter = getAllCarsRequest.getCarFilter();
+        Specification<Car> specification = CarSpecification.fromFilter(carFilter);
+
+        List<Long> rankedIds = carSearchIndex.resolve(carFilter).orElse(null);
+        if (rankedIds != null) {
+            if (rankedIds.isEmpty()) {
+                return ResponseEntity.ok().body(emptyResponse(getAllCarsRequest));
+            }
+            specification = CarSpecification.fromFilter(carFilter.withoutSearchTerm()).and(CarSpecification.hasIdIn(rankedIds));
+        }
+
+        if (getAllCarsRequest.isKeyset()) {
+            return ResponseEntity.ok().body(executeKeyset(getAllCarsRequest, specification));
+        }
+
+        if (rankedIds != null && (getAllCarsRequest.getSortBy() == null || getAllCarsRequest.getSortDir() == null)) {
+            return ResponseEntity.ok().body(executeRanked(getAllCarsRequest, rankedIds));
+        }
+
         Sort sort = Sort.by(Sort.Direction.ASC, "id");
         if (getAllCarsRequest.getSortBy() != null && getAllCarsRequest.getSortDir() != null) {
+            if (CarSortField.fromProperty(getAllCarsRequest.getSortBy()) == null) {
+                throw new InvalidCursorException("Sort field is not supported: " + getAllCarsRequest.getSortBy(), GetAllCarsByPageQueryHandler.class);
+            }
             sort = Sort.by(Sort.Direction.fromString(getAllCarsRequest.getSortDir()), getAllCarsRequest.getSortBy());
         }
 
         Pageable pageable = PageRequest.of(getAllCarsRequest.getPageNo(), getAllCarsRequest.getPageSize(), sort);
-        Page<Car> carPage = carRepository.findAll(getAllCarsRequest.getSpecification(), pageable);
-        CarResponse carResponse = new CarResponse(carPage);
-        return ResponseEntity.ok().body(carResponse);
+        if (rankedIds == null) {
+            Optional<CarIdPage> idPage = carColumnStore.findPage(carFilter, pageable);
+            if (idPage.isPresent()) {
+                List<CarView> cars = findViewsInOrder(idPage.get().getIds(), getAllCarsRequest.getFields());
+                return ResponseEntity.ok().body(new CarResponse(new PageImpl<>(cars, pageable, idPage.get().getTotalElements())));
+            }
+        }
+
+        return ResponseEntity.ok().body(executeOffset(getAllCarsRequest, specification, pageable));
+    }
+
+    /**
+     * Resolves an offset page in the database, with the total determined by the total mode of the request.
+     *
+     * @param getAllCarsRequest The request containing the filters and the total mode
+     * @param specification     The specification of the filters
+     * @param pageable          The page and sort to apply
+     * @return The page response
+     */
+    private CarResponse executeOffset(GetAllCarsRequest getAllCarsRequest, Specification<Car> specification, Pageable pageable) {
+        CarTotalMode totalMode = getAllCarsRequest.getTotalMode() != null ? getAllCarsRequest.getTotalMode() : CarTotalMode.EXACT;
+        Set<CarField> fields = getAllCarsRequest.getFields();
+        if (totalMode == CarTotalMode.NONE) {
+            return new CarResponse(carRepository.findViewSlice(specification, pageable, fields));
+        }
+        CarFilter carFilter = getAllCarsRequest.getCarFilter();
+        if (totalMode == CarTotalMode.EXACT) {
+            return countedResponse(carFilter, carRepository.findViews(specification, pageable, fields), pageable);
+        }
+
+        String countKey = carFilter.cacheKey();
+        long estimatedTotal = findCachedCount(countKey);
+        if (estimatedTotal < 0 && !carFilter.hasCriteria()) {
+            long tableEstimate = carRepository.estimateCount();
+            estimatedTotal = tableEstimate >= countEstimateThreshold ? tableEstimate : -1;
+        }
+        if (estimatedTotal < 0) {
+            Slice<CarView> cars = carRepository.findViews(specification, pageable, fields);
+            if (cars instanceof Page<CarView> carPage && carPage.getTotalElements() >= countEstimateThreshold) {
+                cacheCount(countKey, carPage.getTotalElements());
+            }
+            return countedResponse(carFilter, cars, pageable);
+        }
+
+        return estimatedResponse(carRepository.findViewSlice(specification, pageable, fields), pageable, estimatedTotal);
+    }
+
+    /**
+     * Builds the response of a page read with its count. When the count timed out, the total of an unfiltered page
+     * falls back to the table statistics, and the total of a filtered page is left unknown.
+     *
+     * @param carFilter The filter of the page
+     * @param cars      The counted page, or the uncounted slice if the count timed out
+     * @param pageable  The page and sort applied
+     * @return The page response
+     */
+    private CarResponse countedResponse(CarFilter carFilter, Slice<CarView> cars, Pageable pageable) {
+        if (cars instanceof Page<CarView> carPage) {
+            return new CarResponse(carPage);
+        }
+        if (!carFilter.hasCriteria()) {
+            long tableEstimate = carRepository.estimateCount();
+            if (tableEstimate >= 0) {
+                return estimatedResponse(cars, pageable, tableEstimate);
+            }
+        }
+        return new CarResponse(cars);
+    }
+
+    /**
+     * Builds the response of an uncounted slice with an estimated total.
+     *
+     * @param carSlice       The slice of cars
+     * @param pageable       The page and sort applied
+     * @param estimatedTotal The estimated total
+     * @return The page response
+     */
+    private CarResponse estimatedResponse(Slice<CarView> carSlice, Pageable pageable, long estimatedTotal) {
+        if (carSlice.hasNext()) {
+            // The estimate must at least cover the cars seen so far
+            return new CarResponse(new PageImpl<>(carSlice.getContent(), pageable,
+                    Math.max(estimatedTotal, pageable.getOffset() + carSlice.getNumberOfElements() + 1)));
+        }
+        return new CarResponse(PageableExecutionUtils.getPage(carSlice.getContent(), pageable, () -> estimatedTotal));
+    }
+
+    private long findCachedCount(String countKey) {
+        synchronized (countsByFilter) {
+            CachedCount cachedCount = countsByFilter.get(countKey);
+            if (cachedCount == null) {
+                return -1;
+            }
+            if (cachedCount.expiresAt < System.currentTimeMillis()) {
+                countsByFilter.remove(countKey);
+                return -1;
+            }
+            return cachedCount.total;
+        }
+    }
+
+    private void cacheCount(String countKey, long total) {
+        synchronized (countsByFilter) {
+            countsByFilter.put(countKey, new CachedCount(total, System.currentTimeMillis() + countCacheTtlMillis));
+            if (countsByFilter.size() > MAX_CACHED_COUNTS) {
+                Iterator<String> eldest = countsByFilter.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Resolves a page of search results in relevance order. Only the ids are filtered in the database;
+     * the views are loaded for the requested page alone.
+     *
+     * @param getAllCarsRequest The request containing the filters and pagination details
+     * @param rankedIds         The search index matches, most relevant first
+     * @return The page response
+     */
+    private CarResponse executeRanked(GetAllCarsRequest getAllCarsRequest, List<Long> rankedIds) {
+        List<Long> matchingIds = rankedIds;
+        CarFilter remainingFilter = getAllCarsRequest.getCarFilter().withoutSearchTerm();
+        if (remainingFilter.hasCriteria()) {
+            Set<Long> filteredIds = new HashSet<>(carRepository.findIds(
+                    CarSpecification.fromFilter(remainingFilter).and(CarSpecification.hasIdIn(rankedIds))));
+            matchingIds = rankedIds.stream().filter(filteredIds::contains).toList();
+        }
+
+        Pageable pageable = PageRequest.of(getAllCarsRequest.getPageNo(), getAllCarsRequest.getPageSize());
+        int from = (int) Math.min(pageable.getOffset(), matchingIds.size());
+        int to = Math.min(from + pageable.getPageSize(), matchingIds.size());
+        List<CarView> cars = findViewsInOrder(matchingIds.subList(from, to), getAllCarsRequest.getFields());
+        return new CarResponse(new PageImpl<>(cars, pageable, matchingIds.size()));
+    }
+
+    /**
+     * Loads the views of the given cars in a single query and returns them in the order of the ids.
+     * Cars deleted in the meantime are left out.
+     *
+     * @param pageIds The ids of the page, in page order
+     * @param fields  The fields of the views, or null for full views
+     * @return The views in page order
+     */
+    private List<CarView> findViewsInOrder(List<Long> pageIds, Set<CarField> fields) {
+        if (pageIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, CarView> carsById = carRepository.findViews(CarSpecification.hasIdIn(pageIds), Sort.unsorted(), null, fields).stream()
+                .collect(Collectors.toMap(CarView::getId, Function.identity()));
+        return pageIds.stream().map(carsById::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Resolves a keyset page: seeks past the cursor and reads one extra row to detect the last page,
+     * so neither an OFFSET scan nor a count query is needed unless the total is requested.
+     *
+     * @param getAllCarsRequest The request containing the cursor and sorting details
+     * @param baseSpecification The specification of the filters
+     * @return The keyset page response
+     */
+    private CarResponse executeKeyset(GetAllCarsRequest getAllCarsRequest, Specification<Car> baseSpecification) {
+        CarSortField sortField = CarSortField.ID;
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (getAllCarsRequest.getSortBy() != null && getAllCarsRequest.getSortDir() != null) {
+            sortField = CarSortField.fromProperty(getAllCarsRequest.getSortBy());
+            if (sortField == null) {
+                throw new InvalidCursorException("Sort field is not supported: " + getAllCarsRequest.getSortBy(), GetAllCarsByPageQueryHandler.class);
+            }
+            direction = Sort.Direction.fromString(getAllCarsRequest.getSortDir());
+        }
+
+        int pageSize = getAllCarsRequest.getPageSize();
+        if (pageSize < 1) {
+            throw new InvalidCursorException("Page size must be greater than zero", GetAllCarsByPageQueryHandler.class);
+        }
+
+        Specification<Car> specification = baseSpecification;
+        if (!getAllCarsRequest.getCursor().isEmpty()) {
+            CarCursor cursor = decodeCursor(getAllCarsRequest.getCursor(), sortField, direction);
+            specification = specification.and(CarSpecification.isAfterCursor(cursor));
+        }
+
+        Sort sort = Sort.by(direction, sortField.getProperty());
+        if (sortField != CarSortField.ID) {
+            sort = sort.and(Sort.by(direction, "id"));
+        }
+
+        List<CarView> cars = carRepository.findViews(specification, sort, pageSize + 1, getAllCarsRequest.getFields());
+
+        String nextCursor = null;
+        if (cars.size() > pageSize) {
+            cars = cars.subList(0, pageSize);
+            nextCursor = CarCursor.after(cars.get(pageSize - 1), sortField, direction).encode();
+        }
+
+        long totalElements = getAllCarsRequest.isWithTotal() ? carRepository.count(baseSpecification) : -1;
+        return new CarResponse(cars, pageSize, totalElements, nextCursor);
+    }
+
+    /**
+     * Builds the response for a search without matches, in the pagination mode of the request.
+     *
+     * @param getAllCarsRequest The request
+     * @return The empty page response
+     */
+    private CarResponse emptyResponse(GetAllCarsRequest getAllCarsRequest) {
+        if (getAllCarsRequest.isKeyset()) {
+            return new CarResponse(Collections.emptyList(), getAllCarsRequest.getPageSize(), getAllCarsRequest.isWithTotal() ? 0 : -1, null);
+        }
+        return new CarResponse(Page.empty(PageRequest.of(getAllCarsRequest.getPageNo(), getAllCarsRequest.getPageSize())));
+    }
+
+    /**
+     * Decodes the cursor and checks that it was issued for the requested sort order.
+     *
+     * @param encoded   The encoded cursor
+     * @param sortField The requested sort field
+     * @param direction The requested sort direction
+     * @return The decoded cursor
+     * @throws InvalidCursorException If the cursor is malformed or belongs to another sort order
+     */
+    private CarCursor decodeCursor(String encoded, CarSortField sortField, Sort.Direction direction) {
+        CarCursor cursor;
+        try {
+            cursor = CarCursor.decode(encoded);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Cursor is not valid", GetAllCarsByPageQueryHandler.class);
+        }
+        if (cursor.getSortField() != sortField || cursor.getDirection() != direction) {
+            throw new InvalidCursorException("Cursor does not match the requested sort order", GetAllCarsByPageQueryHandler.class);
+        }
+        return cursor;
+    }
+
+    /**
+     * A recent total of a filter combination, trusted until it expires.
+     */
+    private static final class CachedCount {
+        private final long total;
+        private final long expiresAt;
+
+        private CachedCount(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
     }
 }
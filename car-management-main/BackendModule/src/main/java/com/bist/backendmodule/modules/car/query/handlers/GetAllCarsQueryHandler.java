@@ -2,7 +2,8 @@ package com.bist.backendmodule.modules.car.query.handlers;
 
 import com.bist.backendmodule.modules.Query;
 import com.bist.backendmodule.modules.car.CarRepository;
-import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarView;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
@@ -12,7 +13,7 @@ import java.util.List;
  * Service class for handling the retrieval of all cars.
  */
 @Service
-public class GetAllCarsQueryHandler implements Query<Void, List<Car>> {
+public class GetAllCarsQueryHandler implements Query<Void, List<CarView>> {
     private final CarRepository carRepository;
 
     public GetAllCarsQueryHandler(CarRepository carRepository) {
@@ -26,8 +27,8 @@ public class GetAllCarsQueryHandler implements Query<Void, List<Car>> {
      * @return The ResponseEntity containing the list of all cars
      */
     @Override
-    public ResponseEntity<List<Car>> execute(Void input) {
-        List<Car> carList = carRepository.findAll();
+    public ResponseEntity<List<CarView>> execute(Void input) {
+        List<CarView> carList = carRepository.findViews(null, Sort.by("id"), null);
         return ResponseEntity.ok().body(carList);
     }
 }
@@ -0,0 +1,112 @@
+package com.bist.backendmodule.modules.car.query.handlers;
+
+import com.bist.backendmodule.exceptions.InvalidCursorException;
+import com.bist.backendmodule.exceptions.SyncTokenExpiredException;
+import com.bist.backendmodule.modules.Query;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.CarSpecification;
+import com.bist.backendmodule.modules.car.models.CarChangePosition;
+import com.bist.backendmodule.modules.car.models.CarChangesRequest;
+import com.bist.backendmodule.modules.car.models.CarChangesResponse;
+import com.bist.backendmodule.modules.car.models.CarSyncToken;
+import com.bist.backendmodule.modules.car.models.CarView;
+import com.bist.backendmodule.modules.car.sync.CarTombstoneRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class for handling incremental car syncs.
+ * Cars and tombstones of deleted cars carry the id of the transaction that wrote them and a change version from one
+ * sequence; a sync returns the changes following the position of the client's token, in (transaction id, version)
+ * order, a page at a time.
+ * Change versions are taken at write time, but transactions commit in any order, so a version can become visible
+ * after higher ones have been synced. A sync therefore only returns changes of transactions below the watermark,
+ * the oldest transaction still running: all of those have ended, and every later change gets a higher transaction id.
+ * Only the positions are read to find where the page ends, from the change position indexes,
+ * before the views and deleted ids of that position range are loaded.
+ */
+@Service
+public class GetCarChangesQueryHandler implements Query<CarChangesRequest, CarChangesResponse> {
+    private final CarRepository carRepository;
+    private final CarTombstoneRepository carTombstoneRepository;
+
+    @Value("${car.sync.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${car.sync.tombstone-retention-days:30}")
+    private long tombstoneRetentionDays;
+
+    public GetCarChangesQueryHandler(CarRepository carRepository,
+                                     CarTombstoneRepository carTombstoneRepository) {
+        this.carRepository = carRepository;
+        this.carTombstoneRepository = carTombstoneRepository;
+    }
+
+    /**
+     * Executes the query to retrieve the car changes since the token of the request.
+     *
+     * @param carChangesRequest The request containing the sync token and the page size
+     * @return The ResponseEntity containing the changes and the next token
+     * @throws InvalidCursorException    If the token or the limit is invalid
+     * @throws SyncTokenExpiredException If deletions since the token may no longer be retained
+     */
+    @Override
+    public ResponseEntity<CarChangesResponse> execute(CarChangesRequest carChangesRequest) {
+        if (carChangesRequest.getLimit() < 1) {
+            throw new InvalidCursorException("Limit must be greater than zero", GetCarChangesQueryHandler.class);
+        }
+        int limit = Math.min(carChangesRequest.getLimit(), maxLimit);
+        long now = System.currentTimeMillis();
+        CarChangePosition since = carChangesRequest.getSince().isEmpty()
+                ? new CarChangePosition(-1, 0)
+                : decodeSince(carChangesRequest.getSince(), now);
+
+        long watermark = carRepository.findSyncWatermark();
+        PageRequest positionPage = PageRequest.of(0, limit + 1);
+        List<CarChangePosition> positions = new ArrayList<>(carRepository.findChangePositionsAfter(
+                since.getChangeXid(), since.getChangeVersion(), watermark, positionPage));
+        positions.addAll(carTombstoneRepository.findChangePositionsAfter(
+                since.getChangeXid(), since.getChangeVersion(), watermark, positionPage));
+        Collections.sort(positions);
+
+        boolean hasMore = positions.size() > limit;
+        CarChangePosition upTo = positions.isEmpty() ? since : positions.get(Math.min(limit, positions.size()) - 1);
+        List<CarView> changed = Collections.emptyList();
+        List<Long> deleted = Collections.emptyList();
+        if (upTo.compareTo(since) > 0) {
+            changed = carRepository.findViews(CarSpecification.hasChangePositionBetween(since, upTo),
+                    Sort.by("changeXid", "changeVersion"), null);
+            deleted = carTombstoneRepository.findCarIdsByChangePositionBetween(since.getChangeXid(), since.getChangeVersion(),
+                    upTo.getChangeXid(), upTo.getChangeVersion());
+        }
+        return ResponseEntity.ok().body(new CarChangesResponse(changed, deleted, new CarSyncToken(upTo, now).encode(), hasMore));
+    }
+
+    /**
+     * Decodes the token and checks that the tombstones since it are still retained.
+     *
+     * @param encoded The encoded token
+     * @param now     The current time in epoch milliseconds
+     * @return The change position of the token
+     */
+    private CarChangePosition decodeSince(String encoded, long now) {
+        CarSyncToken token;
+        try {
+            token = CarSyncToken.decode(encoded);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Sync token is not valid", GetCarChangesQueryHandler.class);
+        }
+        if (token.getIssuedAt() < now - TimeUnit.DAYS.toMillis(tombstoneRetentionDays)) {
+            throw new SyncTokenExpiredException("Sync token has expired, sync again without a token", GetCarChangesQueryHandler.class);
+        }
+        return token.getPosition();
+    }
+}
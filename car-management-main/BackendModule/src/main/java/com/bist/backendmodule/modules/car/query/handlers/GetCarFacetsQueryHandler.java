@@ -0,0 +1,151 @@
+package com.bist.backendmodule.modules.car.query.handlers;
+
+import com.bist.backendmodule.exceptions.InvalidFacetBoundsException;
+import com.bist.backendmodule.modules.Query;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.CarSpecification;
+import com.bist.backendmodule.modules.car.models.*;
+import com.bist.backendmodule.modules.car.search.CarSearchIndex;
+import jakarta.persistence.Tuple;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Service class for counting the cars matching a filter per brand, isNew, engineLiter, price bucket and release date bucket.
+ * All facets are computed from a single grouped query, so a filter panel refresh costs one database round trip.
+ */
+@Service
+public class GetCarFacetsQueryHandler implements Query<CarFacetsRequest, CarFacets> {
+    private static final int MAX_BUCKET_BOUNDS = 20;
+
+    @Value("${car.facets.price-bounds:10000,25000,50000,100000}")
+    private List<BigDecimal> defaultPriceBounds;
+
+    @Value("${car.facets.release-years:2010,2015,2020,2023}")
+    private List<Integer> defaultReleaseYears;
+
+    private final CarRepository carRepository;
+    private final CarSearchIndex carSearchIndex;
+
+    public GetCarFacetsQueryHandler(CarRepository carRepository,
+                                    CarSearchIndex carSearchIndex) {
+        this.carRepository = carRepository;
+        this.carSearchIndex = carSearchIndex;
+    }
+
+    /**
+     * Executes the query to count the matching cars per facet value and bucket.
+     *
+     * @param carFacetsRequest The request containing the filter and the bucket bounds
+     * @return The ResponseEntity containing the facet counts
+     * @throws InvalidFacetBoundsException If the bucket bounds are not strictly ascending or too many
+     */
+    @Override
+    public ResponseEntity<CarFacets> execute(CarFacetsRequest carFacetsRequest) {
+        List<BigDecimal> priceBounds = carFacetsRequest.getPriceBounds() != null
+                ? carFacetsRequest.getPriceBounds() : defaultPriceBounds;
+        List<LocalDateTime> releaseDateBounds = carFacetsRequest.getReleaseDateBounds() != null
+                ? carFacetsRequest.getReleaseDateBounds()
+                : defaultReleaseYears.stream().map(year -> LocalDateTime.of(year, 1, 1, 0, 0)).toList();
+        validateBounds("Price", priceBounds);
+        validateBounds("Release date", releaseDateBounds);
+
+        CarFilter carFilter = carFacetsRequest.getCarFilter();
+        Specification<Car> specification = CarSpecification.fromFilter(carFilter);
+        Optional<List<Long>> searchIds = carSearchIndex.resolve(carFilter);
+        if (searchIds.isPresent()) {
+            specification = CarSpecification.fromFilter(carFilter.withoutSearchTerm()).and(CarSpecification.hasIdIn(searchIds.get()));
+        }
+
+        List<Tuple> rows = searchIds.isPresent() && searchIds.get().isEmpty()
+                ? Collections.emptyList()
+                : carRepository.countFacets(specification, priceBounds, releaseDateBounds);
+        return ResponseEntity.ok().body(aggregate(rows, priceBounds, releaseDateBounds));
+    }
+
+    /**
+     * Folds the per-combination rows into the individual facets.
+     *
+     * @param rows              The rows of brand name, isNew, engineLiter, count and bucket counts
+     * @param priceBounds       The price bucket bounds
+     * @param releaseDateBounds The release date bucket bounds
+     * @return The facet counts
+     */
+    private CarFacets aggregate(List<Tuple> rows, List<BigDecimal> priceBounds, List<LocalDateTime> releaseDateBounds) {
+        long totalElements = 0;
+        Map<String, Long> brandCounts = new HashMap<>();
+        Map<Boolean, Long> isNewCounts = new HashMap<>();
+        Map<Float, Long> engineLiterCounts = new HashMap<>();
+        long[] priceCounts = new long[priceBounds.size() + 1];
+        long[] releaseDateCounts = new long[releaseDateBounds.size() + 1];
+
+        for (Tuple row : rows) {
+            long count = ((Number) row.get(3)).longValue();
+            totalElements += count;
+            countValue(brandCounts, (String) row.get(0), count);
+            countValue(isNewCounts, (Boolean) row.get(1), count);
+            countValue(engineLiterCounts, (Float) row.get(2), count);
+            for (int i = 0; i < priceCounts.length; i++) {
+                priceCounts[i] += ((Number) row.get(4 + i)).longValue();
+            }
+            for (int i = 0; i < releaseDateCounts.length; i++) {
+                releaseDateCounts[i] += ((Number) row.get(4 + priceCounts.length + i)).longValue();
+            }
+        }
+
+        return new CarFacets(totalElements,
+                toFacetCounts(brandCounts, Comparator.<FacetCount<String>>comparingLong(FacetCount::getCount).reversed()
+                        .thenComparing(FacetCount::getValue)),
+                toFacetCounts(isNewCounts, Comparator.comparing(FacetCount::getValue)),
+                toFacetCounts(engineLiterCounts, Comparator.comparing(FacetCount::getValue)),
+                toRangeFacetCounts(priceBounds, priceCounts),
+                toRangeFacetCounts(releaseDateBounds, releaseDateCounts));
+    }
+
+    private <T> void countValue(Map<T, Long> counts, T value, long count) {
+        // Cars without a value cannot be selected through the facet, so they are not counted in it
+        if (value != null) {
+            counts.merge(value, count, Long::sum);
+        }
+    }
+
+    private <T> List<FacetCount<T>> toFacetCounts(Map<T, Long> counts, Comparator<FacetCount<T>> order) {
+        List<FacetCount<T>> facetCounts = new ArrayList<>();
+        counts.forEach((value, count) -> facetCounts.add(new FacetCount<>(value, count)));
+        facetCounts.sort(order);
+        return facetCounts;
+    }
+
+    private <T> List<RangeFacetCount<T>> toRangeFacetCounts(List<T> bounds, long[] counts) {
+        List<RangeFacetCount<T>> rangeFacetCounts = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            rangeFacetCounts.add(new RangeFacetCount<>(i > 0 ? bounds.get(i - 1) : null,
+                    i < bounds.size() ? bounds.get(i) : null, counts[i]));
+        }
+        return rangeFacetCounts;
+    }
+
+    /**
+     * Checks that the bucket bounds are present, strictly ascending and not too many.
+     *
+     * @param facet  The name of the facet, used in the error message
+     * @param bounds The bucket bounds
+     * @throws InvalidFacetBoundsException If the bounds are invalid
+     */
+    private <T extends Comparable<? super T>> void validateBounds(String facet, List<T> bounds) {
+        if (bounds.size() > MAX_BUCKET_BOUNDS) {
+            throw new InvalidFacetBoundsException(facet + " facet accepts at most " + MAX_BUCKET_BOUNDS + " bounds", GetCarFacetsQueryHandler.class);
+        }
+        for (int i = 0; i < bounds.size(); i++) {
+            if (bounds.get(i) == null || (i > 0 && bounds.get(i - 1).compareTo(bounds.get(i)) >= 0)) {
+                throw new InvalidFacetBoundsException(facet + " facet bounds must be strictly ascending", GetCarFacetsQueryHandler.class);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bist.backendmodule.modules.car.query.handlers;
+
+import com.bist.backendmodule.exceptions.BatchRequestNotValidException;
+import com.bist.backendmodule.modules.BatchGetResponse;
+import com.bist.backendmodule.modules.Query;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.CarSpecification;
+import com.bist.backendmodule.modules.car.models.CarView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service class for handling the retrieval of car views by a list of IDs.
+ * The IDs are resolved with one IN query per chunk instead of one query per ID,
+ * and the results are returned in request order with the IDs that were not found.
+ */
+@Service
+public class GetCarsByIdsQueryHandler implements Query<List<Long>, BatchGetResponse<CarView>> {
+    private final CarRepository carRepository;
+
+    @Value("${batch.get.max-ids:1000}")
+    private int maxIds;
+
+    @Value("${batch.get.chunk-size:500}")
+    private int chunkSize;
+
+    public GetCarsByIdsQueryHandler(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    /**
+     * Executes the query to retrieve cars by their IDs.
+     *
+     * @param ids The IDs to retrieve, possibly repeated
+     * @return ResponseEntity containing one item per requested ID, in request order
+     * @throws BatchRequestNotValidException If no IDs or too many IDs are given
+     */
+    @Override
+    public ResponseEntity<BatchGetResponse<CarView>> execute(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BatchRequestNotValidException("At least one ID is required", GetCarsByIdsQueryHandler.class);
+        }
+        if (ids.size() > maxIds) {
+            throw new BatchRequestNotValidException("At most " + maxIds + " IDs are allowed", GetCarsByIdsQueryHandler.class);
+        }
+        return ResponseEntity.ok().body(BatchGetResponse.load(ids, chunkSize,
+                chunk -> carRepository.findViews(CarSpecification.hasIdIn(chunk), Sort.unsorted(), null), CarView::getId));
+    }
+}
@@ -0,0 +1,432 @@
+package com.bist.backendmodule.modules.car.search;
+
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.brand.events.BrandChangedEvent;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import com.bist.backendmodule.modules.image.events.ImageChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the car specification and brand name, used for free-text search.
+ * Text is split into word tokens by {@link CarSearchText}; every token is indexed by its 2- and 3-grams,
+ * so a query token matches any word containing it. Query tokens too short for a partial match only match whole words,
+ * which are indexed by themselves, so that a single letter does not scan every car.
+ * The index is built off-thread on startup and kept current from the car, brand and image change events;
+ * until it is ready, search terms are evaluated by the database with the same matching rules.
+ */
+@Component
+public class CarSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(CarSearchIndex.class);
+    private static final int GRAM_LENGTH = 3;
+
+    @Value("${car.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${car.search.max-id-filter:10000}")
+    private int maxIdFilter = 10000;
+
+    private final CarRepository carRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedCar> cars = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Set<Long>> carIdsByBrand = new HashMap<>();
+    private final Map<Long, Set<Long>> carIdsByImage = new HashMap<>();
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+    private boolean building;
+
+    public CarSearchIndex(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    /**
+     * Checks whether the initial build has completed and the index can answer queries.
+     *
+     * @return true if the index is ready
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Resolves the search term of a filter through the index.
+     * The database has to evaluate the term instead when there is none, when the index is not ready,
+     * or when the term matches too many cars to be passed on as an id list.
+     *
+     * @param carFilter The filter holding the search term
+     * @return The matching ids ranked by relevance, or empty if the database has to evaluate the term
+     */
+    public Optional<List<Long>> resolve(CarFilter carFilter) {
+        String searchTerm = carFilter.getSearchTerm();
+        if (searchTerm == null || searchTerm.isEmpty() || !ready) {
+            return Optional.empty();
+        }
+        List<Long> rankedIds = search(searchTerm);
+        // A term matching most of the catalog is not selective; the LIKE predicates are cheaper than a huge id list
+        return rankedIds.size() > maxIdFilter ? Optional.empty() : Optional.of(rankedIds);
+    }
+
+    /**
+     * Searches the index for the given text.
+     * Every query token must occur in the specification or brand name; results are ranked by relevance,
+     * exact word matches scoring above prefix matches and prefix matches above infix matches.
+     *
+     * @param text The search text
+     * @return The ids of the matching cars, most relevant first
+     */
+    public List<Long> search(String text) {
+        List<String> queryTokens = CarSearchText.tokenize(text);
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String queryToken : queryTokens) {
+                Map<Long, Integer> tokenScores = new HashMap<>();
+                for (Long carId : candidates(queryToken, scores)) {
+                    int score = score(cars.get(carId), queryToken);
+                    if (score > 0) {
+                        tokenScores.put(carId, score + (scores == null ? 0 : scores.get(carId)));
+                    }
+                }
+                scores = tokenScores;
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            Map<Long, Integer> finalScores = scores;
+            List<Long> result = new ArrayList<>(finalScores.keySet());
+            result.sort(Comparator.<Long>comparingInt(finalScores::get).reversed().thenComparing(Comparator.naturalOrder()));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Starts building the index on a background thread once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRebuild() {
+        Thread thread = new Thread(this::rebuild, "car-search-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Rebuilds the index from the database. Search terms are evaluated by the database until it completes.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            building = true;
+            cars.clear();
+            postings.clear();
+            carIdsByBrand.clear();
+            carIdsByImage.clear();
+            changedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            carRepository.streamAll(null, fetchSize, car -> {
+                lock.writeLock().lock();
+                try {
+                    // Changes applied by events while the build runs are newer than the streamed rows
+                    if (!changedDuringBuild.contains(car.getId())) {
+                        put(car);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                building = false;
+                changedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Car search index could not be built, search terms are evaluated by the database", e);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            building = false;
+            changedDuringBuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Car search index built with {} cars in {} ms", cars.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Applies a car change to the index.
+     *
+     * @param event The car change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the car changes of a bulk change to the index under one write lock.
+     *
+     * @param event The bulk car change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarsChanged(CarsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getChanges().forEach(this::apply);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a car change to the index. Requires the write lock.
+     */
+    private void apply(CarChangedEvent event) {
+        if (building) {
+            changedDuringBuild.add(event.getCarId());
+        }
+        if (event.getChangeType() == ChangeType.DELETED) {
+            remove(event.getCarId());
+        } else {
+            put(event.getCar());
+        }
+    }
+
+    /**
+     * Applies a brand change to the index: renames re-index the brand's cars, deletions drop them.
+     *
+     * @param event The brand change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBrandChanged(BrandChangedEvent event) {
+        if (event.getChangeType() == ChangeType.CREATED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Set<Long> carIds = new HashSet<>(carIdsByBrand.getOrDefault(event.getBrandId(), Collections.emptySet()));
+            for (Long carId : carIds) {
+                IndexedCar indexedCar = cars.get(carId);
+                if (event.getChangeType() == ChangeType.DELETED) {
+                    remove(carId);
+                } else {
+                    putTokens(new IndexedCar(carId, indexedCar.brandId, indexedCar.imageId,
+                            CarSearchText.tokenize(event.getBrand().getName()), indexedCar.specificationTokens));
+                }
+                if (building) {
+                    changedDuringBuild.add(carId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the cars of a deleted image from the index.
+     *
+     * @param event The image change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        if (event.getChangeType() != ChangeType.DELETED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long carId : new HashSet<>(carIdsByImage.getOrDefault(event.getImageId(), Collections.emptySet()))) {
+                remove(carId);
+                if (building) {
+                    changedDuringBuild.add(carId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Car car) {
+        Long brandId = car.getBrand() != null ? car.getBrand().getId() : null;
+        Long imageId = car.getImage() != null ? car.getImage().getId() : null;
+        List<String> brandTokens = CarSearchText.tokenize(car.getBrand() != null ? car.getBrand().getName() : null);
+        putTokens(new IndexedCar(car.getId(), brandId, imageId, brandTokens, CarSearchText.tokenize(car.getSpecification())));
+    }
+
+    private void putTokens(IndexedCar indexedCar) {
+        remove(indexedCar.id);
+        cars.put(indexedCar.id, indexedCar);
+        for (String gram : grams(indexedCar)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(indexedCar.id);
+        }
+        if (indexedCar.brandId != null) {
+            carIdsByBrand.computeIfAbsent(indexedCar.brandId, key -> new HashSet<>()).add(indexedCar.id);
+        }
+        if (indexedCar.imageId != null) {
+            carIdsByImage.computeIfAbsent(indexedCar.imageId, key -> new HashSet<>()).add(indexedCar.id);
+        }
+    }
+
+    private void remove(Long carId) {
+        IndexedCar indexedCar = cars.remove(carId);
+        if (indexedCar == null) {
+            return;
+        }
+        for (String gram : grams(indexedCar)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting != null && posting.remove(carId) && posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+        removeFromGroup(carIdsByBrand, indexedCar.brandId, carId);
+        removeFromGroup(carIdsByImage, indexedCar.imageId, carId);
+    }
+
+    private void removeFromGroup(Map<Long, Set<Long>> groups, Long groupId, Long carId) {
+        if (groupId == null) {
+            return;
+        }
+        Set<Long> group = groups.get(groupId);
+        if (group != null && group.remove(carId) && group.isEmpty()) {
+            groups.remove(groupId);
+        }
+    }
+
+    /**
+     * Collects the candidate cars for a query token by intersecting the postings of its grams.
+     * Candidates may still be false positives and are verified by {@link #score}.
+     */
+    private Collection<Long> candidates(String queryToken, Map<Long, Integer> previous) {
+        if (queryToken.length() < CarSearchText.MIN_PARTIAL_MATCH_LENGTH) {
+            // Short words are indexed by themselves
+            Set<Long> posting = postings.getOrDefault(queryToken, Collections.emptySet());
+            if (previous == null) {
+                return posting;
+            }
+            Set<Long> result = new HashSet<>(posting);
+            result.retainAll(previous.keySet());
+            return result;
+        }
+
+        List<Set<Long>> gramPostings = new ArrayList<>();
+        for (String gram : queryGrams(queryToken)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            gramPostings.add(posting);
+        }
+        gramPostings.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(previous != null && previous.size() < gramPostings.get(0).size()
+                ? previous.keySet() : gramPostings.get(0));
+        for (Set<Long> posting : gramPostings) {
+            result.retainAll(posting);
+        }
+        if (previous != null) {
+            result.retainAll(previous.keySet());
+        }
+        return result;
+    }
+
+    private int score(IndexedCar indexedCar, String queryToken) {
+        return Math.max(score(indexedCar.brandTokens, queryToken, 1), score(indexedCar.specificationTokens, queryToken, 0));
+    }
+
+    private int score(List<String> tokens, String queryToken, int boost) {
+        boolean partial = queryToken.length() >= CarSearchText.MIN_PARTIAL_MATCH_LENGTH;
+        int best = 0;
+        for (String token : tokens) {
+            if (token.equals(queryToken)) {
+                best = Math.max(best, 4 + boost);
+            } else if (partial && token.startsWith(queryToken)) {
+                best = Math.max(best, 2 + boost);
+            } else if (partial && token.contains(queryToken)) {
+                best = Math.max(best, 1);
+            }
+        }
+        return best;
+    }
+
+    private Set<String> grams(IndexedCar indexedCar) {
+        Set<String> grams = new HashSet<>();
+        addGrams(indexedCar.brandTokens, grams);
+        addGrams(indexedCar.specificationTokens, grams);
+        return grams;
+    }
+
+    private void addGrams(List<String> tokens, Set<String> grams) {
+        for (String token : tokens) {
+            if (token.length() < CarSearchText.MIN_PARTIAL_MATCH_LENGTH) {
+                grams.add(token);
+            }
+            for (int length = CarSearchText.MIN_PARTIAL_MATCH_LENGTH; length <= GRAM_LENGTH; length++) {
+                for (int i = 0; i + length <= token.length(); i++) {
+                    grams.add(token.substring(i, i + length));
+                }
+            }
+        }
+    }
+
+    private Set<String> queryGrams(String queryToken) {
+        Set<String> grams = new HashSet<>();
+        int length = Math.min(queryToken.length(), GRAM_LENGTH);
+        for (int i = 0; i + length <= queryToken.length(); i++) {
+            grams.add(queryToken.substring(i, i + length));
+        }
+        return grams;
+    }
+
+    /**
+     * Indexed representation of a car: its grouping ids and the tokens of its searchable fields.
+     */
+    private static final class IndexedCar {
+        private final Long id;
+        private final Long brandId;
+        private final Long imageId;
+        private final List<String> brandTokens;
+        private final List<String> specificationTokens;
+
+        private IndexedCar(Long id, Long brandId, Long imageId, List<String> brandTokens, List<String> specificationTokens) {
+            this.id = id;
+            this.brandId = brandId;
+            this.imageId = imageId;
+            this.brandTokens = brandTokens;
+            this.specificationTokens = specificationTokens;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.bist.backendmodule.modules.car.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Matching rules of free-text search terms, shared by the search index and the database predicate that replaces it,
+ * so that both return the same cars for a term.
+ * Text is lower-cased and split into word tokens of letters and digits. A car matches when every query token occurs
+ * in a word of its brand name or specification: as part of a word if it has at least
+ * {@value #MIN_PARTIAL_MATCH_LENGTH} characters, and as a whole word otherwise.
+ * In the database, the searchable text is the brand name and specification with every run of other characters
+ * replaced by a single space and a space on either end, and each token becomes a LIKE '%fragment%' predicate.
+ */
+public final class CarSearchText {
+    static final int MIN_PARTIAL_MATCH_LENGTH = 2;
+
+    /**
+     * The POSIX class of the characters tokens consist of, as used by the database.
+     */
+    public static final String NON_WORD_CHARACTERS = "[^[:alnum:]]+";
+
+    private CarSearchText() {
+    }
+
+    /**
+     * Splits text into lower-case word tokens.
+     *
+     * @param text The text to tokenize
+     * @return The word tokens in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Builds the fragments the searchable text of a matching car contains, one per query token.
+     * Short tokens are enclosed in spaces, so they only match whole words.
+     *
+     * @param searchTerm The search term
+     * @return The fragments, all of which must occur in the searchable text
+     */
+    public static List<String> fragments(String searchTerm) {
+        List<String> fragments = new ArrayList<>();
+        for (String token : tokenize(searchTerm)) {
+            fragments.add(token.length() < MIN_PARTIAL_MATCH_LENGTH ? ' ' + token + ' ' : token);
+        }
+        return fragments;
+    }
+
+    /**
+     * Builds the searchable text of a car, as the database derives it from the brand name and specification.
+     *
+     * @param brandName     The brand name, may be null
+     * @param specification The specification, may be null
+     * @return The tokens of both separated and enclosed by single spaces
+     */
+    public static String searchableText(String brandName, String specification) {
+        List<String> tokens = tokenize(brandName);
+        tokens.addAll(tokenize(specification));
+        return " " + String.join(" ", tokens) + " ";
+    }
+
+    /**
+     * Checks whether a car matches the search term.
+     *
+     * @param searchTerm    The search term
+     * @param brandName     The brand name, may be null
+     * @param specification The specification, may be null
+     * @return true if the term has words and every fragment of it occurs in the searchable text of the car
+     */
+    public static boolean matches(String searchTerm, String brandName, String specification) {
+        List<String> fragments = fragments(searchTerm);
+        if (fragments.isEmpty()) {
+            return false;
+        }
+        String text = searchableText(brandName, specification);
+        for (String fragment : fragments) {
+            if (!text.contains(fragment)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
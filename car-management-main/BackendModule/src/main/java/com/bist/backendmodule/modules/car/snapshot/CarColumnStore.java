@@ -0,0 +1,611 @@
+package com.bist.backendmodule.modules.car.snapshot;
+
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.brand.events.BrandChangedEvent;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import com.bist.backendmodule.modules.image.events.ImageChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Optional in-memory column store of the filterable car attributes, enabled with car.snapshot.enabled.
+ * Every car occupies a row slot; the attributes are kept in primitive arrays: prices as longs at the scale of the
+ * price column, release dates as epoch microseconds like PostgreSQL timestamps, engine sizes as floats, brands as
+ * dictionary codes and isNew as bitsets. Values are rounded like the database rounds them on storage, so every
+ * stored car is represented exactly. Filters are evaluated as tight scans over the arrays, 64 rows per bitmap word,
+ * so the matching ids and the requested page are resolved without touching the database.
+ * The store is built off-thread on startup and swapped in once loaded; until then the database answers.
+ * Car, brand and image change events are queued and applied in batches under a single write lock, at the latest
+ * before the next read.
+ */
+@Component
+public class CarColumnStore {
+    private static final Logger logger = LoggerFactory.getLogger(CarColumnStore.class);
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_CODE = -1;
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "brand", "engineLiter", "isNew", "price", "releaseDateTime");
+
+    @Value("${car.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${car.snapshot.change-batch-size:1000}")
+    private int changeBatchSize = 1000;
+
+    @Value("${car.export.fetch-size:500}")
+    private int fetchSize;
+
+    private final CarRepository carRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns = new Columns();
+
+    private final Queue<Consumer<Columns>> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingChangeCount = new AtomicInteger();
+    private final List<Consumer<Columns>> changesDuringBuild = new ArrayList<>();
+    private volatile boolean ready;
+    private boolean building;
+
+    public CarColumnStore(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    /**
+     * Checks whether the store is enabled and loaded.
+     *
+     * @return true if the store can answer queries
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Resolves the ids of a page of cars matching the filter.
+     * Only filters on brand, engineLiter, isNew, price and release date, and sorts on the columns held here, are supported.
+     *
+     * @param carFilter The filter
+     * @param pageable  The page and sort
+     * @return The ids of the page and the total, or empty if the store cannot answer the request
+     */
+    public Optional<CarIdPage> findPage(CarFilter carFilter, Pageable pageable) {
+        if (!ready || !supports(carFilter, pageable.getSort())) {
+            return Optional.empty();
+        }
+        applyPendingChanges();
+
+        lock.readLock().lock();
+        try {
+            return columns.findPage(carFilter, pageable);
+        } catch (ArithmeticException e) {
+            // A price or date bound outside the long range of the column
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Starts loading the store on a background thread once the application is ready, if it is enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRebuild() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "car-column-store-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Loads a new copy of the store from the database and swaps it in, if the store is enabled.
+     * The current copy keeps answering while the new one loads; changes applied meanwhile are replayed on the new copy
+     * before the swap, since they may be newer than the streamed rows.
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // Changes queued so far are older than the rows about to be streamed
+            drainPendingChanges();
+            building = true;
+            changesDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        Columns rebuilt = new Columns();
+        try {
+            carRepository.streamAll(null, fetchSize, rebuilt::put);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                building = false;
+                changesDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Car column store could not be loaded, car pages are served by the database", e);
+            return;
+        }
+
+        int carCount;
+        lock.writeLock().lock();
+        try {
+            drainPendingChanges();
+            for (Consumer<Columns> change : changesDuringBuild) {
+                change.accept(rebuilt);
+            }
+            changesDuringBuild.clear();
+            columns = rebuilt;
+            building = false;
+            ready = true;
+            carCount = rebuilt.slotsById.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Car column store loaded with {} cars in {} ms", carCount, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Queues a car change for the store.
+     *
+     * @param event The car change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        queueChanges(target -> apply(target, event), 1);
+    }
+
+    /**
+     * Queues the car changes of a bulk change for the store as one change.
+     *
+     * @param event The bulk car change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarsChanged(CarsChangedEvent event) {
+        if (!enabled || event.getChanges().isEmpty()) {
+            return;
+        }
+        List<CarChangedEvent> changes = List.copyOf(event.getChanges());
+        queueChanges(target -> changes.forEach(change -> apply(target, change)), changes.size());
+    }
+
+    private static void apply(Columns target, CarChangedEvent event) {
+        if (event.getChangeType() == ChangeType.DELETED) {
+            target.remove(event.getCarId());
+        } else {
+            target.put(event.getCar());
+        }
+    }
+
+    /**
+     * Queues a brand change for the dictionary: renames re-map the name, deletions drop the brand's cars.
+     *
+     * @param event The brand change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBrandChanged(BrandChangedEvent event) {
+        if (!enabled || event.getChangeType() == ChangeType.CREATED) {
+            return;
+        }
+        if (event.getChangeType() == ChangeType.UPDATED) {
+            String name = event.getBrand().getName();
+            queueChange(target -> target.renameBrand(event.getBrandId(), name));
+        } else {
+            queueChange(target -> target.removeBrand(event.getBrandId()));
+        }
+    }
+
+    /**
+     * Queues dropping the cars of a deleted image from the store.
+     *
+     * @param event The image change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        if (!enabled || event.getChangeType() != ChangeType.DELETED) {
+            return;
+        }
+        queueChange(target -> target.removeImage(event.getImageId()));
+    }
+
+    /**
+     * Queues a change, and applies the queued changes once a batch is complete.
+     */
+    private void queueChange(Consumer<Columns> change) {
+        queueChanges(change, 1);
+    }
+
+    /**
+     * Queues a change standing for the given number of car changes, and applies the queued changes once a batch
+     * is complete.
+     */
+    private void queueChanges(Consumer<Columns> change, int carChanges) {
+        pendingChanges.add(change);
+        if (pendingChangeCount.addAndGet(carChanges) >= changeBatchSize) {
+            applyPendingChanges();
+        }
+    }
+
+    /**
+     * Applies all queued changes under one write lock.
+     */
+    private void applyPendingChanges() {
+        if (pendingChangeCount.get() == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            drainPendingChanges();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the queued changes in order, remembering them for the copy being built. Requires the write lock.
+     */
+    private void drainPendingChanges() {
+        Consumer<Columns> change;
+        while ((change = pendingChanges.poll()) != null) {
+            pendingChangeCount.decrementAndGet();
+            change.accept(columns);
+            if (building) {
+                changesDuringBuild.add(change);
+            }
+        }
+    }
+
+    private boolean supports(CarFilter carFilter, Sort sort) {
+        if (carFilter.getSpecification() != null || (carFilter.getSearchTerm() != null && !carFilter.getSearchTerm().isEmpty())) {
+            return false;
+        }
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts a price to the long representation of the price column.
+     *
+     * @throws ArithmeticException If the price does not fit a long at the column scale
+     */
+    private static long scalePrice(BigDecimal price, RoundingMode roundingMode) {
+        return price.setScale(Car.PRICE_SCALE, roundingMode).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts a date to epoch microseconds, the resolution of PostgreSQL timestamps.
+     *
+     * @throws ArithmeticException If the date does not fit a long in microseconds
+     */
+    private static long epochMicros(LocalDateTime dateTime, RoundingMode roundingMode) {
+        long micros = Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), 1_000_000L);
+        long fraction = BigDecimal.valueOf(dateTime.getNano(), 3).setScale(0, roundingMode).longValue();
+        return Math.addExact(micros, fraction);
+    }
+
+    /**
+     * One copy of the columns. Only accessed under the lock of the store, or by the thread building it.
+     */
+    private static final class Columns {
+        // Columns, indexed by row slot
+        private long[] ids = new long[0];
+        private long[] prices = new long[0];
+        private long[] releaseDates = new long[0];
+        private float[] engineLiters = new float[0];
+        private int[] brandCodes = new int[0];
+        private long[] imageIds = new long[0];
+        private final BitSet live = new BitSet();
+        private final BitSet isNewKnown = new BitSet();
+        private final BitSet isNewTrue = new BitSet();
+        private int size;
+
+        private final Map<Long, Integer> slotsById = new HashMap<>();
+        private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+        // Brand dictionary
+        private final Map<Long, Integer> brandCodesById = new HashMap<>();
+        private final List<Long> brandIdsByCode = new ArrayList<>();
+        private final Map<Long, String> brandNamesById = new HashMap<>();
+
+        // Rows whose price exceeds the long range and is stored as the nearest long; only sorting them is inexact
+        private final BitSet clampedPrices = new BitSet();
+
+        Optional<CarIdPage> findPage(CarFilter carFilter, Pageable pageable) {
+            if (!clampedPrices.isEmpty() && pageable.getSort().getOrderFor("price") != null) {
+                return Optional.empty();
+            }
+
+            long[] mask = live.toLongArray();
+            if (!applyFilter(carFilter, mask)) {
+                return Optional.of(new CarIdPage(Collections.emptyList(), 0));
+            }
+
+            int matching = 0;
+            for (long word : mask) {
+                matching += Long.bitCount(word);
+            }
+            long end = Math.min(pageable.getOffset() + pageable.getPageSize(), matching);
+            if (pageable.getOffset() >= end) {
+                return Optional.of(new CarIdPage(Collections.emptyList(), matching));
+            }
+
+            List<Long> pageIds = topSlots(mask, comparator(pageable.getSort()), (int) end).stream()
+                    .skip(pageable.getOffset())
+                    .map(slot -> ids[slot])
+                    .toList();
+            return Optional.of(new CarIdPage(pageIds, matching));
+        }
+
+        /**
+         * Clears the bits of the rows not matching the filter.
+         *
+         * @return false if the filter cannot match any row
+         */
+        private boolean applyFilter(CarFilter carFilter, long[] mask) {
+            if (carFilter.getBrand() != null) {
+                // Brand names are not unique, so the filter may match several codes
+                boolean[] matchingCodes = new boolean[brandIdsByCode.size()];
+                boolean anyMatch = false;
+                for (int code = 0; code < matchingCodes.length; code++) {
+                    matchingCodes[code] = carFilter.getBrand().equals(brandNamesById.get(brandIdsByCode.get(code)));
+                    anyMatch |= matchingCodes[code];
+                }
+                if (!anyMatch) {
+                    return false;
+                }
+                scanIn(brandCodes, matchingCodes, mask);
+            }
+            if (carFilter.getEngineLiter() != null) {
+                scanEquals(engineLiters, carFilter.getEngineLiter(), mask);
+            }
+            if (carFilter.getIsNew() != null) {
+                long[] known = isNewKnown.toLongArray();
+                long[] trueBits = isNewTrue.toLongArray();
+                for (int word = 0; word < mask.length; word++) {
+                    long knownWord = word < known.length ? known[word] : 0;
+                    long trueWord = word < trueBits.length ? trueBits[word] : 0;
+                    mask[word] &= carFilter.getIsNew() ? trueWord : knownWord & ~trueWord;
+                }
+            }
+            if (carFilter.getMinPrice() != null || carFilter.getMaxPrice() != null) {
+                long min = carFilter.getMinPrice() != null ? scalePrice(carFilter.getMinPrice(), RoundingMode.CEILING) : NULL_LONG + 1;
+                long max = carFilter.getMaxPrice() != null ? scalePrice(carFilter.getMaxPrice(), RoundingMode.FLOOR) : Long.MAX_VALUE;
+                scanRange(prices, min, max, mask);
+            }
+            if (carFilter.getMinDate() != null || carFilter.getMaxDate() != null) {
+                long min = carFilter.getMinDate() != null ? epochMicros(carFilter.getMinDate(), RoundingMode.CEILING) : NULL_LONG + 1;
+                long max = carFilter.getMaxDate() != null ? epochMicros(carFilter.getMaxDate(), RoundingMode.FLOOR) : Long.MAX_VALUE;
+                scanRange(releaseDates, min, max, mask);
+            }
+            return true;
+        }
+
+        /**
+         * Keeps the bits of the rows whose value lies in [min, max]. Null values are stored as {@link #NULL_LONG},
+         * which lies below every bound, so they never match, like in SQL.
+         */
+        private void scanRange(long[] column, long min, long max, long[] mask) {
+            for (int word = 0; word < mask.length; word++) {
+                if (mask[word] == 0) {
+                    continue;
+                }
+                int base = word << 6;
+                int rows = Math.min(64, size - base);
+                long bits = 0;
+                for (int row = 0; row < rows; row++) {
+                    long value = column[base + row];
+                    bits |= (value >= min & value <= max ? 1L : 0L) << row;
+                }
+                mask[word] &= bits;
+            }
+        }
+
+        private void scanIn(int[] column, boolean[] codes, long[] mask) {
+            for (int word = 0; word < mask.length; word++) {
+                if (mask[word] == 0) {
+                    continue;
+                }
+                int base = word << 6;
+                int rows = Math.min(64, size - base);
+                long bits = 0;
+                for (int row = 0; row < rows; row++) {
+                    int code = column[base + row];
+                    bits |= (code != NULL_CODE && codes[code] ? 1L : 0L) << row;
+                }
+                mask[word] &= bits;
+            }
+        }
+
+        private void scanEquals(float[] column, float expected, long[] mask) {
+            for (int word = 0; word < mask.length; word++) {
+                if (mask[word] == 0) {
+                    continue;
+                }
+                int base = word << 6;
+                int rows = Math.min(64, size - base);
+                long bits = 0;
+                for (int row = 0; row < rows; row++) {
+                    // Null values are stored as NaN, which equals nothing
+                    bits |= (column[base + row] == expected ? 1L : 0L) << row;
+                }
+                mask[word] &= bits;
+            }
+        }
+
+        /**
+         * Selects the first rows of the mask in sort order, keeping only as many as the page needs in a bounded heap.
+         *
+         * @return The slots of the first rows, in sort order
+         */
+        private List<Integer> topSlots(long[] mask, Comparator<Integer> order, int count) {
+            PriorityQueue<Integer> heap = new PriorityQueue<>(count, order.reversed());
+            for (int word = 0; word < mask.length; word++) {
+                long bits = mask[word];
+                while (bits != 0) {
+                    int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (heap.size() < count) {
+                        heap.add(slot);
+                    } else if (order.compare(slot, heap.peek()) < 0) {
+                        heap.poll();
+                        heap.add(slot);
+                    }
+                }
+            }
+            List<Integer> slots = new ArrayList<>(heap);
+            slots.sort(order);
+            return slots;
+        }
+
+        /**
+         * Builds the row order of a sort. Nulls sort last in ascending and first in descending order, like PostgreSQL;
+         * ties are broken by id.
+         */
+        private Comparator<Integer> comparator(Sort sort) {
+            Comparator<Integer> comparator = null;
+            for (Sort.Order order : sort) {
+                Comparator<Integer> column = switch (order.getProperty()) {
+                    case "brand" -> Comparator.comparingLong(slot -> brandCodes[slot] == NULL_CODE ? Long.MAX_VALUE : brandIdsByCode.get(brandCodes[slot]));
+                    case "engineLiter" -> (a, b) -> Float.compare(engineLiters[a], engineLiters[b]);
+                    case "isNew" -> Comparator.comparingInt(slot -> isNewKnown.get(slot) ? (isNewTrue.get(slot) ? 1 : 0) : 2);
+                    case "price" -> Comparator.comparingLong(slot -> prices[slot] == NULL_LONG ? Long.MAX_VALUE : prices[slot]);
+                    case "releaseDateTime" -> Comparator.comparingLong(slot -> releaseDates[slot] == NULL_LONG ? Long.MAX_VALUE : releaseDates[slot]);
+                    default -> Comparator.comparingLong(slot -> ids[slot]);
+                };
+                if (order.isDescending()) {
+                    column = column.reversed();
+                }
+                comparator = comparator == null ? column : comparator.thenComparing(column);
+            }
+            Comparator<Integer> byId = Comparator.comparingLong(slot -> ids[slot]);
+            return comparator == null ? byId : comparator.thenComparing(byId);
+        }
+
+        void put(Car car) {
+            Integer slot = slotsById.get(car.getId());
+            if (slot != null) {
+                clearRow(slot);
+            } else {
+                slot = freeSlots.isEmpty() ? size++ : freeSlots.pop();
+                ensureCapacity(size);
+                slotsById.put(car.getId(), slot);
+            }
+
+            ids[slot] = car.getId();
+            prices[slot] = NULL_LONG;
+            if (car.getPrice() != null) {
+                // Rounded like the price column rounds on storage, since the event may carry the unrounded price
+                BigInteger scaled = car.getPrice().setScale(Car.PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue();
+                if (scaled.bitLength() < Long.SIZE) {
+                    prices[slot] = scaled.longValue();
+                } else {
+                    // Still above or below every bound that fits a long, so range filters stay exact
+                    prices[slot] = scaled.signum() > 0 ? Long.MAX_VALUE : NULL_LONG + 1;
+                    clampedPrices.set(slot);
+                }
+            }
+            releaseDates[slot] = car.getReleaseDateTime() != null ? epochMicros(car.getReleaseDateTime(), RoundingMode.HALF_UP) : NULL_LONG;
+            engineLiters[slot] = car.getEngineLiter() != null ? car.getEngineLiter() : Float.NaN;
+            brandCodes[slot] = car.getBrand() != null ? encodeBrand(car.getBrand().getId(), car.getBrand().getName()) : NULL_CODE;
+            imageIds[slot] = car.getImage() != null ? car.getImage().getId() : NULL_LONG;
+            isNewKnown.set(slot, car.getIsNew() != null);
+            isNewTrue.set(slot, Boolean.TRUE.equals(car.getIsNew()));
+            live.set(slot);
+        }
+
+        void remove(Long carId) {
+            Integer slot = slotsById.remove(carId);
+            if (slot != null) {
+                clearRow(slot);
+                freeSlots.push(slot);
+            }
+        }
+
+        void renameBrand(Long brandId, String name) {
+            if (brandCodesById.containsKey(brandId)) {
+                brandNamesById.put(brandId, name);
+            }
+        }
+
+        void removeBrand(Long brandId) {
+            Integer code = brandCodesById.get(brandId);
+            if (code != null) {
+                removeWhere(slot -> brandCodes[slot] == code);
+            }
+        }
+
+        void removeImage(Long imageId) {
+            removeWhere(slot -> imageIds[slot] == imageId);
+        }
+
+        private void removeWhere(IntPredicate condition) {
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                if (condition.test(slot)) {
+                    remove(ids[slot]);
+                }
+            }
+        }
+
+        private void clearRow(int slot) {
+            live.clear(slot);
+            isNewKnown.clear(slot);
+            isNewTrue.clear(slot);
+            clampedPrices.clear(slot);
+        }
+
+        private int encodeBrand(Long brandId, String brandName) {
+            brandNamesById.put(brandId, brandName);
+            return brandCodesById.computeIfAbsent(brandId, id -> {
+                brandIdsByCode.add(id);
+                return brandIdsByCode.size() - 1;
+            });
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= ids.length) {
+                return;
+            }
+            int capacity = Math.max(required, Math.max(1024, ids.length * 2));
+            ids = Arrays.copyOf(ids, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            releaseDates = Arrays.copyOf(releaseDates, capacity);
+            engineLiters = Arrays.copyOf(engineLiters, capacity);
+            brandCodes = Arrays.copyOf(brandCodes, capacity);
+            imageIds = Arrays.copyOf(imageIds, capacity);
+        }
+    }
+}
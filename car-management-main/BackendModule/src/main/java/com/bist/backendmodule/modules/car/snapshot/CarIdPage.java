@@ -0,0 +1,16 @@
+package com.bist.backendmodule.modules.car.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Ids of the cars on a requested page, in page order, together with the total number of matching cars.
+ */
+@Data
+@AllArgsConstructor
+public class CarIdPage {
+    private List<Long> ids;
+    private long totalElements;
+}
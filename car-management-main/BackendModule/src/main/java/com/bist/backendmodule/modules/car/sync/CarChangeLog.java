@@ -0,0 +1,157 @@
+package com.bist.backendmodule.modules.car.sync;
+
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the change log of incremental car syncs: creates the change version sequence and the function recording the
+ * writing transaction, versions the cars written before they existed, and records a tombstone for every deleted car.
+ * Tombstones are written in the transaction deleting the cars, just before it commits, with one batched insert for all
+ * the cars it deleted, so a deletion is never synced without its tombstone or the other way round.
+ * Tombstones older than the retention period are pruned, at most once an hour, on a later deletion.
+ */
+@Component
+public class CarChangeLog {
+    private static final Logger logger = LoggerFactory.getLogger(CarChangeLog.class);
+    private static final long PRUNE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final String INSERT_SQL =
+            "INSERT INTO t_car_tombstone (car_id, deleted_at, change_version, change_xid) "
+                    + "VALUES (?, ?, nextval('" + Car.CHANGE_VERSION_SEQUENCE + "'), " + Car.CHANGE_XID_FUNCTION + "())";
+
+    private final CarTombstoneRepository carTombstoneRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong nextPruneAt = new AtomicLong();
+
+    @Value("${car.sync.tombstone-retention-days:30}")
+    private long tombstoneRetentionDays;
+
+    public CarChangeLog(CarTombstoneRepository carTombstoneRepository,
+                        JdbcTemplate jdbcTemplate) {
+        this.carTombstoneRepository = carTombstoneRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates the change version sequence and the transaction id function if needed, and assigns versions to cars
+     * that have none yet.
+     * Changes written before transaction ids were recorded are placed before all others.
+     */
+    @PostConstruct
+    public void initialize() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + Car.CHANGE_VERSION_SEQUENCE);
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION " + Car.CHANGE_XID_FUNCTION + "() RETURNS bigint "
+                + "AS 'SELECT CAST(CAST(pg_current_xact_id() AS text) AS bigint)' LANGUAGE sql VOLATILE");
+        jdbcTemplate.update("UPDATE t_car SET change_xid = 0 WHERE change_xid IS NULL");
+        jdbcTemplate.update("UPDATE t_car_tombstone SET change_xid = 0 WHERE change_xid IS NULL");
+        int versioned = jdbcTemplate.update("UPDATE t_car SET change_version = nextval('" + Car.CHANGE_VERSION_SEQUENCE + "') "
+                + "WHERE change_version IS NULL");
+        if (versioned > 0) {
+            logger.info("Assigned change versions to {} cars", versioned);
+        }
+    }
+
+    /**
+     * Records the tombstone of a deleted car when the deleting transaction commits, or right away outside a transaction.
+     *
+     * @param event The car change event
+     */
+    @EventListener
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.getChangeType() == ChangeType.DELETED) {
+            recordDeleted(List.of(event.getCarId()));
+        }
+    }
+
+    /**
+     * Records the tombstones of the cars deleted by a bulk change, as one batch.
+     *
+     * @param event The bulk car change event
+     */
+    @EventListener
+    public void onCarsChanged(CarsChangedEvent event) {
+        List<Long> carIds = event.getChanges().stream()
+                .filter(change -> change.getChangeType() == ChangeType.DELETED)
+                .map(CarChangedEvent::getCarId)
+                .toList();
+        if (!carIds.isEmpty()) {
+            recordDeleted(carIds);
+        }
+    }
+
+    /**
+     * Records the tombstones of deleted cars when the deleting transaction commits, or right away outside a transaction.
+     *
+     * @param carIds The ids of the deleted cars
+     */
+    private void recordDeleted(List<Long> carIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            record(carIds);
+            return;
+        }
+        PendingTombstones pending = (PendingTombstones) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingTombstones();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.carIds.addAll(carIds);
+    }
+
+    /**
+     * Inserts the tombstones of deleted cars and prunes expired tombstones if due.
+     *
+     * @param carIds The ids of the deleted cars
+     */
+    private void record(List<Long> carIds) {
+        Timestamp deletedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, carIds, INSERT_BATCH_SIZE, (statement, carId) -> {
+            statement.setLong(1, carId);
+            statement.setTimestamp(2, deletedAt);
+        });
+
+        long now = System.currentTimeMillis();
+        long pruneAt = nextPruneAt.get();
+        if (now >= pruneAt && nextPruneAt.compareAndSet(pruneAt, now + PRUNE_INTERVAL_MILLIS)) {
+            int pruned = carTombstoneRepository.deleteByDeletedAtBefore(LocalDateTime.now().minusDays(tombstoneRetentionDays));
+            if (pruned > 0) {
+                logger.info("Pruned {} car tombstones", pruned);
+            }
+        }
+    }
+
+    /**
+     * The cars deleted by the current transaction, whose tombstones are inserted before it commits.
+     */
+    private final class PendingTombstones implements TransactionSynchronization {
+        private final List<Long> carIds = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            record(carIds);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CarChangeLog.this);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bist.backendmodule.modules.car.sync;
+
+import com.bist.backendmodule.modules.car.models.CarChangePosition;
+import com.bist.backendmodule.modules.car.models.CarTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for the tombstones of deleted cars.
+ */
+@Repository
+public interface CarTombstoneRepository extends JpaRepository<CarTombstone, Long> {
+
+    /**
+     * Finds the change positions of the tombstones following a position, in sync order, written by transactions
+     * below the watermark.
+     *
+     * @param sinceXid     The transaction id of the exclusive lower bound
+     * @param sinceVersion The change version of the exclusive lower bound
+     * @param watermark    The exclusive upper bound of the transaction ids
+     * @param pageable     The number of positions to read
+     * @return The change positions
+     */
+    @Query("SELECT new com.bist.backendmodule.modules.car.models.CarChangePosition(t.changeXid, t.changeVersion) FROM CarTombstone t "
+            + "WHERE (t.changeXid > :sinceXid OR (t.changeXid = :sinceXid AND t.changeVersion > :sinceVersion)) "
+            + "AND t.changeXid < :watermark ORDER BY t.changeXid, t.changeVersion")
+    List<CarChangePosition> findChangePositionsAfter(@Param("sinceXid") long sinceXid, @Param("sinceVersion") long sinceVersion,
+                                                     @Param("watermark") long watermark, Pageable pageable);
+
+    /**
+     * Finds the ids of the cars deleted within a range of change positions.
+     *
+     * @param afterXid      The transaction id of the exclusive lower bound
+     * @param afterVersion  The change version of the exclusive lower bound
+     * @param upToXid       The transaction id of the inclusive upper bound
+     * @param upToVersion   The change version of the inclusive upper bound
+     * @return The ids of the deleted cars, in sync order
+     */
+    @Query("SELECT t.carId FROM CarTombstone t "
+            + "WHERE (t.changeXid > :afterXid OR (t.changeXid = :afterXid AND t.changeVersion > :afterVersion)) "
+            + "AND (t.changeXid < :upToXid OR (t.changeXid = :upToXid AND t.changeVersion <= :upToVersion)) "
+            + "ORDER BY t.changeXid, t.changeVersion")
+    List<Long> findCarIdsByChangePositionBetween(@Param("afterXid") long afterXid, @Param("afterVersion") long afterVersion,
+                                                 @Param("upToXid") long upToXid, @Param("upToVersion") long upToVersion);
+
+    /**
+     * Deletes the tombstones of cars deleted before the given time.
+     *
+     * @param deletedBefore The retention limit
+     * @return The number of deleted tombstones
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CarTombstone t WHERE t.deletedAt < :deletedBefore")
+    int deleteByDeletedAtBefore(@Param("deletedBefore") LocalDateTime deletedBefore);
+}
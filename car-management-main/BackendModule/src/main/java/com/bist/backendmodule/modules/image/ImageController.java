@@ -1,5 +1,6 @@
 package com.bist.backendmodule.modules.image;
 
+import com.bist.backendmodule.modules.BatchGetResponse;
 import com.bist.backendmodule.modules.image.command.handlers.CreateImageCommandHandler;
 import com.bist.backendmodule.modules.image.command.handlers.DeleteImageCommandHandler;
 import com.bist.backendmodule.modules.image.command.handlers.UpdateImageCommandHandler;
@@ -7,14 +8,20 @@ import com.bist.backendmodule.modules.image.models.Image;
 import com.bist.backendmodule.modules.image.models.ImageDTO;
 import com.bist.backendmodule.modules.image.models.UpdateImageCommand;
 import com.bist.backendmodule.modules.image.query.handlers.GetAllImagesQueryHandler;
+import com.bist.backendmodule.modules.image.query.handlers.GetImagesByIdsQueryHandler;
+import com.bist.backendmodule.services.AsyncHandlerExecutor;
+import com.bist.backendmodule.services.CatalogAggregate;
+import com.bist.backendmodule.services.CatalogVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for handling image-related operations.
@@ -26,17 +33,26 @@ import java.util.List;
 public class ImageController {
     private final CreateImageCommandHandler createImageCommandHandler;
     private final GetAllImagesQueryHandler getAllImagesQueryHandler;
+    private final GetImagesByIdsQueryHandler getImagesByIdsQueryHandler;
     private final UpdateImageCommandHandler updateImageCommandHandler;
     private final DeleteImageCommandHandler deleteImageCommandHandler;
+    private final CatalogVersionService catalogVersionService;
+    private final AsyncHandlerExecutor asyncHandlerExecutor;
 
     public ImageController(CreateImageCommandHandler createImageCommandHandler,
                            GetAllImagesQueryHandler getAllImagesQueryHandler,
+                           GetImagesByIdsQueryHandler getImagesByIdsQueryHandler,
                            UpdateImageCommandHandler updateImageCommandHandler,
-                           DeleteImageCommandHandler deleteImageCommandHandler) {
+                           DeleteImageCommandHandler deleteImageCommandHandler,
+                           CatalogVersionService catalogVersionService,
+                           AsyncHandlerExecutor asyncHandlerExecutor) {
         this.createImageCommandHandler = createImageCommandHandler;
         this.getAllImagesQueryHandler = getAllImagesQueryHandler;
+        this.getImagesByIdsQueryHandler = getImagesByIdsQueryHandler;
         this.updateImageCommandHandler = updateImageCommandHandler;
         this.deleteImageCommandHandler = deleteImageCommandHandler;
+        this.catalogVersionService = catalogVersionService;
+        this.asyncHandlerExecutor = asyncHandlerExecutor;
     }
 
     /**
@@ -52,14 +68,35 @@ public class ImageController {
     }
 
     /**
-     * Endpoint for retrieving all images.
+     * Endpoint for retrieving all images off the servlet thread. Answers 304 when the client's ETag is current.
      *
+     * @param webRequest The current request, for the conditional headers
      * @return ResponseEntity containing a list of images
      */
     @GetMapping
     @Operation(summary = "Get all images", description = "Retrieves a list of all images.")
-    ResponseEntity<List<Image>> getAllImages() {
-        return getAllImagesQueryHandler.execute(null);
+    CompletableFuture<ResponseEntity<List<Image>>> getAllImages(WebRequest webRequest) {
+        if (catalogVersionService.checkNotModified(webRequest, CatalogAggregate.IMAGE)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncHandlerExecutor.async(getAllImagesQueryHandler).execute(null);
+    }
+
+    /**
+     * Endpoint for retrieving several images by ID in one request, off the servlet thread.
+     * Answers 304 when the client's ETag is current.
+     *
+     * @param ids        The IDs of the images to retrieve, e.g. ids=1,2,3
+     * @param webRequest The current request, for the conditional headers
+     * @return ResponseEntity containing the images in request order and the IDs not found
+     */
+    @GetMapping("/batch")
+    @Operation(summary = "Get images by IDs", description = "Retrieves several images by their IDs, in request order, with the IDs that were not found.")
+    CompletableFuture<ResponseEntity<BatchGetResponse<Image>>> getImagesByIds(@RequestParam("ids") List<Long> ids, WebRequest webRequest) {
+        if (catalogVersionService.checkNotModified(webRequest, CatalogAggregate.IMAGE)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncHandlerExecutor.async(getImagesByIdsQueryHandler).execute(ids);
     }
 
     /**
@@ -0,0 +1,42 @@
+package com.bist.backendmodule.modules.image;
+
+import com.bist.backendmodule.modules.image.serving.ImageFileServer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * REST controller for serving the stored image files, which are linked by the download URIs of the images.
+ */
+@RestController
+@RequestMapping("/uploads")
+@Tag(name = "Image File Controller", description = "Serving of stored image files")
+public class ImageFileController {
+    private final ImageFileServer imageFileServer;
+
+    public ImageFileController(ImageFileServer imageFileServer) {
+        this.imageFileServer = imageFileServer;
+    }
+
+    /**
+     * Endpoint for downloading an image file, or a byte range of it with a Range header.
+     * Answers 304 when the client's ETag is current.
+     *
+     * @param filename The name of the file, as in the download URI of its image
+     * @param request  The current request, for the conditional and range headers
+     * @param response The response the file is written to
+     * @throws IOException If the file cannot be sent
+     */
+    @GetMapping("/{filename:.+}")
+    @Operation(summary = "Get an image file", description = "Downloads a stored image file, supporting byte ranges and conditional requests.")
+    void getImageFile(@PathVariable String filename, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        imageFileServer.serve(filename, request, response);
+    }
+}
@@ -1,9 +1,16 @@
 package com.bist.backendmodule.modules.image;
 
 import com.bist.backendmodule.modules.image.models.Image;
+import com.bist.backendmodule.modules.image.models.ImageVariantFile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -12,10 +19,64 @@ import java.util.Optional;
 @Repository
 public interface ImageRepository extends JpaRepository<Image, Long> {
     /**
-     * Finds an image by its full path.
+     * Finds an image by the digest of its content.
      *
-     * @param fullPath The full path of the image
-     * @return An Optional containing the image if found, otherwise empty
+     * @param contentHash The SHA-256 of the content
+     * @return An Optional containing an image with the content if found, otherwise empty
      */
-    Optional<Image> findByFullPath(String fullPath);
+    Optional<Image> findFirstByContentHash(String contentHash);
+
+    /**
+     * Counts the images storing the content, i.e. those still using its file.
+     *
+     * @param contentHash The SHA-256 of the content
+     * @return The number of images with the content
+     */
+    long countByContentHash(String contentHash);
+
+    /**
+     * Adds a reference to the image for another upload of its content.
+     *
+     * @param id The ID of the image
+     * @return The number of updated images
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Image i SET i.referenceCount = COALESCE(i.referenceCount, 1) + 1 WHERE i.id = :id")
+    int addReference(@Param("id") Long id);
+
+    /**
+     * Removes a reference from the image unless it is the last one, in a single statement so that concurrent
+     * deletions cannot both take the last reference.
+     *
+     * @param id The ID of the image
+     * @return 1 if a reference was removed and others remain, 0 if the image holds its last reference
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Image i SET i.referenceCount = i.referenceCount - 1 WHERE i.id = :id AND i.referenceCount > 1")
+    int removeReference(@Param("id") Long id);
+
+    /**
+     * Records the generated variants of the image, unless its content has changed since they were generated.
+     * Only the variants are written, so a concurrent update of the image is never overwritten.
+     *
+     * @param id          The ID of the image
+     * @param contentHash The digest of the content the variants were generated from
+     * @param variants    The variant files by variant value
+     * @return The number of updated images
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Image i SET i.variants = :variants WHERE i.id = :id AND i.contentHash = :contentHash")
+    int updateVariants(@Param("id") Long id, @Param("contentHash") String contentHash,
+                       @Param("variants") Map<String, ImageVariantFile> variants);
+
+    /**
+     * Finds the IDs of the hashed images whose variants have not been generated yet.
+     *
+     * @return The image IDs
+     */
+    @Query("SELECT i.id FROM Image i WHERE i.contentHash IS NOT NULL AND i.variants IS NULL")
+    List<Long> findIdsWithoutVariants();
 }
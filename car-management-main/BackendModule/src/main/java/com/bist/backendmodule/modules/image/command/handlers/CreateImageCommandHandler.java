@@ -2,13 +2,18 @@ package com.bist.backendmodule.modules.image.command.handlers;
 
 import com.bist.backendmodule.exceptions.FileEmptyException;
 import com.bist.backendmodule.exceptions.FileUploadException;
+import com.bist.backendmodule.helpers.ContentAddressedFileUtil;
+import com.bist.backendmodule.modules.ChangeType;
 import com.bist.backendmodule.modules.Command;
 import com.bist.backendmodule.modules.image.ImageRepository;
+import com.bist.backendmodule.modules.image.events.ImageChangedEvent;
 import com.bist.backendmodule.modules.image.models.Image;
 import com.bist.backendmodule.modules.image.models.ImageDTO;
+import com.bist.backendmodule.modules.image.models.ImageVariant;
+import com.bist.backendmodule.modules.image.storage.ImageStorage;
 import com.bist.backendmodule.validations.ImageValidationService;
-import lombok.Setter;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -17,13 +22,10 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -33,21 +35,28 @@ import java.util.Optional;
 @Service
 public class CreateImageCommandHandler implements Command<MultipartFile, Void, ImageDTO> {
 
-    @Setter                             // Used for test class
-    @Value("${upload.directory}")
-    private String uploadDirectory;
-
     private final ImageRepository imageRepository;
     private final ImageValidationService imageValidationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageStorage imageStorage;
 
     public CreateImageCommandHandler(ImageRepository imageRepository,
-                                     ImageValidationService imageValidationService) {
+                                     ImageValidationService imageValidationService,
+                                     ApplicationEventPublisher eventPublisher,
+                                     ImageStorage imageStorage) {
         this.imageRepository = imageRepository;
         this.imageValidationService = imageValidationService;
+        this.eventPublisher = eventPublisher;
+        this.imageStorage = imageStorage;
     }
 
     /**
      * Executes the command to create an image.
+     * The file is stored in the image storage under the digest of its content. Uploading content that is already
+     * stored, under any name, adds a reference to its image instead of writing the file again. When a concurrent
+     * upload of the same content creates its image first, the unique digest rejects the second image, which then
+     * adds a reference to the first one instead.
+     * The variants of a new image are generated in the background; until then their URIs serve the original.
      *
      * @param file          The multipart file to be uploaded
      * @param bindingResult Not used in this service
@@ -62,35 +71,45 @@ public class CreateImageCommandHandler implements Command<MultipartFile, Void, I
         }
         try {
             String fileName = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-            Path uploadPath = Paths.get(uploadDirectory);
 
+            // Hash before writing: the multipart content is already buffered, so known content costs no disk write
+            String contentHash;
             try (InputStream inputStream = file.getInputStream()) {
-                Path filePath = uploadPath.resolve(fileName);
-                Files.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
+                contentHash = ContentAddressedFileUtil.sha256(inputStream);
             }
 
-            String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/uploads/")
-                    .path(fileName)
-                    .toUriString();
-
-            File uploadFile = new File(uploadDirectory + fileName);
-
-            Optional<Image> imageOptional = imageRepository.findByFullPath(uploadFile.getAbsolutePath());
+            Optional<Image> imageOptional = imageRepository.findFirstByContentHash(contentHash);
             if (imageOptional.isPresent()) {
-                return ResponseEntity.ok().body(new ImageDTO(imageOptional.get().getId(), fileDownloadUri));
+                return addReference(imageOptional.get());
+            }
+
+            String key = ContentAddressedFileUtil.filename(contentHash, fileName);
+            boolean written;
+            try (InputStream inputStream = file.getInputStream()) {
+                written = imageStorage.store(key, inputStream);
             }
 
             Image image = new Image();
             image.setFilename(fileName);
-            image.setFullPath(uploadFile.getAbsolutePath());
+            image.setFullPath(imageStorage.locate(key));
+            image.setContentHash(contentHash);
 
             BindingResult bindingResult1 = new BeanPropertyBindingResult(image, "image");
             imageValidationService.validateImage(image, bindingResult1, CreateImageCommandHandler.class);
 
-            imageRepository.save(image);
+            try {
+                imageRepository.save(image);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent upload of the content created its image first
+                Image existing = imageRepository.findFirstByContentHash(contentHash).orElseThrow(() -> e);
+                if (written && !key.equals(ImageStorage.keyOf(existing.getFullPath()))) {
+                    imageStorage.delete(key);
+                }
+                return addReference(existing);
+            }
+            eventPublisher.publishEvent(new ImageChangedEvent(ChangeType.CREATED, image.getId(), image));
 
-            ImageDTO imageDTO = new ImageDTO(image.getId(), fileDownloadUri);
+            ImageDTO imageDTO = new ImageDTO(image.getId(), downloadUri(key), variantUris(contentHash));
 
             return ResponseEntity.ok().body(imageDTO);
         } catch (IOException e) {
@@ -98,4 +117,28 @@ public class CreateImageCommandHandler implements Command<MultipartFile, Void, I
         }
     }
 
+    /**
+     * Adds a reference to the image already storing the uploaded content.
+     */
+    private ResponseEntity<ImageDTO> addReference(Image image) {
+        imageRepository.addReference(image.getId());
+        return ResponseEntity.ok().body(new ImageDTO(image.getId(),
+                downloadUri(ImageStorage.keyOf(image.getFullPath())), variantUris(image.getContentHash())));
+    }
+
+    private static String downloadUri(String key) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/uploads/")
+                .path(key)
+                .toUriString();
+    }
+
+    private static Map<String, String> variantUris(String contentHash) {
+        Map<String, String> variantUris = new LinkedHashMap<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            variantUris.put(variant.getValue(), downloadUri(variant.filename(contentHash)));
+        }
+        return variantUris;
+    }
+
 }
@@ -1,12 +1,28 @@
 package com.bist.backendmodule.modules.image.command.handlers;
 
 import com.bist.backendmodule.exceptions.ImageNotFoundException;
+import com.bist.backendmodule.modules.ChangeType;
 import com.bist.backendmodule.modules.Command;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
 import com.bist.backendmodule.modules.image.ImageRepository;
+import com.bist.backendmodule.modules.image.events.ImageChangedEvent;
 import com.bist.backendmodule.modules.image.models.Image;
+import com.bist.backendmodule.modules.image.models.ImageVariant;
+import com.bist.backendmodule.modules.image.storage.ImageByteCache;
+import com.bist.backendmodule.modules.image.storage.ImageStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,14 +30,26 @@ import java.util.Optional;
  */
 @Service
 public class DeleteImageCommandHandler implements Command<Long, Void, Void> {
+    private static final Logger logger = LoggerFactory.getLogger(DeleteImageCommandHandler.class);
     private final ImageRepository imageRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageStorage imageStorage;
+    private final ImageByteCache imageByteCache;
 
-    public DeleteImageCommandHandler(ImageRepository imageRepository) {
+    public DeleteImageCommandHandler(ImageRepository imageRepository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     ImageStorage imageStorage,
+                                     ImageByteCache imageByteCache) {
         this.imageRepository = imageRepository;
+        this.eventPublisher = eventPublisher;
+        this.imageStorage = imageStorage;
+        this.imageByteCache = imageByteCache;
     }
 
     /**
      * Executes the delete image command.
+     * An image shared by several uploads of the same content only loses a reference, and its file is deleted with
+     * the last image using it, together with its variant files.
      *
      * @param id            The ID of the image to be deleted
      * @param bindingResult Not used in this service
@@ -29,13 +57,60 @@ public class DeleteImageCommandHandler implements Command<Long, Void, Void> {
      * @throws ImageNotFoundException If the image with the given ID is not found
      */
     @Override
+    @Transactional
     public ResponseEntity<Void> execute(Long id, Void bindingResult) {
         Optional<Image> imageOptional = imageRepository.findById(id);
         if (imageOptional.isEmpty()) {
             throw new ImageNotFoundException(DeleteImageCommandHandler.class);
         }
+        if (imageRepository.removeReference(id) > 0) {
+            return ResponseEntity.ok().build();
+        }
         Image image = imageOptional.get();
+        // The deletion cascades to the cars of the image, which are reported as deleted cars as well
+        List<Car> cars = image.getCars() != null ? new ArrayList<>(image.getCars()) : List.of();
         imageRepository.delete(image);
+        for (Car car : cars) {
+            eventPublisher.publishEvent(new CarChangedEvent(ChangeType.DELETED, car.getId(), null, car));
+        }
+        eventPublisher.publishEvent(new ImageChangedEvent(ChangeType.DELETED, id, null));
+        if (image.getContentHash() != null && imageRepository.countByContentHash(image.getContentHash()) == 0) {
+            // The files are only deleted once the deletion has committed, since a rolled back image still needs them
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        deleteFiles(image);
+                    }
+                });
+            } else {
+                deleteFiles(image);
+            }
+        }
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Deletes the file of an image and its variant files.
+     */
+    private void deleteFiles(Image image) {
+        try {
+            deleteFile(ImageStorage.keyOf(image.getFullPath()));
+            for (ImageVariant variant : ImageVariant.values()) {
+                deleteFile(variant.filename(image.getContentHash()));
+            }
+        } catch (IOException e) {
+            // The image is already deleted; an orphaned file only costs disk space
+            logger.warn("Image file {} could not be deleted", image.getFullPath(), e);
+        }
+    }
+
+    /**
+     * Deletes a stored file and evicts it from the image cache, after the deletion so that a concurrent request
+     * cannot cache it again.
+     */
+    private void deleteFile(String key) throws IOException {
+        imageStorage.delete(key);
+        imageByteCache.invalidate(key);
+    }
 }
@@ -3,26 +3,32 @@ package com.bist.backendmodule.modules.image.command.handlers;
 import com.bist.backendmodule.exceptions.FileEmptyException;
 import com.bist.backendmodule.exceptions.FileUploadException;
 import com.bist.backendmodule.exceptions.ImageNotFoundException;
+import com.bist.backendmodule.helpers.ContentAddressedFileUtil;
+import com.bist.backendmodule.modules.ChangeType;
 import com.bist.backendmodule.modules.Command;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
 import com.bist.backendmodule.modules.image.ImageRepository;
+import com.bist.backendmodule.modules.image.events.ImageChangedEvent;
 import com.bist.backendmodule.modules.image.models.Image;
+import com.bist.backendmodule.modules.image.models.ImageVariant;
 import com.bist.backendmodule.modules.image.models.UpdateImageCommand;
+import com.bist.backendmodule.modules.image.storage.ImageByteCache;
+import com.bist.backendmodule.modules.image.storage.ImageStorage;
 import com.bist.backendmodule.validations.ImageValidationService;
-import lombok.Setter;
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.BindingResult;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -31,25 +37,39 @@ import java.util.Optional;
  */
 @Service
 public class UpdateImageCommandHandler implements Command<UpdateImageCommand, Void, Image> {
+    private static final Logger logger = LoggerFactory.getLogger(UpdateImageCommandHandler.class);
 
-    @Setter                                         // Used for test class
-    @Value("${upload.directory}")
-    private String uploadDirectory;
     private final ImageRepository imageRepository;
     private final ImageValidationService imageValidationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageStorage imageStorage;
+    private final ImageByteCache imageByteCache;
+    private final CarRepository carRepository;
 
     public UpdateImageCommandHandler(ImageRepository imageRepository,
-                                     ImageValidationService imageValidationService) {
+                                     ImageValidationService imageValidationService,
+                                     ApplicationEventPublisher eventPublisher,
+                                     ImageStorage imageStorage,
+                                     ImageByteCache imageByteCache,
+                                     CarRepository carRepository) {
         this.imageRepository = imageRepository;
+        this.carRepository = carRepository;
         this.imageValidationService = imageValidationService;
+        this.eventPublisher = eventPublisher;
+        this.imageStorage = imageStorage;
+        this.imageByteCache = imageByteCache;
     }
 
     /**
      * Executes the update image command.
+     * An image shared by several uploads of the same content is not changed for all of them: the updater's reference
+     * is moved to an image of the new content, which is created unless another image already stores it.
+     * Content hashes are unique, so an image that is not shared cannot take over the content of another image either:
+     * its cars and reference are moved to that image instead, and the image itself is deleted.
      *
      * @param updateImageCommand The command containing the image update information
      * @param bindingResult      Not used in this service
-     * @return ResponseEntity containing the updated Image
+     * @return ResponseEntity containing the updated Image, or the image now holding the updater's reference
      * @throws ImageNotFoundException If the image with the given ID is not found
      * @throws FileEmptyException     If the provided file is empty
      * @throws FileUploadException    If there is an error uploading the file
@@ -65,27 +85,159 @@ public class UpdateImageCommandHandler implements Command<UpdateImageCommand, Vo
         }
         try {
             String fileName = StringUtils.cleanPath(Objects.requireNonNull(updateImageCommand.getFile().getOriginalFilename()));
-            Path uploadPath = Paths.get(uploadDirectory);
 
+            String contentHash;
             try (InputStream inputStream = updateImageCommand.getFile().getInputStream()) {
-                Path filePath = uploadPath.resolve(fileName);
-                Files.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
+                contentHash = ContentAddressedFileUtil.sha256(inputStream);
             }
 
-            File uploadFile = new File(uploadDirectory + fileName);
             Image image = imageOptional.get();
+            Optional<Image> owner = imageRepository.findFirstByContentHash(contentHash);
+            if (owner.isPresent() && owner.get().getId().equals(image.getId())) {
+                owner = Optional.empty();
+            }
+            // Removing the reference in one statement tells whether other uploads still share the image
+            boolean shared = image.getReferenceCount() != null && image.getReferenceCount() > 1
+                    && !contentHash.equals(image.getContentHash()) && imageRepository.removeReference(image.getId()) > 0;
+            if (shared) {
+                try {
+                    Image updated = owner.isPresent() ? addReference(owner.get()) : create(updateImageCommand, fileName, contentHash);
+                    return ResponseEntity.ok().body(updated);
+                } catch (IOException | RuntimeException e) {
+                    imageRepository.addReference(image.getId());
+                    throw e;
+                }
+            }
+
+            if (owner.isPresent()) {
+                return ResponseEntity.ok().body(moveTo(image, owner.get()));
+            }
+
+            // Content that is already stored, by this or another image, is not written again
+            String key = store(updateImageCommand, fileName, contentHash);
+
+            String previousContentHash = image.getContentHash();
+            String previousFullPath = image.getFullPath();
             image.setFilename(fileName);
-            image.setFullPath(uploadFile.getAbsolutePath());
+            image.setFullPath(imageStorage.locate(key));
+            image.setContentHash(contentHash);
+            if (!contentHash.equals(previousContentHash)) {
+                image.setVariants(null);                // Generated again for the new content
+            }
 
             // Validate image
             BindingResult bindingResult1 = new BeanPropertyBindingResult(image, "image");
             imageValidationService.validateImage(image, bindingResult1, UpdateImageCommandHandler.class);
 
             // Save image
-            imageRepository.save(image);
+            try {
+                imageRepository.save(image);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent upload of the content created its image first
+                Image taken = imageRepository.findFirstByContentHash(contentHash).orElseThrow(() -> e);
+                image.setContentHash(previousContentHash);
+                image.setFullPath(previousFullPath);
+                return ResponseEntity.ok().body(moveTo(image, taken));
+            }
+            if (previousContentHash != null && !previousContentHash.equals(contentHash)) {
+                releaseFile(previousContentHash, previousFullPath);
+            }
+            eventPublisher.publishEvent(new ImageChangedEvent(ChangeType.UPDATED, image.getId(), image));
             return ResponseEntity.ok().body(image);
         } catch (IOException e) {
             throw new FileUploadException(e.getMessage(), UpdateImageCommandHandler.class);
         }
     }
+
+    /**
+     * Creates an image of the updated content for the updater of a shared image, or adds a reference to the image
+     * of a concurrent upload of the content that was created first.
+     */
+    private Image create(UpdateImageCommand updateImageCommand, String fileName, String contentHash) throws IOException {
+        String key = store(updateImageCommand, fileName, contentHash);
+
+        Image image = new Image();
+        image.setFilename(fileName);
+        image.setFullPath(imageStorage.locate(key));
+        image.setContentHash(contentHash);
+
+        BindingResult bindingResult1 = new BeanPropertyBindingResult(image, "image");
+        imageValidationService.validateImage(image, bindingResult1, UpdateImageCommandHandler.class);
+
+        try {
+            imageRepository.save(image);
+        } catch (DataIntegrityViolationException e) {
+            return addReference(imageRepository.findFirstByContentHash(contentHash).orElseThrow(() -> e));
+        }
+        eventPublisher.publishEvent(new ImageChangedEvent(ChangeType.CREATED, image.getId(), image));
+        return image;
+    }
+
+    /**
+     * Moves an image that is not shared to the image already storing the new content: its cars are switched over,
+     * the updater's reference is added to that image, and the image is deleted along with its file once no other
+     * image uses it.
+     *
+     * @param image The image that is not shared
+     * @param owner The image storing the new content
+     * @return The image now holding the updater's reference
+     */
+    private Image moveTo(Image image, Image owner) {
+        addReference(owner);
+        for (Car car : carRepository.findAllByImageId(image.getId())) {
+            Car previousCar = new Car(car);
+            car.setImage(owner);
+            carRepository.save(car);
+            eventPublisher.publishEvent(new CarChangedEvent(ChangeType.UPDATED, car.getId(), car, previousCar));
+        }
+        imageRepository.deleteById(image.getId());
+        eventPublisher.publishEvent(new ImageChangedEvent(ChangeType.DELETED, image.getId(), null));
+        if (image.getContentHash() != null) {
+            releaseFile(image.getContentHash(), image.getFullPath());
+        }
+        return owner;
+    }
+
+    private Image addReference(Image image) {
+        imageRepository.addReference(image.getId());
+        return image;
+    }
+
+    private String store(UpdateImageCommand updateImageCommand, String fileName, String contentHash) throws IOException {
+        String key = ContentAddressedFileUtil.filename(contentHash, fileName);
+        try (InputStream inputStream = updateImageCommand.getFile().getInputStream()) {
+            imageStorage.store(key, inputStream);
+        }
+        return key;
+    }
+
+    /**
+     * Deletes the file and variant files of the previous content once no image uses it anymore.
+     *
+     * @param contentHash The digest of the previous content
+     * @param fullPath    The location of its file
+     */
+    private void releaseFile(String contentHash, String fullPath) {
+        if (imageRepository.countByContentHash(contentHash) > 0) {
+            return;
+        }
+        try {
+            deleteFile(ImageStorage.keyOf(fullPath));
+            for (ImageVariant variant : ImageVariant.values()) {
+                deleteFile(variant.filename(contentHash));
+            }
+        } catch (IOException e) {
+            // The image is already updated; an orphaned file only costs disk space
+            logger.warn("Image file {} could not be deleted", fullPath, e);
+        }
+    }
+
+    /**
+     * Deletes a stored file and evicts it from the image cache, after the deletion so that a concurrent request
+     * cannot cache it again.
+     */
+    private void deleteFile(String key) throws IOException {
+        imageStorage.delete(key);
+        imageByteCache.invalidate(key);
+    }
 }
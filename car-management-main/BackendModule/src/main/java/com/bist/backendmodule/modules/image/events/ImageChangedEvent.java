@@ -0,0 +1,18 @@
+package com.bist.backendmodule.modules.image.events;
+
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.image.models.Image;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Event published by the image command handlers after an image has been written.
+ * Deleting an image also deletes its cars through the cascade on Image.cars.
+ */
+@Data
+@AllArgsConstructor
+public class ImageChangedEvent {
+    private ChangeType changeType;
+    private Long imageId;
+    private Image image;                        // Null for deletions
+}
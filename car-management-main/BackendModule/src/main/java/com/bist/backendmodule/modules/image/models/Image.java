@@ -5,15 +5,24 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Entity representing an image.
+ * The file of an image is stored under the digest of its content, and uploads of the same content share one image,
+ * which counts them as references. The digest is unique, so concurrent uploads of new content cannot both create
+ * an image for it.
  */
 @Entity
 @Data
-@Table(name = "T_IMAGE")
+@Table(name = "T_IMAGE", indexes = {
+        @Index(name = "IX_IMAGE_CONTENT_HASH", columnList = "content_hash", unique = true)
+})
 public class Image {
 
     @Id
@@ -28,6 +37,18 @@ public class Image {
     @Column(name = "file_path")
     private String fullPath;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;                 // SHA-256 of the file, null for files stored before hashing
+
+    @JsonIgnore
+    @ColumnDefault("1")
+    @Column(name = "reference_count")
+    private Integer referenceCount = 1;         // Uploads sharing this image
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "variants")
+    private Map<String, ImageVariantFile> variants;     // By variant value, null until generated for the content
+
     @OneToMany(mappedBy = "image", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Car> cars;
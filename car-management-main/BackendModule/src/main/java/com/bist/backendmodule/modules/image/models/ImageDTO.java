@@ -3,6 +3,8 @@ package com.bist.backendmodule.modules.image.models;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.util.Map;
+
 /**
  * Data Transfer Object for Image.
  */
@@ -11,4 +13,5 @@ import lombok.Data;
 public class ImageDTO {
     private Long imageId;
     private String downloadUri;
+    private Map<String, String> variantUris;    // By variant value; served as the original until generated
 }
@@ -0,0 +1,32 @@
+package com.bist.backendmodule.modules.image.models;
+
+import lombok.Getter;
+
+/**
+ * Resized and recompressed versions generated for every stored image, so that pages can load an image at the size
+ * they show it. Variant files are named after the digest of the original content.
+ */
+@Getter
+public enum ImageVariant {
+    THUMBNAIL("thumbnail", 160),                // Car lists
+    CARD("card", 480),                          // Car cards and detail previews
+    FULL("full", 1600);                         // Detail pages
+
+    private final String value;
+    private final int maxDimension;
+
+    ImageVariant(String value, int maxDimension) {
+        this.value = value;
+        this.maxDimension = maxDimension;
+    }
+
+    /**
+     * Gets the name of the variant file of the content.
+     *
+     * @param contentHash The digest of the original content
+     * @return The variant file name, e.g. 9f86d0...0a08-thumbnail.jpg
+     */
+    public String filename(String contentHash) {
+        return contentHash + "-" + value + ".jpg";
+    }
+}
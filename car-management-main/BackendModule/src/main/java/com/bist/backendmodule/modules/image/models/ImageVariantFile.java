@@ -0,0 +1,18 @@
+package com.bist.backendmodule.modules.image.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Metadata of a generated variant file of an image.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageVariantFile {
+    private String filename;
+    private int width;
+    private int height;
+    private long size;
+}
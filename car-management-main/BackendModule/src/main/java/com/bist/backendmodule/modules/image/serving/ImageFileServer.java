@@ -0,0 +1,236 @@
+package com.bist.backendmodule.modules.image.serving;
+
+import com.bist.backendmodule.exceptions.ImageFileNotFoundException;
+import com.bist.backendmodule.modules.image.ImageRepository;
+import com.bist.backendmodule.modules.image.models.Image;
+import com.bist.backendmodule.modules.image.storage.ImageByteCache;
+import com.bist.backendmodule.modules.image.storage.ImageByteCache.CachedImageFile;
+import com.bist.backendmodule.modules.image.storage.ImageStorage;
+import com.bist.backendmodule.modules.image.storage.ImageStorage.StoredImageFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the stored image files, with conditional and byte-range requests.
+ * Frequently requested files are served from the {@link ImageByteCache} without touching the storage.
+ * When the file is on the local file system and the container supports sendfile, the response only names the file
+ * region and the container transfers it from the page cache to the socket, so the bytes never pass through the Java
+ * heap. Other local files are streamed through {@link FileChannel#transferTo}, and files of other storages are copied.
+ * Files named by the digest of their content never change, so they are sent as immutable with the digest as ETag;
+ * other files are revalidated on every use. A variant that has not been generated yet is stood in for by the original,
+ * without caching, so variant URIs can be used as soon as an image is uploaded.
+ */
+@Component
+public class ImageFileServer {
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final Pattern FINGERPRINTED = Pattern.compile("([0-9a-f]{64})(-[a-z]+)?(\\.[A-Za-z0-9]+)?");
+    private static final String NO_CACHE = CacheControl.noCache().getHeaderValue();
+
+    private final ImageRepository imageRepository;
+    private final ImageStorage imageStorage;
+    private final ImageByteCache imageByteCache;
+    private final String immutableCacheControl;
+
+    public ImageFileServer(ImageRepository imageRepository,
+                           ImageStorage imageStorage,
+                           ImageByteCache imageByteCache,
+                           @Value("${image.serving.max-age-seconds:31536000}") long maxAgeSeconds) {
+        this.imageRepository = imageRepository;
+        this.imageStorage = imageStorage;
+        this.imageByteCache = imageByteCache;
+        this.immutableCacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic().immutable().getHeaderValue();
+    }
+
+    /**
+     * Writes the image file, or the requested range of it, to the response.
+     * Answers 304 when the client's copy is current, and 416 when the requested range lies outside the file.
+     * A request for several ranges is answered with the whole file.
+     *
+     * @param filename The key of the file in the image storage
+     * @param request  The current request
+     * @param response The current response
+     * @throws ImageFileNotFoundException If there is no such file in the image storage
+     * @throws IOException                If the file cannot be read or the response cannot be written
+     */
+    public void serve(String filename, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!ImageStorage.isValidKey(filename)) {
+            throw new ImageFileNotFoundException(ImageFileServer.class);
+        }
+        String key = filename;
+        Matcher fingerprint = FINGERPRINTED.matcher(filename);
+        boolean immutable = fingerprint.matches();
+        CachedImageFile cached = imageByteCache.get(key);
+        StoredImageFile stored = cached == null ? imageStorage.find(key) : null;
+        if (cached == null && stored == null) {
+            key = immutable && fingerprint.group(2) != null ? findOriginalKey(fingerprint.group(1)) : null;
+            cached = key != null ? imageByteCache.get(key) : null;
+            stored = key != null && cached == null ? imageStorage.find(key) : null;
+            if (cached == null && stored == null) {
+                throw new ImageFileNotFoundException(ImageFileServer.class);
+            }
+            immutable = false;
+        }
+        long length = cached != null ? cached.getSize() : stored.getSize();
+        long lastModified = cached != null ? cached.getLastModified() : stored.getLastModified();
+        String etag = immutable
+                ? "\"" + fingerprint.group(1) + Objects.toString(fingerprint.group(2), "") + "\""
+                : "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? immutableCacheControl : NO_CACHE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        List<HttpRange> ranges = parseRanges(request, etag, lastModified);
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                start = length;
+            }
+            if (start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (cached == null && imageByteCache.admits(key, length)) {
+            cached = load(key, length, lastModified);
+        }
+        if (cached != null) {
+            ByteBuffer content = cached.getContent().position((int) start).limit((int) end + 1);
+            WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+            while (content.hasRemaining()) {
+                output.write(content);
+            }
+            return;
+        }
+        Path file = stored.getLocalPath();
+        if (file == null) {
+            try (InputStream input = imageStorage.open(key)) {
+                StreamUtils.copyRange(input, response.getOutputStream(), start, end);
+            } catch (NoSuchFileException e) {
+                throw new ImageFileNotFoundException(ImageFileServer.class);
+            }
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long transferred = channel.transferTo(position, end + 1 - position, output);
+                if (transferred <= 0) {
+                    break;                      // The file was truncated while it was sent
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * Reads a file that the image cache admits and caches it.
+     *
+     * @return The file, or null if it changed since it was found and is to be served from the storage
+     */
+    private CachedImageFile load(String key, long length, long lastModified) throws IOException {
+        long generation = imageByteCache.getGeneration();
+        byte[] content;
+        try (InputStream input = imageStorage.open(key)) {
+            content = input.readAllBytes();
+        } catch (NoSuchFileException e) {
+            throw new ImageFileNotFoundException(ImageFileServer.class);
+        }
+        return content.length == length ? imageByteCache.put(key, content, lastModified, generation) : null;
+    }
+
+    /**
+     * Finds the key of the original file of a content whose variant has not been generated yet.
+     */
+    private String findOriginalKey(String contentHash) {
+        return imageRepository.findFirstByContentHash(contentHash)
+                .map(Image::getFullPath)
+                .map(ImageStorage::keyOf)
+                .filter(ImageStorage::isValidKey)
+                .orElse(null);
+    }
+
+    /**
+     * Gets the requested ranges, or none if the whole file is to be sent: without a Range header, with a malformed
+     * one, or when an If-Range condition shows that the client's partial copy is outdated.
+     */
+    private static List<HttpRange> parseRanges(HttpServletRequest request, String etag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return List.of();
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            boolean current;
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                current = ifRange.equals(etag);
+            } else {
+                try {
+                    current = lastModified / 1000 <= request.getDateHeader(HttpHeaders.IF_RANGE) / 1000;
+                } catch (IllegalArgumentException e) {
+                    current = false;
+                }
+            }
+            if (!current) {
+                return List.of();
+            }
+        }
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
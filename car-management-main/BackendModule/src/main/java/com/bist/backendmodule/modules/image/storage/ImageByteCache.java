@@ -0,0 +1,267 @@
+package com.bist.backendmodule.modules.image.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded cache of the bytes of frequently served image files, in front of the image storage.
+ * Entries are held in heap buffers, or in direct buffers outside the heap with image.cache.off-heap=true, and their
+ * total size stays within image.cache.max-bytes.
+ * Eviction is frequency-aware: the access counts of all keys, cached or not, are estimated in a small count-min
+ * sketch whose counts are halved periodically, and a file only displaces the least recently used entries if it has
+ * been requested more often than they have. A burst of one-off requests, e.g. a crawler walking every image, therefore
+ * leaves the hot brand and car images in place.
+ * Keys are content-addressed and never change content, so entries only have to be invalidated when their file is
+ * deleted. Hit and miss counts, evictions, resident bytes and the hit ratio are published as the image.cache.* metrics
+ * of the actuator.
+ */
+@Component
+public class ImageByteCache {
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final boolean offHeap;
+    private final LinkedHashMap<String, CachedImageFile> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final FrequencySketch frequencies;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private long usedBytes;
+    private long generation;
+
+    public ImageByteCache(MeterRegistry meterRegistry,
+                          @Value("${image.cache.max-bytes:33554432}") long maxBytes,
+                          @Value("${image.cache.max-entry-bytes:2097152}") long maxEntryBytes,
+                          @Value("${image.cache.off-heap:false}") boolean offHeap) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        this.offHeap = offHeap;
+        this.frequencies = new FrequencySketch(maxBytes);
+        FunctionCounter.builder("image.cache.gets", hits, LongAdder::sum)
+                .tags("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("image.cache.gets", misses, LongAdder::sum)
+                .tags("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("image.cache.evictions", evictions, LongAdder::sum)
+                .tags("cause", "size").register(meterRegistry);
+        FunctionCounter.builder("image.cache.evictions", invalidations, LongAdder::sum)
+                .tags("cause", "invalidation").register(meterRegistry);
+        Gauge.builder("image.cache.size", this, ImageByteCache::usedBytes)
+                .description("Bytes of image files held by the image cache").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("image.cache.hit.ratio", this, ImageByteCache::hitRatio)
+                .description("Share of image file requests served from the image cache").register(meterRegistry);
+    }
+
+    /**
+     * Gets the cached file of a key, counting the request towards the frequency of the key.
+     *
+     * @param key The storage key
+     * @return The cached file, or null if it is not cached
+     */
+    public CachedImageFile get(String key) {
+        CachedImageFile cached;
+        synchronized (this) {
+            frequencies.increment(key);
+            cached = entries.get(key);
+        }
+        (cached != null ? hits : misses).increment();
+        return cached;
+    }
+
+    /**
+     * Gets the generation of the cache, to be passed to {@link #put} so that content read across an invalidation
+     * is not cached.
+     *
+     * @return The current generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Checks whether a file of the size would be cached, so that files which would not are not read into memory.
+     *
+     * @param key  The storage key
+     * @param size The size of the file
+     * @return true if the file fits and is requested more often than the entries it would evict
+     */
+    public synchronized boolean admits(String key, long size) {
+        if (size > maxEntryBytes || entries.containsKey(key)) {
+            return false;
+        }
+        long needed = usedBytes + weight(key, size) - maxBytes;
+        int frequency = frequencies.frequency(key);
+        Iterator<Map.Entry<String, CachedImageFile>> iterator = entries.entrySet().iterator();
+        while (needed > 0 && iterator.hasNext()) {
+            Map.Entry<String, CachedImageFile> victim = iterator.next();
+            if (frequencies.frequency(victim.getKey()) >= frequency) {
+                return false;
+            }
+            needed -= weight(victim.getKey(), victim.getValue().getSize());
+        }
+        return true;
+    }
+
+    /**
+     * Caches the content of a file if it is admitted, evicting the least recently used entries to make room.
+     *
+     * @param key          The storage key
+     * @param content      The content of the file
+     * @param lastModified The modification time of the file
+     * @param generation   The generation read before the content was
+     * @return The cached file, also when the content was not admitted
+     */
+    public CachedImageFile put(String key, byte[] content, long lastModified, long generation) {
+        if (!admits(key, content.length)) {
+            return new CachedImageFile(ByteBuffer.wrap(content).asReadOnlyBuffer(), lastModified);
+        }
+        ByteBuffer buffer = offHeap ? ByteBuffer.allocateDirect(content.length).put(content).flip() : ByteBuffer.wrap(content);
+        CachedImageFile cached = new CachedImageFile(buffer.asReadOnlyBuffer(), lastModified);
+        synchronized (this) {
+            // Skip content read across an invalidation, since its file may be gone
+            if (this.generation != generation || !admits(key, content.length)) {
+                return cached;
+            }
+            entries.put(key, cached);
+            usedBytes += weight(key, content.length);
+            Iterator<Map.Entry<String, CachedImageFile>> iterator = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, CachedImageFile> eldest = iterator.next();
+                iterator.remove();
+                usedBytes -= weight(eldest.getKey(), eldest.getValue().getSize());
+                evictions.increment();
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Evicts the entry of a key whose file was deleted.
+     *
+     * @param key The storage key
+     */
+    public synchronized void invalidate(String key) {
+        generation++;
+        CachedImageFile removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= weight(key, removed.getSize());
+            invalidations.increment();
+        }
+    }
+
+    private static long weight(String key, long size) {
+        return size + 2L * key.length();
+    }
+
+    private synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * A cached image file.
+     */
+    public static final class CachedImageFile {
+        private final ByteBuffer content;
+        private final long lastModified;
+
+        private CachedImageFile(ByteBuffer content, long lastModified) {
+            this.content = content;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Gets a read-only view of the content, with its own position.
+         *
+         * @return The content
+         */
+        public ByteBuffer getContent() {
+            return content.duplicate();
+        }
+
+        public long getSize() {
+            return content.capacity();
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * Count-min sketch of the access frequencies of keys, with four 4-bit counters per key.
+     * Once the number of increments reaches ten times the width, all counts are halved, so that the frequencies
+     * follow the current popularity of the keys instead of their all-time counts.
+     */
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final long[] SEEDS = {0x9e3779b97f4a7c15L, 0xbf58476d1ce4e5b9L, 0x94d049bb133111ebL, 0xd6e8feb86659fd93L};
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(long maxBytes) {
+            // About one counter per cacheable image of 16 KB, so that cached keys rarely share all their counters
+            long expectedKeys = Math.max(256, Math.min(1 << 20, maxBytes / 16384));
+            int width = Integer.highestOneBit((int) expectedKeys - 1) << 1;
+            this.counters = new byte[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+        private int frequency(String key) {
+            long hash = key.hashCode();
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                frequency = Math.min(frequency, counters[row][index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private void increment(String key) {
+            long hash = key.hashCode();
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = index(hash, row);
+                if (counters[row][index] < MAX_COUNT) {
+                    counters[row][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (byte[] row : counters) {
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] >>= 1;
+                    }
+                }
+                additions /= 2;
+            }
+        }
+
+        /**
+         * SplitMix64 finalizer of the hash salted with the row, so that the rows index independent counters.
+         */
+        private int index(long hash, int row) {
+            long mixed = hash + SEEDS[row];
+            mixed = (mixed ^ (mixed >>> 30)) * 0xbf58476d1ce4e5b9L;
+            mixed = (mixed ^ (mixed >>> 27)) * 0x94d049bb133111ebL;
+            return (int) (mixed ^ (mixed >>> 31)) & mask;
+        }
+    }
+}
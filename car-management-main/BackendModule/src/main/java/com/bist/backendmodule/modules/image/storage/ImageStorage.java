@@ -0,0 +1,114 @@
+package com.bist.backendmodule.modules.image.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Storage of image files, addressed by key: the stored file name, e.g. the content digest with the extension of
+ * the upload. Implementations are selected with the image.storage.type property.
+ * Storing is atomic: a key is either absent or holds its complete content, however many uploads write it concurrently.
+ */
+public interface ImageStorage {
+
+    /**
+     * Stores the content under the key unless the key is already stored.
+     *
+     * @param key     The key of the content
+     * @param content The content to store
+     * @return true if the content was written, false if the key was already stored
+     * @throws IOException If the content cannot be written
+     */
+    boolean store(String key, InputStream content) throws IOException;
+
+    /**
+     * Gets the size and modification time of a stored key.
+     *
+     * @param key The key
+     * @return The stored file, or null if the key is not stored
+     * @throws IOException If the storage cannot be read
+     */
+    StoredImageFile find(String key) throws IOException;
+
+    /**
+     * Opens the content stored under the key.
+     *
+     * @param key The key
+     * @return A stream of the content, which the caller has to close
+     * @throws java.nio.file.NoSuchFileException If the key is not stored
+     * @throws IOException                       If the content cannot be read
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Deletes the content stored under the key, if any.
+     *
+     * @param key The key
+     * @return true if content was deleted
+     * @throws IOException If the content cannot be deleted
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Gets the location recorded as the full path of an image stored under the key.
+     *
+     * @param key The key
+     * @return The location, whose last path segment is the key
+     */
+    String locate(String key);
+
+    /**
+     * Gets the key of the file at a recorded location, which is its last path segment.
+     * Locations recorded before the storage existed are absolute paths ending with the file name, so they resolve too.
+     *
+     * @param location The full path of an image
+     * @return The key
+     */
+    static String keyOf(String location) {
+        return location.substring(Math.max(location.lastIndexOf('/'), location.lastIndexOf('\\')) + 1);
+    }
+
+    /**
+     * Checks that a key is a plain file name that can be stored and served: no path separators or relative segments,
+     * and not the name of a file still being written.
+     *
+     * @param key The key
+     * @return true if the key is valid
+     */
+    static boolean isValidKey(String key) {
+        return key != null && !key.isBlank() && !key.contains("/") && !key.contains("\\")
+                && !key.equals(".") && !key.equals("..") && !key.endsWith(".tmp");
+    }
+
+    /**
+     * A stored image file.
+     */
+    final class StoredImageFile {
+        private final long size;
+        private final long lastModified;
+        private final Path localPath;
+
+        public StoredImageFile(long size, long lastModified, Path localPath) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.localPath = localPath;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Gets the file on the local file system, which can be sent without copying it through the heap.
+         *
+         * @return The local file, or null if the storage does not keep files on the local file system
+         */
+        public Path getLocalPath() {
+            return localPath;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.bist.backendmodule.modules.image.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Image storage holding the files on the heap, for tests and local runs without a writable upload directory.
+ * Selected with image.storage.type=memory. Its files have no local path, so they are served by copying.
+ */
+@Component
+@ConditionalOnProperty(name = "image.storage.type", havingValue = "memory")
+public class InMemoryImageStorage implements ImageStorage {
+    private static final String LOCATION_PREFIX = "memory:/";
+
+    private final Map<String, StoredContent> contents = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean store(String key, InputStream content) throws IOException {
+        requireValidKey(key);
+        if (contents.containsKey(key)) {
+            return false;
+        }
+        // The content is complete before it is published, so readers never see part of it
+        StoredContent stored = new StoredContent(content.readAllBytes(), System.currentTimeMillis());
+        return contents.putIfAbsent(key, stored) == null;
+    }
+
+    @Override
+    public StoredImageFile find(String key) {
+        requireValidKey(key);
+        StoredContent stored = contents.get(key);
+        return stored != null ? new StoredImageFile(stored.bytes.length, stored.lastModified, null) : null;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        requireValidKey(key);
+        StoredContent stored = contents.get(key);
+        if (stored == null) {
+            throw new NoSuchFileException(key);
+        }
+        return new ByteArrayInputStream(stored.bytes);
+    }
+
+    @Override
+    public boolean delete(String key) {
+        requireValidKey(key);
+        return contents.remove(key) != null;
+    }
+
+    @Override
+    public String locate(String key) {
+        requireValidKey(key);
+        return LOCATION_PREFIX + key;
+    }
+
+    private static void requireValidKey(String key) {
+        if (!ImageStorage.isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid image storage key: " + key);
+        }
+    }
+
+    private static final class StoredContent {
+        private final byte[] bytes;
+        private final long lastModified;
+
+        private StoredContent(byte[] bytes, long lastModified) {
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.bist.backendmodule.modules.image.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Image storage on the local file system, spread over one or more root directories (volumes).
+ * Content-addressed keys are stored in two levels of subdirectories named after the first hex digits of the digest,
+ * e.g. 9f/86/9f86d0...0a08.jpg, so that no directory grows beyond a few thousand files. Other keys, such as files
+ * uploaded before hashing, stay directly in the root.
+ * Each key is placed on a volume by weighted rendezvous hashing: a volume receives a share of the keys proportional to
+ * its weight, a key is found again without an index, and adding a volume only moves the keys that it wins. Keys are
+ * still looked up on every volume, and at the unsharded location, so files stored under an earlier layout remain found.
+ * Files are written to a temporary file next to their target and moved into place, so concurrent uploads never
+ * produce torn files.
+ */
+@Component
+@ConditionalOnProperty(name = "image.storage.type", havingValue = "local", matchIfMissing = true)
+public class ShardedFileSystemImageStorage implements ImageStorage {
+    private static final Pattern HASHED_KEY = Pattern.compile("[0-9a-f]{64}[-.].*|[0-9a-f]{64}");
+
+    private final List<Volume> volumes;
+
+    /**
+     * Constructs the storage over the configured volumes.
+     *
+     * @param uploadDirectory The single volume used when no volumes are configured
+     * @param roots           The volumes as comma-separated directories with optional weights,
+     *                        e.g. /mnt/images1=1,/mnt/images2=3; empty to use the upload directory
+     */
+    public ShardedFileSystemImageStorage(@Value("${upload.directory}") String uploadDirectory,
+                                         @Value("${image.storage.roots:}") String roots) {
+        this.volumes = parseVolumes(StringUtils.hasText(roots) ? roots : uploadDirectory);
+    }
+
+    @Override
+    public boolean store(String key, InputStream content) throws IOException {
+        requireValidKey(key);
+        if (findPath(key) != null) {
+            return false;
+        }
+        Path target = shardedPath(place(key), key);
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), key, ".tmp");
+        try {
+            Files.copy(content, temporary, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public StoredImageFile find(String key) throws IOException {
+        requireValidKey(key);
+        Path path = findPath(key);
+        if (path == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new StoredImageFile(attributes.size(), attributes.lastModifiedTime().toMillis(), path);
+        } catch (NoSuchFileException e) {
+            return null;                                // Deleted since it was found
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        requireValidKey(key);
+        Path path = findPath(key);
+        if (path == null) {
+            throw new NoSuchFileException(key);
+        }
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        requireValidKey(key);
+        boolean deleted = false;
+        for (Volume volume : volumes) {
+            deleted |= Files.deleteIfExists(shardedPath(volume, key));
+            deleted |= Files.deleteIfExists(volume.root.resolve(key));
+        }
+        return deleted;
+    }
+
+    @Override
+    public String locate(String key) {
+        requireValidKey(key);
+        Path path = findPath(key);
+        return (path != null ? path : shardedPath(place(key), key)).toAbsolutePath().toString();
+    }
+
+    /**
+     * Finds the stored file of the key, on its own volume first.
+     */
+    private Path findPath(String key) {
+        Volume placed = place(key);
+        Path path = findPath(placed, key);
+        for (int i = 0; path == null && i < volumes.size(); i++) {
+            if (volumes.get(i) != placed) {
+                path = findPath(volumes.get(i), key);
+            }
+        }
+        return path;
+    }
+
+    private static Path findPath(Volume volume, String key) {
+        Path sharded = shardedPath(volume, key);
+        if (Files.isRegularFile(sharded)) {
+            return sharded;
+        }
+        Path flat = volume.root.resolve(key);
+        return Files.isRegularFile(flat) ? flat : null;
+    }
+
+    private static Path shardedPath(Volume volume, String key) {
+        return HASHED_KEY.matcher(key).matches()
+                ? volume.root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key)
+                : volume.root.resolve(key);
+    }
+
+    /**
+     * Chooses the volume of a key by weighted rendezvous hashing: every volume scores the key with a hash uniform
+     * in (0, 1), scaled so that the highest score falls on each volume in proportion to its weight.
+     */
+    private Volume place(String key) {
+        if (volumes.size() == 1) {
+            return volumes.get(0);
+        }
+        Volume best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        long keyHash = mix(key.hashCode());
+        for (Volume volume : volumes) {
+            double uniform = ((mix(keyHash ^ volume.salt) >>> 11) + 0.5) / (1L << 53);
+            double score = -volume.weight / Math.log(uniform);
+            if (score > bestScore) {
+                bestScore = score;
+                best = volume;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * SplitMix64 finalizer, spreading the bits of a hash over the whole long.
+     */
+    private static long mix(long value) {
+        long mixed = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94d049bb133111ebL;
+        return mixed ^ (mixed >>> 31);
+    }
+
+    private static void requireValidKey(String key) {
+        if (!ImageStorage.isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid image storage key: " + key);
+        }
+    }
+
+    private static List<Volume> parseVolumes(String roots) {
+        List<Volume> volumes = new ArrayList<>();
+        for (String entry : roots.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.lastIndexOf('=');
+            double weight = separator < 0 ? 1 : Double.parseDouble(trimmed.substring(separator + 1).trim());
+            if (!(weight > 0)) {
+                throw new IllegalArgumentException("Image storage volume weights must be positive: " + trimmed);
+            }
+            Path root = Paths.get(separator < 0 ? trimmed : trimmed.substring(0, separator).trim()).toAbsolutePath().normalize();
+            volumes.add(new Volume(root, weight));
+        }
+        if (volumes.isEmpty()) {
+            throw new IllegalArgumentException("No image storage volume configured");
+        }
+        return volumes;
+    }
+
+    private static final class Volume {
+        private final Path root;
+        private final double weight;
+        private final long salt;
+
+        private Volume(Path root, double weight) {
+            this.root = root;
+            this.weight = weight;
+            this.salt = mix(root.toString().hashCode());
+        }
+    }
+}
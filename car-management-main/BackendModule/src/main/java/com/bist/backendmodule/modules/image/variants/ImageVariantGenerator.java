@@ -0,0 +1,316 @@
+package com.bist.backendmodule.modules.image.variants;
+
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.image.ImageRepository;
+import com.bist.backendmodule.modules.image.events.ImageChangedEvent;
+import com.bist.backendmodule.modules.image.models.Image;
+import com.bist.backendmodule.modules.image.models.ImageVariant;
+import com.bist.backendmodule.modules.image.models.ImageVariantFile;
+import com.bist.backendmodule.modules.image.storage.ImageStorage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the variants of created and updated images in the background, after their command handlers have returned.
+ * Generation runs on a small pool of worker threads with a bounded queue, since decoding a full-resolution upload
+ * takes tens of megabytes of heap. When the queue is full, the image is deferred instead of blocking the request or
+ * being dropped, and a worker picks it up once it has finished its current image.
+ * Images whose variants are missing, e.g. because the application stopped before generating them, are queued at startup.
+ */
+@Component
+public class ImageVariantGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantGenerator.class);
+
+    private final ImageRepository imageRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageStorage imageStorage;
+    private final float jpegQuality;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> deferred = new LinkedHashSet<>();
+
+    public ImageVariantGenerator(ImageRepository imageRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ImageStorage imageStorage,
+                                 @Value("${image.variants.threads:2}") int threads,
+                                 @Value("${image.variants.queue-capacity:100}") int queueCapacity,
+                                 @Value("${image.variants.jpeg-quality:0.8}") float jpegQuality) {
+        this.imageRepository = imageRepository;
+        this.eventPublisher = eventPublisher;
+        this.imageStorage = imageStorage;
+        this.jpegQuality = jpegQuality;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, rejectingExecutor) -> defer(((VariantTask) runnable).imageId));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues the images whose variants have not been generated yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void generateMissing() {
+        for (Long imageId : imageRepository.findIdsWithoutVariants()) {
+            submit(imageId);
+        }
+    }
+
+    /**
+     * Queues a created or updated image whose variants do not match its content.
+     *
+     * @param event The image change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        if (event.getChangeType() == ChangeType.DELETED) {
+            synchronized (deferred) {
+                deferred.remove(event.getImageId());
+            }
+            return;
+        }
+        Image image = event.getImage();
+        if (image != null && image.getContentHash() != null && !hasVariants(image)) {
+            submit(event.getImageId());
+        }
+    }
+
+    /**
+     * Generates the variants of an image and records them on it, skipping images that are gone, unhashed or
+     * already have them.
+     *
+     * @param imageId The ID of the image
+     * @return The generated variant files by variant value, or null if none were generated
+     */
+    public Map<String, ImageVariantFile> generate(Long imageId) {
+        Optional<Image> imageOptional = imageRepository.findById(imageId);
+        if (imageOptional.isEmpty() || imageOptional.get().getContentHash() == null || hasVariants(imageOptional.get())) {
+            return null;
+        }
+        Image image = imageOptional.get();
+        Map<String, ImageVariantFile> variants;
+        try {
+            variants = writeVariants(ImageStorage.keyOf(image.getFullPath()), image.getContentHash());
+        } catch (IOException e) {
+            logger.error("Variants of image {} could not be generated", imageId, e);
+            return null;
+        }
+        if (variants == null) {
+            logger.warn("Image {} is not in a readable image format; it has no variants", imageId);
+            return null;
+        }
+        // The update only applies if the content is still the one the variants were generated from
+        if (imageRepository.updateVariants(imageId, image.getContentHash(), variants) > 0) {
+            image.setVariants(variants);
+            eventPublisher.publishEvent(new ImageChangedEvent(ChangeType.UPDATED, imageId, image));
+        }
+        return variants;
+    }
+
+    /**
+     * Gets the number of images waiting for room in the queue.
+     *
+     * @return The deferred image count
+     */
+    public int getDeferredCount() {
+        synchronized (deferred) {
+            return deferred.size();
+        }
+    }
+
+    /**
+     * Stops the workers once the queued images are done; deferred images are generated at the next startup.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void submit(Long imageId) {
+        if (!executor.isShutdown()) {
+            executor.execute(new VariantTask(imageId));
+        }
+    }
+
+    private void defer(Long imageId) {
+        synchronized (deferred) {
+            deferred.add(imageId);
+        }
+    }
+
+    private void submitDeferred() {
+        Long imageId;
+        synchronized (deferred) {
+            Iterator<Long> iterator = deferred.iterator();
+            if (!iterator.hasNext()) {
+                return;
+            }
+            imageId = iterator.next();
+            iterator.remove();
+        }
+        submit(imageId);
+    }
+
+    private static boolean hasVariants(Image image) {
+        Map<String, ImageVariantFile> variants = image.getVariants();
+        if (variants == null) {
+            return false;
+        }
+        for (ImageVariant variant : ImageVariant.values()) {
+            ImageVariantFile file = variants.get(variant.getValue());
+            if (file == null || !variant.filename(image.getContentHash()).equals(file.getFilename())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stores the variant files of the original, decoding the original once.
+     *
+     * @return The variant files, or null if the original cannot be decoded
+     */
+    private Map<String, ImageVariantFile> writeVariants(String originalKey, String contentHash) throws IOException {
+        BufferedImage source = read(originalKey, ImageVariant.FULL.getMaxDimension());
+        if (source == null) {
+            return null;
+        }
+        Map<String, ImageVariantFile> variants = new LinkedHashMap<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            BufferedImage scaled = scale(source, variant.getMaxDimension());
+            String key = variant.filename(contentHash);
+            byte[] encoded = encode(scaled);
+            imageStorage.store(key, new ByteArrayInputStream(encoded));
+            ImageStorage.StoredImageFile stored = imageStorage.find(key);
+            variants.put(variant.getValue(), new ImageVariantFile(key, scaled.getWidth(), scaled.getHeight(),
+                    stored != null ? stored.getSize() : encoded.length));
+        }
+        return variants;
+    }
+
+    /**
+     * Decodes the image, skipping rows and columns of large originals so that only about twice the largest variant
+     * is held in memory instead of the full resolution.
+     */
+    private BufferedImage read(String key, int maxDimension) throws IOException {
+        try (InputStream stored = imageStorage.open(key);
+             ImageInputStream input = new MemoryCacheImageInputStream(stored)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / (2 * maxDimension));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales the image to fit the dimension without enlarging it, halving it step by step so that bilinear
+     * interpolation keeps the detail of large reductions.
+     */
+    private static BufferedImage scale(BufferedImage source, int maxDimension) {
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage current = source;
+        do {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = Math.max(height, current.getHeight() / 2);
+            current = draw(current, stepWidth, stepHeight);
+        } while (current.getWidth() != width || current.getHeight() != height);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);                 // Transparent areas of PNG and GIF uploads
+            graphics.fillRect(0, 0, width, height);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Generates the variants of one image, then lets a deferred image into the queue.
+     */
+    private final class VariantTask implements Runnable {
+        private final Long imageId;
+
+        private VariantTask(Long imageId) {
+            this.imageId = imageId;
+        }
+
+        @Override
+        public void run() {
+            try {
+                generate(imageId);
+            } catch (RuntimeException e) {
+                logger.error("Variants of image {} could not be generated", imageId, e);
+            } finally {
+                submitDeferred();
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.bist.backendmodule.services;
+
+import com.bist.backendmodule.exceptions.HandlerBusyException;
+import com.bist.backendmodule.modules.AsyncCommand;
+import com.bist.backendmodule.modules.AsyncQuery;
+import com.bist.backendmodule.modules.Command;
+import com.bist.backendmodule.modules.Query;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Service class running Query and Command handlers off the servlet thread, so a slow handler does not hold a Tomcat worker.
+ * Handlers run on virtual threads when the runtime provides them and on a bounded pool of platform threads with a
+ * bounded queue otherwise.
+ * Each handler may only hold a share of the JDBC pool at a time, which keeps a burst of one slow handler from
+ * draining the pool for all the others. The permit is taken on the handler thread and only around the database work,
+ * so responses served from a cache never wait for one. Executions beyond the limit wait for a permit up to
+ * async.handler.permit-timeout-ms and only then fail with 503; waiting is cheap on virtual threads, and on platform
+ * threads it is bounded by that timeout.
+ * The security context and the request attributes of the caller are carried over to the handler thread.
+ */
+@Service
+public class AsyncHandlerExecutor {
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final ExecutorService executorService;
+    private final int maxConcurrency;
+    private final long permitTimeoutMillis;
+    private final Map<Class<?>, Semaphore> permitsByHandler = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the executor with a per-handler limit derived from the maximum size of the JDBC pool.
+     *
+     * @param poolSize            The number of platform threads, when virtual threads are unavailable
+     * @param maxPoolShare        The share of the JDBC pool a single handler may hold
+     * @param permitTimeoutMillis How long an execution waits for a permit of its handler
+     * @param queueCapacity       The work the platform threads may have queued
+     * @param dataSource          The application data source, whose Hikari pool size bounds the handlers
+     */
+    @Autowired
+    public AsyncHandlerExecutor(@Value("${async.handler.pool-size:200}") int poolSize,
+                                @Value("${async.handler.max-pool-share:0.5}") double maxPoolShare,
+                                @Value("${async.handler.permit-timeout-ms:5000}") long permitTimeoutMillis,
+                                @Value("${async.handler.queue-capacity:1000}") int queueCapacity,
+                                DataSource dataSource) {
+        this(poolSize, Math.max(1, (int) (jdbcPoolSize(dataSource) * maxPoolShare)), permitTimeoutMillis, queueCapacity);
+    }
+
+    /**
+     * Creates the executor with a fixed per-handler limit.
+     *
+     * @param poolSize            The number of platform threads, when virtual threads are unavailable
+     * @param maxConcurrency      The executions each handler may have running at a time
+     * @param permitTimeoutMillis How long an execution waits for a permit of its handler
+     * @param queueCapacity       The work the platform threads may have queued
+     */
+    public AsyncHandlerExecutor(int poolSize, int maxConcurrency, long permitTimeoutMillis, int queueCapacity) {
+        this.executorService = createExecutorService(poolSize, queueCapacity);
+        this.maxConcurrency = maxConcurrency;
+        this.permitTimeoutMillis = permitTimeoutMillis;
+    }
+
+    /**
+     * Wraps a query so that each execution runs asynchronously, within the concurrency limit of the query.
+     *
+     * @param query The query to wrap
+     * @return The asynchronous query
+     */
+    public <I, O> AsyncQuery<I, O> async(Query<I, O> query) {
+        Query<I, O> limited = limit(query);
+        return input -> supply(() -> limited.execute(input));
+    }
+
+    /**
+     * Wraps a command so that each execution runs asynchronously, within the concurrency limit of the command.
+     *
+     * @param command The command to wrap
+     * @return The asynchronous command
+     */
+    public <E, B, T> AsyncCommand<E, B, T> async(Command<E, B, T> command) {
+        return (entity, bindingResult) -> supply(() -> runLimited(command, () -> command.execute(entity, bindingResult)));
+    }
+
+    /**
+     * Wraps a query so that each execution holds a permit of the query while it runs, on the calling thread.
+     * Used where a query only runs on a cache miss.
+     *
+     * @param query The query to wrap
+     * @return The limited query
+     */
+    public <I, O> Query<I, O> limit(Query<I, O> query) {
+        return input -> runLimited(query, () -> query.execute(input));
+    }
+
+    /**
+     * Runs work asynchronously, without taking a permit of any handler.
+     *
+     * @param work The work to run
+     * @return Future completing with the result of the work
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                SecurityContextHolder.setContext(securityContext);
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                try {
+                    return work.get();
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                    SecurityContextHolder.clearContext();
+                }
+            }, executorService);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new HandlerBusyException("Too many requests queued", AsyncHandlerExecutor.class));
+        }
+    }
+
+    /**
+     * Runs work on behalf of a handler on the calling thread, once a permit of that handler is free.
+     *
+     * @param handler The handler the work belongs to
+     * @param work    The work to run
+     * @return The result of the work
+     * @throws HandlerBusyException If no permit became free within the permit timeout
+     */
+    private <T> T runLimited(Object handler, Supplier<T> work) {
+        Class<?> handlerClass = ClassUtils.getUserClass(handler);
+        Semaphore permits = permitsByHandler.computeIfAbsent(handlerClass, key -> new Semaphore(maxConcurrency, true));
+        try {
+            if (!permits.tryAcquire(permitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new HandlerBusyException("Too many requests in progress for " + handlerClass.getSimpleName(), handlerClass);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HandlerBusyException("Interrupted while waiting for " + handlerClass.getSimpleName(), handlerClass);
+        }
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Determines the maximum size of the Hikari pool behind the data source; with read replicas, that of the primary.
+     */
+    private static int jdbcPoolSize(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()
+                    : DEFAULT_POOL_SIZE;
+        } catch (SQLException e) {
+            return DEFAULT_POOL_SIZE;
+        }
+    }
+
+    /**
+     * Stops accepting work and lets the running handlers finish.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor where available (Java 21+),
+     * and a pool of daemon platform threads on older runtimes, whose queue rejects work once full.
+     */
+    private static ExecutorService createExecutorService(int poolSize, int queueCapacity) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "async-handler-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+            return threadPoolExecutor;
+        }
+    }
+}
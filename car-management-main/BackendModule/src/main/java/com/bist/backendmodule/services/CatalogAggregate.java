@@ -0,0 +1,10 @@
+package com.bist.backendmodule.services;
+
+/**
+ * Aggregates of the catalog whose changes are versioned for conditional requests.
+ */
+public enum CatalogAggregate {
+    CAR,
+    BRAND,
+    IMAGE
+}
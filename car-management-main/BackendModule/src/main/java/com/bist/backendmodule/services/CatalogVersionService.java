@@ -0,0 +1,104 @@
+package com.bist.backendmodule.services;
+
+import com.bist.backendmodule.modules.brand.events.BrandChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.image.events.ImageChangedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Service class keeping a version counter and a last-modified time per catalog aggregate.
+ * Every car, brand and image change bumps its aggregate, and the query endpoints derive strong ETags and
+ * Last-Modified headers from the aggregates they depend on. A conditional GET is then answered with 304
+ * from the counters alone, before any repository or serialization work.
+ * The counters live in memory, so ETags carry the start time of the instance to stay unique across restarts.
+ */
+@Service
+public class CatalogVersionService {
+    private final long epoch = System.currentTimeMillis();
+    private final Map<CatalogAggregate, Long> versions = new EnumMap<>(CatalogAggregate.class);
+    private final Map<CatalogAggregate, Long> lastModified = new EnumMap<>(CatalogAggregate.class);
+
+    public CatalogVersionService() {
+        for (CatalogAggregate aggregate : CatalogAggregate.values()) {
+            versions.put(aggregate, 0L);
+            lastModified.put(aggregate, epoch);
+        }
+    }
+
+    /**
+     * Checks the conditional headers of the request against the current versions of the aggregates.
+     * Sets the ETag and Last-Modified response headers, and the 304 status if the client's copy is current.
+     * Must be called before the query runs, so a change made meanwhile yields a newer ETag on the next request.
+     *
+     * @param webRequest The current request
+     * @param aggregates The aggregates the response depends on
+     * @return true if the response is not modified and the handler should return null
+     */
+    public boolean checkNotModified(WebRequest webRequest, CatalogAggregate... aggregates) {
+        StringBuilder eTag = new StringBuilder("\"").append(Long.toString(epoch, 36));
+        long modified = 0;
+        synchronized (this) {
+            for (CatalogAggregate aggregate : aggregates) {
+                eTag.append('-').append(Long.toString(versions.get(aggregate), 36));
+                modified = Math.max(modified, lastModified.get(aggregate));
+            }
+        }
+        return webRequest.checkNotModified(eTag.append('"').toString(), modified);
+    }
+
+    /**
+     * Bumps the version of an aggregate.
+     *
+     * @param aggregate The changed aggregate
+     */
+    public synchronized void bump(CatalogAggregate aggregate) {
+        versions.merge(aggregate, 1L, Long::sum);
+        lastModified.put(aggregate, System.currentTimeMillis());
+    }
+
+    /**
+     * Bumps the car version.
+     *
+     * @param event The car change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        bump(CatalogAggregate.CAR);
+    }
+
+    /**
+     * Bumps the car version once for a bulk change.
+     *
+     * @param event The bulk car change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarsChanged(CarsChangedEvent event) {
+        bump(CatalogAggregate.CAR);
+    }
+
+    /**
+     * Bumps the brand version.
+     *
+     * @param event The brand change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBrandChanged(BrandChangedEvent event) {
+        bump(CatalogAggregate.BRAND);
+    }
+
+    /**
+     * Bumps the image version.
+     *
+     * @param event The image change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        bump(CatalogAggregate.IMAGE);
+    }
+}
@@ -0,0 +1,96 @@
+package com.bist.backendmodule.services;
+
+import com.bist.backendmodule.datasource.DataSourceRoute;
+import com.bist.backendmodule.datasource.DataSourceRoutingContext;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aspect routing Query handlers to the read replicas and Command handlers to the primary.
+ * The outermost handler decides, so queries a command runs internally stay on the primary.
+ * After a user issues a command, that user's queries stay on the primary for the sticky window,
+ * so they read their own writes despite replication lag. Without configured replicas every route leads to the primary.
+ */
+@Aspect
+@Component
+public class DataSourceRoutingAspect {
+    private final long stickyWindowMillis;
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public DataSourceRoutingAspect(@Value("${datasource.replica.sticky-window-ms:5000}") long stickyWindowMillis) {
+        this.stickyWindowMillis = stickyWindowMillis;
+    }
+
+    /**
+     * Routes a query to the replicas, unless it runs inside another handler or the user wrote recently.
+     *
+     * @param joinPoint The query execution
+     * @return The result of the query
+     * @throws Throwable If the query fails
+     */
+    @Around("execution(* com.bist.backendmodule.modules.Query+.execute(..))")
+    public Object routeQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (DataSourceRoutingContext.get() != null) {
+            return joinPoint.proceed();
+        }
+        DataSourceRoute route = hasRecentWrite(currentUser()) ? DataSourceRoute.PRIMARY : DataSourceRoute.REPLICA;
+        return proceedWith(joinPoint, route);
+    }
+
+    /**
+     * Routes a command, and everything it runs, to the primary and starts the sticky window of the user.
+     *
+     * @param joinPoint The command execution
+     * @return The result of the command
+     * @throws Throwable If the command fails
+     */
+    @Around("execution(* com.bist.backendmodule.modules.Command+.execute(..))")
+    public Object routeCommand(ProceedingJoinPoint joinPoint) throws Throwable {
+        String user = currentUser();
+        try {
+            return proceedWith(joinPoint, DataSourceRoute.PRIMARY);
+        } finally {
+            if (user != null) {
+                lastWriteByUser.put(user, System.currentTimeMillis());
+            }
+        }
+    }
+
+    private Object proceedWith(ProceedingJoinPoint joinPoint, DataSourceRoute route) throws Throwable {
+        DataSourceRoute previousRoute = DataSourceRoutingContext.get();
+        DataSourceRoutingContext.set(route);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            DataSourceRoutingContext.set(previousRoute);
+        }
+    }
+
+    private boolean hasRecentWrite(String user) {
+        if (user == null) {
+            return false;
+        }
+        Long lastWrite = lastWriteByUser.get(user);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - lastWrite < stickyWindowMillis) {
+            return true;
+        }
+        lastWriteByUser.remove(user, lastWrite);
+        return false;
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.bist.backendmodule.services;
+
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.brand.events.BrandChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.CarPageCacheScope;
+import com.bist.backendmodule.modules.image.events.ImageChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts the cached responses a car, brand or image write can affect.
+ */
+@Component
+public class ResponseCacheInvalidator {
+    private final ResponseCacheService responseCacheService;
+
+    public ResponseCacheInvalidator(ResponseCacheService responseCacheService) {
+        this.responseCacheService = responseCacheService;
+    }
+
+    /**
+     * Evicts the car pages that contain the car or whose filter may match its old or new state.
+     *
+     * @param event The car change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        responseCacheService.invalidate(ResponseCacheRegion.CAR_PAGES, scope -> ((CarPageCacheScope) scope)
+                .isAffectedBy(event.getCarId(), event.getCar(), event.getPreviousCar()));
+    }
+
+    /**
+     * Evicts the car pages affected by any car of a bulk change, in a single pass over the cache.
+     *
+     * @param event The bulk car change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarsChanged(CarsChangedEvent event) {
+        responseCacheService.invalidate(ResponseCacheRegion.CAR_PAGES, scope -> event.getChanges().stream()
+                .anyMatch(change -> ((CarPageCacheScope) scope)
+                        .isAffectedBy(change.getCarId(), change.getCar(), change.getPreviousCar())));
+    }
+
+    /**
+     * Evicts the brand list, and the car pages a renamed or deleted brand can affect.
+     * A rename changes the pages showing the brand and may move cars in or out of name filters and searches;
+     * a deletion cascades to the brand's cars, which may be on any page.
+     *
+     * @param event The brand change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBrandChanged(BrandChangedEvent event) {
+        responseCacheService.invalidateAll(ResponseCacheRegion.BRANDS);
+        if (event.getChangeType() == ChangeType.UPDATED) {
+            responseCacheService.invalidate(ResponseCacheRegion.CAR_PAGES, scope -> {
+                CarPageCacheScope carPageScope = (CarPageCacheScope) scope;
+                return carPageScope.getBrandIds().contains(event.getBrandId())
+                        || carPageScope.getCarFilter().getBrand() != null
+                        || carPageScope.getCarFilter().getSearchTerm() != null;
+            });
+        } else if (event.getChangeType() == ChangeType.DELETED) {
+            responseCacheService.invalidateAll(ResponseCacheRegion.CAR_PAGES);
+        }
+    }
+
+    /**
+     * Evicts the car pages showing an updated image, or every car page when an image deletion cascades to its cars.
+     *
+     * @param event The image change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        if (event.getChangeType() == ChangeType.UPDATED) {
+            responseCacheService.invalidate(ResponseCacheRegion.CAR_PAGES,
+                    scope -> ((CarPageCacheScope) scope).getImageIds().contains(event.getImageId()));
+        } else if (event.getChangeType() == ChangeType.DELETED) {
+            responseCacheService.invalidateAll(ResponseCacheRegion.CAR_PAGES);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.bist.backendmodule.services;
+
+/**
+ * Groups of cached responses that are invalidated together.
+ */
+public enum ResponseCacheRegion {
+    CAR_PAGES,
+    BRANDS
+}
@@ -0,0 +1,182 @@
+package com.bist.backendmodule.services;
+
+import com.bist.backendmodule.modules.Query;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Service class caching the serialized JSON of query responses.
+ * Entries are stored as bytes in a size-bounded LRU store, so a hit skips the database and Jackson altogether.
+ * Every entry belongs to a region and carries a scope describing what it depends on, which lets the change
+ * listeners evict exactly the entries a write can affect. Hit, miss and eviction counts are published as
+ * the response.cache.* metrics of the actuator.
+ */
+@Service
+public class ResponseCacheService {
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<ResponseCacheRegion, AtomicLong> generations = new EnumMap<>(ResponseCacheRegion.class);
+    private final Map<ResponseCacheRegion, RegionStatistics> statistics = new EnumMap<>(ResponseCacheRegion.class);
+    private long usedBytes;
+
+    public ResponseCacheService(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${response.cache.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        for (ResponseCacheRegion region : ResponseCacheRegion.values()) {
+            generations.put(region, new AtomicLong());
+            RegionStatistics regionStatistics = new RegionStatistics();
+            statistics.put(region, regionStatistics);
+            registerMeters(meterRegistry, region, regionStatistics);
+        }
+        Gauge.builder("response.cache.size", this, ResponseCacheService::usedBytes)
+                .description("Bytes held by the response cache").baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached JSON for the key, or executes the query, serializes its body and caches it.
+     * A response computed while its region was invalidated is returned but not cached, since it may be stale.
+     *
+     * @param region The region of the entry
+     * @param key    The normalized key of the request
+     * @param query  The query to execute on a miss
+     * @param input  The input of the query
+     * @param scope  Computes the scope of the entry from the response body
+     * @return The ResponseEntity containing the serialized JSON
+     */
+    public <I, O> ResponseEntity<byte[]> execute(ResponseCacheRegion region, String key, Query<I, O> query, I input,
+                                                 Function<O, Object> scope) {
+        String cacheKey = region.name() + ':' + key;
+        RegionStatistics regionStatistics = statistics.get(region);
+        CacheEntry cached;
+        synchronized (this) {
+            cached = entries.get(cacheKey);
+        }
+        if (cached != null) {
+            regionStatistics.hits.increment();
+            return jsonResponse(cached.body);
+        }
+        regionStatistics.misses.increment();
+
+        long generation = generations.get(region).get();
+        O body = query.execute(input).getBody();
+        byte[] json = serialize(body);
+        put(cacheKey, new CacheEntry(region, json, scope.apply(body)), generation);
+        return jsonResponse(json);
+    }
+
+    /**
+     * Evicts the entries of a region whose scope matches the predicate.
+     *
+     * @param region   The region to invalidate
+     * @param affected Tests whether an entry scope is affected by the change
+     */
+    public synchronized void invalidate(ResponseCacheRegion region, Predicate<Object> affected) {
+        generations.get(region).incrementAndGet();
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CacheEntry> entry = iterator.next();
+            if (entry.getValue().region == region && affected.test(entry.getValue().scope)) {
+                iterator.remove();
+                usedBytes -= weight(entry.getKey(), entry.getValue());
+                statistics.get(region).invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Evicts every entry of a region.
+     *
+     * @param region The region to invalidate
+     */
+    public void invalidateAll(ResponseCacheRegion region) {
+        invalidate(region, scope -> true);
+    }
+
+    private synchronized void put(String cacheKey, CacheEntry entry, long generation) {
+        long weight = weight(cacheKey, entry);
+        // Skip entries computed across an invalidation and entries that would crowd out most of the store
+        if (generations.get(entry.region).get() != generation || weight > maxBytes / 8) {
+            return;
+        }
+        CacheEntry previous = entries.put(cacheKey, entry);
+        if (previous != null) {
+            usedBytes -= weight(cacheKey, previous);
+        }
+        usedBytes += weight;
+
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, CacheEntry> eldest = iterator.next();
+            iterator.remove();
+            usedBytes -= weight(eldest.getKey(), eldest.getValue());
+            statistics.get(eldest.getValue().region).evictions.increment();
+        }
+    }
+
+    private static long weight(String cacheKey, CacheEntry entry) {
+        return entry.body.length + 2L * cacheKey.length();
+    }
+
+    private synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be serialized", e);
+        }
+    }
+
+    private ResponseEntity<byte[]> jsonResponse(byte[] json) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
+    private void registerMeters(MeterRegistry meterRegistry, ResponseCacheRegion region, RegionStatistics regionStatistics) {
+        String regionName = region.name().toLowerCase(Locale.ROOT);
+        FunctionCounter.builder("response.cache.gets", regionStatistics.hits, LongAdder::sum)
+                .tags("region", regionName, "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("response.cache.gets", regionStatistics.misses, LongAdder::sum)
+                .tags("region", regionName, "result", "miss").register(meterRegistry);
+        FunctionCounter.builder("response.cache.evictions", regionStatistics.evictions, LongAdder::sum)
+                .tags("region", regionName, "cause", "size").register(meterRegistry);
+        FunctionCounter.builder("response.cache.evictions", regionStatistics.invalidations, LongAdder::sum)
+                .tags("region", regionName, "cause", "invalidation").register(meterRegistry);
+    }
+
+    private static final class CacheEntry {
+        private final ResponseCacheRegion region;
+        private final byte[] body;
+        private final Object scope;
+
+        private CacheEntry(ResponseCacheRegion region, byte[] body, Object scope) {
+            this.region = region;
+            this.body = body;
+            this.scope = scope;
+        }
+    }
+
+    private static final class RegionStatistics {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+    }
+}
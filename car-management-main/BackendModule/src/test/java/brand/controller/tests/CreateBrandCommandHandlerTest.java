@@ -13,6 +13,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -34,6 +35,8 @@ public class CreateBrandCommandHandlerTest {
     private BrandValidationService brandValidationService;
     @Mock
     private BindingResult bindingResult;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private CreateBrandCommandHandler createBrandCommandHandler;
 
@@ -0,0 +1,76 @@
+package brand.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.exceptions.BatchRequestNotValidException;
+import com.bist.backendmodule.modules.BatchGetResponse;
+import com.bist.backendmodule.modules.brand.BrandRepository;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.bist.backendmodule.modules.brand.query.handlers.GetBrandsByIdsQueryHandler;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class GetBrandsByIdsQueryHandlerTest {
+    @Mock
+    private BrandRepository brandRepository;
+    @InjectMocks
+    private GetBrandsByIdsQueryHandler getBrandsByIdsQueryHandler;
+
+    @BeforeAll
+    static void setUp() {
+        MockitoAnnotations.openMocks(GetBrandsByIdsQueryHandlerTest.class);
+    }
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(getBrandsByIdsQueryHandler, "maxIds", 5);
+        ReflectionTestUtils.setField(getBrandsByIdsQueryHandler, "chunkSize", 2);
+    }
+
+    /**
+     * Tests that the brands are loaded once per chunk of distinct IDs and returned in request order with the misses.
+     */
+    @Test
+    void getBrandsByIds_someMissing_returnsRequestOrderWithMisses() {
+        // Arrange
+        Brand toyota = new Brand(1L, "Toyota", null);
+        Brand audi = new Brand(3L, "Audi", null);
+        when(brandRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(audi));
+        when(brandRepository.findAllById(List.of(1L))).thenReturn(List.of(toyota));
+
+        // Act
+        BatchGetResponse<Brand> response = getBrandsByIdsQueryHandler.execute(List.of(3L, 2L, 1L, 3L)).getBody();
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(List.of(3L, 2L, 1L, 3L), response.getItems().stream().map(BatchGetResponse.Item::getId).toList());
+        assertSame(audi, response.getItems().get(0).getValue());
+        assertNull(response.getItems().get(1).getValue());
+        assertSame(toyota, response.getItems().get(2).getValue());
+        assertSame(audi, response.getItems().get(3).getValue());
+        assertEquals(List.of(2L), response.getMissing());
+        verify(brandRepository, times(2)).findAllById(anyIterable());
+    }
+
+    /**
+     * Tests that empty and oversized batches are rejected.
+     */
+    @Test
+    void getBrandsByIds_emptyOrTooMany_throwsBatchRequestNotValidException() {
+        // Act & Assert
+        assertThrows(BatchRequestNotValidException.class, () -> getBrandsByIdsQueryHandler.execute(Collections.emptyList()));
+        assertThrows(BatchRequestNotValidException.class, () -> getBrandsByIdsQueryHandler.execute(List.of(1L, 2L, 3L, 4L, 5L, 6L)));
+    }
+}
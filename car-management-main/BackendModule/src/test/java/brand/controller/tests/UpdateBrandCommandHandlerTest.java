@@ -15,6 +15,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -38,6 +39,8 @@ public class UpdateBrandCommandHandlerTest {
     private BrandValidationService brandValidationService;
     @Mock
     private BindingResult bindingResult;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private UpdateBrandCommandHandler updateBrandCommandHandler;
 
@@ -0,0 +1,86 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.exceptions.CarCommandNotValidException;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.command.handlers.BulkDeleteCarsCommandHandler;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarBulkResult;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class BulkDeleteCarsCommandHandlerTest {
+    @Mock
+    private CarRepository carRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BulkDeleteCarsCommandHandler bulkDeleteCarsCommandHandler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkDeleteCarsCommandHandler, "chunkSize", 2);
+    }
+
+    /**
+     * Tests that the matching cars are deleted in chunks and that one event is published per chunk of deleted cars.
+     */
+    @Test
+    void bulkDelete_validFilter_deletesInChunks() {
+        // Arrange
+        CarFilter carFilter = new CarFilter();
+        carFilter.setIsNew(false);
+
+        when(carRepository.findIds(any(Specification.class))).thenReturn(List.of(1L, 2L, 3L));
+        when(carRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(car(1L), car(2L)));
+        when(carRepository.findAllById(List.of(3L))).thenReturn(List.of(car(3L)));
+
+        // Act
+        ResponseEntity<CarBulkResult> responseEntity = bulkDeleteCarsCommandHandler.execute(carFilter, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertNotNull(responseEntity.getBody());
+        assertEquals(3, responseEntity.getBody().getAffected());
+        verify(carRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(carRepository, times(1)).deleteAllByIdInBatch(List.of(3L));
+        ArgumentCaptor<CarsChangedEvent> events = ArgumentCaptor.forClass(CarsChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(2, 1), events.getAllValues().stream().map(event -> event.getChanges().size()).toList());
+    }
+
+    /**
+     * Tests that a bulk delete without a filter is rejected instead of deleting every car.
+     */
+    @Test
+    void bulkDelete_withoutFilter_throwsCarCommandNotValidException() {
+        // Act & Assert
+        assertThrows(CarCommandNotValidException.class, () -> bulkDeleteCarsCommandHandler.execute(new CarFilter(), null));
+        verify(carRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private Car car(Long id) {
+        Car car = new Car();
+        car.setId(id);
+        return car;
+    }
+}
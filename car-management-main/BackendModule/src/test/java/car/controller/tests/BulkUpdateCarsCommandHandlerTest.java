@@ -0,0 +1,130 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.exceptions.CarCommandNotValidException;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.command.handlers.BulkUpdateCarsCommandHandler;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.*;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class BulkUpdateCarsCommandHandlerTest {
+    @Mock
+    private CarRepository carRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BulkUpdateCarsCommandHandler bulkUpdateCarsCommandHandler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkUpdateCarsCommandHandler, "chunkSize", 2);
+    }
+
+    /**
+     * Tests that the matching cars are updated in chunks and that one event is published per chunk of updated cars.
+     */
+    @Test
+    void bulkUpdate_validRequest_updatesInChunks() {
+        // Arrange
+        CarFilter carFilter = new CarFilter();
+        carFilter.setBrand("Toyota");
+        CarBulkUpdateCommand carBulkUpdateCommand = new CarBulkUpdateCommand(new BigDecimal("0.9"), null, null);
+
+        when(carRepository.findIds(any(Specification.class))).thenReturn(List.of(1L, 2L, 3L));
+        when(carRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(car(1L), car(2L)));
+        when(carRepository.findAllById(List.of(3L))).thenReturn(List.of(car(3L)));
+        when(carRepository.updateAll(List.of(1L, 2L), carBulkUpdateCommand)).thenReturn(2);
+        when(carRepository.updateAll(List.of(3L), carBulkUpdateCommand)).thenReturn(1);
+
+        // Act
+        ResponseEntity<CarBulkResult> responseEntity = bulkUpdateCarsCommandHandler.execute(
+                new CarBulkUpdateRequest(carFilter, carBulkUpdateCommand), null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertNotNull(responseEntity.getBody());
+        assertEquals(3, responseEntity.getBody().getAffected());
+        verify(carRepository, times(2)).updateAll(any(), any());
+        ArgumentCaptor<CarsChangedEvent> events = ArgumentCaptor.forClass(CarsChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(2, 1), events.getAllValues().stream().map(event -> event.getChanges().size()).toList());
+    }
+
+    /**
+     * Tests that a bulk update without a filter is rejected instead of touching every car.
+     */
+    @Test
+    void bulkUpdate_withoutFilter_throwsCarCommandNotValidException() {
+        // Arrange
+        CarBulkUpdateRequest carBulkUpdateRequest = new CarBulkUpdateRequest(new CarFilter(), new CarBulkUpdateCommand(null, null, true));
+
+        // Act & Assert
+        assertThrows(CarCommandNotValidException.class, () -> bulkUpdateCarsCommandHandler.execute(carBulkUpdateRequest, null));
+        verify(carRepository, never()).updateAll(any(), any());
+    }
+
+    /**
+     * Tests that a change which would make the lowest matching price negative is rejected before any car is updated.
+     */
+    @Test
+    void bulkUpdate_negativeResultingPrice_throwsCarCommandNotValidException() {
+        // Arrange
+        CarFilter carFilter = new CarFilter();
+        carFilter.setBrand("Toyota");
+        CarBulkUpdateCommand carBulkUpdateCommand = new CarBulkUpdateCommand(new BigDecimal("0.5"), new BigDecimal("-600"), null);
+        when(carRepository.findMinPrice(any(Specification.class))).thenReturn(new BigDecimal("1000.00"));
+
+        // Act & Assert
+        assertThrows(CarCommandNotValidException.class, () -> bulkUpdateCarsCommandHandler.execute(
+                new CarBulkUpdateRequest(carFilter, carBulkUpdateCommand), null));
+        verify(carRepository, never()).findIds(any());
+        verify(carRepository, never()).updateAll(any(), any());
+    }
+
+    /**
+     * Tests that factors which are not positive and deltas with fractions of cents are rejected by validation,
+     * and that new prices are rounded to cents.
+     */
+    @Test
+    void bulkUpdate_changesOutOfRange_failValidation() {
+        // Arrange
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        CarBulkUpdateCommand zeroFactor = new CarBulkUpdateCommand(BigDecimal.ZERO, null, null);
+        CarBulkUpdateCommand fractionalDelta = new CarBulkUpdateCommand(null, new BigDecimal("0.001"), null);
+        CarBulkUpdateCommand valid = new CarBulkUpdateCommand(new BigDecimal("1.075"), new BigDecimal("-0.50"), null);
+
+        // Act & Assert
+        assertFalse(validator.validate(zeroFactor).isEmpty());
+        assertFalse(validator.validate(fractionalDelta).isEmpty());
+        assertTrue(validator.validate(valid).isEmpty());
+        assertEquals(new BigDecimal("10.25"), valid.newPrice(new BigDecimal("10.00")));
+    }
+
+    private Car car(Long id) {
+        Car car = new Car();
+        car.setId(id);
+        return car;
+    }
+}
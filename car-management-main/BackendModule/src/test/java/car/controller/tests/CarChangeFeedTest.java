@@ -0,0 +1,145 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.exceptions.HandlerBusyException;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.feed.CarChangeFeed;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarChange;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class CarChangeFeedTest {
+    private CarChangeFeed carChangeFeed;
+    private Brand brand;
+
+    @BeforeEach
+    void setUp() {
+        carChangeFeed = new CarChangeFeed(new ObjectMapper().findAndRegisterModules(), 60000, 60000, 60000, 1, 64, 1);
+        brand = new Brand(1L, "Toyota", null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        carChangeFeed.shutdown();
+    }
+
+    /**
+     * Tests that a burst of changes to one car is dispatched as one change, and that a car created and deleted
+     * within the interval is not dispatched at all.
+     */
+    @Test
+    void dispatch_burstOfChanges_coalescedPerCar() {
+        // Arrange
+        Car created = car(1L, "20000");
+        Car updated = car(1L, "21000");
+        Car latest = car(1L, "22000");
+        Car shortLived = car(2L, "5000");
+        carChangeFeed.onCarChanged(new CarChangedEvent(ChangeType.CREATED, 1L, created, null));
+        carChangeFeed.onCarChanged(new CarChangedEvent(ChangeType.UPDATED, 1L, updated, created));
+        carChangeFeed.onCarChanged(new CarChangedEvent(ChangeType.CREATED, 2L, shortLived, null));
+        carChangeFeed.onCarChanged(new CarChangedEvent(ChangeType.UPDATED, 1L, latest, updated));
+        carChangeFeed.onCarChanged(new CarChangedEvent(ChangeType.DELETED, 2L, null, shortLived));
+
+        // Act
+        List<CarChange> changes = carChangeFeed.dispatch();
+
+        // Assert
+        assertEquals(1, changes.size());
+        assertEquals(ChangeType.CREATED, changes.get(0).getChangeType());
+        assertEquals(new BigDecimal("22000"), changes.get(0).getCar().getPrice());
+        assertTrue(carChangeFeed.dispatch().isEmpty());
+    }
+
+    /**
+     * Tests that an update moving a car out of a filter still concerns the subscribers of that filter.
+     */
+    @Test
+    void mayMatch_carLeavingFilter_matches() {
+        // Arrange
+        CarFilter cheap = new CarFilter();
+        cheap.setMaxPrice(new BigDecimal("10000"));
+        CarFilter luxury = new CarFilter();
+        luxury.setMinPrice(new BigDecimal("100000"));
+        CarChange change = new CarChange(ChangeType.UPDATED, 1L, car(1L, "15000"), car(1L, "9000"));
+
+        // Act & Assert
+        assertTrue(change.mayMatch(cheap));
+        assertFalse(change.mayMatch(luxury));
+    }
+
+    /**
+     * Tests that subscribers beyond the configured maximum are rejected.
+     */
+    @Test
+    void subscribe_beyondMaximum_throwsHandlerBusyException() {
+        // Arrange
+        carChangeFeed.subscribe(new CarFilter());
+
+        // Act & Assert
+        assertThrows(HandlerBusyException.class, () -> carChangeFeed.subscribe(new CarFilter()));
+        assertEquals(1, carChangeFeed.getSubscriberCount());
+    }
+
+    /**
+     * Tests that subscriptions racing for the last places never exceed the maximum together.
+     */
+    @Test
+    void subscribe_concurrentSubscriptions_neverExceedMaximum() throws Exception {
+        // Arrange
+        int maxSubscribers = 8;
+        CarChangeFeed limitedFeed = new CarChangeFeed(new ObjectMapper(), 60000, 60000, 60000, maxSubscribers, 64, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> attempts = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 64; i++) {
+            attempts.add(executor.submit(() -> {
+                start.await();
+                try {
+                    limitedFeed.subscribe(new CarFilter());
+                    accepted.incrementAndGet();
+                } catch (HandlerBusyException e) {
+                    // Rejected as expected once the feed is full
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> attempt : attempts) {
+            attempt.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(maxSubscribers, accepted.get());
+        assertEquals(maxSubscribers, limitedFeed.getSubscriberCount());
+        limitedFeed.shutdown();
+        assertEquals(0, limitedFeed.getSubscriberCount());
+    }
+
+    private Car car(Long id, String price) {
+        Car car = new Car();
+        car.setId(id);
+        car.setBrand(brand);
+        car.setPrice(new BigDecimal(price));
+        return car;
+    }
+}
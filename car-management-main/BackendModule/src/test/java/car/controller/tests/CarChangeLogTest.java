@@ -0,0 +1,81 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.sync.CarChangeLog;
+import com.bist.backendmodule.modules.car.sync.CarTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class CarChangeLogTest {
+    @Mock
+    private CarTombstoneRepository carTombstoneRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @InjectMocks
+    private CarChangeLog carChangeLog;
+
+    @BeforeAll
+    static void setUp() {
+        MockitoAnnotations.openMocks(CarChangeLogTest.class);
+    }
+
+    @BeforeEach
+    void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void endTransaction() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(carChangeLog);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    /**
+     * Tests that the tombstones of all cars deleted by a transaction are inserted with one batch just before it
+     * commits, and that changes other than deletions are ignored.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void onCarChanged_deletionsInTransaction_insertedInOneBatchBeforeCommit() {
+        // Arrange
+        carChangeLog.onCarChanged(new CarChangedEvent(ChangeType.DELETED, 1L, null, null));
+        carChangeLog.onCarChanged(new CarChangedEvent(ChangeType.UPDATED, 2L, null, null));
+        carChangeLog.onCarChanged(new CarChangedEvent(ChangeType.DELETED, 3L, null, null));
+        verifyNoInteractions(jdbcTemplate);
+
+        // Act
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.beforeCommit(false);
+        }
+
+        // Assert
+        ArgumentCaptor<Collection<Long>> carIds = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO t_car_tombstone"), carIds.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(1L, 3L), List.copyOf(carIds.getValue()));
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+}
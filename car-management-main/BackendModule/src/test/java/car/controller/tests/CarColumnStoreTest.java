@@ -0,0 +1,214 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.brand.events.BrandChangedEvent;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import com.bist.backendmodule.modules.car.snapshot.CarColumnStore;
+import com.bist.backendmodule.modules.car.snapshot.CarIdPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class CarColumnStoreTest {
+    @Mock
+    private CarRepository carRepository;
+
+    private CarColumnStore carColumnStore;
+
+    private Brand toyota;
+    private Brand audi;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        carColumnStore = new CarColumnStore(carRepository);
+        ReflectionTestUtils.setField(carColumnStore, "enabled", true);
+        carColumnStore.rebuild();
+
+        toyota = brand(1L, "Toyota");
+        audi = brand(2L, "Audi");
+
+        put(car(1L, toyota, 1.6f, true, "20000", LocalDateTime.of(2020, 1, 1, 0, 0)));
+        put(car(2L, audi, 2.0f, false, "35000.50", LocalDateTime.of(2018, 6, 1, 0, 0)));
+        put(car(3L, toyota, 1.8f, false, "15000", LocalDateTime.of(2015, 3, 1, 0, 0)));
+        put(car(4L, audi, 2.0f, true, null, null));
+    }
+
+    /**
+     * Tests that price and date ranges are inclusive and exclude cars without a value.
+     */
+    @Test
+    void findPage_rangeFilters() {
+        // Arrange
+        CarFilter byPrice = filter(null, null, null, new BigDecimal("20000"), new BigDecimal("35000.50"), null, null);
+        CarFilter byDate = filter(null, null, null, null, null, LocalDateTime.of(2018, 6, 1, 0, 0), null);
+
+        // Act & Assert
+        assertEquals(List.of(1L, 2L), findPage(byPrice, Sort.by("id")).getIds());
+        assertEquals(List.of(1L, 2L), findPage(byDate, Sort.by("id")).getIds());
+    }
+
+    /**
+     * Tests that equality filters are combined and that an unknown brand matches nothing.
+     */
+    @Test
+    void findPage_equalityFilters() {
+        // Act & Assert
+        assertEquals(List.of(2L, 4L), findPage(filter("Audi", 2.0f, null, null, null, null, null), Sort.by("id")).getIds());
+        assertEquals(List.of(4L), findPage(filter("Audi", null, true, null, null, null, null), Sort.by("id")).getIds());
+        assertEquals(0, findPage(filter("Volvo", null, null, null, null, null, null), Sort.by("id")).getTotalElements());
+    }
+
+    /**
+     * Tests sorting with nulls last in ascending order, the id tiebreak and offset paging with the total.
+     */
+    @Test
+    void findPage_sortedAndPaged() {
+        // Act
+        Optional<CarIdPage> firstPage = carColumnStore.findPage(filter(null, null, null, null, null, null, null),
+                PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "price")));
+        Optional<CarIdPage> secondPage = carColumnStore.findPage(filter(null, null, null, null, null, null, null),
+                PageRequest.of(1, 3, Sort.by(Sort.Direction.ASC, "price")));
+        Optional<CarIdPage> byEngine = carColumnStore.findPage(filter(null, null, null, null, null, null, null),
+                PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "engineLiter")));
+
+        // Assert
+        assertEquals(List.of(3L, 1L, 2L), firstPage.orElseThrow().getIds());
+        assertEquals(4, firstPage.orElseThrow().getTotalElements());
+        assertEquals(List.of(4L), secondPage.orElseThrow().getIds());
+        assertEquals(List.of(2L, 4L, 3L, 1L), byEngine.orElseThrow().getIds());
+    }
+
+    /**
+     * Tests that updates, deletions and brand changes are reflected in the store.
+     */
+    @Test
+    void findPage_afterChanges() {
+        // Arrange
+        put(car(1L, audi, 1.6f, true, "20000", LocalDateTime.of(2020, 1, 1, 0, 0)));
+        carColumnStore.onCarChanged(new CarChangedEvent(ChangeType.DELETED, 2L, null, null));
+        carColumnStore.onBrandChanged(new BrandChangedEvent(ChangeType.UPDATED, 2L, brand(2L, "Audi AG")));
+        carColumnStore.onBrandChanged(new BrandChangedEvent(ChangeType.DELETED, 1L, null));
+
+        // Act & Assert
+        assertEquals(List.of(1L, 4L), findPage(filter("Audi AG", null, null, null, null, null, null), Sort.by("id")).getIds());
+        assertEquals(0, findPage(filter("Audi", null, null, null, null, null, null), Sort.by("id")).getTotalElements());
+        assertEquals(List.of(1L, 4L), findPage(filter(null, null, null, null, null, null, null), Sort.by("id")).getIds());
+    }
+
+    /**
+     * Tests that requests the store cannot answer are left to the database.
+     */
+    @Test
+    void findPage_unsupportedRequests_returnEmpty() {
+        // Arrange
+        CarFilter bySpecification = filter(null, null, null, null, null, null, null);
+        bySpecification.setSpecification("Corolla");
+
+        // Act & Assert
+        assertTrue(carColumnStore.findPage(bySpecification, PageRequest.of(0, 10, Sort.by("id"))).isEmpty());
+        assertTrue(carColumnStore.findPage(filter(null, null, null, null, null, null, null),
+                PageRequest.of(0, 10, Sort.by("specification"))).isEmpty());
+        assertTrue(carColumnStore.findPage(filter(null, null, null, new BigDecimal("1e30"), null, null, null),
+                PageRequest.of(0, 10, Sort.by("id"))).isEmpty());
+    }
+
+    /**
+     * Tests that prices and dates finer than their database columns are rounded like the database stores them,
+     * so that price and date filters keep being answered by the store.
+     */
+    @Test
+    void findPage_valuesFinerThanColumns_roundedLikeDatabase() {
+        // Arrange
+        put(car(5L, toyota, 1.6f, true, "19999.995", LocalDateTime.of(2021, 1, 1, 0, 0, 0, 1_500)));
+
+        // Act
+        Optional<CarIdPage> byPrice = carColumnStore.findPage(filter(null, null, null, new BigDecimal("20000"), new BigDecimal("20000"), null, null),
+                PageRequest.of(0, 10, Sort.by("price")));
+        Optional<CarIdPage> byDate = carColumnStore.findPage(filter(null, null, null, null, null,
+                LocalDateTime.of(2021, 1, 1, 0, 0, 0, 2_000), LocalDateTime.of(2021, 1, 1, 0, 0, 0, 2_000)), PageRequest.of(0, 10, Sort.by("id")));
+
+        // Assert
+        assertEquals(List.of(1L, 5L), byPrice.orElseThrow().getIds());
+        assertEquals(List.of(5L), byDate.orElseThrow().getIds());
+    }
+
+    /**
+     * Tests that a rebuild keeps serving the current copy while it loads, and that changes applied meanwhile are
+     * kept over the older streamed rows once the new copy is swapped in.
+     */
+    @Test
+    void rebuild_changesDuringLoad_keptAfterSwap() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Car> consumer = invocation.getArgument(2);
+            consumer.accept(car(1L, toyota, 1.6f, true, "20000", null));
+            consumer.accept(car(2L, audi, 2.0f, false, "35000.50", null));
+            // Changes committed while the load streams
+            carColumnStore.onCarChanged(new CarChangedEvent(ChangeType.DELETED, 1L, null, null));
+            put(car(2L, audi, 2.0f, false, "30000", null));
+            put(car(6L, audi, 1.4f, true, "12000", null));
+            assertEquals(List.of(2L, 3L, 4L, 6L), findPage(filter(null, null, null, null, null, null, null), Sort.by("id")).getIds());
+            return null;
+        }).when(carRepository).streamAll(isNull(), anyInt(), any());
+
+        // Act
+        carColumnStore.rebuild();
+
+        // Assert
+        assertEquals(List.of(6L, 2L), findPage(filter("Audi", null, null, null, null, null, null), Sort.by("price")).getIds());
+        assertEquals(2, findPage(filter(null, null, null, null, null, null, null), Sort.by("id")).getTotalElements());
+    }
+
+    private CarIdPage findPage(CarFilter carFilter, Sort sort) {
+        return carColumnStore.findPage(carFilter, PageRequest.of(0, 10, sort)).orElseThrow();
+    }
+
+    private void put(Car car) {
+        carColumnStore.onCarChanged(new CarChangedEvent(ChangeType.CREATED, car.getId(), car, null));
+    }
+
+    private CarFilter filter(String brand, Float engineLiter, Boolean isNew, BigDecimal minPrice, BigDecimal maxPrice,
+                             LocalDateTime minDate, LocalDateTime maxDate) {
+        return new CarFilter(brand, null, engineLiter, isNew, minPrice, maxPrice, minDate, maxDate, null);
+    }
+
+    private Brand brand(Long id, String name) {
+        Brand brand = new Brand();
+        brand.setId(id);
+        brand.setName(name);
+        return brand;
+    }
+
+    private Car car(Long id, Brand brand, Float engineLiter, Boolean isNew, String price, LocalDateTime releaseDateTime) {
+        Car car = new Car();
+        car.setId(id);
+        car.setBrand(brand);
+        car.setEngineLiter(engineLiter);
+        car.setIsNew(isNew);
+        car.setPrice(price != null ? new BigDecimal(price) : null);
+        car.setReleaseDateTime(releaseDateTime);
+        return car;
+    }
+}
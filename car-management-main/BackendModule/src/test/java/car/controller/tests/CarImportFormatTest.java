@@ -0,0 +1,87 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.car.CarController;
+import com.bist.backendmodule.modules.car.command.handlers.*;
+import com.bist.backendmodule.modules.car.feed.CarChangeFeed;
+import com.bist.backendmodule.modules.car.models.CarExportFormat;
+import com.bist.backendmodule.modules.car.models.CarImportRequest;
+import com.bist.backendmodule.modules.car.models.CarImportResult;
+import com.bist.backendmodule.modules.car.query.handlers.*;
+import com.bist.backendmodule.modules.image.command.handlers.CreateImageCommandHandler;
+import com.bist.backendmodule.services.AsyncHandlerExecutor;
+import com.bist.backendmodule.services.CatalogVersionService;
+import com.bist.backendmodule.services.ResponseCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class CarImportFormatTest {
+    private ImportCarsCommandHandler importCarsCommandHandler;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        importCarsCommandHandler = mock(ImportCarsCommandHandler.class);
+        when(importCarsCommandHandler.execute(any(), any())).thenReturn(ResponseEntity.ok(new CarImportResult(0, 0, List.of())));
+        CarController carController = new CarController(mock(CreateCarCommandHandler.class), mock(CreateImageCommandHandler.class),
+                mock(DeleteCarCommandHandler.class), mock(UpdateCarCommandHandler.class), mock(PatchCarCommandHandler.class),
+                importCarsCommandHandler, mock(BulkUpdateCarsCommandHandler.class), mock(BulkDeleteCarsCommandHandler.class),
+                mock(GetAllCarsByPageQueryHandler.class), mock(GetAllCarsQueryHandler.class), mock(ExportCarsQueryHandler.class),
+                mock(GetCarFacetsQueryHandler.class), mock(GetCarChangesQueryHandler.class), mock(GetCarsByIdsQueryHandler.class),
+                mock(ResponseCacheService.class), mock(CatalogVersionService.class), mock(AsyncHandlerExecutor.class),
+                mock(CarChangeFeed.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(carController).build();
+    }
+
+    /**
+     * Tests that a CSV body posted without the format parameter is imported as CSV.
+     */
+    @Test
+    void importCars_csvContentTypeWithoutFormat_importedAsCsv() throws Exception {
+        // Act
+        mockMvc.perform(post("/car/import")
+                        .contentType("text/csv")
+                        .content("name,price,brandId,imageId\nCorolla,20000,1,1\n".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk());
+
+        // Assert
+        assertEquals(CarExportFormat.CSV, importedFormat());
+    }
+
+    /**
+     * Tests that the format parameter overrides the content type of the body.
+     */
+    @Test
+    void importCars_formatParameter_overridesContentType() throws Exception {
+        // Act
+        mockMvc.perform(post("/car/import")
+                        .param("format", "NDJSON")
+                        .contentType("text/csv")
+                        .content("{\"name\":\"Corolla\"}\n".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk());
+
+        // Assert
+        assertEquals(CarExportFormat.NDJSON, importedFormat());
+    }
+
+    private CarExportFormat importedFormat() {
+        ArgumentCaptor<CarImportRequest> request = ArgumentCaptor.forClass(CarImportRequest.class);
+        verify(importCarsCommandHandler).execute(request.capture(), isNull());
+        return request.getValue().getFormat();
+    }
+}
@@ -0,0 +1,222 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.bist.backendmodule.modules.car.CarController;
+import com.bist.backendmodule.modules.car.command.handlers.*;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.*;
+import com.bist.backendmodule.modules.car.feed.CarChangeFeed;
+import com.bist.backendmodule.modules.car.query.handlers.*;
+import com.bist.backendmodule.modules.image.command.handlers.CreateImageCommandHandler;
+import com.bist.backendmodule.services.AsyncHandlerExecutor;
+import com.bist.backendmodule.services.CatalogVersionService;
+import com.bist.backendmodule.services.ResponseCacheInvalidator;
+import com.bist.backendmodule.services.ResponseCacheRegion;
+import com.bist.backendmodule.services.ResponseCacheService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class CarPageResponseCacheTest {
+    @Mock
+    private GetAllCarsByPageQueryHandler getAllCarsByPageQueryHandler;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCacheService responseCacheService;
+    private ResponseCacheInvalidator responseCacheInvalidator;
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        responseCacheService = new ResponseCacheService(new ObjectMapper().findAndRegisterModules(), meterRegistry, 1024 * 1024);
+        responseCacheInvalidator = new ResponseCacheInvalidator(responseCacheService);
+
+        Brand brand = new Brand();
+        brand.setId(1L);
+        brand.setName("Toyota");
+        car = new Car();
+        car.setId(1L);
+        car.setBrand(brand);
+        car.setPrice(new BigDecimal("20000"));
+        when(getAllCarsByPageQueryHandler.execute(any(GetAllCarsRequest.class)))
+                .thenReturn(ResponseEntity.ok(new CarResponse(new PageImpl<>(List.of(
+                        new CarView(1L, 1L, "Toyota", null, null, null, new BigDecimal("20000"), null, null, null))))));
+    }
+
+    /**
+     * Tests that equivalent requests are answered from the cache with the same bytes and counted as hits.
+     */
+    @Test
+    void execute_equivalentRequests_servedFromCache() {
+        // Arrange
+        CarFilter tenThousand = new CarFilter();
+        tenThousand.setMinPrice(new BigDecimal("10000"));
+        CarFilter tenThousandScaled = new CarFilter();
+        tenThousandScaled.setMinPrice(new BigDecimal("10000.00"));
+
+        // Act
+        ResponseEntity<byte[]> first = executeCached(tenThousand);
+        ResponseEntity<byte[]> second = executeCached(tenThousandScaled);
+
+        // Assert
+        assertArrayEquals(first.getBody(), second.getBody());
+        verify(getAllCarsByPageQueryHandler, times(1)).execute(any(GetAllCarsRequest.class));
+        assertEquals(1.0, meterRegistry.get("response.cache.gets").tags("region", "car_pages", "result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("response.cache.gets").tags("region", "car_pages", "result", "miss").functionCounter().count());
+    }
+
+    /**
+     * Tests that a car write evicts only the pages it can affect.
+     */
+    @Test
+    void onCarChanged_evictsOnlyAffectedPages() {
+        // Arrange
+        CarFilter cheap = new CarFilter();
+        cheap.setMaxPrice(new BigDecimal("5000"));
+        CarFilter expensive = new CarFilter();
+        expensive.setMinPrice(new BigDecimal("10000"));
+        executeCached(cheap);
+        executeCached(expensive);
+
+        Car newCar = new Car();
+        newCar.setId(2L);
+        newCar.setBrand(car.getBrand());
+        newCar.setPrice(new BigDecimal("3000"));
+
+        // Act
+        responseCacheInvalidator.onCarChanged(new CarChangedEvent(ChangeType.CREATED, 2L, newCar, null));
+        executeCached(cheap);
+        executeCached(expensive);
+
+        // Assert
+        verify(getAllCarsByPageQueryHandler, times(3)).execute(any(GetAllCarsRequest.class));
+        assertEquals(1.0, meterRegistry.get("response.cache.evictions").tags("region", "car_pages", "cause", "invalidation").functionCounter().count());
+    }
+
+    /**
+     * Tests that a bulk car change evicts the pages any of its cars can affect in one invalidation.
+     */
+    @Test
+    void onCarsChanged_evictsPagesAffectedByAnyCar() {
+        // Arrange
+        CarFilter cheap = new CarFilter();
+        cheap.setMaxPrice(new BigDecimal("5000"));
+        CarFilter expensive = new CarFilter();
+        expensive.setMinPrice(new BigDecimal("10000"));
+        executeCached(cheap);
+        executeCached(expensive);
+
+        List<CarChangedEvent> changes = new ArrayList<>();
+        for (long id = 2; id <= 3; id++) {
+            Car newCar = new Car();
+            newCar.setId(id);
+            newCar.setBrand(car.getBrand());
+            newCar.setPrice(new BigDecimal("3000"));
+            changes.add(new CarChangedEvent(ChangeType.CREATED, id, newCar, null));
+        }
+
+        // Act
+        responseCacheInvalidator.onCarsChanged(new CarsChangedEvent(changes));
+        executeCached(cheap);
+        executeCached(expensive);
+
+        // Assert
+        verify(getAllCarsByPageQueryHandler, times(3)).execute(any(GetAllCarsRequest.class));
+        assertEquals(1.0, meterRegistry.get("response.cache.evictions").tags("region", "car_pages", "cause", "invalidation").functionCounter().count());
+    }
+
+    /**
+     * Tests that a sparse car view writes only the requested fields, and that its page is cached apart from the full page.
+     */
+    @Test
+    void execute_sparseFields_writesOnlyRequestedFields() throws Exception {
+        // Arrange
+        Set<CarField> fields = EnumSet.of(CarField.PRICE);
+        CarView sparseView = new CarView(new Object[]{1L, new BigDecimal("20000")}, EnumSet.of(CarField.ID, CarField.PRICE), fields);
+        GetAllCarsRequest sparseRequest = new GetAllCarsRequest(new CarFilter(), 10, 0, null, null, null, false, CarTotalMode.EXACT, fields);
+        when(getAllCarsByPageQueryHandler.execute(sparseRequest))
+                .thenReturn(ResponseEntity.ok(new CarResponse(new PageImpl<>(List.of(sparseView)))));
+
+        // Act
+        executeCached(new CarFilter());
+        ResponseEntity<byte[]> sparse = responseCacheService.execute(ResponseCacheRegion.CAR_PAGES, sparseRequest.cacheKey(),
+                getAllCarsByPageQueryHandler, sparseRequest, carResponse -> null);
+
+        // Assert
+        JsonNode car = new ObjectMapper().readTree(sparse.getBody()).get("content").get(0);
+        assertEquals(1, car.size());
+        assertEquals(20000, car.get("price").intValue());
+        verify(getAllCarsByPageQueryHandler, times(2)).execute(any(GetAllCarsRequest.class));
+    }
+
+    /**
+     * Tests that the controller clamps the page size before building the cache key, so a page size above the maximum
+     * is served from the entry of the largest page.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllCarsByPage_pageSizeAboveMaximum_sharesEntryOfLargestPage() {
+        // Arrange
+        AsyncHandlerExecutor asyncHandlerExecutor = mock(AsyncHandlerExecutor.class);
+        when(asyncHandlerExecutor.limit(getAllCarsByPageQueryHandler)).thenReturn(getAllCarsByPageQueryHandler);
+        when(asyncHandlerExecutor.supply(any(Supplier.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(((Supplier<?>) invocation.getArgument(0)).get()));
+        CarController carController = new CarController(mock(CreateCarCommandHandler.class), mock(CreateImageCommandHandler.class),
+                mock(DeleteCarCommandHandler.class), mock(UpdateCarCommandHandler.class), mock(PatchCarCommandHandler.class),
+                mock(ImportCarsCommandHandler.class), mock(BulkUpdateCarsCommandHandler.class), mock(BulkDeleteCarsCommandHandler.class),
+                getAllCarsByPageQueryHandler, mock(GetAllCarsQueryHandler.class), mock(ExportCarsQueryHandler.class),
+                mock(GetCarFacetsQueryHandler.class), mock(GetCarChangesQueryHandler.class), mock(GetCarsByIdsQueryHandler.class),
+                responseCacheService, new CatalogVersionService(), asyncHandlerExecutor, mock(CarChangeFeed.class));
+        ReflectionTestUtils.setField(carController, "maxPageSize", 200);
+
+        // Act
+        getPage(carController, 200);
+        getPage(carController, 100000);
+
+        // Assert
+        ArgumentCaptor<GetAllCarsRequest> request = ArgumentCaptor.forClass(GetAllCarsRequest.class);
+        verify(getAllCarsByPageQueryHandler, times(1)).execute(request.capture());
+        assertEquals(200, request.getValue().getPageSize());
+        assertEquals(1.0, meterRegistry.get("response.cache.gets").tags("region", "car_pages", "result", "hit").functionCounter().count());
+    }
+
+    private void getPage(CarController carController, int pageSize) {
+        carController.getAllCarsByPage(new CarFilter(), null, null, 0, pageSize, null, false, CarTotalMode.EXACT, null,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/car/byPage")));
+    }
+
+    private ResponseEntity<byte[]> executeCached(CarFilter carFilter) {
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(carFilter, 10, 0, null, null);
+        return responseCacheService.execute(ResponseCacheRegion.CAR_PAGES, getAllCarsRequest.cacheKey(),
+                getAllCarsByPageQueryHandler, getAllCarsRequest, carResponse -> new CarPageCacheScope(carFilter, carResponse));
+    }
+}
@@ -0,0 +1,108 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.car.CarFilterSpecification;
+import com.bist.backendmodule.modules.car.CarQueryCache;
+import com.bist.backendmodule.modules.car.CarSpecification;
+import com.bist.backendmodule.modules.car.models.CarField;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class CarQueryCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private CarQueryCache carQueryCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        carQueryCache = new CarQueryCache(meterRegistry);
+    }
+
+    /**
+     * Tests that filters with the same present criteria share one compiled query with the values as parameters.
+     */
+    @Test
+    void get_sameCriteria_reusesCompiledQuery() {
+        // Arrange
+        CarFilter cheapToyotas = new CarFilter();
+        cheapToyotas.setBrand("Toyota");
+        cheapToyotas.setMaxPrice(new BigDecimal("20000"));
+        CarFilter expensiveAudis = new CarFilter();
+        expensiveAudis.setBrand("Audi");
+        expensiveAudis.setMaxPrice(new BigDecimal("90000"));
+
+        // Act
+        CarQueryCache.CompiledCarQuery first = carQueryCache.get(specification(cheapToyotas), Sort.by(Sort.Direction.DESC, "price"), null);
+        CarQueryCache.CompiledCarQuery second = carQueryCache.get(specification(expensiveAudis), Sort.by(Sort.Direction.DESC, "price"), null);
+        CarQueryCache.CompiledCarQuery ascending = carQueryCache.get(specification(expensiveAudis), Sort.by(Sort.Direction.ASC, "price"), null);
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(first, ascending);
+        assertTrue(first.getViewJpql().endsWith(" WHERE b.name = :brand AND c.price <= :maxPrice ORDER BY c.price DESC"));
+        assertEquals("SELECT count(c) FROM Car c JOIN c.brand b WHERE b.name = :brand AND c.price <= :maxPrice", first.getCountJpql());
+        assertEquals(1, meterRegistry.get("car.query.cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(2, meterRegistry.get("car.query.cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    /**
+     * Tests that the count query of criteria without a brand predicate does not join the brand.
+     */
+    @Test
+    void get_withoutBrandCriteria_countsWithoutJoin() {
+        // Arrange
+        CarFilter carFilter = new CarFilter();
+        carFilter.setIsNew(true);
+
+        // Act
+        CarQueryCache.CompiledCarQuery compiled = carQueryCache.get(specification(carFilter), Sort.unsorted(), null);
+
+        // Assert
+        assertEquals("SELECT count(c) FROM Car c WHERE c.isNew = :isNew", compiled.getCountJpql());
+        assertFalse(compiled.getViewJpql().contains("ORDER BY"));
+    }
+
+    /**
+     * Tests that a query of selected fields selects only their columns and joins the image only when it is selected.
+     */
+    @Test
+    void get_selectedFields_selectsOnlyTheirColumns() {
+        // Arrange
+        CarFilter carFilter = new CarFilter();
+        carFilter.setIsNew(true);
+        Sort sort = Sort.by(Sort.Direction.DESC, "price");
+
+        // Act
+        CarQueryCache.CompiledCarQuery sparse = carQueryCache.get(specification(carFilter), sort, EnumSet.of(CarField.ID, CarField.PRICE));
+        CarQueryCache.CompiledCarQuery full = carQueryCache.get(specification(carFilter), sort, null);
+
+        // Assert
+        assertEquals("SELECT c.id, c.price FROM Car c JOIN c.brand b WHERE c.isNew = :isNew ORDER BY c.price DESC", sparse.getViewJpql());
+        assertTrue(full.getViewJpql().contains("LEFT JOIN c.image i"));
+        assertEquals(full.getCountJpql(), sparse.getCountJpql());
+    }
+
+    /**
+     * Tests that sorts outside the allow-list or on several fields are not compiled.
+     */
+    @Test
+    void get_unsupportedSort_returnsNull() {
+        // Act & Assert
+        assertNull(carQueryCache.get(specification(new CarFilter()), Sort.by("brand.name"), null));
+        assertNull(carQueryCache.get(specification(new CarFilter()), Sort.by("price", "id"), null));
+    }
+
+    private CarFilterSpecification specification(CarFilter carFilter) {
+        return (CarFilterSpecification) CarSpecification.fromFilter(carFilter);
+    }
+}
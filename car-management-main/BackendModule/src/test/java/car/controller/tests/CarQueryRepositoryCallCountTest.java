@@ -0,0 +1,149 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.models.*;
+import com.bist.backendmodule.modules.car.query.handlers.ExportCarsQueryHandler;
+import com.bist.backendmodule.modules.car.query.handlers.GetAllCarsByPageQueryHandler;
+import com.bist.backendmodule.modules.car.query.handlers.GetAllCarsQueryHandler;
+import com.bist.backendmodule.modules.car.query.handlers.GetCarFacetsQueryHandler;
+import com.bist.backendmodule.modules.car.search.CarSearchIndex;
+import com.bist.backendmodule.modules.car.snapshot.CarColumnStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Asserts the repository calls behind each car query endpoint, so that a handler loading brands or images one car
+ * at a time is caught. The repository is mocked, so the SQL statements each call runs are not counted here.
+ */
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class CarQueryRepositoryCallCountTest {
+    @Mock
+    private CarRepository carRepository;
+    @Mock
+    private CarSearchIndex carSearchIndex;
+    @Mock
+    private CarColumnStore carColumnStore;
+
+    private GetAllCarsQueryHandler getAllCarsQueryHandler;
+    private GetAllCarsByPageQueryHandler getAllCarsByPageQueryHandler;
+    private GetCarFacetsQueryHandler getCarFacetsQueryHandler;
+    private ExportCarsQueryHandler exportCarsQueryHandler;
+
+    private CarFilter fixtureFilter;
+
+    @BeforeEach
+    void setUp() {
+        getAllCarsQueryHandler = new GetAllCarsQueryHandler(carRepository);
+        getAllCarsByPageQueryHandler = new GetAllCarsByPageQueryHandler(carRepository, carSearchIndex, carColumnStore);
+        getCarFacetsQueryHandler = new GetCarFacetsQueryHandler(carRepository, carSearchIndex);
+        exportCarsQueryHandler = new ExportCarsQueryHandler(carRepository, new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(getCarFacetsQueryHandler, "defaultPriceBounds", List.of());
+        ReflectionTestUtils.setField(getCarFacetsQueryHandler, "defaultReleaseYears", List.of());
+        ReflectionTestUtils.setField(exportCarsQueryHandler, "fetchSize", 500);
+
+        fixtureFilter = new CarFilter();
+        fixtureFilter.setSpecification("repository-call-count");
+        when(carSearchIndex.resolve(any())).thenReturn(Optional.empty());
+        when(carColumnStore.findPage(any(), any())).thenReturn(Optional.empty());
+    }
+
+    /**
+     * Tests that an offset page costs one repository call, which selects the cars with their brands and images and
+     * counts them.
+     */
+    @Test
+    void getAllCarsByPage_offset_oneRepositoryCall() {
+        // Arrange
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(fixtureFilter, 4, 0, "price", "asc");
+        when(carRepository.findViews(any(Specification.class), any(Pageable.class), isNull())).thenReturn(new PageImpl<>(List.of()));
+
+        // Act
+        getAllCarsByPageQueryHandler.execute(getAllCarsRequest);
+
+        // Assert
+        verify(carRepository, times(1)).findViews(any(Specification.class), any(Pageable.class), isNull());
+        verifyNoMoreInteractions(carRepository);
+    }
+
+    /**
+     * Tests that a keyset page without total costs one repository call.
+     */
+    @Test
+    void getAllCarsByPage_keyset_oneRepositoryCall() {
+        // Arrange
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(fixtureFilter, 4, 0, "price", "asc", "", false);
+        when(carRepository.findViews(any(Specification.class), any(Sort.class), anyInt(), any())).thenReturn(List.of());
+
+        // Act
+        getAllCarsByPageQueryHandler.execute(getAllCarsRequest);
+
+        // Assert
+        verify(carRepository, times(1)).findViews(any(Specification.class), any(Sort.class), eq(5), any());
+        verifyNoMoreInteractions(carRepository);
+    }
+
+    /**
+     * Tests that listing every car costs one repository call.
+     */
+    @Test
+    void getAllCars_oneRepositoryCall() {
+        // Arrange
+        when(carRepository.findViews(isNull(), any(Sort.class), isNull())).thenReturn(List.of());
+
+        // Act
+        getAllCarsQueryHandler.execute(null);
+
+        // Assert
+        verify(carRepository, times(1)).findViews(isNull(), any(Sort.class), isNull());
+        verifyNoMoreInteractions(carRepository);
+    }
+
+    /**
+     * Tests that all facets come from one repository call.
+     */
+    @Test
+    void getCarFacets_oneRepositoryCall() {
+        // Arrange
+        CarFacetsRequest carFacetsRequest = new CarFacetsRequest(fixtureFilter, null, null);
+        when(carRepository.countFacets(any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        getCarFacetsQueryHandler.execute(carFacetsRequest);
+
+        // Assert
+        verify(carRepository, times(1)).countFacets(any(), any(), any());
+        verifyNoMoreInteractions(carRepository);
+    }
+
+    /**
+     * Tests that an export streams through one repository call.
+     */
+    @Test
+    void exportCars_oneRepositoryCall() throws Exception {
+        // Arrange
+        CarExportRequest carExportRequest = new CarExportRequest(fixtureFilter, CarExportFormat.NDJSON);
+
+        // Act
+        exportCarsQueryHandler.execute(carExportRequest).getBody().writeTo(new ByteArrayOutputStream());
+
+        // Assert
+        verify(carRepository, times(1)).streamAll(any(), eq(500), any());
+        verifyNoMoreInteractions(carRepository);
+    }
+}
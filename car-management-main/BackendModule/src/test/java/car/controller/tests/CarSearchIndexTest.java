@@ -0,0 +1,187 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.brand.events.BrandChangedEvent;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import com.bist.backendmodule.modules.car.search.CarSearchIndex;
+import com.bist.backendmodule.modules.car.search.CarSearchText;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class CarSearchIndexTest {
+    @Mock
+    private CarRepository carRepository;
+
+    private CarSearchIndex carSearchIndex;
+
+    private Brand toyota;
+    private final List<Car> indexedCars = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        carSearchIndex = new CarSearchIndex(carRepository);
+
+        toyota = new Brand();
+        toyota.setId(1L);
+        toyota.setName("Toyota");
+        Brand audi = new Brand();
+        audi.setId(2L);
+        audi.setName("Audi");
+
+        index(car(1L, "Corolla hybrid sedan", toyota));
+        index(car(2L, "Audi inspired toyota clone", audi));
+        index(car(3L, "A4 Avant", audi));
+    }
+
+    /**
+     * Tests that exact brand matches rank above specification and infix matches.
+     */
+    @Test
+    void search_rankedByRelevance() {
+        // Act
+        List<Long> result = carSearchIndex.search("TOYOTA");
+
+        // Assert
+        assertEquals(List.of(1L, 2L), result);
+    }
+
+    /**
+     * Tests that query tokens match inside words and that all tokens are required.
+     */
+    @Test
+    void search_substringAndAllTokensRequired() {
+        // Act & Assert
+        assertEquals(List.of(1L), carSearchIndex.search("roll"));
+        assertEquals(List.of(3L), carSearchIndex.search("audi vant"));
+        assertTrue(carSearchIndex.search("audi corolla").isEmpty());
+    }
+
+    /**
+     * Tests that updates and deletions are reflected in the index.
+     */
+    @Test
+    void search_afterUpdateAndDelete() {
+        // Arrange
+        index(car(1L, "Yaris", toyota));
+        carSearchIndex.onCarChanged(new CarChangedEvent(ChangeType.DELETED, 3L, null, null));
+
+        // Act & Assert
+        assertTrue(carSearchIndex.search("corolla").isEmpty());
+        assertEquals(List.of(1L), carSearchIndex.search("yaris"));
+        assertTrue(carSearchIndex.search("avant").isEmpty());
+    }
+
+    /**
+     * Tests that renaming a brand re-indexes its cars.
+     */
+    @Test
+    void search_afterBrandRename() {
+        // Arrange
+        Brand lexus = new Brand();
+        lexus.setId(1L);
+        lexus.setName("Lexus");
+        carSearchIndex.onBrandChanged(new BrandChangedEvent(ChangeType.UPDATED, 1L, lexus));
+
+        // Act & Assert
+        assertEquals(List.of(1L), carSearchIndex.search("lexus"));
+        assertEquals(List.of(2L), carSearchIndex.search("toyota"));
+    }
+
+    /**
+     * Tests that a single character only matches whole words instead of every word containing it.
+     */
+    @Test
+    void search_singleCharacter_matchesWholeWordsOnly() {
+        // Arrange
+        index(car(4L, "Model S", toyota));
+
+        // Act & Assert
+        assertEquals(List.of(4L), carSearchIndex.search("s"));
+        assertTrue(carSearchIndex.search("a").isEmpty());
+        assertEquals(List.of(4L), carSearchIndex.search("toyota s"));
+    }
+
+    /**
+     * Tests that the index and the database predicate, whose rules {@link CarSearchText} defines, match the same cars
+     * regardless of case, word order and token length.
+     */
+    @Test
+    void search_sameCarsAsDatabaseRules() {
+        // Arrange
+        index(car(4L, "Model S", toyota));
+        index(car(5L, "A4-quattro 2.0 TDI", toyota));
+        List<String> searchTerms = List.of("audi a4", "AUDI A4", "a4 audi", "a", "s", "2", "2.0 tdi", "quattro a4", "to", "vant", "--");
+
+        for (String searchTerm : searchTerms) {
+            // Act
+            Set<Long> indexed = new HashSet<>(carSearchIndex.search(searchTerm));
+            Set<Long> database = indexedCars.stream()
+                    .filter(car -> CarSearchText.matches(searchTerm, car.getBrand().getName(), car.getSpecification()))
+                    .map(Car::getId)
+                    .collect(Collectors.toSet());
+
+            // Assert
+            assertEquals(database, indexed, searchTerm);
+        }
+    }
+
+    /**
+     * Tests that search terms are left to the database until the index is built.
+     */
+    @Test
+    void resolve_beforeBuild_evaluatedByDatabase() {
+        // Arrange
+        CarFilter carFilter = new CarFilter();
+        carFilter.setSearchTerm("corolla");
+        Optional<List<Long>> beforeBuild = carSearchIndex.resolve(carFilter);
+        doAnswer(invocation -> {
+            Consumer<Car> consumer = invocation.getArgument(2);
+            consumer.accept(car(1L, "Corolla hybrid sedan", toyota));
+            return null;
+        }).when(carRepository).streamAll(isNull(), anyInt(), any());
+
+        // Act
+        carSearchIndex.rebuild();
+
+        // Assert
+        assertTrue(beforeBuild.isEmpty());
+        assertEquals(Optional.of(List.of(1L)), carSearchIndex.resolve(carFilter));
+    }
+
+    private void index(Car car) {
+        indexedCars.removeIf(indexedCar -> indexedCar.getId().equals(car.getId()));
+        indexedCars.add(car);
+        carSearchIndex.onCarChanged(new CarChangedEvent(ChangeType.CREATED, car.getId(), car, null));
+    }
+
+    private Car car(Long id, String specification, Brand brand) {
+        Car car = new Car();
+        car.setId(id);
+        car.setSpecification(specification);
+        car.setBrand(brand);
+        return car;
+    }
+}
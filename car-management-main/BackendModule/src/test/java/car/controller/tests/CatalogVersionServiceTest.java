@@ -0,0 +1,67 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.brand.events.BrandChangedEvent;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.services.CatalogAggregate;
+import com.bist.backendmodule.services.CatalogVersionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class CatalogVersionServiceTest {
+    private final CatalogVersionService catalogVersionService = new CatalogVersionService();
+
+    /**
+     * Tests that a request with the current ETag is answered with 304 and that a change of a dependency invalidates it.
+     */
+    @Test
+    void checkNotModified_currentETag_returnsNotModifiedUntilChange() {
+        // Arrange
+        String eTag = request(null).getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        assertNotNull(eTag);
+        assertEquals(304, request(eTag).getStatus());
+
+        catalogVersionService.onBrandChanged(new BrandChangedEvent(ChangeType.UPDATED, 1L, null));
+        MockHttpServletResponse afterChange = request(eTag);
+        assertEquals(200, afterChange.getStatus());
+        assertNotEquals(eTag, afterChange.getHeader(HttpHeaders.ETAG));
+    }
+
+    /**
+     * Tests that a change of an aggregate the response does not depend on keeps the ETag.
+     */
+    @Test
+    void checkNotModified_unrelatedChange_keepsETag() {
+        // Arrange
+        String eTag = request(null).getHeader(HttpHeaders.ETAG);
+
+        // Act
+        catalogVersionService.onCarChanged(new CarChangedEvent(ChangeType.DELETED, 1L, null, null));
+
+        // Assert
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/brand");
+        servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        assertTrue(catalogVersionService.checkNotModified(new ServletWebRequest(servletRequest, new MockHttpServletResponse()), CatalogAggregate.BRAND));
+    }
+
+    private MockHttpServletResponse request(String ifNoneMatch) {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/car/byPage");
+        if (ifNoneMatch != null) {
+            servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        catalogVersionService.checkNotModified(new ServletWebRequest(servletRequest, servletResponse),
+                CatalogAggregate.BRAND);
+        return servletResponse;
+    }
+}
@@ -0,0 +1,149 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarExportFormat;
+import com.bist.backendmodule.modules.car.models.CarExportRequest;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import com.bist.backendmodule.modules.car.query.handlers.ExportCarsQueryHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class ExportCarsQueryHandlerTest {
+    @Mock
+    private CarRepository carRepository;
+
+    private ExportCarsQueryHandler exportCarsQueryHandler;
+
+    @BeforeEach
+    void setUp() {
+        exportCarsQueryHandler = new ExportCarsQueryHandler(carRepository, new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(exportCarsQueryHandler, "fetchSize", 2);
+    }
+
+    /**
+     * Test case for exporting cars as NDJSON.
+     * Validates that every streamed car is written as its own line.
+     *
+     * @throws IOException if writing the streaming body fails
+     */
+    @Test
+    void exportCars_ndjson_writesOneLinePerCar() throws IOException {
+        // Arrange
+        mockStreamedCars(car(1L, "Audi", "A3, Sportback"), car(2L, "BMW", "320i"), car(3L, "Volvo", "XC90"));
+        CarExportRequest carExportRequest = new CarExportRequest(new CarFilter(), CarExportFormat.NDJSON);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> responseEntity = exportCarsQueryHandler.execute(carExportRequest);
+        String body = write(responseEntity.getBody());
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(CarExportFormat.NDJSON.getMediaType(), responseEntity.getHeaders().getContentType());
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[2].contains("\"specification\":\"XC90\""));
+        verify(carRepository, times(1)).streamAll(any(Specification.class), eq(2), any(Consumer.class));
+    }
+
+    /**
+     * Test case for exporting cars as NDJSON.
+     * Validates that the response is flushed once per fetched chunk rather than after every car.
+     *
+     * @throws IOException if writing the streaming body fails
+     */
+    @Test
+    void exportCars_ndjson_flushesPerChunk() throws IOException {
+        // Arrange
+        mockStreamedCars(car(1L, "Audi", "A3"), car(2L, "BMW", "320i"), car(3L, "Volvo", "XC90"),
+                car(4L, "Audi", "A4"), car(5L, "BMW", "520d"));
+        CarExportRequest carExportRequest = new CarExportRequest(new CarFilter(), CarExportFormat.NDJSON);
+        int[] flushCount = {0};
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushCount[0]++;
+            }
+        };
+
+        // Act
+        exportCarsQueryHandler.execute(carExportRequest).getBody().writeTo(outputStream);
+
+        // Assert
+        assertEquals(5, outputStream.toString(StandardCharsets.UTF_8).split("\n").length);
+        assertEquals(3, flushCount[0]);                        // After cars 2 and 4, and before the last line break
+    }
+
+    /**
+     * Test case for exporting cars as CSV.
+     * Validates that the header is written and values containing separators are quoted.
+     *
+     * @throws IOException if writing the streaming body fails
+     */
+    @Test
+    void exportCars_csv_writesHeaderAndQuotedValues() throws IOException {
+        // Arrange
+        mockStreamedCars(car(1L, "Audi", "A3, Sportback"));
+        CarExportRequest carExportRequest = new CarExportRequest(new CarFilter(), CarExportFormat.CSV);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> responseEntity = exportCarsQueryHandler.execute(carExportRequest);
+        String body = write(responseEntity.getBody());
+
+        // Assert
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,brandId,brand,specification"));
+        assertTrue(lines[1].startsWith("1,1,Audi,\"A3, Sportback\",2.0,true,25000,"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockStreamedCars(Car... cars) {
+        doAnswer(invocation -> {
+            Consumer<Car> consumer = invocation.getArgument(2);
+            for (Car car : cars) {
+                consumer.accept(car);
+            }
+            return null;
+        }).when(carRepository).streamAll(any(Specification.class), anyInt(), any(Consumer.class));
+    }
+
+    private Car car(Long id, String brandName, String specification) {
+        Car car = new Car();
+        car.setId(id);
+        car.setBrand(new Brand(1L, brandName, null));
+        car.setSpecification(specification);
+        car.setEngineLiter(2.0f);
+        car.setIsNew(true);
+        car.setPrice(new BigDecimal("25000"));
+        return car;
+    }
+
+    private String write(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
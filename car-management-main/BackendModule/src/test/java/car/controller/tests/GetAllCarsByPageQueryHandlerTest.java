@@ -1,11 +1,19 @@
 package car.controller.tests;
 
 import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.exceptions.InvalidCursorException;
 import com.bist.backendmodule.modules.car.CarRepository;
-import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarCursor;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import com.bist.backendmodule.modules.car.models.CarSortField;
+import com.bist.backendmodule.modules.car.models.CarTotalMode;
+import com.bist.backendmodule.modules.car.models.CarView;
 import com.bist.backendmodule.modules.car.models.CarResponse;
 import com.bist.backendmodule.modules.car.models.GetAllCarsRequest;
 import com.bist.backendmodule.modules.car.query.handlers.GetAllCarsByPageQueryHandler;
+import com.bist.backendmodule.modules.car.search.CarSearchIndex;
+import com.bist.backendmodule.modules.car.snapshot.CarColumnStore;
+import com.bist.backendmodule.modules.car.snapshot.CarIdPage;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -14,24 +22,34 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest(classes = BackendModuleApplication.class)
 public class GetAllCarsByPageQueryHandlerTest {
     @Mock
     private CarRepository carRepository;
+    @Mock
+    private CarSearchIndex carSearchIndex;
+    @Mock
+    private CarColumnStore carColumnStore;
     @InjectMocks
     private GetAllCarsByPageQueryHandler getAllCarsByPageQueryHandler;
 
@@ -40,6 +58,23 @@ public class GetAllCarsByPageQueryHandlerTest {
         MockitoAnnotations.openMocks(GetAllCarsByPageQueryHandlerTest.class);
     }
 
+    /**
+     * Tests that a page size above the maximum is clamped instead of loading an unbounded page.
+     */
+    @Test
+    void getAllCarsByPage_pageSizeAboveMaximum_clamped() {
+        // Arrange
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(new CarFilter(), 100000, 0, "id", "asc");
+        when(carColumnStore.findPage(any(), any())).thenReturn(Optional.empty());
+        when(carRepository.findViews(any(Specification.class), any(Pageable.class), isNull())).thenReturn(new PageImpl<>(List.of()));
+
+        // Act
+        getAllCarsByPageQueryHandler.execute(getAllCarsRequest);
+
+        // Assert
+        verify(carRepository).findViews(any(Specification.class), eq(PageRequest.of(0, 200, Sort.by(Sort.Direction.ASC, "id"))), isNull());
+    }
+
     /**
      * Test case for retrieving all cars by page with valid parameters.
      * Validates that the service correctly retrieves paginated car data.
@@ -51,14 +86,14 @@ public class GetAllCarsByPageQueryHandlerTest {
         int pageSize = 10;
         String sortBy = "id";
         String sortDir = "asc";
-        Specification<Car> spec = Specification.where(null);
+        CarFilter carFilter = new CarFilter();
 
-        List<Car> cars = Arrays.asList(new Car(), new Car());
-        Page<Car> carPage = new PageImpl<>(cars);
+        List<CarView> cars = Arrays.asList(carView(1L), carView(2L));
+        Page<CarView> carPage = new PageImpl<>(cars);
 
-        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(spec, pageSize, pageNo, sortBy, sortDir);
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(carFilter, pageSize, pageNo, sortBy, sortDir);
 
-        when(carRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(carPage);
+        when(carRepository.findViews(any(Specification.class), any(Pageable.class), isNull())).thenReturn(carPage);
 
         // Act
         ResponseEntity<CarResponse> responseEntity = getAllCarsByPageQueryHandler.execute(getAllCarsRequest);
@@ -67,7 +102,7 @@ public class GetAllCarsByPageQueryHandlerTest {
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
         assertEquals(2, responseEntity.getBody().getContent().size());
-        verify(carRepository, times(1)).findAll(any(Specification.class), any(Pageable.class));
+        verify(carRepository, times(1)).findViews(any(Specification.class), any(Pageable.class), isNull());
     }
 
     /**
@@ -81,13 +116,13 @@ public class GetAllCarsByPageQueryHandlerTest {
         int pageSize = 10;
         String sortBy = "id";
         String sortDir = "asc";
-        Specification<Car> spec = Specification.where(null);
+        CarFilter carFilter = new CarFilter();
 
-        Page<Car> carPage = new PageImpl<>(Collections.emptyList());
+        Page<CarView> carPage = new PageImpl<>(Collections.emptyList());
 
-        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(spec, pageSize, pageNo, sortBy, sortDir);
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(carFilter, pageSize, pageNo, sortBy, sortDir);
 
-        when(carRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(carPage);
+        when(carRepository.findViews(any(Specification.class), any(Pageable.class), isNull())).thenReturn(carPage);
 
         // Act
         ResponseEntity<CarResponse> responseEntity = getAllCarsByPageQueryHandler.execute(getAllCarsRequest);
@@ -96,6 +131,177 @@ public class GetAllCarsByPageQueryHandlerTest {
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
         assertEquals(0, responseEntity.getBody().getContent().size());
-        verify(carRepository, times(1)).findAll(any(Specification.class), any(Pageable.class));
+        verify(carRepository, times(1)).findViews(any(Specification.class), any(Pageable.class), isNull());
+    }
+
+    /**
+     * Test case for an offset page resolved by the column store.
+     * Validates that only the cars of the page are loaded, in the order resolved by the store, without a count query.
+     */
+    @Test
+    void getAllCarsByPage_resolvedByColumnStore_loadsPageInOrder() {
+        // Arrange
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(new CarFilter(), 2, 1, "price", "desc");
+
+        when(carColumnStore.findPage(any(CarFilter.class), any(Pageable.class))).thenReturn(Optional.of(new CarIdPage(Arrays.asList(7L, 3L), 5)));
+        when(carRepository.findViews(any(Specification.class), any(Sort.class), isNull(), isNull())).thenReturn(Arrays.asList(carView(3L), carView(7L)));
+
+        // Act
+        ResponseEntity<CarResponse> responseEntity = getAllCarsByPageQueryHandler.execute(getAllCarsRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertNotNull(responseEntity.getBody());
+        assertEquals(Arrays.asList(7L, 3L), responseEntity.getBody().getContent().stream().map(CarView::getId).toList());
+        assertEquals(5, responseEntity.getBody().getTotalElements());
+        verify(carRepository, never()).findViews(any(Specification.class), any(Pageable.class), any());
+    }
+
+    /**
+     * Test case for retrieving the first keyset page.
+     * Validates that the extra row is trimmed and a cursor pointing after the last returned car is issued.
+     */
+    @Test
+    void getAllCarsByPage_keysetFirstPage_returnNextCursor() {
+        // Arrange
+
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(new CarFilter(), 2, 0, null, null, "", false);
+
+        when(carRepository.findViews(any(Specification.class), any(Sort.class), eq(3), isNull())).thenReturn(Arrays.asList(carView(1L), carView(2L), carView(3L)));
+
+        // Act
+        ResponseEntity<CarResponse> responseEntity = getAllCarsByPageQueryHandler.execute(getAllCarsRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertNotNull(responseEntity.getBody());
+        assertEquals(2, responseEntity.getBody().getContent().size());
+        assertFalse(responseEntity.getBody().isLast());
+        assertEquals(-1, responseEntity.getBody().getTotalElements());
+        assertEquals(2L, CarCursor.decode(responseEntity.getBody().getNextCursor()).getLastId());
+        verify(carRepository, never()).count(any(Specification.class));
+    }
+
+    /**
+     * Test case for a keyset request whose cursor was issued for another sort order.
+     * Validates that the service rejects the cursor with InvalidCursorException.
+     */
+    @Test
+    void getAllCarsByPage_cursorForOtherSortOrder_throwsInvalidCursorException() {
+        // Arrange
+        String cursor = CarCursor.after(carView(5L), CarSortField.ID, Sort.Direction.ASC).encode();
+
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(new CarFilter(), 10, 0, "price", "desc", cursor, false);
+
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> getAllCarsByPageQueryHandler.execute(getAllCarsRequest));
+    }
+
+    /**
+     * Test case for an offset page without a total.
+     * Validates that the page is read without a count and reports whether more cars follow.
+     */
+    @Test
+    void getAllCarsByPage_totalNone_skipsCount() {
+        // Arrange
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(new CarFilter(), 2, 0, "price", "asc", null, false, CarTotalMode.NONE);
+
+        when(carRepository.findViewSlice(any(), any(Pageable.class), isNull()))
+                .thenReturn(new SliceImpl<>(Arrays.asList(carView(1L), carView(2L)), Pageable.ofSize(2), true));
+
+        // Act
+        CarResponse carResponse = getAllCarsByPageQueryHandler.execute(getAllCarsRequest).getBody();
+
+        // Assert
+        assertNotNull(carResponse);
+        assertEquals(2, carResponse.getContent().size());
+        assertEquals(-1, carResponse.getTotalElements());
+        assertFalse(carResponse.isLast());
+        verify(carRepository, never()).findViews(any(), any(Pageable.class), any());
+    }
+
+    /**
+     * Test case for offset pages with an estimated total.
+     * Validates that an unfiltered page uses the table statistics and that a large filtered count is reused
+     * by the next page of the same filters.
+     */
+    @Test
+    void getAllCarsByPage_totalEstimated_reusesLargeTotals() {
+        // Arrange
+        ReflectionTestUtils.setField(getAllCarsByPageQueryHandler, "countEstimateThreshold", 1000L);
+        ReflectionTestUtils.setField(getAllCarsByPageQueryHandler, "countCacheTtlMillis", 60000L);
+        CarFilter carFilter = new CarFilter();
+        carFilter.setIsNew(true);
+        List<CarView> cars = Arrays.asList(carView(1L), carView(2L));
+
+        when(carRepository.estimateCount()).thenReturn(250000L);
+        when(carRepository.findViewSlice(any(), any(Pageable.class), isNull())).thenReturn(new SliceImpl<>(cars, Pageable.ofSize(2), true));
+        when(carRepository.findViews(any(), any(Pageable.class), isNull())).thenReturn(new PageImpl<>(cars, Pageable.ofSize(2), 5000));
+
+        // Act
+        CarResponse unfiltered = getAllCarsByPageQueryHandler.execute(
+                new GetAllCarsRequest(new CarFilter(), 2, 0, null, null, null, false, CarTotalMode.ESTIMATED)).getBody();
+        CarResponse firstFiltered = getAllCarsByPageQueryHandler.execute(
+                new GetAllCarsRequest(carFilter, 2, 0, null, null, null, false, CarTotalMode.ESTIMATED)).getBody();
+        CarResponse secondFiltered = getAllCarsByPageQueryHandler.execute(
+                new GetAllCarsRequest(carFilter, 2, 1, null, null, null, false, CarTotalMode.ESTIMATED)).getBody();
+
+        // Assert
+        assertNotNull(unfiltered);
+        assertNotNull(firstFiltered);
+        assertNotNull(secondFiltered);
+        assertEquals(250000, unfiltered.getTotalElements());
+        assertEquals(5000, firstFiltered.getTotalElements());
+        assertEquals(5000, secondFiltered.getTotalElements());
+        assertEquals(1, secondFiltered.getPageNo());
+        verify(carRepository, times(1)).findViews(any(), any(Pageable.class), isNull());
+        verify(carRepository, times(1)).estimateCount();
+    }
+
+    /**
+     * Tests that a page whose count timed out is still answered: unfiltered with the table statistics
+     * and filtered with an unknown total.
+     */
+    @Test
+    void getAllCarsByPage_countTimedOut_fallsBackToEstimateOrUnknownTotal() {
+        // Arrange
+        CarFilter carFilter = new CarFilter();
+        carFilter.setIsNew(true);
+        List<CarView> cars = Arrays.asList(carView(1L), carView(2L));
+        when(carColumnStore.findPage(any(), any())).thenReturn(Optional.empty());
+        when(carRepository.estimateCount()).thenReturn(250000L);
+        when(carRepository.findViews(any(), any(Pageable.class), isNull())).thenReturn(new SliceImpl<>(cars, Pageable.ofSize(2), true));
+
+        // Act
+        CarResponse unfiltered = getAllCarsByPageQueryHandler.execute(new GetAllCarsRequest(new CarFilter(), 2, 0, "id", "asc")).getBody();
+        CarResponse filtered = getAllCarsByPageQueryHandler.execute(new GetAllCarsRequest(carFilter, 2, 0, "id", "asc")).getBody();
+
+        // Assert
+        assertNotNull(unfiltered);
+        assertNotNull(filtered);
+        assertEquals(250000, unfiltered.getTotalElements());
+        assertEquals(2, unfiltered.getContent().size());
+        assertEquals(-1, filtered.getTotalElements());
+        assertEquals(2, filtered.getContent().size());
+        assertFalse(filtered.isLast());
+        verify(carRepository, times(1)).estimateCount();
+    }
+
+    /**
+     * Test case for an offset page sorted by a field outside the allow-list.
+     * Validates that the request is rejected before any query runs.
+     */
+    @Test
+    void getAllCarsByPage_unsupportedSortField_throwsInvalidCursorException() {
+        // Arrange
+        GetAllCarsRequest getAllCarsRequest = new GetAllCarsRequest(new CarFilter(), 10, 0, "brand.name; drop", "asc");
+
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> getAllCarsByPageQueryHandler.execute(getAllCarsRequest));
+        verify(carRepository, never()).findViews(any(Specification.class), any(Pageable.class), any());
+    }
+
+    private CarView carView(Long id) {
+        return new CarView(id, 1L, "Brand", null, null, null, null, null, null, null);
     }
 }
@@ -2,7 +2,7 @@ package car.controller.tests;
 
 import com.bist.backendmodule.BackendModuleApplication;
 import com.bist.backendmodule.modules.car.CarRepository;
-import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarView;
 import com.bist.backendmodule.modules.car.query.handlers.GetAllCarsQueryHandler;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -10,6 +10,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -19,6 +20,8 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest(classes = BackendModuleApplication.class)
@@ -41,18 +44,20 @@ public class GetAllCarsQueryHandlerTest {
     @Test
     void getAllCars_success_returnCarList() {
         // Arrange
-        List<Car> cars = Arrays.asList(new Car(), new Car());
+        List<CarView> cars = Arrays.asList(
+                new CarView(1L, 1L, "Brand", null, null, null, null, null, null, null),
+                new CarView(2L, 1L, "Brand", null, null, null, null, null, null, null));
 
-        when(carRepository.findAll()).thenReturn(cars);
+        when(carRepository.findViews(isNull(), any(Sort.class), isNull())).thenReturn(cars);
 
         // Act
-        ResponseEntity<List<Car>> responseEntity = getAllCarsQueryHandler.execute(null);
+        ResponseEntity<List<CarView>> responseEntity = getAllCarsQueryHandler.execute(null);
 
         // Assert
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
         assertEquals(2, responseEntity.getBody().size());
-        verify(carRepository, times(1)).findAll();
+        verify(carRepository, times(1)).findViews(isNull(), any(Sort.class), isNull());
     }
 
     /**
@@ -62,15 +67,15 @@ public class GetAllCarsQueryHandlerTest {
     @Test
     void getAllCars_noCarsFound_returnEmptyList() {
         // Arrange
-        when(carRepository.findAll()).thenReturn(Collections.emptyList());
+        when(carRepository.findViews(isNull(), any(Sort.class), isNull())).thenReturn(Collections.emptyList());
 
         // Act
-        ResponseEntity<List<Car>> responseEntity = getAllCarsQueryHandler.execute(null);
+        ResponseEntity<List<CarView>> responseEntity = getAllCarsQueryHandler.execute(null);
 
         // Assert
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
         assertEquals(0, responseEntity.getBody().size());
-        verify(carRepository, times(1)).findAll();
+        verify(carRepository, times(1)).findViews(isNull(), any(Sort.class), isNull());
     }
 }
@@ -0,0 +1,159 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.exceptions.InvalidCursorException;
+import com.bist.backendmodule.exceptions.SyncTokenExpiredException;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.models.CarChangePosition;
+import com.bist.backendmodule.modules.car.models.CarChangesRequest;
+import com.bist.backendmodule.modules.car.models.CarChangesResponse;
+import com.bist.backendmodule.modules.car.models.CarSyncToken;
+import com.bist.backendmodule.modules.car.models.CarView;
+import com.bist.backendmodule.modules.car.query.handlers.GetCarChangesQueryHandler;
+import com.bist.backendmodule.modules.car.sync.CarTombstoneRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class GetCarChangesQueryHandlerTest {
+    @Mock
+    private CarRepository carRepository;
+    @Mock
+    private CarTombstoneRepository carTombstoneRepository;
+    @InjectMocks
+    private GetCarChangesQueryHandler getCarChangesQueryHandler;
+
+    @BeforeAll
+    static void setUp() {
+        MockitoAnnotations.openMocks(GetCarChangesQueryHandlerTest.class);
+    }
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(getCarChangesQueryHandler, "maxLimit", 1000);
+        ReflectionTestUtils.setField(getCarChangesQueryHandler, "tombstoneRetentionDays", 30L);
+    }
+
+    /**
+     * Tests that a page of changes ends at the limit-th position across updated and deleted cars,
+     * and that the next token continues from there.
+     */
+    @Test
+    void getCarChanges_interleavedChanges_pagedByPosition() {
+        // Arrange
+        String since = new CarSyncToken(100, 1, System.currentTimeMillis()).encode();
+        when(carRepository.findSyncWatermark()).thenReturn(200L);
+        when(carRepository.findChangePositionsAfter(eq(100L), eq(1L), eq(200L), any(Pageable.class)))
+                .thenReturn(List.of(position(100, 2), position(102, 5), position(103, 7)));
+        when(carTombstoneRepository.findChangePositionsAfter(eq(100L), eq(1L), eq(200L), any(Pageable.class)))
+                .thenReturn(List.of(position(100, 3), position(101, 4)));
+        when(carRepository.findViews(any(Specification.class), any(Sort.class), isNull())).thenReturn(List.of(carView(10L)));
+        when(carTombstoneRepository.findCarIdsByChangePositionBetween(100L, 1L, 101L, 4L)).thenReturn(List.of(11L, 12L));
+
+        // Act
+        ResponseEntity<CarChangesResponse> responseEntity = getCarChangesQueryHandler.execute(new CarChangesRequest(since, 3));
+
+        // Assert
+        CarChangesResponse response = responseEntity.getBody();
+        assertNotNull(response);
+        assertEquals(1, response.getChanged().size());
+        assertEquals(List.of(11L, 12L), response.getDeleted());
+        assertTrue(response.isHasMore());
+        assertEquals(position(101, 4), CarSyncToken.decode(response.getNextToken()).getPosition());
+    }
+
+    /**
+     * Tests that a sync without changes keeps the position of its token and reads no rows.
+     */
+    @Test
+    void getCarChanges_noChanges_keepsPosition() {
+        // Arrange
+        String since = new CarSyncToken(100, 9, System.currentTimeMillis()).encode();
+        when(carRepository.findSyncWatermark()).thenReturn(200L);
+        when(carRepository.findChangePositionsAfter(eq(100L), eq(9L), eq(200L), any(Pageable.class))).thenReturn(List.of());
+        when(carTombstoneRepository.findChangePositionsAfter(eq(100L), eq(9L), eq(200L), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        CarChangesResponse response = getCarChangesQueryHandler.execute(new CarChangesRequest(since, 100)).getBody();
+
+        // Assert
+        assertNotNull(response);
+        assertTrue(response.getChanged().isEmpty());
+        assertFalse(response.isHasMore());
+        assertEquals(position(100, 9), CarSyncToken.decode(response.getNextToken()).getPosition());
+        verify(carRepository, never()).findViews(any(Specification.class), any(Sort.class), any());
+    }
+
+    /**
+     * Tests two interleaved writers: writer A takes version 10 but commits after writer B has written version 11.
+     * While A is running, B's change is held back by the watermark, so the client's token does not pass version 10;
+     * once A has committed, the next sync returns both changes.
+     */
+    @Test
+    void getCarChanges_writerCommitsLate_changeNotSkipped() {
+        // Arrange
+        List<CarChangePosition> committed = new ArrayList<>(List.of(position(101, 11)));
+        long[] watermark = {100L};                                  // Writer A (transaction 100) is still running
+        when(carRepository.findSyncWatermark()).thenAnswer(invocation -> watermark[0]);
+        when(carRepository.findChangePositionsAfter(anyLong(), anyLong(), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> committed.stream()
+                        .filter(position -> position.compareTo(position(invocation.getArgument(0), invocation.getArgument(1))) > 0)
+                        .filter(position -> position.getChangeXid() < (long) invocation.getArgument(2))
+                        .sorted()
+                        .toList());
+        when(carTombstoneRepository.findChangePositionsAfter(anyLong(), anyLong(), anyLong(), any(Pageable.class))).thenReturn(List.of());
+        when(carRepository.findViews(any(Specification.class), any(Sort.class), isNull())).thenReturn(List.of(carView(10L), carView(11L)));
+
+        // Act
+        CarChangesResponse whileRunning = getCarChangesQueryHandler.execute(new CarChangesRequest("", 100)).getBody();
+        committed.add(position(100, 10));                           // Writer A commits
+        watermark[0] = 102L;
+        assertNotNull(whileRunning);
+        CarChangesResponse afterCommit = getCarChangesQueryHandler.execute(new CarChangesRequest(whileRunning.getNextToken(), 100)).getBody();
+
+        // Assert
+        assertTrue(whileRunning.getChanged().isEmpty());
+        assertNotNull(afterCommit);
+        assertEquals(2, afterCommit.getChanged().size());
+        assertEquals(position(101, 11), CarSyncToken.decode(afterCommit.getNextToken()).getPosition());
+    }
+
+    /**
+     * Tests that tokens older than the tombstone retention and malformed tokens are rejected.
+     */
+    @Test
+    void getCarChanges_expiredOrMalformedToken_throws() {
+        // Arrange
+        String expired = new CarSyncToken(100, 5, System.currentTimeMillis() - TimeUnit.DAYS.toMillis(31)).encode();
+
+        // Act & Assert
+        assertThrows(SyncTokenExpiredException.class, () -> getCarChangesQueryHandler.execute(new CarChangesRequest(expired, 100)));
+        assertThrows(InvalidCursorException.class, () -> getCarChangesQueryHandler.execute(new CarChangesRequest("not-a-token", 100)));
+    }
+
+    private static CarChangePosition position(long changeXid, long changeVersion) {
+        return new CarChangePosition(changeXid, changeVersion);
+    }
+
+    private CarView carView(Long id) {
+        return new CarView(id, 1L, "Toyota", null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,105 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.exceptions.InvalidFacetBoundsException;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.models.CarFacets;
+import com.bist.backendmodule.modules.car.models.CarFacetsRequest;
+import com.bist.backendmodule.modules.car.models.CarFilter;
+import com.bist.backendmodule.modules.car.query.handlers.GetCarFacetsQueryHandler;
+import com.bist.backendmodule.modules.car.search.CarSearchIndex;
+import jakarta.persistence.Tuple;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class GetCarFacetsQueryHandlerTest {
+    @Mock
+    private CarRepository carRepository;
+    @Mock
+    private CarSearchIndex carSearchIndex;
+    @InjectMocks
+    private GetCarFacetsQueryHandler getCarFacetsQueryHandler;
+
+    @BeforeAll
+    static void setUp() {
+        MockitoAnnotations.openMocks(GetCarFacetsQueryHandlerTest.class);
+    }
+
+    /**
+     * Tests that the grouped rows of the single facet query are folded into every facet.
+     */
+    @Test
+    void getCarFacets_validBounds_returnFacetCounts() {
+        // Arrange
+        List<BigDecimal> priceBounds = List.of(new BigDecimal("20000"));
+        List<LocalDateTime> releaseDateBounds = List.of(LocalDateTime.of(2020, 1, 1, 0, 0));
+        CarFacetsRequest carFacetsRequest = new CarFacetsRequest(new CarFilter(), priceBounds, releaseDateBounds);
+
+        List<Tuple> rows = Arrays.asList(
+                row("Toyota", true, 1.6f, 3L, 1L, 2L, 0L, 3L),
+                row("Toyota", false, 2.0f, 1L, 1L, 0L, 1L, 0L),
+                row("Audi", true, 2.0f, 2L, 0L, 2L, 1L, 1L));
+        when(carSearchIndex.resolve(any(CarFilter.class))).thenReturn(Optional.empty());
+        when(carRepository.countFacets(any(Specification.class), anyList(), anyList())).thenReturn(rows);
+
+        // Act
+        ResponseEntity<CarFacets> responseEntity = getCarFacetsQueryHandler.execute(carFacetsRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        CarFacets carFacets = responseEntity.getBody();
+        assertEquals(6, carFacets.getTotalElements());
+        assertEquals("Toyota", carFacets.getBrands().get(0).getValue());
+        assertEquals(4, carFacets.getBrands().get(0).getCount());
+        assertEquals(2, carFacets.getBrands().get(1).getCount());
+        assertEquals(5, carFacets.getIsNew().get(1).getCount());
+        assertEquals(3, carFacets.getEngineLiters().get(1).getCount());
+        assertEquals(2, carFacets.getPrices().get(0).getCount());
+        assertEquals(4, carFacets.getPrices().get(1).getCount());
+        assertEquals(new BigDecimal("20000"), carFacets.getPrices().get(1).getFrom());
+        assertEquals(4, carFacets.getReleaseDates().get(1).getCount());
+        verify(carRepository, times(1)).countFacets(any(Specification.class), anyList(), anyList());
+    }
+
+    /**
+     * Tests that bounds which are not strictly ascending are rejected before querying.
+     */
+    @Test
+    void getCarFacets_unorderedBounds_throwsInvalidFacetBoundsException() {
+        // Arrange
+        CarFacetsRequest carFacetsRequest = new CarFacetsRequest(new CarFilter(),
+                List.of(new BigDecimal("50000"), new BigDecimal("10000")), List.of());
+
+        // Act & Assert
+        assertThrows(InvalidFacetBoundsException.class, () -> getCarFacetsQueryHandler.execute(carFacetsRequest));
+        verify(carRepository, never()).countFacets(any(), anyList(), anyList());
+    }
+
+    private Tuple row(Object... values) {
+        Tuple tuple = mock(Tuple.class);
+        for (int i = 0; i < values.length; i++) {
+            when(tuple.get(i)).thenReturn(values[i]);
+        }
+        return tuple;
+    }
+}
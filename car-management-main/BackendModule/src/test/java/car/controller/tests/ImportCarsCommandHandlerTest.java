@@ -0,0 +1,164 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.brand.BrandRepository;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.command.handlers.ImportCarsCommandHandler;
+import com.bist.backendmodule.modules.car.events.CarsChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarExportFormat;
+import com.bist.backendmodule.modules.car.models.CarImportError;
+import com.bist.backendmodule.modules.car.models.CarImportRequest;
+import com.bist.backendmodule.modules.car.models.CarImportResult;
+import com.bist.backendmodule.modules.image.ImageRepository;
+import com.bist.backendmodule.modules.image.models.Image;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class ImportCarsCommandHandlerTest {
+    @Mock
+    private CarRepository carRepository;
+    @Mock
+    private BrandRepository brandRepository;
+    @Mock
+    private ImageRepository imageRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ImportCarsCommandHandler importCarsCommandHandler;
+
+    private Brand brand;
+
+    @BeforeEach
+    void setUp() {
+        importCarsCommandHandler = new ImportCarsCommandHandler(carRepository, brandRepository, imageRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper().findAndRegisterModules(), eventPublisher);
+        ReflectionTestUtils.setField(importCarsCommandHandler, "batchSize", 2);
+        ReflectionTestUtils.setField(importCarsCommandHandler, "maxReportedErrors", 10);
+
+        brand = new Brand();
+        brand.setId(1L);
+        brand.setName("Toyota");
+    }
+
+    /**
+     * Test case for importing NDJSON rows across several batches.
+     * Validates that invalid rows are reported by line without aborting the import
+     * and that each brand is looked up only once.
+     */
+    @Test
+    void importCars_ndjson_reportsInvalidRowsAndImportsTheRest() {
+        // Arrange
+        String body = String.join("\n",
+                row(1L, "Corolla", "20000"),
+                "",
+                row(1L, "Yaris", null),
+                row(9L, "Camry", "30000"),
+                row(1L, "Supra", "60000"));
+        when(brandRepository.findAllById(Set.of(1L))).thenReturn(List.of(brand));
+        when(brandRepository.findAllById(Set.of(9L))).thenReturn(List.of());
+
+        // Act
+        ResponseEntity<CarImportResult> responseEntity = importCarsCommandHandler.execute(request(body, CarExportFormat.NDJSON), null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        CarImportResult result = responseEntity.getBody();
+        assertNotNull(result);
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(new CarImportError(3, "Price cannot be empty"), new CarImportError(4, "Brand not found with id: 9")),
+                result.getErrors());
+        verify(brandRepository, times(2)).findAllById(any());
+        verify(carRepository, times(2)).insertAll(any());
+        verify(eventPublisher, times(2)).publishEvent(any(CarsChangedEvent.class));
+    }
+
+    /**
+     * Test case for importing CSV rows.
+     * Validates that quoted values may contain separators, quotes and line breaks and that unconvertible values are rejected.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCars_csv_parsesQuotedValues() {
+        // Arrange
+        String body = "brandId,specification,engineLiter,isNew,price,releaseDateTime\n"
+                + "1,\"GR86, \"\"Trueno\"\"\nedition\",2.4,true,32000,2023-05-01T00:00:00\n"
+                + "1,Aygo,1.0,maybe,12000,2023-05-01T00:00:00\n";
+        when(brandRepository.findAllById(Set.of(1L))).thenReturn(List.of(brand));
+
+        // Act
+        CarImportResult result = importCarsCommandHandler.execute(request(body, CarExportFormat.CSV), null).getBody();
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(1, result.getImported());
+        assertEquals(List.of(new CarImportError(4, "Row could not be parsed: Invalid isNew: maybe")), result.getErrors());
+
+        ArgumentCaptor<List<Car>> captor = ArgumentCaptor.forClass(List.class);
+        verify(carRepository).insertAll(captor.capture());
+        Car car = captor.getValue().get(0);
+        assertEquals("GR86, \"Trueno\"\nedition", car.getSpecification());
+        assertEquals(new BigDecimal("32000"), car.getPrice());
+        assertSame(brand, car.getBrand());
+    }
+
+    /**
+     * Test case for importing a CSV body in the format of the car export.
+     * Validates that the brand and image are read from their id columns and the other export columns are ignored.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCars_csvAsExported_readsReferencesById() {
+        // Arrange
+        Image image = new Image();
+        image.setId(4L);
+        String body = "id,brandId,brand,specification,engineLiter,isNew,price,releaseDateTime,imageId,image\n"
+                + "7,1,Toyota,Corolla,1.6,true,20000,2022-01-01T00:00,4,corolla.jpg\n";
+        when(brandRepository.findAllById(Set.of(1L))).thenReturn(List.of(brand));
+        when(imageRepository.findAllById(Set.of(4L))).thenReturn(List.of(image));
+
+        // Act
+        CarImportResult result = importCarsCommandHandler.execute(request(body, CarExportFormat.CSV), null).getBody();
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(1, result.getImported());
+        ArgumentCaptor<List<Car>> captor = ArgumentCaptor.forClass(List.class);
+        verify(carRepository).insertAll(captor.capture());
+        Car car = captor.getValue().get(0);
+        assertNull(car.getId());
+        assertSame(brand, car.getBrand());
+        assertSame(image, car.getImage());
+    }
+
+    private CarImportRequest request(String body, CarExportFormat format) {
+        return new CarImportRequest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private String row(Long brandId, String specification, String price) {
+        return "{\"brandId\":" + brandId + ",\"specification\":\"" + specification + "\",\"engineLiter\":1.6,\"isNew\":true,"
+                + "\"price\":" + price + ",\"releaseDateTime\":\"2022-01-01T00:00:00\"}";
+    }
+}
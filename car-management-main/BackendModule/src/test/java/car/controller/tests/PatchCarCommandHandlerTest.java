@@ -0,0 +1,96 @@
+package car.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.exceptions.CarNotFoundException;
+import com.bist.backendmodule.modules.brand.models.Brand;
+import com.bist.backendmodule.modules.brand.query.handlers.GetBrandByIdQueryHandler;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.command.handlers.PatchCarCommandHandler;
+import com.bist.backendmodule.modules.car.events.CarChangedEvent;
+import com.bist.backendmodule.modules.car.models.Car;
+import com.bist.backendmodule.modules.car.models.CarCommand;
+import com.bist.backendmodule.modules.car.models.CarPatchCommand;
+import com.bist.backendmodule.modules.image.command.handlers.UpdateImageCommandHandler;
+import com.bist.backendmodule.modules.image.models.Image;
+import com.bist.backendmodule.modules.image.models.UpdateImageCommand;
+import com.bist.backendmodule.modules.image.query.handlers.GetImageByIdQueryHandler;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class PatchCarCommandHandlerTest {
+    @Mock
+    private CarRepository carRepository;
+    @Mock
+    private GetBrandByIdQueryHandler getBrandByIdQueryHandler;
+    @Mock
+    private GetImageByIdQueryHandler getImageByIdQueryHandler;
+    @Mock
+    private UpdateImageCommandHandler updateImageCommandHandler;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private PatchCarCommandHandler patchCarCommandHandler;
+
+    /**
+     * Tests that a price-only patch changes the price alone, without brand or image lookups and without image I/O.
+     */
+    @Test
+    void patchCar_priceOnly_updatesPriceWithoutImageRewrite() {
+        // Arrange
+        Car car = new Car();
+        car.setId(1L);
+        car.setBrand(new Brand(2L, "Toyota", null));
+        car.setImage(new Image());
+        car.setSpecification("Corolla");
+        car.setPrice(new BigDecimal("20000"));
+        when(carRepository.findById(1L)).thenReturn(Optional.of(car));
+
+        CarCommand carCommand = new CarCommand();
+        carCommand.setPrice(new BigDecimal("18500"));
+        carCommand.setBrandId(2L);
+
+        // Act
+        ResponseEntity<Car> responseEntity = patchCarCommandHandler.execute(new CarPatchCommand(1L, carCommand, new UpdateImageCommand()), null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(new BigDecimal("18500"), car.getPrice());
+        assertEquals("Corolla", car.getSpecification());
+        verify(carRepository, times(1)).findById(1L);
+        verify(carRepository, times(1)).save(car);
+        verifyNoInteractions(getBrandByIdQueryHandler, getImageByIdQueryHandler, updateImageCommandHandler);
+
+        ArgumentCaptor<CarChangedEvent> captor = ArgumentCaptor.forClass(CarChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(new BigDecimal("20000"), captor.getValue().getPreviousCar().getPrice());
+    }
+
+    /**
+     * Tests the behavior when patching a car that does not exist.
+     */
+    @Test
+    void patchCar_invalidId_throwsCarNotFoundException() {
+        // Arrange
+        when(carRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(CarNotFoundException.class,
+                () -> patchCarCommandHandler.execute(new CarPatchCommand(1L, new CarCommand(), new UpdateImageCommand()), null));
+        verify(carRepository, never()).save(any());
+    }
+}
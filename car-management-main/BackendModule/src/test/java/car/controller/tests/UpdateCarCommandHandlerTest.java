@@ -12,7 +12,6 @@ import com.bist.backendmodule.modules.car.models.CarUpdateCommand;
 import com.bist.backendmodule.modules.image.command.handlers.UpdateImageCommandHandler;
 import com.bist.backendmodule.modules.image.models.Image;
 import com.bist.backendmodule.modules.image.models.UpdateImageCommand;
-import com.bist.backendmodule.modules.image.query.handlers.GetImageByIdQueryHandler;
 import com.bist.backendmodule.validations.CarCommandValidationService;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -20,6 +19,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
@@ -44,11 +44,11 @@ public class UpdateCarCommandHandlerTest {
     @Mock
     private GetBrandByIdQueryHandler getBrandByIdQueryHandler;
     @Mock
-    private GetImageByIdQueryHandler getImageByIdQueryHandler;
-    @Mock
     private UpdateImageCommandHandler updateImageCommandHandler;
     @Mock
     private BindingResult bindingResult;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private UpdateCarCommandHandler updateCarCommandHandler;
 
@@ -94,8 +94,7 @@ public class UpdateCarCommandHandlerTest {
         when(carRepository.findById(carId)).thenReturn(Optional.of(existingCar));
         when(bindingResult.hasErrors()).thenReturn(false);
         when(getBrandByIdQueryHandler.execute(carCommand.getBrandId())).thenReturn(ResponseEntity.ok().body(brand));
-        when(getImageByIdQueryHandler.execute(updateImageCommand.getImageId())).thenReturn(ResponseEntity.ok().body(image));
-        when(updateImageCommandHandler.execute(updateImageCommand, null)).thenReturn(ResponseEntity.ok().body(existingImage));
+        when(updateImageCommandHandler.execute(updateImageCommand, null)).thenReturn(ResponseEntity.ok().body(image));
 
         // Act
         ResponseEntity<Car> responseEntity = updateCarCommandHandler.execute(carUpdateCommand, bindingResult);
@@ -107,6 +106,7 @@ public class UpdateCarCommandHandlerTest {
         verify(carRepository, times(1)).findById(carId);
         verify(updateImageCommandHandler, times(1)).execute(any(UpdateImageCommand.class), eq(null));
         verify(carRepository, times(1)).save(any(Car.class));
+        assertSame(image, responseEntity.getBody().getImage());
     }
 
     /**
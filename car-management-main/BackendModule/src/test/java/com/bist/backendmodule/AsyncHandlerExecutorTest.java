@@ -0,0 +1,154 @@
+package com.bist.backendmodule;
+
+import com.bist.backendmodule.exceptions.HandlerBusyException;
+import com.bist.backendmodule.modules.Query;
+import com.bist.backendmodule.services.AsyncHandlerExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class AsyncHandlerExecutorTest {
+    private final AsyncHandlerExecutor asyncHandlerExecutor = new AsyncHandlerExecutor(4, 1, 200, 100);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        asyncHandlerExecutor.shutdown();
+    }
+
+    /**
+     * Tests that a query runs on another thread and sees the security context of the caller.
+     */
+    @Test
+    void async_query_runsOffCallerThreadWithSecurityContext() throws Exception {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        Thread caller = Thread.currentThread();
+        Query<String, String> query = input -> ResponseEntity.ok(input + ":"
+                + SecurityContextHolder.getContext().getAuthentication().getName() + ":" + (Thread.currentThread() != caller));
+
+        // Act
+        ResponseEntity<String> responseEntity = asyncHandlerExecutor.async(query).execute("cars").get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("cars:alice:true", responseEntity.getBody());
+    }
+
+    /**
+     * Tests that an execution of a handler at its limit waits for the permit and runs once it is released,
+     * while other handlers and work without a handler permit are not affected.
+     */
+    @Test
+    void async_handlerAtLimit_waitsForPermit() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Query<Void, String> slowQuery = input -> {
+            started.countDown();
+            await(release);
+            return ResponseEntity.ok("slow");
+        };
+        Query<Void, String> otherQuery = input -> ResponseEntity.ok("other");
+        CompletableFuture<ResponseEntity<String>> running = asyncHandlerExecutor.async(slowQuery).execute(null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        CompletableFuture<ResponseEntity<String>> waiting = asyncHandlerExecutor.async(slowQuery).execute(null);
+        CompletableFuture<ResponseEntity<String>> other = asyncHandlerExecutor.async(otherQuery).execute(null);
+        CompletableFuture<String> unlimited = asyncHandlerExecutor.supply(() -> "cached");
+
+        // Assert
+        assertEquals("other", other.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("cached", unlimited.get(5, TimeUnit.SECONDS));
+        assertFalse(waiting.isDone());
+        release.countDown();
+        assertEquals("slow", running.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("slow", waiting.get(5, TimeUnit.SECONDS).getBody());
+    }
+
+    /**
+     * Tests that an execution of a handler at its limit fails with HandlerBusyException, without running,
+     * once it waited for the permit timeout.
+     */
+    @Test
+    void async_handlerAtLimitBeyondTimeout_throwsHandlerBusyException() throws Exception {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Query<Void, String> slowQuery = input -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return ResponseEntity.ok("slow");
+        };
+        CompletableFuture<ResponseEntity<String>> running = asyncHandlerExecutor.async(slowQuery).execute(null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        CompletableFuture<ResponseEntity<String>> rejected = asyncHandlerExecutor.async(slowQuery).execute(null);
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(HandlerBusyException.class, exception.getCause());
+        assertEquals(1, executions.get());
+        release.countDown();
+        assertEquals("slow", running.get(5, TimeUnit.SECONDS).getBody());
+    }
+
+    /**
+     * Tests that work beyond the queue of the platform thread pool is rejected with HandlerBusyException.
+     * Virtual threads need no queue, so the test only applies to runtimes without them.
+     */
+    @Test
+    void async_queueFull_rejectsWithHandlerBusy() throws Exception {
+        // Arrange
+        assumeTrue(Runtime.version().feature() < 21);
+        AsyncHandlerExecutor singleThreadExecutor = new AsyncHandlerExecutor(1, 10, 200, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Query<Void, String> slowQuery = input -> {
+            started.countDown();
+            await(release);
+            return ResponseEntity.ok("slow");
+        };
+        CompletableFuture<ResponseEntity<String>> running = singleThreadExecutor.async(slowQuery).execute(null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<String>> queued = singleThreadExecutor.async(slowQuery).execute(null);
+
+        // Act
+        CompletableFuture<ResponseEntity<String>> rejected = singleThreadExecutor.async(slowQuery).execute(null);
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(HandlerBusyException.class, exception.getCause());
+        release.countDown();
+        assertEquals("slow", running.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("slow", queued.get(5, TimeUnit.SECONDS).getBody());
+        // Work is accepted again once the queue has drained
+        assertEquals("late", singleThreadExecutor.async((Query<Void, String>) input -> ResponseEntity.ok("late")).execute(null).get(5, TimeUnit.SECONDS).getBody());
+        singleThreadExecutor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bist.backendmodule;
+
+import com.bist.backendmodule.configurations.DataSourceRoutingConfiguration;
+import com.bist.backendmodule.datasource.ReplicaRoutingDataSource;
+import com.bist.backendmodule.datasource.ReplicaSelectionStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class DataSourceRoutingConfigurationTest {
+
+    /**
+     * Tests that the spring.datasource.hikari settings apply to the primary and every replica,
+     * while each pool keeps its own name and URL.
+     */
+    @Test
+    void replicaRoutingDataSource_hikariProperties_appliedToEveryPool() throws Exception {
+        // Arrange
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl("jdbc:postgresql://localhost:5432/CarManagementDB");
+        dataSourceProperties.setUsername("postgres");
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "7")
+                .withProperty("spring.datasource.hikari.connection-timeout", "1234");
+
+        // Act
+        try (ReplicaRoutingDataSource dataSource = new DataSourceRoutingConfiguration().replicaRoutingDataSource(dataSourceProperties,
+                environment, List.of("jdbc:postgresql://localhost:5433/CarManagementDB"), "", "", ReplicaSelectionStrategy.ROUND_ROBIN, 0)) {
+            dataSource.afterPropertiesSet();
+            Map<Object, DataSource> pools = dataSource.getResolvedDataSources();
+
+            // Assert
+            assertEquals(2, pools.size());
+            for (DataSource pool : pools.values()) {
+                HikariDataSource hikariDataSource = (HikariDataSource) pool;
+                assertEquals(7, hikariDataSource.getMaximumPoolSize());
+                assertEquals(1234, hikariDataSource.getConnectionTimeout());
+            }
+            HikariDataSource replica = (HikariDataSource) pools.get(0);
+            assertEquals("replica-0", replica.getPoolName());
+            assertEquals("jdbc:postgresql://localhost:5433/CarManagementDB", replica.getJdbcUrl());
+            assertEquals("postgres", replica.getUsername());
+        }
+    }
+}
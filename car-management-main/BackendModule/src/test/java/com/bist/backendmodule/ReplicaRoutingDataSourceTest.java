@@ -0,0 +1,121 @@
+package com.bist.backendmodule;
+
+import com.bist.backendmodule.datasource.DataSourceRoute;
+import com.bist.backendmodule.datasource.DataSourceRoutingContext;
+import com.bist.backendmodule.datasource.ReplicaRoutingDataSource;
+import com.bist.backendmodule.datasource.ReplicaSelectionStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class ReplicaRoutingDataSourceTest {
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstReplicaConnection = mock(Connection.class);
+    private final Connection secondReplicaConnection = mock(Connection.class);
+    private final DataSource primary = dataSource(primaryConnection);
+    private final DataSource firstReplica = dataSource(firstReplicaConnection);
+    private final DataSource secondReplica = dataSource(secondReplicaConnection);
+
+    @AfterEach
+    void tearDown() {
+        DataSourceRoutingContext.set(null);
+    }
+
+    /**
+     * Tests that connections go to the primary unless the thread is routed to the replicas, which then take turns.
+     */
+    @Test
+    void getConnection_roundRobin_alternatesReplicas() throws SQLException {
+        // Arrange
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica),
+                ReplicaSelectionStrategy.ROUND_ROBIN, 0);
+
+        // Act & Assert
+        assertSame(primaryConnection, dataSource.getConnection());
+        DataSourceRoutingContext.set(DataSourceRoute.REPLICA);
+        assertSame(firstReplicaConnection, unwrap(dataSource.getConnection()));
+        assertSame(secondReplicaConnection, unwrap(dataSource.getConnection()));
+        assertSame(firstReplicaConnection, unwrap(dataSource.getConnection()));
+    }
+
+    /**
+     * Tests that the replica with the fewest connections in use is selected.
+     */
+    @Test
+    void getConnection_leastConnections_selectsIdleReplica() throws SQLException {
+        // Arrange
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica),
+                ReplicaSelectionStrategy.LEAST_CONNECTIONS, 0);
+        DataSourceRoutingContext.set(DataSourceRoute.REPLICA);
+
+        // Act
+        Connection held = dataSource.getConnection();
+        Connection next = dataSource.getConnection();
+        held.close();
+        next.close();
+
+        // Assert
+        assertSame(firstReplicaConnection, unwrap(held));
+        assertSame(secondReplicaConnection, unwrap(next));
+        assertSame(firstReplicaConnection, unwrap(dataSource.getConnection()));
+    }
+
+    /**
+     * Tests that a failing replica is skipped until a health check succeeds, with the primary covering the failed attempt.
+     */
+    @Test
+    void getConnection_failingReplica_fallsBackUntilHealthy() throws SQLException {
+        // Arrange
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica),
+                ReplicaSelectionStrategy.ROUND_ROBIN, 0);
+        DataSourceRoutingContext.set(DataSourceRoute.REPLICA);
+        when(firstReplica.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        // Act & Assert
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(secondReplicaConnection, unwrap(dataSource.getConnection()));
+        assertSame(secondReplicaConnection, unwrap(dataSource.getConnection()));
+
+        doReturn(firstReplicaConnection).when(firstReplica).getConnection();
+        when(firstReplicaConnection.isValid(anyInt())).thenReturn(true);
+        when(secondReplicaConnection.isValid(anyInt())).thenReturn(true);
+        dataSource.checkHealth();
+        assertSame(secondReplicaConnection, unwrap(dataSource.getConnection()));
+        assertSame(firstReplicaConnection, unwrap(dataSource.getConnection()));
+    }
+
+    private DataSource dataSource(Connection connection) {
+        DataSource dataSource = mock(DataSource.class);
+        try {
+            when(dataSource.getConnection()).thenReturn(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Identifies the target of a tracked replica connection by a call it forwards.
+     */
+    private Connection unwrap(Connection connection) throws SQLException {
+        for (Connection candidate : List.of(firstReplicaConnection, secondReplicaConnection)) {
+            clearInvocations(candidate);
+        }
+        connection.getAutoCommit();
+        for (Connection candidate : List.of(firstReplicaConnection, secondReplicaConnection)) {
+            if (mockingDetails(candidate).getInvocations().stream().anyMatch(i -> i.getMethod().getName().equals("getAutoCommit"))) {
+                return candidate;
+            }
+        }
+        return connection;
+    }
+}
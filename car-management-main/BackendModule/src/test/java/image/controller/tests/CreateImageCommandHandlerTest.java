@@ -3,20 +3,28 @@ package image.controller.tests;
 import com.bist.backendmodule.BackendModuleApplication;
 import com.bist.backendmodule.exceptions.FileEmptyException;
 import com.bist.backendmodule.exceptions.FileUploadException;
+import com.bist.backendmodule.helpers.ContentAddressedFileUtil;
 import com.bist.backendmodule.modules.image.ImageRepository;
 import com.bist.backendmodule.modules.image.command.handlers.CreateImageCommandHandler;
 import com.bist.backendmodule.modules.image.models.Image;
 import com.bist.backendmodule.modules.image.models.ImageDTO;
+import com.bist.backendmodule.modules.image.storage.InMemoryImageStorage;
 import com.bist.backendmodule.validations.ImageValidationService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -35,9 +43,11 @@ public class CreateImageCommandHandlerTest {
     private ImageRepository imageRepository;
     @Mock
     private ImageValidationService imageValidationService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private CreateImageCommandHandler createImageCommandHandler;
-    private final String uploadDirectory = "src/main/resources/static/uploads/";
+    private InMemoryImageStorage imageStorage;
     private MockMultipartFile mockMultipartFile;
 
     /**
@@ -49,8 +59,8 @@ public class CreateImageCommandHandlerTest {
         MockitoAnnotations.openMocks(this);
 
         // Initialize the command handler with the mock repository and validation service
-        createImageCommandHandler = new CreateImageCommandHandler(imageRepository, imageValidationService);
-        createImageCommandHandler.setUploadDirectory(uploadDirectory);
+        imageStorage = new InMemoryImageStorage();
+        createImageCommandHandler = new CreateImageCommandHandler(imageRepository, imageValidationService, eventPublisher, imageStorage);
 
         // Create a mock multipart file from a test resource
         Path resourcePath = Paths.get("src/test/resources/test-image.jpg");
@@ -61,8 +71,13 @@ public class CreateImageCommandHandlerTest {
                 Files.readAllBytes(resourcePath)
         );
 
-        // Ensure the upload directory exists
-        Files.createDirectories(Paths.get(uploadDirectory));
+        // The download URIs are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
     }
 
     /**
@@ -70,21 +85,22 @@ public class CreateImageCommandHandlerTest {
      * Ensures the file is uploaded, saved, and the correct response is returned.
      */
     @Test
-    public void createImage_validFile_returnSuccess(){
+    public void createImage_validFile_returnSuccess() throws IOException {
         // Arrange
         String fileName = mockMultipartFile.getOriginalFilename();
-        Path filePath = Paths.get(uploadDirectory, fileName);
+        String contentHash = ContentAddressedFileUtil.sha256(mockMultipartFile.getInputStream());
+        String key = ContentAddressedFileUtil.filename(contentHash, fileName);
         String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
                 .path("/uploads/")
-                .path(fileName)
+                .path(key)
                 .toUriString();
 
-        when(imageRepository.findByFullPath(filePath.toAbsolutePath().toString()))
+        when(imageRepository.findFirstByContentHash(contentHash))
                 .thenReturn(Optional.empty());
 
         Image image = new Image();
         image.setFilename(fileName);
-        image.setFullPath(filePath.toAbsolutePath().toString());
+        image.setFullPath(imageStorage.locate(key));
 
         when(imageRepository.save(any(Image.class))).thenReturn(image);
 
@@ -97,11 +113,71 @@ public class CreateImageCommandHandlerTest {
         assertNotNull(response.getBody());
         assertEquals(fileDownloadUri, response.getBody().getDownloadUri());
         assertEquals(image.getId(), response.getBody().getImageId());
+        assertNotNull(imageStorage.find(key));
 
-        verify(imageRepository, times(1)).findByFullPath(filePath.toAbsolutePath().toString());
+        verify(imageRepository, times(1)).findFirstByContentHash(contentHash);
         verify(imageRepository, times(1)).save(any(Image.class));
     }
 
+    /**
+     * Test for uploading content that is already stored under another name.
+     * Ensures that the existing image gains a reference and that no file is written.
+     */
+    @Test
+    void createImage_knownContent_addsReferenceWithoutWrite() throws IOException {
+        // Arrange
+        String contentHash = ContentAddressedFileUtil.sha256(mockMultipartFile.getInputStream());
+        MockMultipartFile renamedFile = new MockMultipartFile("file", "renamed.jpg", "image/jpeg", mockMultipartFile.getBytes());
+
+        Image image = new Image();
+        image.setId(7L);
+        image.setFilename("test-image.jpg");
+        image.setFullPath(imageStorage.locate(ContentAddressedFileUtil.filename(contentHash, "test-image.jpg")));
+        image.setContentHash(contentHash);
+
+        when(imageRepository.findFirstByContentHash(contentHash)).thenReturn(Optional.of(image));
+
+        // Act
+        ResponseEntity<ImageDTO> response = createImageCommandHandler.execute(renamedFile, null);
+
+        // Assert
+        assertNotNull(response.getBody());
+        assertEquals(7L, response.getBody().getImageId());
+        assertTrue(response.getBody().getDownloadUri().endsWith("/uploads/" + contentHash + ".jpg"));
+        verify(imageRepository, times(1)).addReference(7L);
+        verify(imageRepository, never()).save(any(Image.class));
+        assertNull(imageStorage.find(contentHash + ".jpg"));
+    }
+
+    /**
+     * Test for an upload racing with a concurrent upload of the same content.
+     * Ensures that when the unique content hash rejects the new image, the image created first gains a reference.
+     */
+    @Test
+    void createImage_concurrentUploadOfContent_addsReferenceToWinner() throws IOException {
+        // Arrange
+        String contentHash = ContentAddressedFileUtil.sha256(mockMultipartFile.getInputStream());
+        String key = ContentAddressedFileUtil.filename(contentHash, mockMultipartFile.getOriginalFilename());
+
+        Image winner = new Image();
+        winner.setId(9L);
+        winner.setFullPath(imageStorage.locate(key));
+        winner.setContentHash(contentHash);
+
+        when(imageRepository.findFirstByContentHash(contentHash)).thenReturn(Optional.empty(), Optional.of(winner));
+        when(imageRepository.save(any(Image.class))).thenThrow(new DataIntegrityViolationException("IX_IMAGE_CONTENT_HASH"));
+
+        // Act
+        ResponseEntity<ImageDTO> response = createImageCommandHandler.execute(mockMultipartFile, null);
+
+        // Assert
+        assertNotNull(response.getBody());
+        assertEquals(9L, response.getBody().getImageId());
+        verify(imageRepository, times(1)).addReference(9L);
+        verify(eventPublisher, never()).publishEvent(any());
+        assertNotNull(imageStorage.find(key));                  // The file of the winner is kept
+    }
+
     /**
      * Test for handling an empty file upload.
      * Ensures that a FileEmptyException is thrown.
@@ -5,15 +5,20 @@ import com.bist.backendmodule.exceptions.ImageNotFoundException;
 import com.bist.backendmodule.modules.image.ImageRepository;
 import com.bist.backendmodule.modules.image.command.handlers.DeleteImageCommandHandler;
 import com.bist.backendmodule.modules.image.models.Image;
+import com.bist.backendmodule.modules.image.models.ImageVariant;
+import com.bist.backendmodule.modules.image.storage.ImageByteCache;
+import com.bist.backendmodule.modules.image.storage.ImageStorage;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.IOException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -24,6 +29,12 @@ import static org.mockito.Mockito.*;
 public class DeleteImageCommandHandlerTest {
     @Mock
     private ImageRepository imageRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ImageStorage imageStorage;
+    @Mock
+    private ImageByteCache imageByteCache;
     @InjectMocks
     private DeleteImageCommandHandler deleteImageCommandHandler;
 
@@ -54,6 +65,59 @@ public class DeleteImageCommandHandlerTest {
         verify(imageRepository, times(1)).delete(image);
     }
 
+    /**
+     * Test for deleting the last image of a content.
+     * Ensures that its file and variant files are deleted and evicted from the image cache.
+     */
+    @Test
+    void deleteImage_lastImageOfContent_deletesAndEvictsFiles() throws IOException {
+        // Arrange
+        Long imageId = 3L;
+        String contentHash = "a".repeat(64);
+        Image image = new Image();
+        image.setId(imageId);
+        image.setContentHash(contentHash);
+        image.setFullPath("/uploads/aa/aa/" + contentHash + ".jpg");
+
+        when(imageRepository.findById(imageId)).thenReturn(Optional.of(image));
+        when(imageRepository.countByContentHash(contentHash)).thenReturn(0L);
+
+        // Act
+        ResponseEntity<Void> responseEntity = deleteImageCommandHandler.execute(imageId, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        verify(imageStorage, times(1)).delete(contentHash + ".jpg");
+        verify(imageByteCache, times(1)).invalidate(contentHash + ".jpg");
+        for (ImageVariant variant : ImageVariant.values()) {
+            verify(imageStorage, times(1)).delete(variant.filename(contentHash));
+            verify(imageByteCache, times(1)).invalidate(variant.filename(contentHash));
+        }
+    }
+
+    /**
+     * Test for deleting an image shared by several uploads of the same content.
+     * Ensures that only a reference is removed and the image is kept.
+     */
+    @Test
+    void deleteImage_sharedImage_removesReference() {
+        // Arrange
+        Long imageId = 2L;
+        Image image = new Image();
+        image.setId(imageId);
+        image.setReferenceCount(2);
+
+        when(imageRepository.findById(imageId)).thenReturn(Optional.of(image));
+        when(imageRepository.removeReference(imageId)).thenReturn(1);
+
+        // Act
+        ResponseEntity<Void> responseEntity = deleteImageCommandHandler.execute(imageId, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        verify(imageRepository, never()).delete(image);
+    }
+
     /**
      * Test for attempting to delete an image with an invalid ID.
      * Ensures that an ImageNotFoundException is thrown.
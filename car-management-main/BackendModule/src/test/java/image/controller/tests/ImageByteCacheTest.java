@@ -0,0 +1,121 @@
+package image.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.modules.image.storage.ImageByteCache;
+import com.bist.backendmodule.modules.image.storage.ImageByteCache.CachedImageFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class ImageByteCacheTest {
+    private static final int ENTRY_SIZE = 100;
+    private static final int ENTRY_WEIGHT = ENTRY_SIZE + 2 * "a.jpg".length();
+
+    private SimpleMeterRegistry meterRegistry;
+    private ImageByteCache imageByteCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Room for exactly two entries
+        imageByteCache = new ImageByteCache(meterRegistry, 2 * ENTRY_WEIGHT, ENTRY_SIZE, false);
+    }
+
+    /**
+     * Tests that cached content is returned with its metadata and counted as hit, and that resident bytes and the
+     * hit ratio are published.
+     */
+    @Test
+    void get_cachedFile_returnsContentAndPublishesMetrics() {
+        // Arrange
+        byte[] content = content(1);
+        assertNull(imageByteCache.get("a.jpg"));
+        imageByteCache.put("a.jpg", content, 42L, imageByteCache.getGeneration());
+
+        // Act
+        CachedImageFile cached = imageByteCache.get("a.jpg");
+
+        // Assert
+        assertNotNull(cached);
+        assertEquals(ENTRY_SIZE, cached.getSize());
+        assertEquals(42L, cached.getLastModified());
+        ByteBuffer buffer = cached.getContent();
+        byte[] read = new byte[buffer.remaining()];
+        buffer.get(read);
+        assertArrayEquals(content, read);
+        assertTrue(cached.getContent().isReadOnly());
+        assertEquals(1.0, meterRegistry.get("image.cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("image.cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(ENTRY_WEIGHT, meterRegistry.get("image.cache.size").gauge().value());
+        assertEquals(0.5, meterRegistry.get("image.cache.hit.ratio").gauge().value());
+    }
+
+    /**
+     * Tests that a rarely requested file does not displace more popular entries, while a file requested more often
+     * than the least recently used entry replaces it.
+     */
+    @Test
+    void put_fullCache_admitsByFrequency() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            imageByteCache.get("a.jpg");
+            imageByteCache.get("b.jpg");
+        }
+        imageByteCache.put("a.jpg", content(1), 0L, imageByteCache.getGeneration());
+        imageByteCache.put("b.jpg", content(2), 0L, imageByteCache.getGeneration());
+        imageByteCache.get("b.jpg");                            // a.jpg is now the least recently used
+
+        // Act
+        imageByteCache.get("c.jpg");
+        boolean rareAdmitted = imageByteCache.admits("c.jpg", ENTRY_SIZE);
+        imageByteCache.put("c.jpg", content(3), 0L, imageByteCache.getGeneration());
+        for (int i = 0; i < 4; i++) {
+            imageByteCache.get("d.jpg");
+        }
+        imageByteCache.put("d.jpg", content(4), 0L, imageByteCache.getGeneration());
+
+        // Assert
+        assertFalse(rareAdmitted);
+        assertNull(imageByteCache.get("c.jpg"));
+        assertNull(imageByteCache.get("a.jpg"));
+        assertNotNull(imageByteCache.get("b.jpg"));
+        assertNotNull(imageByteCache.get("d.jpg"));
+        assertEquals(1.0, meterRegistry.get("image.cache.evictions").tag("cause", "size").functionCounter().count());
+        assertFalse(imageByteCache.admits("large.jpg", ENTRY_SIZE + 1));
+    }
+
+    /**
+     * Tests that an invalidated entry is evicted, and that content read before an invalidation is not cached.
+     */
+    @Test
+    void invalidate_cachedFile_evictsAndRejectsStaleContent() {
+        // Arrange
+        imageByteCache.put("a.jpg", content(1), 0L, imageByteCache.getGeneration());
+        long generation = imageByteCache.getGeneration();
+
+        // Act
+        imageByteCache.invalidate("a.jpg");
+        CachedImageFile stale = imageByteCache.put("b.jpg", content(2), 0L, generation);
+
+        // Assert
+        assertNull(imageByteCache.get("a.jpg"));
+        assertNull(imageByteCache.get("b.jpg"));
+        assertEquals(ENTRY_SIZE, stale.getSize());              // Still returned to be served once
+        assertEquals(0.0, meterRegistry.get("image.cache.size").gauge().value());
+        assertEquals(1.0, meterRegistry.get("image.cache.evictions").tag("cause", "invalidation").functionCounter().count());
+    }
+
+    private static byte[] content(int seed) {
+        byte[] content = new byte[ENTRY_SIZE];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (seed * 31 + i);
+        }
+        return content;
+    }
+}
@@ -0,0 +1,220 @@
+package image.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.exceptions.ImageFileNotFoundException;
+import com.bist.backendmodule.helpers.ContentAddressedFileUtil;
+import com.bist.backendmodule.modules.image.ImageRepository;
+import com.bist.backendmodule.modules.image.models.Image;
+import com.bist.backendmodule.modules.image.models.ImageVariant;
+import com.bist.backendmodule.modules.image.serving.ImageFileServer;
+import com.bist.backendmodule.modules.image.storage.ImageByteCache;
+import com.bist.backendmodule.modules.image.storage.InMemoryImageStorage;
+import com.bist.backendmodule.modules.image.storage.ShardedFileSystemImageStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class ImageFileServerTest {
+    @TempDir
+    Path uploadDirectory;
+    private ImageRepository imageRepository;
+    private ShardedFileSystemImageStorage imageStorage;
+    private ImageByteCache imageByteCache;
+    private ImageFileServer imageFileServer;
+    private byte[] content;
+    private String contentHash;
+    private String filename;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        imageRepository = mock(ImageRepository.class);
+        imageStorage = new ShardedFileSystemImageStorage(uploadDirectory.toString(), "");
+        imageByteCache = new ImageByteCache(new SimpleMeterRegistry(), 0, 0, false);
+        imageFileServer = new ImageFileServer(imageRepository, imageStorage, imageByteCache, 31536000);
+        content = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+        contentHash = ContentAddressedFileUtil.sha256(new ByteArrayInputStream(content));
+        filename = ContentAddressedFileUtil.filename(contentHash, "photo.jpg");
+        imageStorage.store(filename, new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Tests that a content-addressed file is sent whole as immutable, with its digest as ETag.
+     */
+    @Test
+    void serve_fingerprintedFile_immutableWithDigestEtag() throws IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + filename);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        imageFileServer.serve(filename, request, response);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals("\"" + contentHash + "\"", response.getHeader("ETag"));
+        assertTrue(response.getHeader("Cache-Control").contains("immutable"));
+        assertEquals("image/jpeg", response.getContentType());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    /**
+     * Tests that a byte range is sent as partial content, and that a range beyond the file is rejected.
+     */
+    @Test
+    void serve_rangeRequest_partialContent() throws IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + filename);
+        request.addHeader("Range", "bytes=5-9");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest outOfRange = new MockHttpServletRequest("GET", "/uploads/" + filename);
+        outOfRange.addHeader("Range", "bytes=100-");
+        MockHttpServletResponse outOfRangeResponse = new MockHttpServletResponse();
+
+        // Act
+        imageFileServer.serve(filename, request, response);
+        imageFileServer.serve(filename, outOfRange, outOfRangeResponse);
+
+        // Assert
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 5-9/20", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 5, 10), response.getContentAsByteArray());
+        assertEquals(416, outOfRangeResponse.getStatus());
+        assertEquals("bytes */20", outOfRangeResponse.getHeader("Content-Range"));
+    }
+
+    /**
+     * Tests that a current ETag is answered with 304, and that a container supporting sendfile is handed the file
+     * region instead of the bytes.
+     */
+    @Test
+    void serve_conditionalAndSendfile_noBodyWritten() throws IOException {
+        // Arrange
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/uploads/" + filename);
+        conditional.addHeader("If-None-Match", "\"" + contentHash + "\"");
+        MockHttpServletResponse conditionalResponse = new MockHttpServletResponse();
+        MockHttpServletRequest sendfile = new MockHttpServletRequest("GET", "/uploads/" + filename);
+        sendfile.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        sendfile.addHeader("Range", "bytes=-4");
+        MockHttpServletResponse sendfileResponse = new MockHttpServletResponse();
+
+        // Act
+        imageFileServer.serve(filename, conditional, conditionalResponse);
+        imageFileServer.serve(filename, sendfile, sendfileResponse);
+
+        // Assert
+        assertEquals(304, conditionalResponse.getStatus());
+        assertEquals(0, conditionalResponse.getContentAsByteArray().length);
+        assertEquals(206, sendfileResponse.getStatus());
+        assertEquals(imageStorage.find(filename).getLocalPath().toRealPath().toString(), sendfile.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(16L, sendfile.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(20L, sendfile.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(4, sendfileResponse.getContentLengthLong());
+        assertEquals(0, sendfileResponse.getContentAsByteArray().length);
+    }
+
+    /**
+     * Tests that a variant which has not been generated yet is stood in for by the original, without caching.
+     */
+    @Test
+    void serve_missingVariant_servesOriginalUncached() throws IOException {
+        // Arrange
+        Image image = new Image();
+        image.setFullPath(imageStorage.locate(filename));
+        when(imageRepository.findFirstByContentHash(contentHash)).thenReturn(Optional.of(image));
+        String variantFilename = ImageVariant.THUMBNAIL.filename(contentHash);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + variantFilename);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        imageFileServer.serve(variantFilename, request, response);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    /**
+     * Tests that a storage without local files has the requested range copied into the response.
+     */
+    @Test
+    void serve_inMemoryStorage_copiesRange() throws IOException {
+        // Arrange
+        InMemoryImageStorage memoryStorage = new InMemoryImageStorage();
+        memoryStorage.store(filename, new ByteArrayInputStream(content));
+        ImageFileServer memoryFileServer = new ImageFileServer(imageRepository, memoryStorage, imageByteCache, 31536000);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + filename);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        memoryFileServer.serve(filename, request, response);
+
+        // Assert
+        assertEquals(206, response.getStatus());
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertArrayEquals(Arrays.copyOfRange(content, 2, 6), response.getContentAsByteArray());
+    }
+
+    /**
+     * Tests that a cached file is served from memory, without the storage, until its deletion evicts it.
+     */
+    @Test
+    void serve_cachedFile_servedWithoutStorage() throws IOException {
+        // Arrange
+        ImageByteCache cache = new ImageByteCache(new SimpleMeterRegistry(), 1 << 20, 1 << 16, true);
+        ImageFileServer cachingFileServer = new ImageFileServer(imageRepository, imageStorage, cache, 31536000);
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        cachingFileServer.serve(filename, new MockHttpServletRequest("GET", "/uploads/" + filename), firstResponse);
+        Files.delete(imageStorage.find(filename).getLocalPath());
+        MockHttpServletRequest rangeRequest = new MockHttpServletRequest("GET", "/uploads/" + filename);
+        rangeRequest.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        rangeRequest.addHeader("Range", "bytes=10-");
+        MockHttpServletResponse rangeResponse = new MockHttpServletResponse();
+
+        // Act
+        cachingFileServer.serve(filename, rangeRequest, rangeResponse);
+        cache.invalidate(filename);
+
+        // Assert
+        assertArrayEquals(content, firstResponse.getContentAsByteArray());
+        assertEquals(206, rangeResponse.getStatus());
+        assertNull(rangeRequest.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), rangeResponse.getContentAsByteArray());
+        assertThrows(ImageFileNotFoundException.class, () -> cachingFileServer.serve(filename,
+                new MockHttpServletRequest("GET", "/uploads/" + filename), new MockHttpServletResponse()));
+    }
+
+    /**
+     * Tests that names leaving the upload directory and unknown files are not found.
+     */
+    @Test
+    void serve_unknownOrTraversingName_throwsImageFileNotFoundException() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act & Assert
+        assertThrows(ImageFileNotFoundException.class, () -> imageFileServer.serve("../secret.txt", request, response));
+        assertThrows(ImageFileNotFoundException.class, () -> imageFileServer.serve("..", request, response));
+        assertThrows(ImageFileNotFoundException.class, () -> imageFileServer.serve("missing.jpg", request, response));
+    }
+}
@@ -0,0 +1,135 @@
+package image.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.helpers.ContentAddressedFileUtil;
+import com.bist.backendmodule.modules.ChangeType;
+import com.bist.backendmodule.modules.image.ImageRepository;
+import com.bist.backendmodule.modules.image.events.ImageChangedEvent;
+import com.bist.backendmodule.modules.image.models.Image;
+import com.bist.backendmodule.modules.image.models.ImageVariant;
+import com.bist.backendmodule.modules.image.models.ImageVariantFile;
+import com.bist.backendmodule.modules.image.storage.InMemoryImageStorage;
+import com.bist.backendmodule.modules.image.variants.ImageVariantGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class ImageVariantGeneratorTest {
+    private ImageRepository imageRepository;
+    private InMemoryImageStorage imageStorage;
+    private ApplicationEventPublisher eventPublisher;
+    private ImageVariantGenerator imageVariantGenerator;
+
+    @BeforeEach
+    void setUp() {
+        imageRepository = mock(ImageRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        imageStorage = new InMemoryImageStorage();
+        imageVariantGenerator = new ImageVariantGenerator(imageRepository, eventPublisher, imageStorage, 1, 1, 0.8f);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantGenerator.shutdown();
+    }
+
+    /**
+     * Tests that every variant is stored within its maximum dimension and recorded on the image.
+     */
+    @Test
+    void generate_storedImage_writesAndRecordsVariants() throws IOException {
+        // Arrange
+        Image image = storedImage(1L);
+        when(imageRepository.findById(1L)).thenReturn(Optional.of(image));
+        when(imageRepository.updateVariants(eq(1L), eq(image.getContentHash()), anyMap())).thenReturn(1);
+
+        // Act
+        Map<String, ImageVariantFile> variants = imageVariantGenerator.generate(1L);
+
+        // Assert
+        assertNotNull(variants);
+        for (ImageVariant variant : ImageVariant.values()) {
+            ImageVariantFile file = variants.get(variant.getValue());
+            assertEquals(variant.filename(image.getContentHash()), file.getFilename());
+            BufferedImage written;
+            try (InputStream stored = imageStorage.open(file.getFilename())) {
+                written = ImageIO.read(stored);
+            }
+            assertEquals(file.getWidth(), written.getWidth());
+            assertEquals(imageStorage.find(file.getFilename()).getSize(), file.getSize());
+            assertTrue(Math.max(written.getWidth(), written.getHeight()) <= variant.getMaxDimension());
+        }
+        verify(eventPublisher, times(1)).publishEvent(any(ImageChangedEvent.class));
+        assertNull(imageVariantGenerator.generate(1L));         // The image now has its variants
+    }
+
+    /**
+     * Tests that images arriving while the queue is full are deferred and generated once the worker is free.
+     */
+    @Test
+    void onImageChanged_queueFull_defersWithoutLoss() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(imageRepository.findById(anyLong())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+
+        // Act
+        for (long id = 1; id <= 4; id++) {
+            imageVariantGenerator.onImageChanged(new ImageChangedEvent(ChangeType.CREATED, id, hashedImage(id)));
+        }
+        int deferredWhileBusy = imageVariantGenerator.getDeferredCount();
+        release.countDown();
+
+        // Assert
+        assertEquals(2, deferredWhileBusy);                     // One running, one queued
+        for (long id = 1; id <= 4; id++) {
+            verify(imageRepository, timeout(5000)).findById(id);
+        }
+        assertEquals(0, imageVariantGenerator.getDeferredCount());
+    }
+
+    private Image storedImage(Long id) throws IOException {
+        Path resourcePath = Paths.get("src/test/resources/test-image.jpg");
+        String contentHash;
+        try (InputStream inputStream = Files.newInputStream(resourcePath)) {
+            contentHash = ContentAddressedFileUtil.sha256(inputStream);
+        }
+        String key = ContentAddressedFileUtil.filename(contentHash, "test-image.jpg");
+        try (InputStream inputStream = Files.newInputStream(resourcePath)) {
+            imageStorage.store(key, inputStream);
+        }
+        Image image = hashedImage(id);
+        image.setContentHash(contentHash);
+        image.setFullPath(imageStorage.locate(key));
+        return image;
+    }
+
+    private Image hashedImage(Long id) {
+        Image image = new Image();
+        image.setId(id);
+        image.setFilename("test-image.jpg");
+        image.setContentHash("0".repeat(64));
+        return image;
+    }
+}
@@ -0,0 +1,126 @@
+package image.controller.tests;
+
+import com.bist.backendmodule.BackendModuleApplication;
+import com.bist.backendmodule.helpers.ContentAddressedFileUtil;
+import com.bist.backendmodule.modules.image.storage.ShardedFileSystemImageStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BackendModuleApplication.class)
+public class ShardedFileSystemImageStorageTest {
+    @TempDir
+    Path firstRoot;
+    @TempDir
+    Path secondRoot;
+
+    /**
+     * Tests that a content-addressed key is stored under the subdirectories of its first hex digits, once.
+     */
+    @Test
+    void store_hashedKey_storedInShardDirectories() throws IOException {
+        // Arrange
+        ShardedFileSystemImageStorage imageStorage = new ShardedFileSystemImageStorage(firstRoot.toString(), "");
+        String key = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.jpg";
+        byte[] content = "content".getBytes(StandardCharsets.US_ASCII);
+
+        // Act
+        boolean written = imageStorage.store(key, new ByteArrayInputStream(content));
+        boolean writtenAgain = imageStorage.store(key, new ByteArrayInputStream(new byte[]{1}));
+
+        // Assert
+        assertTrue(written);
+        assertFalse(writtenAgain);
+        Path expected = firstRoot.resolve("9f").resolve("86").resolve(key);
+        assertArrayEquals(content, Files.readAllBytes(expected));
+        assertEquals(expected.toAbsolutePath().toString(), imageStorage.locate(key));
+        assertEquals(content.length, imageStorage.find(key).getSize());
+        try (Stream<Path> files = Files.list(expected.getParent())) {
+            assertEquals(1, files.count());                     // No temporary file left behind
+        }
+    }
+
+    /**
+     * Tests that keys are spread over the volumes in proportion to their weights, and are found from any volume.
+     */
+    @Test
+    void store_weightedVolumes_spreadsKeysByWeight() throws IOException {
+        // Arrange
+        String roots = firstRoot + "=1," + secondRoot + "=3";
+        ShardedFileSystemImageStorage imageStorage = new ShardedFileSystemImageStorage("unused", roots);
+        int keyCount = 400;
+
+        // Act
+        for (int i = 0; i < keyCount; i++) {
+            imageStorage.store(key(i), new ByteArrayInputStream(new byte[]{(byte) i}));
+        }
+
+        // Assert
+        long firstCount = countFiles(firstRoot);
+        long secondCount = countFiles(secondRoot);
+        assertEquals(keyCount, firstCount + secondCount);
+        assertTrue(firstCount > keyCount / 8 && firstCount < keyCount * 3 / 8, "first volume holds " + firstCount);
+        ShardedFileSystemImageStorage reordered = new ShardedFileSystemImageStorage("unused", secondRoot + "," + firstRoot);
+        for (int i = 0; i < keyCount; i++) {
+            try (InputStream stored = reordered.open(key(i))) {
+                assertEquals((byte) i, (byte) stored.read());
+            }
+        }
+    }
+
+    /**
+     * Tests that files stored directly in the root before sharding are still found and deleted.
+     */
+    @Test
+    void find_legacyFlatFile_foundAndDeleted() throws IOException {
+        // Arrange
+        ShardedFileSystemImageStorage imageStorage = new ShardedFileSystemImageStorage(firstRoot.toString(), "");
+        String key = key(1);
+        Files.write(firstRoot.resolve(key), new byte[]{1, 2, 3});
+
+        // Act
+        long size = imageStorage.find(key).getSize();
+        boolean deleted = imageStorage.delete(key);
+
+        // Assert
+        assertEquals(3, size);
+        assertTrue(deleted);
+        assertNull(imageStorage.find(key));
+        assertFalse(Files.exists(firstRoot.resolve(key)));
+    }
+
+    /**
+     * Tests that keys which are not plain file names are rejected.
+     */
+    @Test
+    void store_invalidKey_throwsIllegalArgumentException() {
+        // Arrange
+        ShardedFileSystemImageStorage imageStorage = new ShardedFileSystemImageStorage(firstRoot.toString(), "");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> imageStorage.store("../escape.jpg", new ByteArrayInputStream(new byte[0])));
+        assertThrows(IllegalArgumentException.class, () -> imageStorage.find(".."));
+        assertThrows(IllegalArgumentException.class, () -> imageStorage.open("partial.jpg.tmp"));
+    }
+
+    private static String key(int index) throws IOException {
+        byte[] content = Integer.toString(index).getBytes(StandardCharsets.US_ASCII);
+        return ContentAddressedFileUtil.filename(ContentAddressedFileUtil.sha256(new ByteArrayInputStream(content)), "image.jpg");
+    }
+
+    private static long countFiles(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
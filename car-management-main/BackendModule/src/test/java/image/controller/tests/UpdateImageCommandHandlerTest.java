@@ -4,27 +4,36 @@ import com.bist.backendmodule.BackendModuleApplication;
 import com.bist.backendmodule.exceptions.FileEmptyException;
 import com.bist.backendmodule.exceptions.FileUploadException;
 import com.bist.backendmodule.exceptions.ImageNotFoundException;
+import com.bist.backendmodule.helpers.ContentAddressedFileUtil;
+import com.bist.backendmodule.modules.car.CarRepository;
+import com.bist.backendmodule.modules.car.models.Car;
 import com.bist.backendmodule.modules.image.ImageRepository;
 import com.bist.backendmodule.modules.image.command.handlers.UpdateImageCommandHandler;
 import com.bist.backendmodule.modules.image.models.Image;
 import com.bist.backendmodule.modules.image.models.UpdateImageCommand;
+import com.bist.backendmodule.modules.image.storage.ImageByteCache;
+import com.bist.backendmodule.modules.image.storage.InMemoryImageStorage;
 import com.bist.backendmodule.validations.ImageValidationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,9 +45,13 @@ public class UpdateImageCommandHandlerTest {
     private ImageRepository imageRepository;
     @Mock
     private ImageValidationService imageValidationService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CarRepository carRepository;
     @InjectMocks
     private UpdateImageCommandHandler updateImageCommandHandler;
-    private final String uploadDirectory = "src/main/resources/static/uploads/";
+    private InMemoryImageStorage imageStorage;
     private MockMultipartFile mockMultipartFile;
 
     /**
@@ -50,8 +63,9 @@ public class UpdateImageCommandHandlerTest {
         MockitoAnnotations.openMocks(this);
 
         // Initialize the command handler with the mock repository and validation service
-        updateImageCommandHandler = new UpdateImageCommandHandler(imageRepository, imageValidationService);
-        updateImageCommandHandler.setUploadDirectory(uploadDirectory);
+        imageStorage = new InMemoryImageStorage();
+        updateImageCommandHandler = new UpdateImageCommandHandler(imageRepository, imageValidationService, eventPublisher,
+                imageStorage, new ImageByteCache(new SimpleMeterRegistry(), 1 << 20, 1 << 18, false), carRepository);
 
         // Create a mock multipart file from a test resource
         Path resourcePath = Paths.get("src/test/resources/test-image.jpg");
@@ -61,9 +75,6 @@ public class UpdateImageCommandHandlerTest {
                 "image/jpeg",
                 Files.readAllBytes(resourcePath)
         );
-
-        // Ensure the upload directory exists
-        Files.createDirectories(Paths.get(uploadDirectory));
     }
 
 
@@ -72,16 +83,17 @@ public class UpdateImageCommandHandlerTest {
      * Ensures the image is found, updated, and saved in the repository.
      */
     @Test
-    void updateImage_validCommand_returnSuccess(){
+    void updateImage_validCommand_returnSuccess() throws IOException {
         // Arrange
         Long imageId = 1L;
         Image existingImage = new Image();
         existingImage.setId(imageId);
         existingImage.setFilename("oldImage.jpg");
-        existingImage.setFullPath(uploadDirectory + "oldImage.jpg");
+        existingImage.setFullPath(imageStorage.locate("oldImage.jpg"));
 
         String fileName = mockMultipartFile.getOriginalFilename();
-        Path filePath = Paths.get(uploadDirectory, fileName);
+        String contentHash = ContentAddressedFileUtil.sha256(mockMultipartFile.getInputStream());
+        String key = ContentAddressedFileUtil.filename(contentHash, fileName);
 
         when(imageRepository.findById(imageId)).thenReturn(Optional.of(existingImage));
         when(imageRepository.save(any(Image.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -95,13 +107,127 @@ public class UpdateImageCommandHandlerTest {
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
         assertEquals(fileName, responseEntity.getBody().getFilename());
-        assertEquals(filePath.toAbsolutePath().toString(), responseEntity.getBody().getFullPath());
+        assertEquals(imageStorage.locate(key), responseEntity.getBody().getFullPath());
+        assertNotNull(imageStorage.find(key));
+        assertEquals(contentHash, responseEntity.getBody().getContentHash());
 
         verify(imageRepository, times(1)).findById(imageId);
         verify(imageRepository, times(1)).save(any(Image.class));
         verify(imageValidationService, times(1)).validateImage(any(Image.class), any(BindingResult.class), any(Class.class));
     }
 
+    /**
+     * Test for updating an image to the content of another image.
+     * Ensures that, since content hashes are unique, the cars of the image move to the other image, which takes over
+     * the reference, and that the image and its file are released instead of saved.
+     */
+    @Test
+    void updateImage_contentOfOtherImage_movesToOtherImage() throws IOException {
+        // Arrange
+        Long imageId = 1L;
+        Image existingImage = new Image();
+        existingImage.setId(imageId);
+        existingImage.setFilename("oldImage.jpg");
+        existingImage.setContentHash("a".repeat(64));
+        existingImage.setFullPath(imageStorage.locate("oldImage.jpg"));
+        imageStorage.store("oldImage.jpg", new ByteArrayInputStream(new byte[]{1}));
+        Image otherImage = new Image();
+        otherImage.setId(2L);
+        Car car = new Car();
+        car.setId(7L);
+        car.setImage(existingImage);
+        String contentHash = ContentAddressedFileUtil.sha256(mockMultipartFile.getInputStream());
+
+        when(imageRepository.findById(imageId)).thenReturn(Optional.of(existingImage));
+        when(imageRepository.findFirstByContentHash(contentHash)).thenReturn(Optional.of(otherImage));
+        when(carRepository.findAllByImageId(imageId)).thenReturn(List.of(car));
+
+        // Act
+        ResponseEntity<Image> responseEntity = updateImageCommandHandler.execute(new UpdateImageCommand(imageId, mockMultipartFile), null);
+
+        // Assert
+        assertSame(otherImage, responseEntity.getBody());
+        assertSame(otherImage, car.getImage());
+        verify(imageRepository, times(1)).addReference(2L);
+        verify(carRepository, times(1)).save(car);
+        verify(imageRepository, times(1)).deleteById(imageId);
+        verify(imageRepository, never()).save(any(Image.class));
+        assertNull(imageStorage.find("oldImage.jpg"));
+    }
+
+    /**
+     * Test for updating an image shared by several uploads.
+     * Ensures that the shared image loses the updater's reference and stays unchanged for the other uploads,
+     * while a new image is created for the updated content.
+     */
+    @Test
+    void updateImage_sharedImage_createsImageForUpdater() throws IOException {
+        // Arrange
+        Long imageId = 1L;
+        Image sharedImage = new Image();
+        sharedImage.setId(imageId);
+        sharedImage.setFilename("shared.jpg");
+        sharedImage.setFullPath(imageStorage.locate("shared.jpg"));
+        sharedImage.setContentHash("a".repeat(64));
+        sharedImage.setReferenceCount(3);
+        String contentHash = ContentAddressedFileUtil.sha256(mockMultipartFile.getInputStream());
+        String key = ContentAddressedFileUtil.filename(contentHash, mockMultipartFile.getOriginalFilename());
+
+        when(imageRepository.findById(imageId)).thenReturn(Optional.of(sharedImage));
+        when(imageRepository.findFirstByContentHash(contentHash)).thenReturn(Optional.empty());
+        when(imageRepository.removeReference(imageId)).thenReturn(1);
+        when(imageRepository.save(any(Image.class))).thenAnswer(invocation -> {
+            Image saved = invocation.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+
+        // Act
+        ResponseEntity<Image> responseEntity = updateImageCommandHandler.execute(new UpdateImageCommand(imageId, mockMultipartFile), null);
+
+        // Assert
+        assertNotNull(responseEntity.getBody());
+        assertEquals(2L, responseEntity.getBody().getId());
+        assertEquals(contentHash, responseEntity.getBody().getContentHash());
+        assertNotNull(imageStorage.find(key));
+        assertEquals("shared.jpg", sharedImage.getFilename());
+        assertEquals("a".repeat(64), sharedImage.getContentHash());
+        verify(imageRepository, times(1)).removeReference(imageId);
+        verify(imageRepository, never()).save(sharedImage);
+        verify(imageRepository, never()).addReference(anyLong());
+    }
+
+    /**
+     * Test for updating a shared image to the content of another image.
+     * Ensures that the updater's reference moves to the other image without creating one.
+     */
+    @Test
+    void updateImage_sharedImageToKnownContent_movesReference() throws IOException {
+        // Arrange
+        Long imageId = 1L;
+        Image sharedImage = new Image();
+        sharedImage.setId(imageId);
+        sharedImage.setContentHash("a".repeat(64));
+        sharedImage.setReferenceCount(2);
+        Image otherImage = new Image();
+        otherImage.setId(5L);
+        String contentHash = ContentAddressedFileUtil.sha256(mockMultipartFile.getInputStream());
+
+        when(imageRepository.findById(imageId)).thenReturn(Optional.of(sharedImage));
+        when(imageRepository.findFirstByContentHash(contentHash)).thenReturn(Optional.of(otherImage));
+        when(imageRepository.removeReference(imageId)).thenReturn(1);
+
+        // Act
+        ResponseEntity<Image> responseEntity = updateImageCommandHandler.execute(new UpdateImageCommand(imageId, mockMultipartFile), null);
+
+        // Assert
+        assertNotNull(responseEntity.getBody());
+        assertEquals(5L, responseEntity.getBody().getId());
+        verify(imageRepository, times(1)).removeReference(imageId);
+        verify(imageRepository, times(1)).addReference(5L);
+        verify(imageRepository, never()).save(any(Image.class));
+    }
+
     /**
      * Test for updating an image with an invalid ID.
      * Ensures that an ImageNotFoundException is thrown.